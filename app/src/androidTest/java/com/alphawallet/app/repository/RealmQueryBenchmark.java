@@ -0,0 +1,183 @@
+package com.alphawallet.app.repository;
+
+import android.util.Log;
+
+import androidx.test.platform.app.InstrumentationRegistry;
+import androidx.test.runner.AndroidJUnit4;
+
+import com.alphawallet.app.repository.entity.RealmToken;
+import com.alphawallet.app.repository.entity.RealmTransaction;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.List;
+
+import io.realm.Realm;
+import io.realm.RealmConfiguration;
+import io.realm.RealmResults;
+import io.realm.Sort;
+
+import static com.alphawallet.app.repository.TokensRealmSource.ADDRESS_FORMAT;
+import static org.junit.Assert.assertEquals;
+
+/**
+ * Times the hot token and transaction queries against a 50k transaction fixture, comparing the
+ * composite key pattern scans with the indexed contractAddress/chainId/timeStamp columns.
+ * Realm needs its native library, so this runs on a device rather than as a plain JVM unit test.
+ */
+@RunWith(AndroidJUnit4.class)
+public class RealmQueryBenchmark
+{
+    private static final String TAG = "BENCH";
+    private static final int TX_COUNT = 50000;
+    private static final int TOKEN_COUNT = 500;
+    private static final int FETCH_LIMIT = 50;
+    private static final int RUNS = 20;
+    private static final String WALLET = "0xbc8dafeaca658ae0857c80d8aa6de4d487577c63";
+    private static final Integer[] CHAINS = { 1, 3, 4, 42, 100, 137 };
+    private static final List<Integer> FILTER = Arrays.asList(1, 100);
+
+    private Realm realm;
+
+    @Before
+    public void setUp()
+    {
+        Realm.init(InstrumentationRegistry.getInstrumentation().getTargetContext());
+        RealmConfiguration config = new RealmConfiguration.Builder()
+                .name("query-benchmark")
+                .inMemory()
+                .build();
+        realm = Realm.getInstance(config);
+
+        realm.executeTransaction(r -> {
+            for (int i = 0; i < TX_COUNT; i++)
+            {
+                RealmTransaction tx = r.createObject(RealmTransaction.class, String.format("0x%064x", i));
+                tx.setChainId(CHAINS[i % CHAINS.length]);
+                tx.setTimeStamp(1500000000L + i * 13L);
+                tx.setBlockNumber(String.valueOf(i));
+                tx.setFrom(WALLET);
+                tx.setTo(String.format("0x%040x", i % TOKEN_COUNT));
+            }
+
+            for (int i = 0; i < TOKEN_COUNT; i++)
+            {
+                int chainId = CHAINS[i % CHAINS.length];
+                String address = (i < CHAINS.length) ? WALLET : String.format("0x%040x", i);
+                String key = TokensRealmSource.databaseKey(chainId, address);
+                RealmToken token = r.createObject(RealmToken.class, key);
+                token.setContractAddress(TokensRealmSource.contractAddressFromKey(key));
+                token.setChainId(chainId);
+                token.setEnabled(i % 3 == 0);
+                token.setUpdateTime(i);
+            }
+        });
+    }
+
+    @After
+    public void tearDown()
+    {
+        if (realm != null) realm.close();
+    }
+
+    @Test
+    public void tokenMetasForUpdate()
+    {
+        long start = System.nanoTime();
+        int oldCount = 0;
+        for (int run = 0; run < RUNS; run++)
+        {
+            oldCount = 0;
+            RealmResults<RealmToken> items = realm.where(RealmToken.class)
+                    .sort("addedTime", Sort.ASCENDING)
+                    .beginGroup().equalTo("isEnabled", true).or().like("address", WALLET + "*").endGroup()
+                    .like("address", ADDRESS_FORMAT)
+                    .findAll();
+            for (RealmToken t : items)
+            {
+                if (FILTER.contains(t.getChainId())) oldCount++;
+            }
+        }
+        long oldTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int newCount = 0;
+        for (int run = 0; run < RUNS; run++)
+        {
+            newCount = realm.where(RealmToken.class)
+                    .sort("addedTime", Sort.ASCENDING)
+                    .beginGroup().equalTo("isEnabled", true).or().equalTo("contractAddress", WALLET).endGroup()
+                    .isNotNull("contractAddress")
+                    .in("chainId", FILTER.toArray(new Integer[0]))
+                    .findAll().size();
+        }
+        long newTime = System.nanoTime() - start;
+
+        report("Token metas", oldTime, newTime);
+        assertEquals(oldCount, newCount);
+    }
+
+    @Test
+    public void activityPage()
+    {
+        long fetchTime = 1500000000L + (TX_COUNT / 2) * 13L;
+
+        long start = System.nanoTime();
+        int oldCount = 0;
+        for (int run = 0; run < RUNS; run++)
+        {
+            oldCount = 0;
+            RealmResults<RealmTransaction> txs = realm.where(RealmTransaction.class)
+                    .sort("timeStamp", Sort.DESCENDING)
+                    .lessThan("timeStamp", fetchTime)
+                    .limit(FETCH_LIMIT * CHAINS.length)
+                    .findAll();
+            for (RealmTransaction tx : txs)
+            {
+                if (FILTER.contains(tx.getChainId()) && oldCount < FETCH_LIMIT) oldCount++;
+            }
+        }
+        long oldTime = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int newCount = 0;
+        for (int run = 0; run < RUNS; run++)
+        {
+            newCount = realm.where(RealmTransaction.class)
+                    .sort("timeStamp", Sort.DESCENDING)
+                    .in("chainId", FILTER.toArray(new Integer[0]))
+                    .lessThan("timeStamp", fetchTime)
+                    .limit(FETCH_LIMIT)
+                    .findAll().size();
+        }
+        long newTime = System.nanoTime() - start;
+
+        report("Activity page", oldTime, newTime);
+        assertEquals(oldCount, newCount);
+    }
+
+    @Test
+    public void chainActivity()
+    {
+        long start = System.nanoTime();
+        for (int run = 0; run < RUNS; run++)
+        {
+            realm.where(RealmTransaction.class)
+                    .sort("timeStamp", Sort.DESCENDING)
+                    .equalTo("chainId", 100)
+                    .findAll().size();
+        }
+        long indexedTime = System.nanoTime() - start;
+
+        Log.d(TAG, "Chain activity (indexed chainId): " + (indexedTime / RUNS / 1000) + "us per query");
+    }
+
+    private void report(String name, long oldTime, long newTime)
+    {
+        Log.d(TAG, name + ": pattern scan " + (oldTime / RUNS / 1000) + "us, indexed " + (newTime / RUNS / 1000) + "us per query");
+    }
+}
@@ -4,6 +4,8 @@ import android.app.Activity;
 import android.app.Application;
 import androidx.fragment.app.Fragment;
 import com.alphawallet.app.di.DaggerAppComponent;
+import com.alphawallet.app.util.DeferredStartup;
+import com.alphawallet.app.util.StartupTracer;
 import javax.inject.Inject;
 import dagger.android.AndroidInjector;
 import dagger.android.DispatchingAndroidInjector;
@@ -22,12 +24,16 @@ public class App extends Application implements HasActivityInjector, HasSupportF
 	@Override
 	public void onCreate() {
 		super.onCreate();
+		StartupTracer.appStart();
+		DeferredStartup.appStart();
+		StartupTracer.Span span = StartupTracer.begin("Realm.init and injection");
         Realm.init(this);
         DaggerAppComponent
 				.builder()
 				.application(this)
 				.build()
 				.inject(this);
+		span.end();
 
 		// enable pin code for the application
 //		LockManager<CustomPinActivity> lockManager = LockManager.getInstance();
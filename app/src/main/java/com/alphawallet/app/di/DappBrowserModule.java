@@ -7,6 +7,7 @@ import com.alphawallet.app.repository.EthereumNetworkRepositoryType;
 import com.alphawallet.app.repository.TransactionRepositoryType;
 import com.alphawallet.app.repository.WalletRepositoryType;
 import com.alphawallet.app.service.AssetDefinitionService;
+import com.alphawallet.app.service.BlockHeadTracker;
 import com.alphawallet.app.service.GasService2;
 import com.alphawallet.app.service.KeyService;
 import com.alphawallet.app.service.TokensService;
@@ -25,7 +26,8 @@ public class DappBrowserModule {
             TokensService tokensService,
             EthereumNetworkRepositoryType ethereumNetworkRepository,
             KeyService keyService,
-            GasService2 gasService) {
+            GasService2 gasService,
+            BlockHeadTracker blockHeadTracker) {
         return new DappBrowserViewModelFactory(
                 genericWalletInteract,
                 assetDefinitionService,
@@ -33,7 +35,8 @@ public class DappBrowserModule {
                 tokensService,
                 ethereumNetworkRepository,
                 keyService,
-                gasService);
+                gasService,
+                blockHeadTracker);
     }
 
     @Provides
@@ -24,19 +24,25 @@ import com.alphawallet.app.service.AlphaWalletService;
 import com.alphawallet.app.service.AnalyticsService;
 import com.alphawallet.app.service.AnalyticsServiceType;
 import com.alphawallet.app.service.AssetDefinitionService;
+import com.alphawallet.app.service.BlockHeadTracker;
+import com.alphawallet.app.service.EnsResolutionService;
+import com.alphawallet.app.service.GasOracle;
 import com.alphawallet.app.service.GasService;
 import com.alphawallet.app.service.GasService2;
 import com.alphawallet.app.service.KeyService;
 import com.alphawallet.app.service.KeystoreAccountService;
 import com.alphawallet.app.service.MarketQueueService;
+import com.alphawallet.app.service.NodeSubscriptionService;
 import com.alphawallet.app.service.NotificationService;
 import com.alphawallet.app.service.OpenseaService;
+import com.alphawallet.app.service.PortfolioService;
 import com.alphawallet.app.service.RealmManager;
 import com.alphawallet.app.service.TickerService;
 import com.alphawallet.app.service.TokensService;
 import com.alphawallet.app.service.TransactionsNetworkClient;
 import com.alphawallet.app.service.TransactionsNetworkClientType;
 import com.alphawallet.app.service.TransactionsService;
+import com.alphawallet.app.util.StartupTracer;
 import com.google.gson.Gson;
 
 import java.io.File;
@@ -54,20 +60,20 @@ public class RepositoriesModule {
 	@Singleton
 	@Provides
 	PreferenceRepositoryType providePreferenceRepository(Context context) {
-		return new SharedPreferenceRepository(context);
+		return StartupTracer.trace("SharedPreferenceRepository", () -> new SharedPreferenceRepository(context));
 	}
 
 	@Singleton
 	@Provides
     AccountKeystoreService provideAccountKeyStoreService(Context context, KeyService keyService) {
         File file = new File(context.getFilesDir(), KEYSTORE_FOLDER);
-		return new KeystoreAccountService(file, context.getFilesDir(), keyService);
+		return StartupTracer.trace("KeystoreAccountService", () -> new KeystoreAccountService(file, context.getFilesDir(), keyService));
 	}
 
 	@Singleton
     @Provides
 	TickerService provideTickerService(OkHttpClient httpClient, Gson gson, Context context, TokenLocalSource localSource) {
-		return new TickerService(httpClient, gson, context, localSource);
+		return StartupTracer.trace("TickerService", () -> new TickerService(httpClient, gson, context, localSource));
     }
 
 	@Singleton
@@ -75,7 +81,7 @@ public class RepositoriesModule {
 	EthereumNetworkRepositoryType provideEthereumNetworkRepository(
             PreferenceRepositoryType preferenceRepository,
 			Context context) {
-		return new EthereumNetworkRepository(preferenceRepository, context);
+		return StartupTracer.trace("EthereumNetworkRepository", () -> new EthereumNetworkRepository(preferenceRepository, context));
 	}
 
 	@Singleton
@@ -86,8 +92,8 @@ public class RepositoriesModule {
 			EthereumNetworkRepositoryType networkRepository,
 			WalletDataRealmSource walletDataRealmSource,
 			KeyService keyService) {
-		return new WalletRepository(
-		        preferenceRepositoryType, accountKeystoreService, networkRepository, walletDataRealmSource, keyService);
+		return StartupTracer.trace("WalletRepository", () -> new WalletRepository(
+		        preferenceRepositoryType, accountKeystoreService, networkRepository, walletDataRealmSource, keyService));
 	}
 
 	@Singleton
@@ -97,23 +103,23 @@ public class RepositoriesModule {
 			AccountKeystoreService accountKeystoreService,
             TransactionLocalSource inDiskCache,
 			TransactionsService transactionsService) {
-		return new TransactionRepository(
+		return StartupTracer.trace("TransactionRepository", () -> new TransactionRepository(
 				networkRepository,
 				accountKeystoreService,
 				inDiskCache,
-				transactionsService);
+				transactionsService));
 	}
 
 	@Singleton
 	@Provides
 	OnRampRepositoryType provideOnRampRepository(Context context, AnalyticsServiceType analyticsServiceType) {
-		return new OnRampRepository(context, analyticsServiceType);
+		return StartupTracer.trace("OnRampRepository", () -> new OnRampRepository(context, analyticsServiceType));
 	}
 
 	@Singleton
     @Provides
     TransactionLocalSource provideTransactionInDiskCache(RealmManager realmManager) {
-        return new TransactionsRealmCache(realmManager);
+        return StartupTracer.trace("TransactionsRealmCache", () -> new TransactionsRealmCache(realmManager));
     }
 
 	@Singleton
@@ -122,7 +128,7 @@ public class RepositoriesModule {
 			OkHttpClient httpClient,
 			Gson gson,
 			RealmManager realmManager) {
-		return new TransactionsNetworkClient(httpClient, gson, realmManager);
+		return StartupTracer.trace("TransactionsNetworkClient", () -> new TransactionsNetworkClient(httpClient, gson, realmManager));
 	}
 
 	@Singleton
@@ -133,24 +139,24 @@ public class RepositoriesModule {
 			OkHttpClient httpClient,
 			Context context,
 			TickerService tickerService) {
-	    return new TokenRepository(
+	    return StartupTracer.trace("TokenRepository", () -> new TokenRepository(
 	            ethereumNetworkRepository,
 				tokenLocalSource,
 				httpClient,
 				context,
-				tickerService);
+				tickerService));
     }
 
     @Singleton
     @Provides
     TokenLocalSource provideRealmTokenSource(RealmManager realmManager, EthereumNetworkRepositoryType ethereumNetworkRepository) {
-	    return new TokensRealmSource(realmManager, ethereumNetworkRepository);
+	    return StartupTracer.trace("TokensRealmSource", () -> new TokensRealmSource(realmManager, ethereumNetworkRepository));
     }
 
 	@Singleton
 	@Provides
 	WalletDataRealmSource provideRealmWalletDataSource(RealmManager realmManager) {
-		return new WalletDataRealmSource(realmManager);
+		return StartupTracer.trace("WalletDataRealmSource", () -> new WalletDataRealmSource(realmManager));
 	}
 
 	@Singleton
@@ -161,8 +167,9 @@ public class RepositoriesModule {
 									   Context context,
 									   TickerService tickerService,
 									   OpenseaService openseaService,
-									   AnalyticsServiceType analyticsService) {
-		return new TokensService(ethereumNetworkRepository, tokenRepository, preferenceRepository, context, tickerService, openseaService, analyticsService);
+									   AnalyticsServiceType analyticsService,
+									   BlockHeadTracker blockHeadTracker) {
+		return StartupTracer.trace("TokensService", () -> new TokensService(ethereumNetworkRepository, tokenRepository, preferenceRepository, context, tickerService, openseaService, analyticsService, blockHeadTracker));
 	}
 
 	@Singleton
@@ -170,33 +177,48 @@ public class RepositoriesModule {
 	TransactionsService provideTransactionsService(TokensService tokensService,
 												   EthereumNetworkRepositoryType ethereumNetworkRepositoryType,
 												   TransactionsNetworkClientType transactionsNetworkClientType,
-												   TransactionLocalSource transactionLocalSource) {
-		return new TransactionsService(tokensService, ethereumNetworkRepositoryType, transactionsNetworkClientType, transactionLocalSource);
+												   TransactionLocalSource transactionLocalSource,
+												   BlockHeadTracker blockHeadTracker,
+												   NodeSubscriptionService nodeSubscriptionService) {
+		return StartupTracer.trace("TransactionsService", () -> new TransactionsService(tokensService, ethereumNetworkRepositoryType, transactionsNetworkClientType, transactionLocalSource, blockHeadTracker, nodeSubscriptionService));
 	}
 
 	@Singleton
 	@Provides
 	GasService provideGasService(EthereumNetworkRepositoryType ethereumNetworkRepository) {
-		return new GasService(ethereumNetworkRepository);
+		return StartupTracer.trace("GasService", () -> new GasService(ethereumNetworkRepository));
 	}
 
 	@Singleton
 	@Provides
-	GasService2 provideGasService2(EthereumNetworkRepositoryType ethereumNetworkRepository, OkHttpClient client, RealmManager realmManager) {
-		return new GasService2(ethereumNetworkRepository, client, realmManager);
+	GasService2 provideGasService2(EthereumNetworkRepositoryType ethereumNetworkRepository, OkHttpClient client, RealmManager realmManager,
+								   BlockHeadTracker blockHeadTracker, GasOracle gasOracle) {
+		return StartupTracer.trace("GasService2", () -> new GasService2(ethereumNetworkRepository, client, realmManager, blockHeadTracker, gasOracle));
+	}
+
+	@Singleton
+	@Provides
+	PortfolioService providePortfolioService(EthereumNetworkRepositoryType ethereumNetworkRepository) {
+		return StartupTracer.trace("PortfolioService", () -> new PortfolioService(ethereumNetworkRepository));
+	}
+
+	@Singleton
+	@Provides
+	GasOracle provideGasOracle() {
+		return StartupTracer.trace("GasOracle", () -> new GasOracle());
 	}
 
 	@Singleton
 	@Provides
     MarketQueueService provideMarketQueueService(Context ctx, OkHttpClient okHttpClient,
                                                  TransactionRepositoryType transactionRepository) {
-		return new MarketQueueService(ctx, okHttpClient, transactionRepository);
+		return StartupTracer.trace("MarketQueueService", () -> new MarketQueueService(ctx, okHttpClient, transactionRepository));
 	}
 
 	@Singleton
 	@Provides
-    OpenseaService provideOpenseaService(Context ctx) {
-		return new OpenseaService(ctx);
+    OpenseaService provideOpenseaService(Context ctx, OkHttpClient okHttpClient) {
+		return StartupTracer.trace("OpenseaService", () -> new OpenseaService(ctx, okHttpClient));
 	}
 
 	@Singleton
@@ -204,32 +226,51 @@ public class RepositoriesModule {
     AlphaWalletService provideFeemasterService(OkHttpClient okHttpClient,
                                                TransactionRepositoryType transactionRepository,
                                                Gson gson) {
-		return new AlphaWalletService(okHttpClient, transactionRepository, gson);
+		return StartupTracer.trace("AlphaWalletService", () -> new AlphaWalletService(okHttpClient, transactionRepository, gson));
 	}
 
 	@Singleton
 	@Provides
     NotificationService provideNotificationService(Context ctx) {
-		return new NotificationService(ctx);
+		return StartupTracer.trace("NotificationService", () -> new NotificationService(ctx));
 	}
 
 	@Singleton
 	@Provides
     AssetDefinitionService provideAssetDefinitionService(OkHttpClient okHttpClient, Context ctx, NotificationService notificationService, RealmManager realmManager,
 														 EthereumNetworkRepositoryType ethereumNetworkRepository, TokensService tokensService,
-														 TokenLocalSource tls, TransactionRepositoryType trt, AlphaWalletService alphaService) {
-		return new AssetDefinitionService(okHttpClient, ctx, notificationService, realmManager, ethereumNetworkRepository, tokensService, tls, trt, alphaService);
+														 TokenLocalSource tls, TransactionRepositoryType trt, AlphaWalletService alphaService,
+														 BlockHeadTracker blockHeadTracker, NodeSubscriptionService nodeSubscriptionService) {
+		return StartupTracer.trace("AssetDefinitionService", () -> new AssetDefinitionService(okHttpClient, ctx, notificationService, realmManager, ethereumNetworkRepository, tokensService, tls, trt, alphaService, blockHeadTracker, nodeSubscriptionService));
 	}
 
 	@Singleton
 	@Provides
 	KeyService provideKeyService(Context ctx) {
-		return new KeyService(ctx);
+		return StartupTracer.trace("KeyService", () -> new KeyService(ctx));
 	}
 
 	@Singleton
 	@Provides
 	AnalyticsServiceType provideAnalyticsService(Context ctx) {
-		return new AnalyticsService(ctx);
+		return StartupTracer.trace("AnalyticsService", () -> new AnalyticsService(ctx));
+	}
+
+	@Singleton
+	@Provides
+	EnsResolutionService provideEnsResolutionService(Context ctx) {
+		return StartupTracer.trace("EnsResolutionService", () -> EnsResolutionService.getInstance(ctx));
+	}
+
+	@Singleton
+	@Provides
+	BlockHeadTracker provideBlockHeadTracker(NodeSubscriptionService nodeSubscriptionService) {
+		return StartupTracer.trace("BlockHeadTracker", () -> new BlockHeadTracker(nodeSubscriptionService));
+	}
+
+	@Singleton
+	@Provides
+	NodeSubscriptionService provideNodeSubscriptionService(OkHttpClient okHttpClient) {
+		return StartupTracer.trace("NodeSubscriptionService", () -> new NodeSubscriptionService(okHttpClient));
 	}
 }
@@ -4,6 +4,7 @@ import android.content.Context;
 
 import com.google.gson.Gson;
 import com.alphawallet.app.App;
+import com.alphawallet.app.service.OutboundRequestScheduler;
 import com.alphawallet.app.service.RealmManager;
 
 import java.util.concurrent.TimeUnit;
@@ -29,9 +30,16 @@ class ToolsModule {
 
 	@Singleton
 	@Provides
-	OkHttpClient okHttpClient() {
+	OutboundRequestScheduler provideOutboundRequestScheduler() {
+		return new OutboundRequestScheduler();
+	}
+
+	@Singleton
+	@Provides
+	OkHttpClient okHttpClient(OutboundRequestScheduler requestScheduler) {
 		return new OkHttpClient.Builder()
                 //.addInterceptor(new LogInterceptor())
+                .addInterceptor(requestScheduler)
                 .connectTimeout(10, TimeUnit.SECONDS)
                 .readTimeout(10, TimeUnit.SECONDS)
                 .writeTimeout(10, TimeUnit.SECONDS)
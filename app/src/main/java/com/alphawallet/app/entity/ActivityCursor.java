@@ -0,0 +1,32 @@
+package com.alphawallet.app.entity;
+
+/**
+ * Keyset position in the merged activity list, which is ordered by timestamp (newest first) then by row key.
+ * The row key is prefixed by its source so transactions and events with the same timestamp keep a stable order.
+ */
+public class ActivityCursor
+{
+    public static final ActivityCursor START = new ActivityCursor(Long.MAX_VALUE, "");
+
+    public final long timeStamp; //seconds
+    public final String key;
+
+    public ActivityCursor(long timeStamp, String key)
+    {
+        this.timeStamp = timeStamp;
+        this.key = key;
+    }
+
+    public boolean isStart()
+    {
+        return timeStamp == Long.MAX_VALUE;
+    }
+
+    /**
+     * @return true if a row with this position comes after the cursor in the activity list
+     */
+    public boolean precedes(long rowTime, String rowKey)
+    {
+        return rowTime < timeStamp || (rowTime == timeStamp && rowKey.compareTo(key) > 0);
+    }
+}
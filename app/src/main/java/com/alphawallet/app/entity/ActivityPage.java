@@ -0,0 +1,22 @@
+package com.alphawallet.app.entity;
+
+/**
+ * One page of the merged activity list; transactions are already expanded with their token transfers.
+ * The next cursor is null when there is nothing further in the database.
+ */
+public class ActivityPage
+{
+    public final ActivityMeta[] items;
+    public final ActivityCursor next;
+
+    public ActivityPage(ActivityMeta[] items, ActivityCursor next)
+    {
+        this.items = items;
+        this.next = next;
+    }
+
+    public boolean isLastPage()
+    {
+        return next == null;
+    }
+}
@@ -12,6 +12,7 @@ import com.alphawallet.app.util.Utils;
 import com.alphawallet.app.web3j.StructuredDataEncoder;
 import com.alphawallet.token.entity.CryptoFunctionsInterface;
 import com.alphawallet.token.entity.ProviderTypedData;
+import com.alphawallet.token.tools.SignatureRecovery;
 
 import wallet.core.jni.Hash;
 
@@ -32,9 +33,8 @@ public class CryptoFunctions implements CryptoFunctionsInterface
     @Override
     public BigInteger signedMessageToKey(byte[] data, byte[] signature) throws SignatureException
     {
-        Sign.SignatureData sigData = sigFromByteArray(signature);
-        if (sigData == null) return BigInteger.ZERO;
-        return Sign.signedMessageToKey(data, sigData);
+        if (signature.length < 64 || signature.length > 65) return BigInteger.ZERO;
+        return SignatureRecovery.recoverPublicKey(data, signature);
     }
 
     @Override
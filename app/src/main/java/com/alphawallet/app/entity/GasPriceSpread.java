@@ -69,6 +69,15 @@ public class GasPriceSpread
         timeStamp = System.currentTimeMillis();
     }
 
+    public GasPriceSpread(BigInteger r, BigInteger f, BigInteger st, BigInteger sl)
+    {
+        rapid = r;
+        fast = f;
+        standard = st;
+        slow = sl;
+        timeStamp = System.currentTimeMillis();
+    }
+
     public GasPriceSpread(String r, String f, String st, String sl, long timeSt)
     {
         rapid = new BigInteger(r);
@@ -3,6 +3,7 @@ package com.alphawallet.app.entity;
 public class NetworkInfo extends com.alphawallet.ethereum.NetworkInfo {
     public String backupNodeUrl = null;
     public String etherscanTxUrl = null; //This is used by the API call to fetch transactions
+    public String webSocketUrl = null; //Optional node endpoint for eth_subscribe; HTTP polling is used when this is null or the socket is down
 
     public NetworkInfo(
             String name,
@@ -12,9 +13,22 @@ public class NetworkInfo extends com.alphawallet.ethereum.NetworkInfo {
             int chainId,
             String backupNodeUrl,
             String etherscanTxUrl) {
+        this(name, symbol, rpcServerUrl, etherscanUrl, chainId, backupNodeUrl, etherscanTxUrl, null);
+    }
+
+    public NetworkInfo(
+            String name,
+            String symbol,
+            String rpcServerUrl,
+            String etherscanUrl,
+            int chainId,
+            String backupNodeUrl,
+            String etherscanTxUrl,
+            String webSocketUrl) {
         super(name, symbol, rpcServerUrl, etherscanUrl, chainId);
         this.backupNodeUrl = backupNodeUrl;
         this.etherscanTxUrl = etherscanTxUrl;
+        this.webSocketUrl = webSocketUrl;
     }
 
     public String getShortName()
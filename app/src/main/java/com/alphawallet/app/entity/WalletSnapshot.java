@@ -0,0 +1,36 @@
+package com.alphawallet.app.entity;
+
+import java.math.BigDecimal;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Lightweight view of a wallet which isn't necessarily the active one: its native balance on each chain.
+ */
+public class WalletSnapshot
+{
+    public final String address;
+    public final long updateTime;
+    private final Map<Integer, BigDecimal> balances; //native balance in wei, by chainId
+
+    public WalletSnapshot(String address, Map<Integer, BigDecimal> balances)
+    {
+        this.address = address;
+        this.balances = Collections.unmodifiableMap(balances);
+        this.updateTime = System.currentTimeMillis();
+    }
+
+    /**
+     * @return balance in wei, or -1 if the chain hasn't been fetched for this wallet
+     */
+    public BigDecimal getBalance(int chainId)
+    {
+        BigDecimal balance = balances.get(chainId);
+        return balance != null ? balance : BigDecimal.valueOf(-1);
+    }
+
+    public Map<Integer, BigDecimal> getBalances()
+    {
+        return balances;
+    }
+}
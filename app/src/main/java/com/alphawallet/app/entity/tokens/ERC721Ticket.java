@@ -14,7 +14,6 @@ import com.alphawallet.app.entity.opensea.Asset;
 import com.alphawallet.app.repository.entity.RealmToken;
 import com.alphawallet.app.service.AssetDefinitionService;
 import com.alphawallet.app.util.BalanceUtils;
-import com.alphawallet.app.util.Utils;
 import com.alphawallet.app.viewmodel.BaseViewModel;
 import com.alphawallet.token.entity.TicketRange;
 
@@ -30,34 +29,29 @@ import java.util.List;
 
 public class ERC721Ticket extends Token implements Parcelable {
 
-    private final List<BigInteger> balanceArray;
+    private PackedTokenIds balanceIds;
     private boolean isMatchedInXML = false;
 
     public ERC721Ticket(TokenInfo tokenInfo, List<BigInteger> balances, long blancaTime, String networkName, ContractType type) {
         super(tokenInfo, BigDecimal.ZERO, blancaTime, networkName, type);
-        this.balanceArray = balances;
+        this.balanceIds = PackedTokenIds.of(balances);
     }
 
     public ERC721Ticket(TokenInfo tokenInfo, String balances, long blancaTime, String networkName, ContractType type) {
         super(tokenInfo, BigDecimal.ZERO, blancaTime, networkName, type);
-        this.balanceArray = stringHexToBigIntegerList(balances);
+        this.balanceIds = PackedTokenIds.fromHexList(balances);
+    }
+
+    public ERC721Ticket(TokenInfo tokenInfo, PackedTokenIds balances, long blancaTime, String networkName, ContractType type) {
+        super(tokenInfo, BigDecimal.ZERO, blancaTime, networkName, type);
+        this.balanceIds = balances;
     }
 
     private ERC721Ticket(Parcel in) {
         super(in);
-        balanceArray = new ArrayList<>();
-        int objSize = in.readInt();
         int interfaceOrdinal = in.readInt();
         contractType = ContractType.values()[interfaceOrdinal];
-        if (objSize > 0)
-        {
-            Object[] readObjArray = in.readArray(Object.class.getClassLoader());
-            for (Object o : readObjArray)
-            {
-                BigInteger val = (BigInteger)o;
-                balanceArray.add(val);
-            }
-        }
+        balanceIds = PackedTokenIds.fromBytes(in.createByteArray());
     }
 
     public static final Creator<ERC721Ticket> CREATOR = new Creator<ERC721Ticket>() {
@@ -84,16 +78,14 @@ public class ERC721Ticket extends Token implements Parcelable {
 
     @Override
     public String getFullBalance() {
-        if (balanceArray == null) return "no tokens";
-        else return Utils.bigIntListToString(balanceArray, true);
+        return balanceIds.toHexList();
     }
 
     @Override
     public void writeToParcel(Parcel dest, int flags) {
         super.writeToParcel(dest, flags);
-        dest.writeInt(balanceArray.size());
         dest.writeInt(contractType.ordinal());
-        if (balanceArray.size() > 0) dest.writeArray(balanceArray.toArray());
+        dest.writeByteArray(balanceIds.toBytes());
     }
 
     /**
@@ -119,21 +111,25 @@ public class ERC721Ticket extends Token implements Parcelable {
     @Override
     public int getTicketCount()
     {
-        int count = 0;
-        if (balanceArray != null)
-        {
-            for (BigInteger id : balanceArray)
-            {
-                if (id.compareTo(BigInteger.ZERO) != 0) count++;
-            }
-        }
-        return count;
+        return balanceIds.nonZeroCount();
     }
 
     @Override
     public void setRealmBalance(RealmToken realmToken)
     {
-        realmToken.setBalance(Utils.bigIntListToString(balanceArray, true));
+        realmToken.setTokenIds(balanceIds.toBytes());
+        realmToken.setBalance(String.valueOf(getTicketCount()));
+    }
+
+    @Override
+    protected boolean realmBalanceChanged(RealmToken realmToken)
+    {
+        return !balanceIds.equals(PackedTokenIds.fromBytes(realmToken.getTokenIds()));
+    }
+
+    public PackedTokenIds getTokenIds()
+    {
+        return balanceIds;
     }
 
     @Override
@@ -199,7 +195,7 @@ public class ERC721Ticket extends Token implements Parcelable {
     @Override
     public BigInteger getTokenID(int index)
     {
-        if (balanceArray.size() > index && index >= 0) return balanceArray.get(index);
+        if (balanceIds.size() > index && index >= 0) return balanceIds.get(index);
         else return BigInteger.valueOf(-1);
     }
 
@@ -215,9 +211,7 @@ public class ERC721Ticket extends Token implements Parcelable {
     @Override
     public List<BigInteger> getNonZeroArrayBalance()
     {
-        List<BigInteger> nonZeroValues = new ArrayList<>();
-        for (BigInteger value : balanceArray) if (value.compareTo(BigInteger.ZERO) != 0 && !nonZeroValues.contains(value)) nonZeroValues.add(value);
-        return nonZeroValues;
+        return balanceIds.difference(PackedTokenIds.EMPTY).toList();
     }
 
     @Override
@@ -250,7 +244,7 @@ public class ERC721Ticket extends Token implements Parcelable {
         try
         {
             BigInteger tokenIdBI = new BigInteger(asset.getTokenId());
-            balanceArray.add(tokenIdBI);
+            balanceIds = balanceIds.append(tokenIdBI);
         }
         catch (NumberFormatException e)
         {
@@ -0,0 +1,355 @@
+package com.alphawallet.app.entity.tokens;
+
+import java.math.BigInteger;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Compact, immutable list of ticket token IDs. When every ID fits in 63 bits the list is a packed long[], otherwise
+ * each ID is a 32 byte big-endian word in one byte[]. There's no object per ID, and {@link #toBytes()} is the form
+ * stored in the RealmToken tokenIds column.
+ *
+ * Order and duplicates are kept as they come from the contract: ERC875 transfers refer to tickets by index, and
+ * spent tickets remain in the balance as zero entries.
+ */
+public final class PackedTokenIds implements Iterable<BigInteger>
+{
+    private static final byte FORMAT_LONG = 1;
+    private static final byte FORMAT_WORD = 2;
+    private static final int WORD_SIZE = 32;
+
+    public static final PackedTokenIds EMPTY = new PackedTokenIds(new long[0], null, 0);
+
+    private final long[] longIds;  //set when all IDs fit in a long
+    private final byte[] wordIds;  //otherwise, 32 byte words
+    private final int size;
+
+    private PackedTokenIds(long[] longIds, byte[] wordIds, int size)
+    {
+        this.longIds = longIds;
+        this.wordIds = wordIds;
+        this.size = size;
+    }
+
+    public static PackedTokenIds of(List<BigInteger> ids)
+    {
+        if (ids == null || ids.isEmpty()) return EMPTY;
+
+        boolean fitsLong = true;
+        for (BigInteger id : ids)
+        {
+            if (!fitsLong(id))
+            {
+                fitsLong = false;
+                break;
+            }
+        }
+
+        if (fitsLong)
+        {
+            long[] packed = new long[ids.size()];
+            for (int i = 0; i < packed.length; i++) packed[i] = ids.get(i).longValue();
+            return new PackedTokenIds(packed, null, packed.length);
+        }
+
+        byte[] words = new byte[ids.size() * WORD_SIZE];
+        for (int i = 0; i < ids.size(); i++) writeWord(words, i, ids.get(i));
+        return new PackedTokenIds(null, words, ids.size());
+    }
+
+    /**
+     * Parse the legacy comma separated hex format, as previously stored in RealmToken.balance
+     * @return the IDs, or empty if the list can't be parsed
+     */
+    public static PackedTokenIds fromHexList(String hexList)
+    {
+        if (hexList == null || hexList.trim().length() == 0) return EMPTY;
+
+        String[] items = hexList.split(",");
+        long[] packed = new long[items.length];
+        try
+        {
+            for (int i = 0; i < items.length; i++)
+            {
+                String hex = stripHexPrefix(items[i].trim());
+                if (hex.length() > 15) return fromHexListSlow(items); //may not fit in 63 bits
+                packed[i] = Long.parseLong(hex, 16);
+            }
+        }
+        catch (NumberFormatException e)
+        {
+            return EMPTY;
+        }
+
+        return new PackedTokenIds(packed, null, packed.length);
+    }
+
+    private static PackedTokenIds fromHexListSlow(String[] items)
+    {
+        List<BigInteger> ids = new ArrayList<>(items.length);
+        for (String item : items) ids.add(new BigInteger(stripHexPrefix(item.trim()), 16));
+        return of(ids);
+    }
+
+    /**
+     * @param blob value from {@link #toBytes()}; null or empty gives an empty list
+     */
+    public static PackedTokenIds fromBytes(byte[] blob)
+    {
+        if (blob == null || blob.length <= 1) return EMPTY;
+
+        switch (blob[0])
+        {
+            case FORMAT_LONG:
+                long[] packed = new long[(blob.length - 1) / 8];
+                ByteBuffer.wrap(blob, 1, packed.length * 8).asLongBuffer().get(packed);
+                return new PackedTokenIds(packed, null, packed.length);
+            case FORMAT_WORD:
+                int count = (blob.length - 1) / WORD_SIZE;
+                return new PackedTokenIds(null, Arrays.copyOfRange(blob, 1, 1 + count * WORD_SIZE), count);
+            default:
+                return EMPTY;
+        }
+    }
+
+    public byte[] toBytes()
+    {
+        if (longIds != null)
+        {
+            ByteBuffer buffer = ByteBuffer.allocate(1 + size * 8);
+            buffer.put(FORMAT_LONG);
+            buffer.asLongBuffer().put(longIds);
+            return buffer.array();
+        }
+        else
+        {
+            byte[] blob = new byte[1 + wordIds.length];
+            blob[0] = FORMAT_WORD;
+            System.arraycopy(wordIds, 0, blob, 1, wordIds.length);
+            return blob;
+        }
+    }
+
+    public int size()
+    {
+        return size;
+    }
+
+    public BigInteger get(int index)
+    {
+        if (index < 0 || index >= size) throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+        if (longIds != null) return BigInteger.valueOf(longIds[index]);
+        else return new BigInteger(1, Arrays.copyOfRange(wordIds, index * WORD_SIZE, (index + 1) * WORD_SIZE));
+    }
+
+    public boolean isZero(int index)
+    {
+        if (longIds != null) return longIds[index] == 0;
+        int offset = index * WORD_SIZE;
+        for (int i = offset; i < offset + WORD_SIZE; i++)
+        {
+            if (wordIds[i] != 0) return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return number of entries which aren't zero, ie the held ticket count
+     */
+    public int nonZeroCount()
+    {
+        int count = 0;
+        for (int i = 0; i < size; i++)
+        {
+            if (!isZero(i)) count++;
+        }
+        return count;
+    }
+
+    public int indexOf(BigInteger id)
+    {
+        if (longIds != null)
+        {
+            if (!fitsLong(id)) return -1;
+            long value = id.longValue();
+            for (int i = 0; i < size; i++)
+            {
+                if (longIds[i] == value) return i;
+            }
+        }
+        else
+        {
+            byte[] word = new byte[WORD_SIZE];
+            writeWord(word, 0, id);
+            for (int i = 0; i < size; i++)
+            {
+                if (ByteBuffer.wrap(wordIds, i * WORD_SIZE, WORD_SIZE).equals(ByteBuffer.wrap(word))) return i;
+            }
+        }
+        return -1;
+    }
+
+    public boolean contains(BigInteger id)
+    {
+        return indexOf(id) >= 0;
+    }
+
+    /**
+     * @return distinct non-zero IDs in this list which are not in the other, in the order they appear here
+     */
+    public PackedTokenIds difference(PackedTokenIds other)
+    {
+        if (longIds != null && other.longIds != null)
+        {
+            long[] otherSorted = Arrays.copyOf(other.longIds, other.size);
+            Arrays.sort(otherSorted);
+            long[] result = new long[size];
+            int count = 0;
+            Set<Long> added = new HashSet<>();
+            for (long id : longIds)
+            {
+                if (id != 0 && Arrays.binarySearch(otherSorted, id) < 0 && added.add(id)) result[count++] = id;
+            }
+            return count == 0 ? EMPTY : new PackedTokenIds(Arrays.copyOf(result, count), null, count);
+        }
+
+        //at least one side has large IDs; compare as words, without copying the backing arrays
+        byte[] thisWords = asWords();
+        byte[] otherWords = other.asWords();
+        Set<ByteBuffer> otherSet = new HashSet<>();
+        for (int i = 0; i < other.size; i++) otherSet.add(ByteBuffer.wrap(otherWords, i * WORD_SIZE, WORD_SIZE).slice());
+
+        List<BigInteger> result = new ArrayList<>();
+        Set<ByteBuffer> added = new HashSet<>();
+        for (int i = 0; i < size; i++)
+        {
+            if (isZero(i)) continue;
+            ByteBuffer word = ByteBuffer.wrap(thisWords, i * WORD_SIZE, WORD_SIZE).slice();
+            if (!otherSet.contains(word) && added.add(word)) result.add(new BigInteger(1, Arrays.copyOfRange(thisWords, i * WORD_SIZE, (i + 1) * WORD_SIZE)));
+        }
+        return of(result);
+    }
+
+    public PackedTokenIds append(BigInteger id)
+    {
+        if (longIds != null && fitsLong(id))
+        {
+            long[] packed = Arrays.copyOf(longIds, size + 1);
+            packed[size] = id.longValue();
+            return new PackedTokenIds(packed, null, size + 1);
+        }
+
+        byte[] words = Arrays.copyOf(asWords(), (size + 1) * WORD_SIZE);
+        writeWord(words, size, id);
+        return new PackedTokenIds(null, words, size + 1);
+    }
+
+    public List<BigInteger> toList()
+    {
+        List<BigInteger> ids = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) ids.add(get(i));
+        return ids;
+    }
+
+    /**
+     * @return comma separated hex, matching Utils.bigIntListToString(ids, true)
+     */
+    public String toHexList()
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < size; i++)
+        {
+            if (i > 0) sb.append(",");
+            if (longIds != null) sb.append(Long.toHexString(longIds[i]));
+            else sb.append(get(i).toString(16));
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public Iterator<BigInteger> iterator()
+    {
+        return new Iterator<BigInteger>()
+        {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext()
+            {
+                return index < size;
+            }
+
+            @Override
+            public BigInteger next()
+            {
+                if (index >= size) throw new NoSuchElementException();
+                return get(index++);
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o)
+    {
+        if (this == o) return true;
+        if (!(o instanceof PackedTokenIds)) return false;
+        PackedTokenIds other = (PackedTokenIds) o;
+        if (size != other.size) return false;
+        if (longIds != null && other.longIds != null) return Arrays.equals(longIds, other.longIds);
+        return Arrays.equals(asWords(), other.asWords());
+    }
+
+    /**
+     * Hashes each ID by value, so a word list holding only small IDs hashes the same as the equal long list
+     */
+    @Override
+    public int hashCode()
+    {
+        int hash = 1;
+        for (int i = 0; i < size; i++) hash = 31 * hash + idHash(i);
+        return hash;
+    }
+
+    private int idHash(int index)
+    {
+        if (longIds != null) return Long.hashCode(longIds[index]);
+
+        int offset = index * WORD_SIZE;
+        int longOffset = offset + WORD_SIZE - 8;
+        boolean fitsLong = wordIds[longOffset] >= 0;
+        for (int i = offset; i < longOffset && fitsLong; i++) fitsLong = wordIds[i] == 0;
+        if (fitsLong) return Long.hashCode(ByteBuffer.wrap(wordIds, longOffset, 8).getLong());
+        return Arrays.hashCode(Arrays.copyOfRange(wordIds, offset, offset + WORD_SIZE));
+    }
+
+    private byte[] asWords()
+    {
+        if (wordIds != null) return wordIds;
+        byte[] words = new byte[size * WORD_SIZE];
+        for (int i = 0; i < size; i++) ByteBuffer.wrap(words, (i + 1) * WORD_SIZE - 8, 8).putLong(longIds[i]);
+        return words;
+    }
+
+    private static boolean fitsLong(BigInteger id)
+    {
+        return id.signum() >= 0 && id.bitLength() < 64;
+    }
+
+    private static void writeWord(byte[] words, int index, BigInteger id)
+    {
+        byte[] raw = id.toByteArray(); //may have a leading sign byte
+        int length = Math.min(raw.length, WORD_SIZE);
+        System.arraycopy(raw, raw.length - length, words, (index + 1) * WORD_SIZE - length, length);
+    }
+
+    private static String stripHexPrefix(String hex)
+    {
+        return hex.startsWith("0x") || hex.startsWith("0X") ? hex.substring(2) : hex;
+    }
+}
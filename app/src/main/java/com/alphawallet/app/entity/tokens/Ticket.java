@@ -26,8 +26,9 @@ import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 /**
  * Created by James on 27/01/2018.  It might seem counter intuitive
@@ -41,34 +42,30 @@ import java.util.List;
 
 public class Ticket extends Token implements Parcelable
 {
-    private final List<BigInteger> balanceArray;
+    private final PackedTokenIds balanceIds;
+    private TicketGroupIndex groupIndex;
     private boolean isMatchedInXML = false;
 
     public Ticket(TokenInfo tokenInfo, List<BigInteger> balances, long blancaTime, String networkName, ContractType type) {
         super(tokenInfo, BigDecimal.ZERO, blancaTime, networkName, type);
-        this.balanceArray = balances;
+        this.balanceIds = PackedTokenIds.of(balances);
     }
 
     public Ticket(TokenInfo tokenInfo, String balances, long blancaTime, String networkName, ContractType type) {
         super(tokenInfo, BigDecimal.ZERO, blancaTime, networkName, type);
-        this.balanceArray = stringHexToBigIntegerList(balances);
+        this.balanceIds = PackedTokenIds.fromHexList(balances);
+    }
+
+    public Ticket(TokenInfo tokenInfo, PackedTokenIds balances, long blancaTime, String networkName, ContractType type) {
+        super(tokenInfo, BigDecimal.ZERO, blancaTime, networkName, type);
+        this.balanceIds = balances;
     }
 
     private Ticket(Parcel in) {
         super(in);
-        balanceArray = new ArrayList<>();
-        int objSize = in.readInt();
         int interfaceOrdinal = in.readInt();
         contractType = ContractType.values()[interfaceOrdinal];
-        if (objSize > 0)
-        {
-            Object[] readObjArray = in.readArray(Object.class.getClassLoader());
-            for (Object o : readObjArray)
-            {
-                BigInteger val = (BigInteger)o;
-                balanceArray.add(val);
-            }
-        }
+        balanceIds = PackedTokenIds.fromBytes(in.createByteArray());
     }
 
     @Override
@@ -83,8 +80,7 @@ public class Ticket extends Token implements Parcelable
 
     @Override
     public String getFullBalance() {
-        if (balanceArray == null) return "no tokens";
-        else return Utils.bigIntListToString(balanceArray, true);
+        return balanceIds.toHexList();
     }
 
     public static final Creator<Ticket> CREATOR = new Creator<Ticket>() {
@@ -102,9 +98,8 @@ public class Ticket extends Token implements Parcelable
     @Override
     public void writeToParcel(Parcel dest, int flags) {
         super.writeToParcel(dest, flags);
-        dest.writeInt(balanceArray.size());
         dest.writeInt(contractType.ordinal());
-        if (balanceArray.size() > 0) dest.writeArray(balanceArray.toArray());
+        dest.writeByteArray(balanceIds.toBytes());
     }
 
     /**
@@ -114,15 +109,24 @@ public class Ticket extends Token implements Parcelable
      */
     public List<BigInteger> pruneIDList(String idListStr, int quantity)
     {
-        //convert to list
-        List<BigInteger> idList = stringHexToBigIntegerList(idListStr);
-        /* weiwu: potentially we can do this but I am not sure if
-         * order is important*/
-        //List<BigInteger> idList = Observable.fromArray(idListStr.split(","))
-        //       .map(s -> Numeric.toBigInt(s)).toList().blockingGet();
-        if (quantity >= idList.size()) return idList;
+        //take tickets a group at a time from the index, in the order the list names the groups; stop parsing once
+        //there are enough
+        TicketGroupIndex index = getGroupIndex();
         List<BigInteger> pruneList = new ArrayList<>();
-        for (int i = 0; i < quantity; i++) pruneList.add(idList.get(i));
+        Set<BigInteger> taken = new HashSet<>();
+        try
+        {
+            for (String id : idListStr.split(","))
+            {
+                if (pruneList.size() >= quantity) break;
+                BigInteger tokenId = Numeric.toBigInt(id.trim());
+                if (taken.add(tokenId)) pruneList.addAll(index.select(tokenId, quantity - pruneList.size()));
+            }
+        }
+        catch (Exception e)
+        {
+            pruneList.clear();
+        }
 
         return pruneList;
     }
@@ -130,21 +134,39 @@ public class Ticket extends Token implements Parcelable
     @Override
     public int getTicketCount()
     {
-        int count = 0;
-        if (balanceArray != null)
-        {
-            for (BigInteger id : balanceArray)
-            {
-                if (id.compareTo(BigInteger.ZERO) != 0) count++;
-            }
-        }
-        return count;
+        return balanceIds.nonZeroCount();
     }
 
     @Override
     public void setRealmBalance(RealmToken realmToken)
     {
-        realmToken.setBalance(Utils.bigIntListToString(balanceArray, true));
+        realmToken.setTokenIds(balanceIds.toBytes());
+        realmToken.setBalance(String.valueOf(getTicketCount()));
+    }
+
+    @Override
+    protected boolean realmBalanceChanged(RealmToken realmToken)
+    {
+        return !balanceIds.equals(PackedTokenIds.fromBytes(realmToken.getTokenIds()));
+    }
+
+    public PackedTokenIds getTokenIds()
+    {
+        return balanceIds;
+    }
+
+    /**
+     * @return index of the holding grouped by token ID; built on first use
+     */
+    public TicketGroupIndex getGroupIndex()
+    {
+        TicketGroupIndex index = groupIndex;
+        if (index == null)
+        {
+            index = TicketGroupIndex.build(balanceIds);
+            groupIndex = index; //immutable, so a racing rebuild is harmless
+        }
+        return index;
     }
 
     @Override
@@ -169,13 +191,8 @@ public class Ticket extends Token implements Parcelable
     @Override
     public int[] getTicketIndices(String ticketIds)
     {
-        List<BigInteger> indexList = ticketIdStringToIndexList(ticketIds);
-        int[] indicies = new int[indexList.size()];
-        int i = 0;
-        for (Iterator<BigInteger> iterator = indexList.iterator(); iterator.hasNext(); i++) {
-            indicies[i] = iterator.next().intValue();
-        }
-        return indicies;
+        int[] indices = getGroupIndex().indicesFor(stringHexToBigIntegerList(ticketIds));
+        return indices != null ? indices : new int[0];
     }
 
     /*************************************
@@ -192,34 +209,17 @@ public class Ticket extends Token implements Parcelable
      */
     public List<BigInteger> ticketIdListToIndexList(List<BigInteger> ticketIds)
     {
-        //read given indicies and convert into internal format, error checking to ensure
+        //read given indicies and convert into internal format; repeats of an ID refer to the same ticket here
+        TicketGroupIndex index = getGroupIndex();
         List<BigInteger> idList = new ArrayList<>();
+        Set<Integer> added = new HashSet<>();
 
-        try
+        for (BigInteger id : ticketIds)
         {
-            for (BigInteger id : ticketIds)
-            {
-                if (id.compareTo(BigInteger.ZERO) != 0)
-                {
-                    int index = balanceArray.indexOf(id);
-                    if (index > -1)
-                    {
-                        if (!idList.contains(BigInteger.valueOf(index))) //just make sure they didn't already add this one
-                        {
-                            idList.add(BigInteger.valueOf(index));
-                        }
-                    }
-                    else
-                    {
-                        idList = null;
-                        break;
-                    }
-                }
-            }
-        }
-        catch (Exception e)
-        {
-            idList = null;
+            if (id.signum() == 0) continue;
+            int ticketIndex = index.indexOf(id);
+            if (ticketIndex < 0) return null;
+            if (added.add(ticketIndex)) idList.add(BigInteger.valueOf(ticketIndex));
         }
 
         return idList;
@@ -250,36 +250,11 @@ public class Ticket extends Token implements Parcelable
 
     private List<BigInteger> tokenIdsToTokenIndices(List<BigInteger> tokenIds)
     {
-        List<BigInteger> inventoryCopy = new ArrayList<BigInteger>(balanceArray);
-        List<BigInteger> indexList = new ArrayList<>();
-        try
-        {
-            for (BigInteger id : tokenIds)
-            {
-                if (id.compareTo(BigInteger.ZERO) != 0)
-                {
-                    int index = inventoryCopy.indexOf(id);
-                    if (index > -1)
-                    {
-                        inventoryCopy.set(index, BigInteger.ZERO);
-                        BigInteger indexBi = BigInteger.valueOf(index);
-                        if (!indexList.contains(indexBi))
-                        {   //just make sure they didn't already add this one
-                            indexList.add(indexBi);
-                        }
-                    }
-                    else
-                    {
-                        indexList = null;
-                        break;
-                    }
-                }
-            }
-        }
-        catch (Exception e) {
-            indexList = null;
-        }
+        int[] indices = getGroupIndex().indicesFor(tokenIds);
+        if (indices == null) return null;
 
+        List<BigInteger> indexList = new ArrayList<>(indices.length);
+        for (int index : indices) indexList.add(BigInteger.valueOf(index));
         return indexList;
     }
 
@@ -350,7 +325,7 @@ public class Ticket extends Token implements Parcelable
     @Override
     public BigInteger getTokenID(int index)
     {
-        if (balanceArray.size() > index && index >= 0) return balanceArray.get(index);
+        if (balanceIds.size() > index && index >= 0) return balanceIds.get(index);
         else return BigInteger.valueOf(-1);
     }
 
@@ -366,14 +341,12 @@ public class Ticket extends Token implements Parcelable
     }
 
     @Override
-    public List<BigInteger> getArrayBalance() { return balanceArray; }
+    public List<BigInteger> getArrayBalance() { return balanceIds.toList(); }
 
     @Override
     public List<BigInteger> getNonZeroArrayBalance()
     {
-        List<BigInteger> nonZeroValues = new ArrayList<>();
-        for (BigInteger value : balanceArray) if (value.compareTo(BigInteger.ZERO) != 0 && !nonZeroValues.contains(value)) nonZeroValues.add(value);
-        return nonZeroValues;
+        return getGroupIndex().getTokenIds();
     }
 
     @Override
@@ -0,0 +1,172 @@
+package com.alphawallet.app.entity.tokens;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Index over an ERC875 ticket holding, built once from the balance. For ERC875 the token ID is the TokenScript
+ * attribute encoding, so identical IDs are identical tickets; each distinct non-zero ID is one group, holding
+ * the balance positions of its tickets as runs of consecutive indices.
+ *
+ * Lookups go through the group map and only touch the runs they need, rather than scanning the balance list:
+ * selecting N tickets from a group, and mapping IDs to the indices used by transfer, redeem and magic links.
+ */
+public final class TicketGroupIndex
+{
+    public static final TicketGroupIndex EMPTY = new TicketGroupIndex(new LinkedHashMap<>());
+
+    private final Map<BigInteger, Group> groups; //in order of first appearance in the balance
+
+    private TicketGroupIndex(Map<BigInteger, Group> groups)
+    {
+        this.groups = groups;
+    }
+
+    public static TicketGroupIndex build(PackedTokenIds balance)
+    {
+        if (balance == null || balance.size() == 0) return EMPTY;
+
+        Map<BigInteger, RunBuilder> builders = new LinkedHashMap<>();
+        for (int i = 0; i < balance.size(); i++)
+        {
+            if (balance.isZero(i)) continue;
+            BigInteger id = balance.get(i);
+            RunBuilder builder = builders.get(id);
+            if (builder == null)
+            {
+                builder = new RunBuilder();
+                builders.put(id, builder);
+            }
+            builder.add(i);
+        }
+
+        Map<BigInteger, Group> groups = new LinkedHashMap<>();
+        for (Map.Entry<BigInteger, RunBuilder> entry : builders.entrySet())
+        {
+            groups.put(entry.getKey(), entry.getValue().build());
+        }
+
+        return new TicketGroupIndex(groups);
+    }
+
+    /**
+     * @return distinct non-zero token IDs held, in balance order
+     */
+    public List<BigInteger> getTokenIds()
+    {
+        return new ArrayList<>(groups.keySet());
+    }
+
+    /**
+     * @return first balance index holding this token ID, or -1
+     */
+    public int indexOf(BigInteger tokenId)
+    {
+        Group group = groups.get(tokenId);
+        return group != null ? group.getIndex(0) : -1;
+    }
+
+    /**
+     * @return up to 'quantity' token IDs from the group, ie the group ID repeated; fewer if fewer are held
+     */
+    public List<BigInteger> select(BigInteger tokenId, int quantity)
+    {
+        Group group = groups.get(tokenId);
+        if (group == null || quantity <= 0) return new ArrayList<>();
+        return new ArrayList<>(Collections.nCopies(Math.min(quantity, group.count), tokenId));
+    }
+
+    /**
+     * Map a list of token IDs to balance indices. Each occurrence of an ID takes the next unused index of its group,
+     * so a list naming the same ticket twice maps to two different tickets. Zero IDs are skipped.
+     *
+     * @return indices in the order of the IDs, or null if the holding doesn't contain all of them
+     */
+    public int[] indicesFor(List<BigInteger> tokenIds)
+    {
+        int[] indices = new int[tokenIds.size()];
+        int count = 0;
+        Map<BigInteger, Integer> used = new HashMap<>();
+        for (BigInteger id : tokenIds)
+        {
+            if (id.signum() == 0) continue;
+            Group group = groups.get(id);
+            Integer taken = used.get(id);
+            int next = taken != null ? taken : 0;
+            if (group == null || next >= group.count) return null;
+            indices[count++] = group.getIndex(next);
+            used.put(id, next + 1);
+        }
+
+        return Arrays.copyOf(indices, count);
+    }
+
+    /**
+     * All tickets in the holding with one token ID
+     */
+    private static final class Group
+    {
+        private final int[] runStart;
+        private final int[] runLength;
+        private final int count;
+
+        private Group(int[] runStart, int[] runLength, int count)
+        {
+            this.runStart = runStart;
+            this.runLength = runLength;
+            this.count = count;
+        }
+
+        /**
+         * @return the n'th balance index of this group
+         */
+        int getIndex(int n)
+        {
+            for (int r = 0; r < runStart.length; r++)
+            {
+                if (n < runLength[r]) return runStart[r] + n;
+                n -= runLength[r];
+            }
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    private static class RunBuilder
+    {
+        private int[] starts = new int[4];
+        private int[] lengths = new int[4];
+        private int runs;
+        private int count;
+
+        void add(int index)
+        {
+            if (runs > 0 && starts[runs - 1] + lengths[runs - 1] == index)
+            {
+                lengths[runs - 1]++;
+            }
+            else
+            {
+                if (runs == starts.length)
+                {
+                    starts = Arrays.copyOf(starts, runs * 2);
+                    lengths = Arrays.copyOf(lengths, runs * 2);
+                }
+                starts[runs] = index;
+                lengths[runs] = 1;
+                runs++;
+            }
+            count++;
+        }
+
+        Group build()
+        {
+            return new Group(Arrays.copyOf(starts, runs), Arrays.copyOf(lengths, runs), count);
+        }
+    }
+}
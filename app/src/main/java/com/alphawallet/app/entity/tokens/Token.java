@@ -329,8 +329,13 @@ public class Token implements Parcelable, Comparable<Token>
         if (tokenInfo.name != null && realmToken.getName() != null) return true;
         if (tokenInfo.symbol != null && realmToken.getSymbol() == null) return true;
         if (tokenInfo.name != null && (!tokenInfo.name.equals(realmToken.getName()) || !tokenInfo.symbol.equals(realmToken.getSymbol()))) return true;
+        return realmBalanceChanged(realmToken);
+    }
+
+    protected boolean realmBalanceChanged(RealmToken realmToken)
+    {
         String currentBalance = getFullBalance();
-        return !currentState.equals(currentBalance);
+        return !realmToken.getBalance().equals(currentBalance);
     }
 
     private Map<String, String> restoreAuxData(String data)
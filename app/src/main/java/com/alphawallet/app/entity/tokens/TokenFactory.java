@@ -88,13 +88,11 @@ public class TokenFactory
                 thisToken.pendingBalance = balance;
                 break;
             case ERC721_TICKET:
-                if (realmBalance == null) realmBalance = "";
-                thisToken = new ERC721Ticket(tokenInfo, realmBalance, updateBlancaTime, networkName, type);
+                thisToken = new ERC721Ticket(tokenInfo, PackedTokenIds.fromBytes(realmItem.getTokenIds()), updateBlancaTime, networkName, type);
                 break;
             case ERC875:
             case ERC875_LEGACY:
-                if (realmBalance == null) realmBalance = "";
-                thisToken = new Ticket(tokenInfo, realmBalance, updateBlancaTime, networkName, type);
+                thisToken = new Ticket(tokenInfo, PackedTokenIds.fromBytes(realmItem.getTokenIds()), updateBlancaTime, networkName, type);
                 break;
 
             case OTHER:
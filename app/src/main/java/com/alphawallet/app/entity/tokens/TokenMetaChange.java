@@ -0,0 +1,46 @@
+package com.alphawallet.app.entity.tokens;
+
+/**
+ * A single fine-grained change to a wallet's token list, as published by the token meta change feed.
+ * For DELETE changes only the tokenId is known; the row has already gone from the database.
+ */
+public class TokenMetaChange
+{
+    public enum ChangeType
+    {
+        INSERT,
+        UPDATE,
+        DELETE
+    }
+
+    public final ChangeType changeType;
+    public final String tokenId;
+    public final TokenCardMeta meta;
+
+    private TokenMetaChange(ChangeType changeType, String tokenId, TokenCardMeta meta)
+    {
+        this.changeType = changeType;
+        this.tokenId = tokenId;
+        this.meta = meta;
+    }
+
+    public static TokenMetaChange inserted(TokenCardMeta meta)
+    {
+        return new TokenMetaChange(ChangeType.INSERT, meta.tokenId, meta);
+    }
+
+    public static TokenMetaChange updated(TokenCardMeta meta)
+    {
+        return new TokenMetaChange(ChangeType.UPDATE, meta.tokenId, meta);
+    }
+
+    public static TokenMetaChange deleted(String tokenId)
+    {
+        return new TokenMetaChange(ChangeType.DELETE, tokenId, null);
+    }
+
+    public boolean isDelete()
+    {
+        return changeType == ChangeType.DELETE;
+    }
+}
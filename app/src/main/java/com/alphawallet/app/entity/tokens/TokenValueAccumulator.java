@@ -0,0 +1,127 @@
+package com.alphawallet.app.entity.tokens;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Running fiat value of one wallet's tokens. Each token's balance and price are held separately, so a balance
+ * change or a ticker change only adjusts that token's contribution; the wallet total and the per-chain subtotals
+ * are kept up to date as it goes rather than summed on every read.
+ *
+ * Contributions are kept in millionths of a currency unit, so adding and removing them never drifts. Totals are
+ * kept per currency: a token counts towards the currency of its latest price, which lets the total move across
+ * cleanly when the user changes currency and the tickers are refreshed.
+ */
+public class TokenValueAccumulator
+{
+    private static final double UNIT = 1000000.0;
+
+    private final Map<Integer, Map<String, Holding>> holdings = new HashMap<>();
+    private final Map<String, Long> totals = new HashMap<>();
+    private final Map<Integer, Map<String, Long>> chainTotals = new HashMap<>();
+
+    /**
+     * @param address token address, "eth" for the chain's native currency
+     * @param balance balance in whole tokens (ie corrected for decimals)
+     */
+    public synchronized void setBalance(int chainId, String address, double balance)
+    {
+        Holding holding = getHolding(chainId, address);
+        holding.balance = balance;
+        update(chainId, holding);
+    }
+
+    /**
+     * @param price price of one token in the given currency
+     */
+    public synchronized void setPrice(int chainId, String address, double price, String currency)
+    {
+        Holding holding = getHolding(chainId, address);
+        holding.price = price;
+        holding.pendingCurrency = currency;
+        update(chainId, holding);
+    }
+
+    public synchronized void remove(int chainId, String address)
+    {
+        Map<String, Holding> chain = holdings.get(chainId);
+        Holding holding = chain != null ? chain.remove(address.toLowerCase()) : null;
+        if (holding != null) apply(chainId, holding.currency, -holding.value);
+    }
+
+    public synchronized double getTotal(String currency)
+    {
+        Long total = totals.get(currency);
+        return total != null ? total / UNIT : 0.0;
+    }
+
+    /**
+     * @return value of the wallet's tokens on each chain which has any, in the given currency
+     */
+    public synchronized Map<Integer, Double> getChainTotals(String currency)
+    {
+        Map<Integer, Double> result = new HashMap<>();
+        for (Map.Entry<Integer, Map<String, Long>> chain : chainTotals.entrySet())
+        {
+            Long subtotal = chain.getValue().get(currency);
+            if (subtotal != null && subtotal != 0) result.put(chain.getKey(), subtotal / UNIT);
+        }
+        return result;
+    }
+
+    private Holding getHolding(int chainId, String address)
+    {
+        Map<String, Holding> chain = holdings.get(chainId);
+        if (chain == null)
+        {
+            chain = new HashMap<>();
+            holdings.put(chainId, chain);
+        }
+        String key = address.toLowerCase();
+        Holding holding = chain.get(key);
+        if (holding == null)
+        {
+            holding = new Holding();
+            chain.put(key, holding);
+        }
+        return holding;
+    }
+
+    private void update(int chainId, Holding holding)
+    {
+        long newValue = Math.round(holding.balance * holding.price * UNIT);
+        String newCurrency = holding.pendingCurrency;
+        if (newValue == holding.value && (newCurrency == null || newCurrency.equals(holding.currency))) return;
+
+        //take the old contribution out of its currency, add the new one
+        if (holding.currency != null) apply(chainId, holding.currency, -holding.value);
+        holding.value = newValue;
+        if (newCurrency != null) holding.currency = newCurrency;
+        if (holding.currency != null) apply(chainId, holding.currency, newValue);
+    }
+
+    private void apply(int chainId, String currency, long delta)
+    {
+        if (currency == null || delta == 0) return;
+        Long total = totals.get(currency);
+        totals.put(currency, (total != null ? total : 0) + delta);
+
+        Map<String, Long> chain = chainTotals.get(chainId);
+        if (chain == null)
+        {
+            chain = new HashMap<>();
+            chainTotals.put(chainId, chain);
+        }
+        Long subtotal = chain.get(currency);
+        chain.put(currency, (subtotal != null ? subtotal : 0) + delta);
+    }
+
+    private static class Holding
+    {
+        double balance;
+        double price;
+        long value;
+        String currency;        //currency the value is counted in
+        String pendingCurrency; //currency of the latest price
+    }
+}
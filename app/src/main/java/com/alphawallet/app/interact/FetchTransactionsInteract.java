@@ -1,6 +1,8 @@
 package com.alphawallet.app.interact;
 
+import com.alphawallet.app.entity.ActivityCursor;
 import com.alphawallet.app.entity.ActivityMeta;
+import com.alphawallet.app.entity.ActivityPage;
 import com.alphawallet.app.entity.ContractType;
 import com.alphawallet.app.entity.NetworkInfo;
 import com.alphawallet.app.entity.tokens.Token;
@@ -45,6 +47,11 @@ public class FetchTransactionsInteract {
         return transactionRepository.fetchEventMetas(wallet, networkFilters);
     }
 
+    public Single<ActivityPage> fetchActivityPage(Wallet wallet, List<Integer> networkFilters, ActivityCursor cursor, int pageSize)
+    {
+        return transactionRepository.fetchActivityPage(wallet, networkFilters, cursor, pageSize);
+    }
+
     public Single<ContractType> queryInterfaceSpec(TokenInfo tokenInfo)
     {
         //can resolve erc20, erc721 and erc875 from a getbalance check and look at decimals. Otherwise try more esoteric
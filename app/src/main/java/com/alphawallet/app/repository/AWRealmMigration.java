@@ -1,9 +1,14 @@
 package com.alphawallet.app.repository;
 
+import com.alphawallet.app.entity.ContractType;
+import com.alphawallet.app.entity.tokens.PackedTokenIds;
+
 import io.realm.DynamicRealm;
+import io.realm.DynamicRealmObject;
 import io.realm.FieldAttribute;
 import io.realm.RealmMigration;
 import io.realm.RealmObjectSchema;
+import io.realm.RealmResults;
 import io.realm.RealmSchema;
 
 
@@ -242,6 +247,78 @@ public class AWRealmMigration implements RealmMigration
             if (realmData != null && !realmData.hasField("chainId")) realmData.addField("chainId", int.class);
             oldVersion++;
         }
+
+        //Indexed columns for the hot token, transaction and event queries
+        if (oldVersion == 22)
+        {
+            RealmObjectSchema realmData = schema.get("RealmToken");
+            if (realmData != null)
+            {
+                if (!realmData.hasField("contractAddress"))
+                {
+                    realmData.addField("contractAddress", String.class, FieldAttribute.INDEXED)
+                            .transform(obj -> obj.set("contractAddress", TokensRealmSource.contractAddressFromKey(obj.getString("address"))));
+                }
+                if (!realmData.hasIndex("chainId")) realmData.addIndex("chainId");
+            }
+
+            realmData = schema.get("RealmTransaction");
+            if (realmData != null)
+            {
+                if (!realmData.hasIndex("chainId")) realmData.addIndex("chainId");
+                if (!realmData.hasIndex("timeStamp")) realmData.addIndex("timeStamp");
+            }
+
+            realmData = schema.get("RealmAuxData");
+            if (realmData != null)
+            {
+                if (!realmData.hasIndex("chainId")) realmData.addIndex("chainId");
+                if (!realmData.hasIndex("resultTime")) realmData.addIndex("resultTime");
+            }
+            oldVersion++;
+        }
+
+        if (oldVersion == 23)
+        {
+            RealmObjectSchema realmData = schema.get("RealmTransfer");
+            if (realmData != null && !realmData.hasIndex("hash")) realmData.addIndex("hash");
+
+            //One-off repair of transactions previously recorded with a bad time value; this used to run on every activity fetch.
+            //Mark them as pending so they are re-scanned.
+            long currentTime = System.currentTimeMillis() / 1000L;
+            RealmResults<DynamicRealmObject> badTxs = realm.where("RealmTransaction")
+                    .greaterThan("timeStamp", currentTime + 3000L * 24 * 60 * 60)
+                    .beginGroup().equalTo("blockNumber", "-1").or().equalTo("blockNumber", "0").endGroup()
+                    .findAll();
+            for (DynamicRealmObject tx : badTxs)
+            {
+                tx.setString("blockNumber", "0");
+                tx.setString("error", "0");
+                tx.setLong("timeStamp", currentTime);
+            }
+            oldVersion++;
+        }
+
+        if (oldVersion == 24)
+        {
+            //Ticket IDs move from a comma separated hex string in 'balance' to a packed binary column; balance keeps the ticket count
+            RealmObjectSchema realmData = schema.get("RealmToken");
+            if (realmData != null && !realmData.hasField("tokenIds"))
+            {
+                realmData.addField("tokenIds", byte[].class)
+                        .transform(obj -> {
+                            int type = obj.getInt("interfaceSpec");
+                            if (type == ContractType.ERC875.ordinal() || type == ContractType.ERC875_LEGACY.ordinal()
+                                    || type == ContractType.ERC721_TICKET.ordinal())
+                            {
+                                PackedTokenIds ids = PackedTokenIds.fromHexList(obj.getString("balance"));
+                                obj.setBlob("tokenIds", ids.toBytes());
+                                obj.setString("balance", String.valueOf(ids.nonZeroCount()));
+                            }
+                        });
+            }
+            oldVersion++;
+        }
     }
 
     @Override
@@ -112,6 +112,13 @@ public abstract class EthereumNetworkBase implements EthereumNetworkRepositoryTy
     public static final String HECO_RPC_URL = "https://http-mainnet-node.huobichain.com";
     public static final String HECO_TEST_RPC_URL = "https://http-testnet.hecochain.com";
 
+    //Optional WebSocket endpoints, used for newHeads/logs subscriptions. Chains without one are polled over HTTP
+    public static final String MAINNET_WS_URL = "wss://mainnet.infura.io/ws/v3/" + getInfuraKey();
+    public static final String ROPSTEN_WS_URL = "wss://ropsten.infura.io/ws/v3/" + getInfuraKey();
+    public static final String RINKEBY_WS_URL = "wss://rinkeby.infura.io/ws/v3/" + getInfuraKey();
+    public static final String KOVAN_WS_URL = "wss://kovan.infura.io/ws/v3/" + getInfuraKey();
+    public static final String GOERLI_WS_URL = "wss://goerli.infura.io/ws/v3/" + getInfuraKey();
+
     //This optional list creates a defined order in which tokens are displayed
     static final int[] orderList = {
             MAINNET_ID, CLASSIC_ID, XDAI_ID, POA_ID, ARTIS_SIGMA1_ID, KOVAN_ID, ROPSTEN_ID, SOKOL_ID,
@@ -124,7 +131,7 @@ public abstract class EthereumNetworkBase implements EthereumNetworkRepositoryTy
             put(MAINNET_ID, new NetworkInfo(C.ETHEREUM_NETWORK_NAME, C.ETH_SYMBOL,
                     MAINNET_RPC_URL,
                     "https://cn.etherscan.com/tx/", MAINNET_ID,
-                    MAINNET_FALLBACK_RPC_URL, "https://api-cn.etherscan.com/"));
+                    MAINNET_FALLBACK_RPC_URL, "https://api-cn.etherscan.com/", MAINNET_WS_URL));
             put(CLASSIC_ID, new NetworkInfo(C.CLASSIC_NETWORK_NAME, C.ETC_SYMBOL,
                     CLASSIC_RPC_URL,
                     "https://blockscout.com/etc/mainnet/tx/", CLASSIC_ID, CLASSIC_RPC_URL,
@@ -142,22 +149,22 @@ public abstract class EthereumNetworkBase implements EthereumNetworkRepositoryTy
                             ARTIS_SIGMA1_RPC_URL, "https://explorer.sigma1.artis.network/"));
             put(KOVAN_ID, new NetworkInfo(C.KOVAN_NETWORK_NAME, C.ETH_SYMBOL, KOVAN_RPC_URL,
                             "https://kovan.etherscan.io/tx/", KOVAN_ID,
-                            KOVAN_FALLBACK_RPC_URL, "https://api-kovan.etherscan.io/"));
+                            KOVAN_FALLBACK_RPC_URL, "https://api-kovan.etherscan.io/", KOVAN_WS_URL));
             put(ROPSTEN_ID, new NetworkInfo(C.ROPSTEN_NETWORK_NAME, C.ETH_SYMBOL,
                             ROPSTEN_RPC_URL,
                             "https://ropsten.etherscan.io/tx/", ROPSTEN_ID,
-                            ROPSTEN_FALLBACK_RPC_URL, "https://api-ropsten.etherscan.io/"));
+                            ROPSTEN_FALLBACK_RPC_URL, "https://api-ropsten.etherscan.io/", ROPSTEN_WS_URL));
             put(SOKOL_ID, new NetworkInfo(C.SOKOL_NETWORK_NAME, C.POA_SYMBOL,
                             SOKOL_RPC_URL,
                             "https://blockscout.com/poa/sokol/tx/", SOKOL_ID, SOKOL_RPC_URL, "https://blockscout.com/poa/sokol/"));
             put(RINKEBY_ID, new NetworkInfo(C.RINKEBY_NETWORK_NAME, C.ETH_SYMBOL, RINKEBY_RPC_URL,
                             "https://rinkeby.etherscan.io/tx/", RINKEBY_ID,
                             RINKEBY_FALLBACK_RPC_URL,
-                            "https://api-rinkeby.etherscan.io/"));
+                            "https://api-rinkeby.etherscan.io/", RINKEBY_WS_URL));
             put(GOERLI_ID, new NetworkInfo(C.GOERLI_NETWORK_NAME, C.GOERLI_SYMBOL, GOERLI_RPC_URL,
                             "https://goerli.etherscan.io/tx/", GOERLI_ID,
                             GOERLI_FALLBACK_RPC_URL,
-                            "https://api-goerli.etherscan.io/"));
+                            "https://api-goerli.etherscan.io/", GOERLI_WS_URL));
             put(ARTIS_TAU1_ID, new NetworkInfo(C.ARTIS_TAU1_NETWORK, C.ARTIS_TAU1_SYMBOL, ARTIS_TAU1_RPC_URL,
                             "https://explorer.tau1.artis.network/tx/", ARTIS_TAU1_ID,
                             ARTIS_TAU1_RPC_URL, "https://explorer.tau1.artis.network/"));
@@ -380,6 +387,16 @@ public abstract class EthereumNetworkBase implements EthereumNetworkRepositoryTy
         else { return ""; }
     }
 
+    /**
+     * @return WebSocket node endpoint for the chain, or null if the chain is only reachable over HTTP
+     */
+    public static String getWebSocketURL(int networkId)
+    {
+        NetworkInfo info = networkMap.get(networkId);
+        if (info != null) { return info.webSocketUrl; }
+        else { return null; }
+    }
+
     //TODO: Fold this into file and add to database
     public static int getChainLogo(int networkId) {
         switch (networkId)
@@ -6,6 +6,7 @@ import com.alphawallet.app.entity.ContractType;
 import com.alphawallet.app.entity.NetworkInfo;
 import com.alphawallet.app.entity.tokens.Token;
 import com.alphawallet.app.entity.tokens.TokenCardMeta;
+import com.alphawallet.app.entity.tokens.TokenMetaChange;
 import com.alphawallet.app.entity.tokens.TokenTicker;
 import com.alphawallet.app.entity.Wallet;
 import com.alphawallet.app.service.AssetDefinitionService;
@@ -15,6 +16,7 @@ import java.math.BigInteger;
 import java.util.List;
 import java.util.Map;
 
+import io.reactivex.Flowable;
 import io.reactivex.Single;
 import io.realm.Realm;
 
@@ -41,6 +43,8 @@ public interface TokenLocalSource {
 
     TokenCardMeta[] fetchTokenMetasForUpdate(Wallet wallet, List<Integer> networkFilters);
 
+    Flowable<TokenMetaChange> tokenMetaChanges(Wallet wallet, AssetDefinitionService svs);
+
     Single<Token[]> fetchAllTokensWithNameIssue(String walletAddress, List<Integer> networkFilters);
 
     Single<Integer> fixFullNames(Wallet wallet, AssetDefinitionService svs);
@@ -20,13 +20,15 @@ import com.alphawallet.app.entity.tokens.Token;
 import com.alphawallet.app.entity.tokens.TokenCardMeta;
 import com.alphawallet.app.entity.tokens.TokenFactory;
 import com.alphawallet.app.entity.tokens.TokenInfo;
+import com.alphawallet.app.entity.tokens.TokenMetaChange;
 import com.alphawallet.app.entity.tokens.TokenTicker;
 import com.alphawallet.app.service.AWHttpService;
 import com.alphawallet.app.service.AssetDefinitionService;
+import com.alphawallet.app.service.EnsResolutionService;
 import com.alphawallet.app.service.TickerService;
 import com.alphawallet.app.service.TokensService;
-import com.alphawallet.app.util.AWEnsResolver;
 import com.alphawallet.app.util.Utils;
+import com.alphawallet.app.util.WorkerSchedulers;
 import com.alphawallet.token.entity.MagicLinkData;
 
 import org.web3j.abi.FunctionEncoder;
@@ -63,6 +65,7 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import io.reactivex.Completable;
+import io.reactivex.Flowable;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 import io.reactivex.disposables.Disposable;
@@ -97,7 +100,7 @@ public class TokenRepository implements TokenRepositoryType {
     private static final int CONTRACT_BALANCE_NULL = -2;
 
     private final Map<Integer, Web3j> web3jNodeServers;
-    private AWEnsResolver ensResolver;
+    private EnsResolutionService ensResolver;
 
     public TokenRepository(
             EthereumNetworkRepositoryType ethereumNetworkRepository,
@@ -195,6 +198,12 @@ public class TokenRepository implements TokenRepositoryType {
         return localSource.fetchTokenMetasForUpdate(wallet, networkFilters);
     }
 
+    @Override
+    public Flowable<TokenMetaChange> tokenMetaChanges(Wallet wallet, AssetDefinitionService svs)
+    {
+        return localSource.tokenMetaChanges(wallet, svs);
+    }
+
     @Override
     public Single<TokenCardMeta[]> fetchTokenMetas(Wallet wallet, List<Integer> networkFilters,
                                                    AssetDefinitionService svs)
@@ -273,7 +282,7 @@ public class TokenRepository implements TokenRepositoryType {
         NetworkInfo network = ethereumNetworkRepository.getNetworkByChain(token.tokenInfo.chainId);
         Wallet wallet = new Wallet(walletAddress);
         return updateBalance(network, wallet, token)
-                .observeOn(Schedulers.newThread())
+                .observeOn(WorkerSchedulers.rpc())
                 .toObservable();
     }
 
@@ -446,7 +455,7 @@ public class TokenRepository implements TokenRepositoryType {
     @Override
     public Single<String> resolveENS(int chainId, String ensName)
     {
-        if (ensResolver == null) ensResolver = new AWEnsResolver(TokenRepository.getWeb3jService(MAINNET_ID), context);
+        if (ensResolver == null) ensResolver = EnsResolutionService.getInstance(context);
         return ensResolver.resolveENSAddress(ensName);
     }
 
@@ -1500,6 +1509,14 @@ public class TokenRepository implements TokenRepositoryType {
     }
 
     public static Web3j getWeb3jService(int chainId)
+    {
+        return Web3j.build(getNodeService(chainId));
+    }
+
+    /**
+     * @return JSON-RPC service for the chain's node, for calls Web3j has no method for
+     */
+    public static AWHttpService getNodeService(int chainId)
     {
         OkHttpClient okClient = new OkHttpClient.Builder()
                 .connectTimeout(10, TimeUnit.SECONDS)
@@ -1509,7 +1526,7 @@ public class TokenRepository implements TokenRepositoryType {
                 .build();
         AWHttpService publicNodeService = new AWHttpService(EthereumNetworkRepository.getNodeURLByNetworkId (chainId), EthereumNetworkRepository.getSecondaryNodeURL(chainId), okClient, false);
         EthereumNetworkRepository.addRequiredCredentials(chainId, publicNodeService);
-        return Web3j.build(publicNodeService);
+        return publicNodeService;
     }
 
     private boolean ignoreToken(Token t)
@@ -7,6 +7,7 @@ import com.alphawallet.app.entity.SubscribeWrapper;
 import com.alphawallet.app.entity.tokens.Token;
 import com.alphawallet.app.entity.tokens.TokenCardMeta;
 import com.alphawallet.app.entity.tokens.TokenInfo;
+import com.alphawallet.app.entity.tokens.TokenMetaChange;
 import com.alphawallet.app.entity.tokens.TokenTicker;
 import com.alphawallet.app.entity.TransferFromEventResponse;
 import com.alphawallet.app.entity.Wallet;
@@ -20,6 +21,7 @@ import java.math.BigInteger;
 import java.util.List;
 
 import io.reactivex.Completable;
+import io.reactivex.Flowable;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 import io.realm.Realm;
@@ -63,6 +65,7 @@ public interface TokenRepositoryType {
     Single<Token[]> fetchTokensThatMayNeedUpdating(String walletAddress, List<Integer> networkFilters);
 
     TokenCardMeta[] fetchTokenMetasForUpdate(Wallet wallet, List<Integer> networkFilters);
+    Flowable<TokenMetaChange> tokenMetaChanges(Wallet wallet, AssetDefinitionService svs);
 
     Realm getRealmInstance(Wallet wallet);
     Realm getTickerRealmInstance();
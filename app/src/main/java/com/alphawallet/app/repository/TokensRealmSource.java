@@ -1,5 +1,7 @@
 package com.alphawallet.app.repository;
 
+import android.os.HandlerThread;
+import android.os.Looper;
 import android.text.TextUtils;
 import android.text.format.DateUtils;
 import android.util.Log;
@@ -11,10 +13,12 @@ import com.alphawallet.app.entity.opensea.Asset;
 import com.alphawallet.app.entity.opensea.AssetContract;
 import com.alphawallet.app.entity.opensea.Trait;
 import com.alphawallet.app.entity.tokens.ERC721Token;
+import com.alphawallet.app.entity.tokens.PackedTokenIds;
 import com.alphawallet.app.entity.tokens.Token;
 import com.alphawallet.app.entity.tokens.TokenCardMeta;
 import com.alphawallet.app.entity.tokens.TokenFactory;
 import com.alphawallet.app.entity.tokens.TokenInfo;
+import com.alphawallet.app.entity.tokens.TokenMetaChange;
 import com.alphawallet.app.entity.tokens.TokenTicker;
 import com.alphawallet.app.repository.entity.RealmAuxData;
 import com.alphawallet.app.repository.entity.RealmERC721Asset;
@@ -28,15 +32,22 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import io.reactivex.BackpressureStrategy;
 import io.reactivex.Completable;
+import io.reactivex.Flowable;
+import io.reactivex.Scheduler;
 import io.reactivex.Single;
+import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
+import io.reactivex.disposables.Disposables;
 import io.reactivex.observers.DisposableCompletableObserver;
 import io.realm.Case;
 import io.realm.Realm;
+import io.realm.RealmQuery;
 import io.realm.RealmResults;
 import io.realm.Sort;
 import io.realm.exceptions.RealmException;
@@ -58,6 +69,7 @@ public class TokensRealmSource implements TokenLocalSource {
 
     private final RealmManager realmManager;
     private final EthereumNetworkRepositoryType ethereumNetworkRepository;
+    private static HandlerThread metaFeedThread;
 
     public TokensRealmSource(RealmManager realmManager, EthereumNetworkRepositoryType ethereumNetworkRepository) {
         this.realmManager = realmManager;
@@ -338,6 +350,24 @@ public class TokensRealmSource implements TokenLocalSource {
         return databaseKey(token.tokenInfo.chainId, token.tokenInfo.address.toLowerCase());
     }
 
+    /**
+     * Value for the indexed contractAddress column. Only keys matching ADDRESS_FORMAT get a value,
+     * so 'isNotNull("contractAddress")' replaces the old 'like("address", ADDRESS_FORMAT)' scan.
+     * @param dbKey 'address-chainId' database key
+     * @return plain lower case contract address or null
+     */
+    public static String contractAddressFromKey(String dbKey)
+    {
+        if (dbKey != null && dbKey.length() > 43 && dbKey.startsWith("0x") && dbKey.charAt(42) == '-')
+        {
+            return dbKey.substring(0, 42).toLowerCase();
+        }
+        else
+        {
+            return null;
+        }
+    }
+
     public static String eventActivityKey(String txHash, String activityName)
     {
         return txHash + "-" + activityName + EVENT_CARDS;
@@ -384,47 +414,61 @@ public class TokensRealmSource implements TokenLocalSource {
         boolean balanceChanged = false;
         if (tokenAddress == null) tokenAddress = wallet.address; //base chain update
         String key = databaseKey(chainId, tokenAddress);
+        Realm.Transaction update = null;
         try (Realm realm = realmManager.getRealmInstance(wallet))
         {
-            RealmToken realmToken = realm.where(RealmToken.class)
-                    .equalTo("address", key)
-                    .equalTo("chainId", chainId)
-                    .findFirst();
+            RealmToken realmToken = findRealmToken(realm, key, chainId);
 
             if (realmToken != null)
             {
                 String currentBalance = realmToken.getBalance();
                 String newBalance = balance.toString();
-                if (balanceArray != null) newBalance = Utils.bigIntListToString(balanceArray, true);
 
-                if (type == ContractType.ERC721 || type == ContractType.ERC721_LEGACY)
+                if (balanceArray != null)
+                {
+                    //ticket types; compare the packed IDs directly rather than rebuilding the hex list
+                    PackedTokenIds newIds = PackedTokenIds.of(balanceArray);
+                    if (!newIds.equals(PackedTokenIds.fromBytes(realmToken.getTokenIds())))
+                    {
+                        update = r -> {
+                            RealmToken rToken = findRealmToken(r, key, chainId);
+                            if (rToken == null) return;
+                            rToken.setTokenIds(newIds.toBytes());
+                            rToken.setBalance(String.valueOf(newIds.nonZeroCount()));
+                            rToken.setUpdateTime(System.currentTimeMillis());
+                        };
+                        Log.d(TAG, "Update Token Balance: " + realmToken.getName() + " :" + tokenAddress);
+                        balanceChanged = true;
+                    }
+                }
+                else if (type == ContractType.ERC721 || type == ContractType.ERC721_LEGACY)
                 {
                     //only used for determining if balance is now zero
                     if (balance.equals(BigDecimal.ZERO) && !realmToken.getBalance().equals("0"))
                     {
-                        realm.beginTransaction();
-                        realmToken.setBalance("0");
-                        realmToken.setUpdateTime(System.currentTimeMillis());
-                        deleteAssets(realm, key);
+                        update = r -> {
+                            RealmToken rToken = findRealmToken(r, key, chainId);
+                            if (rToken == null) return;
+                            rToken.setBalance("0");
+                            rToken.setUpdateTime(System.currentTimeMillis());
+                            deleteAssets(r, key);
+                        };
                         Log.d(TAG, "Zero out ERC721 balance: " + realmToken.getName() + " :" + tokenAddress);
                         balanceChanged = true;
                     }
                 }
                 else if (!newBalance.equals(currentBalance))
                 {
-                    realm.beginTransaction();
                     //updating balance
-                    realmToken.setBalance(newBalance);
-                    realmToken.setUpdateTime(System.currentTimeMillis());
+                    update = r -> {
+                        RealmToken rToken = findRealmToken(r, key, chainId);
+                        if (rToken == null) return;
+                        rToken.setBalance(newBalance);
+                        rToken.setUpdateTime(System.currentTimeMillis());
+                    };
                     Log.d(TAG, "Update Token Balance: " + realmToken.getName() + " :" + tokenAddress);
                     balanceChanged = true;
                 }
-
-                if (realm.isInTransaction())
-                {
-                    realm.commitTransaction();
-                    realm.close();
-                }
             }
         }
         catch (Exception e)
@@ -432,9 +476,23 @@ public class TokensRealmSource implements TokenLocalSource {
             //
         }
 
+        if (update != null)
+        {
+            realmManager.getRealmWriter(wallet).write(update)
+                    .subscribe(() -> { }, Throwable::printStackTrace).isDisposed();
+        }
+
         return balanceChanged;
     }
 
+    private static RealmToken findRealmToken(Realm realm, String key, int chainId)
+    {
+        return realm.where(RealmToken.class)
+                .equalTo("address", key)
+                .equalTo("chainId", chainId)
+                .findFirst();
+    }
+
     @Override
     public void updateTokenBalance(NetworkInfo network, Wallet wallet, Token token)
     {
@@ -451,11 +509,14 @@ public class TokensRealmSource implements TokenLocalSource {
             }
             else if (realmToken != null && token.checkRealmBalanceChange(realmToken))
             {
-                realm.beginTransaction();
-                token.setRealmBalance(realmToken);
-                realmToken.updateTokenInfoIfRequired(token.tokenInfo);
-                token.setRealmInterfaceSpec(realmToken);
-                realm.commitTransaction();
+                final String key = databaseKey(token);
+                realmManager.getRealmWriter(wallet).write(r -> {
+                    RealmToken rToken = findRealmToken(r, key, network.chainId);
+                    if (rToken == null) return;
+                    token.setRealmBalance(rToken);
+                    rToken.updateTokenInfoIfRequired(token.tokenInfo);
+                    token.setRealmInterfaceSpec(rToken);
+                }).subscribe(() -> { }, Throwable::printStackTrace).isDisposed();
             }
         }
         catch (Exception ex)
@@ -521,6 +582,7 @@ public class TokensRealmSource implements TokenLocalSource {
         {
             Log.d(TAG, "Save New Token: " + token.getFullName() + " :" + token.tokenInfo.address);
             realmToken = realm.createObject(RealmToken.class, databaseKey);
+            realmToken.setContractAddress(contractAddressFromKey(databaseKey));
             realmToken.setName(token.tokenInfo.name);
             realmToken.setSymbol(token.tokenInfo.symbol);
             realmToken.setDecimals(token.tokenInfo.decimals);
@@ -564,16 +626,7 @@ public class TokensRealmSource implements TokenLocalSource {
 
     private void saveToken(Wallet wallet, Token token, Date currentTime) {
         if (!Utils.isAddressValid(wallet.address)) return;
-        try (Realm realm = realmManager.getRealmInstance(wallet))
-        {
-            realm.executeTransaction(r -> {
-                saveToken(r, token);
-            });
-        }
-        catch (Exception ex)
-        {
-            ex.printStackTrace();
-        }
+        realmManager.getRealmWriter(wallet).writeAndWait(r -> saveToken(r, token));
     }
 
     private void saveERC721Assets(Realm realm, Token token) throws RealmException
@@ -589,41 +642,67 @@ public class TokensRealmSource implements TokenLocalSource {
         }
 
         String dbKey = databaseKey(token);
+        Map<String, Asset> currentAssets = new HashMap<>();
+        for (Asset asset : e.getTokenAssets().values())
+        {
+            currentAssets.put(RealmERC721Asset.tokenIdAddrName(asset.getTokenId(), dbKey), asset);
+        }
 
-        deleteAssets(realm, dbKey);
+        //remove assets no longer held
+        RealmResults<RealmERC721Asset> storedAssets = realm.where(RealmERC721Asset.class)
+                .beginsWith("tokenIdAddr", dbKey + "-")
+                .findAll();
 
-        //now create the assets inside this
-        for (Asset asset : e.getTokenAssets().values())
+        for (RealmERC721Asset realmAsset : storedAssets.createSnapshot())
+        {
+            if (!currentAssets.containsKey(realmAsset.getTokenIdAddr()))
+            {
+                realmAsset.deleteFromRealm();
+            }
+        }
+
+        //now upsert the assets, only writing the ones which changed
+        for (Map.Entry<String, Asset> entry : currentAssets.entrySet())
         {
+            Asset asset = entry.getValue();
             RealmERC721Asset realmAsset = realm.where(RealmERC721Asset.class)
-                    .equalTo("tokenIdAddr", RealmERC721Asset.tokenIdAddrName(asset.getTokenId(), dbKey))
+                    .equalTo("tokenIdAddr", entry.getKey())
                     .findFirst();
 
             if (realmAsset == null)
             {
-                realmAsset = realm.createObject(RealmERC721Asset.class,
-                                                RealmERC721Asset.tokenIdAddrName(asset.getTokenId(), dbKey));
-
-                realmAsset.setName(asset.getName());
-                realmAsset.setDescription(asset.getDescription());
-                realmAsset.setExternalLink(asset.getExternalLink());
-                realmAsset.setImagePreviewUrl(asset.getImagePreviewUrl());
-                realmAsset.setBackgroundColor(asset.getBackgroundColor());
-                realmAsset.setTraits(asset.getTraits());
+                realmAsset = realm.createObject(RealmERC721Asset.class, entry.getKey());
+                writeAsset(realmAsset, asset);
             }
-            else
+            else if (assetChanged(realmAsset, asset))
             {
-                //see if traits have changed
-                List<Trait> traits = realmAsset.getTraits();
-                if (traits.size() != asset.getTraits().size() || traitsDifferent(traits, asset.getTraits()))
-                {
-                    realmAsset.setImagePreviewUrl(asset.getImagePreviewUrl());
-                    realmAsset.setTraits(asset.getTraits());
-                }
+                writeAsset(realmAsset, asset);
             }
         }
     }
 
+    private void writeAsset(RealmERC721Asset realmAsset, Asset asset)
+    {
+        realmAsset.setName(asset.getName());
+        realmAsset.setDescription(asset.getDescription());
+        realmAsset.setExternalLink(asset.getExternalLink());
+        realmAsset.setImagePreviewUrl(asset.getImagePreviewUrl());
+        realmAsset.setBackgroundColor(asset.getBackgroundColor());
+        realmAsset.setTraits(asset.getTraits());
+    }
+
+    private boolean assetChanged(RealmERC721Asset realmAsset, Asset asset)
+    {
+        List<Trait> traits = realmAsset.getTraits();
+        List<Trait> assetTraits = asset.getTraits() != null ? asset.getTraits() : new ArrayList<>();
+        return !TextUtils.equals(realmAsset.getName(), asset.getName())
+                || !TextUtils.equals(realmAsset.getDescription(), asset.getDescription())
+                || !TextUtils.equals(realmAsset.getExternalLink(), asset.getExternalLink())
+                || !TextUtils.equals(realmAsset.getImagePreviewUrl(), asset.getImagePreviewUrl())
+                || !TextUtils.equals(realmAsset.getBackgroundColor(), asset.getBackgroundColor())
+                || traits.size() != assetTraits.size() || traitsDifferent(traits, assetTraits);
+    }
+
     private void deleteAssets(Realm realm, String dbKey) throws RealmException
     {
         String key = dbKey + "-";
@@ -687,16 +766,16 @@ public class TokensRealmSource implements TokenLocalSource {
         List<TokenCardMeta> tokenMetas = new ArrayList<>();
         try (Realm realm = realmManager.getRealmInstance(wallet))
         {
-            RealmResults<RealmToken> realmItems = realm.where(RealmToken.class)
+            RealmQuery<RealmToken> query = realm.where(RealmToken.class)
                     .sort("addedTime", Sort.ASCENDING)
-                    .beginGroup().equalTo("isEnabled", true).or().like("address", wallet.address.toLowerCase() + "*").endGroup()
-                    .like("address", ADDRESS_FORMAT)
-                    .findAll();
+                    .beginGroup().equalTo("isEnabled", true).or().equalTo("contractAddress", wallet.address.toLowerCase()).endGroup()
+                    .isNotNull("contractAddress");
+            if (networkFilters.size() > 0) query.in("chainId", networkFilters.toArray(new Integer[0]));
+            RealmResults<RealmToken> realmItems = query.findAll();
 
             for (RealmToken t : realmItems)
             {
-                if (networkFilters.size() > 0 && !networkFilters.contains(t.getChainId()) ||
-                        (t.getContractType() != ContractType.ETHEREUM && !t.getEnabled())) continue;
+                if (t.getContractType() != ContractType.ETHEREUM && !t.getEnabled()) continue;
 
                 TokenCardMeta meta = new TokenCardMeta(t.getChainId(), t.getTokenAddress(),
                         convertStringBalance(t.getBalance(), t.getContractType()), t.getUpdateTime(),
@@ -714,6 +793,93 @@ public class TokensRealmSource implements TokenLocalSource {
         return tokenMetas.toArray(new TokenCardMeta[0]);
     }
 
+    /**
+     * Publishes fine-grained changes to the wallet's token list, starting with an INSERT for each existing token.
+     * Covers the same rows as fetchTokenMetasForUpdate, so base chain tokens are included even when hidden;
+     * consumers check TokenCardMeta.isEnabled if they only want visible tokens.
+     * Realm notifications need a Looper, so all feeds run on one shared background HandlerThread.
+     * @param wallet
+     * @param svs if null, name weights are not calculated
+     * @return
+     */
+    @Override
+    public Flowable<TokenMetaChange> tokenMetaChanges(Wallet wallet, AssetDefinitionService svs)
+    {
+        Scheduler feedScheduler = AndroidSchedulers.from(getMetaFeedLooper());
+        return Flowable.<TokenMetaChange>create(emitter -> {
+            Realm realm = realmManager.getRealmInstance(wallet);
+            //mirror of the primary keys in the current result set, needed to resolve deletion indices
+            List<String> rowKeys = new ArrayList<>();
+            RealmResults<RealmToken> realmItems = realm.where(RealmToken.class)
+                    .beginGroup().equalTo("isEnabled", true).or().equalTo("contractAddress", wallet.address.toLowerCase()).endGroup()
+                    .isNotNull("contractAddress")
+                    .findAllAsync();
+
+            realmItems.addChangeListener((realmTokens, changeSet) -> {
+                if (emitter.isCancelled()) return;
+                switch (changeSet.getState())
+                {
+                    case ERROR:
+                        emitter.tryOnError(changeSet.getError());
+                        break;
+                    case INITIAL:
+                        for (RealmToken t : realmTokens)
+                        {
+                            rowKeys.add(t.getDatabaseKey());
+                            emitter.onNext(TokenMetaChange.inserted(createTokenMeta(t, svs)));
+                        }
+                        break;
+                    case UPDATE:
+                        //deletion indices refer to the old result set, insertions and changes to the new one
+                        int[] deletions = changeSet.getDeletions();
+                        for (int i = deletions.length - 1; i >= 0; i--)
+                        {
+                            emitter.onNext(TokenMetaChange.deleted(rowKeys.remove(deletions[i])));
+                        }
+                        for (int index : changeSet.getInsertions())
+                        {
+                            RealmToken t = realmTokens.get(index);
+                            rowKeys.add(index, t.getDatabaseKey());
+                            emitter.onNext(TokenMetaChange.inserted(createTokenMeta(t, svs)));
+                        }
+                        for (int index : changeSet.getChanges())
+                        {
+                            emitter.onNext(TokenMetaChange.updated(createTokenMeta(realmTokens.get(index), svs)));
+                        }
+                        break;
+                }
+            });
+
+            emitter.setDisposable(Disposables.fromAction(() -> {
+                realmItems.removeAllChangeListeners();
+                realm.close();
+            }));
+        }, BackpressureStrategy.BUFFER)
+                .subscribeOn(feedScheduler)
+                .unsubscribeOn(feedScheduler);
+    }
+
+    private static synchronized Looper getMetaFeedLooper()
+    {
+        if (metaFeedThread == null)
+        {
+            metaFeedThread = new HandlerThread("TokenMetaFeed");
+            metaFeedThread.start();
+        }
+
+        return metaFeedThread.getLooper();
+    }
+
+    private TokenCardMeta createTokenMeta(RealmToken t, AssetDefinitionService svs)
+    {
+        TokenCardMeta meta = new TokenCardMeta(t.getChainId(), t.getTokenAddress(),
+                convertStringBalance(t.getBalance(), t.getContractType()), t.getUpdateTime(),
+                svs, t.getName(), t.getSymbol(), t.getContractType());
+        meta.lastTxUpdate = t.getLastTxTime();
+        meta.isEnabled = t.getEnabled();
+        return meta;
+    }
+
     /**
      * Fetches all enabled TokenMetas in database, adding in chain tokens if required
      * @param wallet
@@ -729,15 +895,15 @@ public class TokensRealmSource implements TokenLocalSource {
             List<Integer> rootChainTokenCards = new ArrayList<>(networkFilters);
             try (Realm realm = realmManager.getRealmInstance(wallet))
             {
-                RealmResults<RealmToken> realmItems = realm.where(RealmToken.class)
+                RealmQuery<RealmToken> query = realm.where(RealmToken.class)
                         .sort("addedTime", Sort.ASCENDING)
                         .equalTo("isEnabled", true)
-                        .like("address", ADDRESS_FORMAT)
-                        .findAll();
+                        .isNotNull("contractAddress");
+                if (networkFilters.size() > 0) query.in("chainId", networkFilters.toArray(new Integer[0]));
+                RealmResults<RealmToken> realmItems = query.findAll();
 
                 for (RealmToken t : realmItems)
                 {
-                    if (networkFilters.size() > 0 && !networkFilters.contains(t.getChainId()) || !t.getEnabled()) continue;
                     String balance = convertStringBalance(t.getBalance(), t.getContractType());
 
                     if (t.getContractType() == ContractType.ETHEREUM && !(t.getTokenAddress().equalsIgnoreCase(wallet.address) || t.getTokenAddress().equals("eth")))
@@ -810,7 +976,7 @@ public class TokensRealmSource implements TokenLocalSource {
             {
                 RealmResults<RealmToken> realmItems = realm.where(RealmToken.class)
                         .sort("addedTime", Sort.ASCENDING)
-                        .like("address", ADDRESS_FORMAT)
+                        .isNotNull("contractAddress")
                         .findAll();
 
                 realm.beginTransaction();
@@ -854,7 +1020,7 @@ public class TokensRealmSource implements TokenLocalSource {
             {
                 RealmResults<RealmToken> realmItems = realm.where(RealmToken.class)
                         .like("auxData", "*" + searchTerm + "*", Case.INSENSITIVE)
-                        .like("address", ADDRESS_FORMAT)
+                        .isNotNull("contractAddress")
                         .findAll();
 
                 for (RealmToken t : realmItems)
@@ -899,75 +1065,23 @@ public class TokensRealmSource implements TokenLocalSource {
     @Override
     public Disposable updateEthTickers(Map<Integer, TokenTicker> ethTickers)
     {
-        return Completable.complete()
-                .subscribeWith(new DisposableCompletableObserver()
-                {
-                    Realm realm;
-
-                    @Override
-                    public void onStart()
-                    {
-                        realm = realmManager.getRealmInstance(TICKER_DB);
-                        realm.beginTransaction();
-                        for (int chainId : ethTickers.keySet())
-                        {
-                            writeTickerToRealm(realm, ethTickers.get(chainId), chainId, "eth");
-                        }
-                    }
-
-                    @Override
-                    public void onComplete()
-                    {
-                        if (realm.isInTransaction()) realm.commitTransaction();
-                        realm.close();
-                    }
-
-                    @Override
-                    public void onError(Throwable e)
-                    {
-                        if (realm != null && !realm.isClosed())
-                        {
-                            realm.close();
-                        }
-                    }
-                });
+        return realmManager.getRealmWriter(TICKER_DB).write(r -> {
+            for (int chainId : ethTickers.keySet())
+            {
+                writeTickerToRealm(r, ethTickers.get(chainId), chainId, "eth");
+            }
+        }).subscribe(() -> { }, Throwable::printStackTrace);
     }
 
     @Override
     public Disposable updateERC20Tickers(Map<String, TokenTicker> erc20Tickers)
     {
-        return Completable.complete()
-                .subscribeWith(new DisposableCompletableObserver()
-                {
-                    Realm realm;
-
-                    @Override
-                    public void onStart()
-                    {
-                        realm = realmManager.getRealmInstance(TICKER_DB);
-                        realm.beginTransaction();
-                        for (String tokenAddress : erc20Tickers.keySet())
-                        {
-                            writeTickerToRealm(realm, erc20Tickers.get(tokenAddress), MAINNET_ID, tokenAddress);
-                        }
-                    }
-
-                    @Override
-                    public void onComplete()
-                    {
-                        if (realm.isInTransaction()) realm.commitTransaction();
-                        realm.close();
-                    }
-
-                    @Override
-                    public void onError(Throwable e)
-                    {
-                        if (realm != null && !realm.isClosed())
-                        {
-                            realm.close();
-                        }
-                    }
-                });
+        return realmManager.getRealmWriter(TICKER_DB).write(r -> {
+            for (String tokenAddress : erc20Tickers.keySet())
+            {
+                writeTickerToRealm(r, erc20Tickers.get(tokenAddress), MAINNET_ID, tokenAddress);
+            }
+        }).subscribe(() -> { }, Throwable::printStackTrace);
     }
 
     @Override
@@ -1051,7 +1165,8 @@ public class TokensRealmSource implements TokenLocalSource {
             if (realmItem.getCurrencySymbol().equals(ticker.priceSymbol) && realmItem.getPrice().equals(ticker.price)
                 && realmItem.getPercentChange24h().equals(ticker.percentChange24h))
             {
-                //no update
+                //no change, but record that the ticker is still live so it isn't removed as outdated
+                realmItem.setUpdatedTime(ticker.updateTime);
                 return;
             }
         }
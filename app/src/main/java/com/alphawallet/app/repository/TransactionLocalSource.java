@@ -1,6 +1,8 @@
 package com.alphawallet.app.repository;
 
+import com.alphawallet.app.entity.ActivityCursor;
 import com.alphawallet.app.entity.ActivityMeta;
+import com.alphawallet.app.entity.ActivityPage;
 import com.alphawallet.app.entity.tokens.Token;
 import com.alphawallet.app.entity.Transaction;
 import com.alphawallet.app.entity.Wallet;
@@ -22,6 +24,7 @@ public interface TransactionLocalSource {
 	Realm getRealmInstance(Wallet wallet);
 	Single<ActivityMeta[]> fetchActivityMetas(Wallet wallet, int chainId, String tokenAddress, int historyCount);
 	Single<ActivityMeta[]> fetchEventMetas(Wallet wallet, List<Integer> networkFilters);
+	Single<ActivityPage> fetchActivityPage(Wallet wallet, List<Integer> networkFilters, ActivityCursor cursor, int pageSize);
 	void markTransactionBlock(String walletAddress, String hash, long blockValue);
 	Transaction[] fetchPendingTransactions(String currentAddress);
 
@@ -1,7 +1,9 @@
 package com.alphawallet.app.repository;
 
 import com.alphawallet.app.C;
+import com.alphawallet.app.entity.ActivityCursor;
 import com.alphawallet.app.entity.ActivityMeta;
+import com.alphawallet.app.entity.ActivityPage;
 import com.alphawallet.app.entity.Transaction;
 import com.alphawallet.app.entity.TransactionData;
 import com.alphawallet.app.entity.Wallet;
@@ -9,6 +11,7 @@ import com.alphawallet.app.entity.cryptokeys.SignatureFromKey;
 import com.alphawallet.app.entity.cryptokeys.SignatureReturnType;
 import com.alphawallet.app.repository.entity.RealmAuxData;
 import com.alphawallet.app.service.AccountKeystoreService;
+import com.alphawallet.app.service.SigningSession;
 import com.alphawallet.app.service.TransactionsService;
 import com.alphawallet.app.web3.entity.Web3Transaction;
 import com.alphawallet.token.entity.Signable;
@@ -286,6 +289,11 @@ public class TransactionRepository implements TransactionRepositoryType {
 		return accountKeystoreService.signTransactionFast(wallet, password, message, chainId);
 	}
 
+	@Override
+	public Single<SigningSession> openSigningSession(Wallet wallet, long validity) {
+		return accountKeystoreService.openSigningSession(wallet, validity);
+	}
+
 	/**
 	 * From Web3j to encode a constructor
 	 * @param rawTransaction
@@ -322,6 +330,12 @@ public class TransactionRepository implements TransactionRepositoryType {
 		return inDiskCache.fetchEventMetas(wallet, networkFilters);
 	}
 
+	@Override
+	public Single<ActivityPage> fetchActivityPage(Wallet wallet, List<Integer> networkFilters, ActivityCursor cursor, int pageSize)
+	{
+		return inDiskCache.fetchActivityPage(wallet, networkFilters, cursor, pageSize);
+	}
+
 	@Override
 	public Realm getRealmInstance(Wallet wallet)
 	{
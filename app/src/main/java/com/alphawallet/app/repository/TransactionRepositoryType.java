@@ -1,11 +1,14 @@
 package com.alphawallet.app.repository;
 
+import com.alphawallet.app.entity.ActivityCursor;
 import com.alphawallet.app.entity.ActivityMeta;
+import com.alphawallet.app.entity.ActivityPage;
 import com.alphawallet.app.entity.Transaction;
 import com.alphawallet.app.entity.TransactionData;
 import com.alphawallet.app.entity.Wallet;
 import com.alphawallet.app.entity.cryptokeys.SignatureFromKey;
 import com.alphawallet.app.repository.entity.RealmAuxData;
+import com.alphawallet.app.service.SigningSession;
 import com.alphawallet.app.web3.entity.Web3Transaction;
 import com.alphawallet.token.entity.Signable;
 
@@ -24,6 +27,7 @@ public interface TransactionRepositoryType {
 	Single<TransactionData> getSignatureForTransaction(Wallet wallet, Web3Transaction w3tx, int chainId);
 	Single<SignatureFromKey> getSignature(Wallet wallet, Signable message, int chainId);
 	Single<byte[]> getSignatureFast(Wallet wallet, String password, byte[] message, int chainId);
+	Single<SigningSession> openSigningSession(Wallet wallet, long validity);
 
     Transaction fetchCachedTransaction(String walletAddr, String hash);
 	long fetchTxCompletionTime(String walletAddr, String hash);
@@ -35,6 +39,7 @@ public interface TransactionRepositoryType {
     Single<ActivityMeta[]> fetchCachedTransactionMetas(Wallet wallet, List<Integer> networkFilters, long fetchTime, int fetchLimit);
 	Single<ActivityMeta[]> fetchCachedTransactionMetas(Wallet wallet, int chainId, String tokenAddress, int historyCount);
 	Single<ActivityMeta[]> fetchEventMetas(Wallet wallet, List<Integer> networkFilters);
+	Single<ActivityPage> fetchActivityPage(Wallet wallet, List<Integer> networkFilters, ActivityCursor cursor, int pageSize);
 
 	Realm getRealmInstance(Wallet wallet);
 
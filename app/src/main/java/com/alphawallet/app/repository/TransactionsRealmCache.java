@@ -2,19 +2,24 @@ package com.alphawallet.app.repository;
 
 import android.util.Log;
 
+import com.alphawallet.app.entity.ActivityCursor;
 import com.alphawallet.app.entity.ActivityMeta;
+import com.alphawallet.app.entity.ActivityPage;
 import com.alphawallet.app.entity.EventMeta;
 import com.alphawallet.app.entity.Transaction;
 import com.alphawallet.app.entity.TransactionMeta;
 import com.alphawallet.app.entity.Wallet;
 import com.alphawallet.app.repository.entity.RealmAuxData;
 import com.alphawallet.app.repository.entity.RealmTransaction;
+import com.alphawallet.app.repository.entity.RealmTransfer;
 import com.alphawallet.app.service.RealmManager;
+import com.alphawallet.app.ui.widget.entity.TokenTransferData;
 
-import org.jetbrains.annotations.NotNull;
 import org.web3j.protocol.core.methods.response.EthTransaction;
 
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
 
 import io.reactivex.Single;
@@ -29,6 +34,8 @@ public class TransactionsRealmCache implements TransactionLocalSource {
 
     private final RealmManager realmManager;
     private static final String TAG = "TRC";
+    private static final String TX_KEY = "t:";
+    private static final String EVENT_KEY = "e:";
 
     public TransactionsRealmCache(RealmManager realmManager) {
         this.realmManager = realmManager;
@@ -146,12 +153,12 @@ public class TransactionsRealmCache implements TransactionLocalSource {
             try (Realm instance = realmManager.getRealmInstance(wallet.address))
             {
                 RealmResults<RealmAuxData> evs = instance.where(RealmAuxData.class)
+                        .in("chainId", networkFilters.toArray(new Integer[0]))
                         .endsWith("instanceKey", EVENT_CARDS)
                         .findAll();
                 Log.d(TAG, "Found " + evs.size() + " TX Results");
                 for (RealmAuxData item : evs)
                 {
-                    if (!networkFilters.contains(item.getChainId())) continue;
                     EventMeta newMeta = new EventMeta(item.getTransactionHash(), item.getEventName(), item.getFunctionId(), item.getResultTime(), item.getChainId());
                     metas.add(newMeta);
                 }
@@ -173,17 +180,13 @@ public class TransactionsRealmCache implements TransactionLocalSource {
 
             try (Realm instance = realmManager.getRealmInstance(wallet))
             {
-                final RealmResults<RealmTransaction> txs = generateRealmQuery(instance, fetchTime, fetchLimit).findAll();
+                final RealmResults<RealmTransaction> txs = generateRealmQuery(instance, networkFilters, fetchTime, fetchLimit).findAll();
                 Log.d(TAG, "Found " + txs.size() + " TX Results");
-                fixBadTXValues(instance, fetchTime, fetchLimit);
 
                 for (RealmTransaction item : txs)
                 {
-                    if (networkFilters.contains(item.getChainId()))
-                    {
-                        TransactionMeta tm = new TransactionMeta(item.getHash(), item.getTimeStamp(), item.getTo(), item.getChainId(), item.getBlockNumber());
-                        metas.add(tm);
-                    }
+                    TransactionMeta tm = new TransactionMeta(item.getHash(), item.getTimeStamp(), item.getTo(), item.getChainId(), item.getBlockNumber());
+                    metas.add(tm);
                 }
             }
             catch (Exception e)
@@ -195,43 +198,217 @@ public class TransactionsRealmCache implements TransactionLocalSource {
         });
     }
 
-    private RealmQuery<RealmTransaction> generateRealmQuery(Realm instance, long fetchTime, int fetchLimit)
+    //chain filter and time cursor both run against indexed columns, and the limit now applies after the chain filter
+    private RealmQuery<RealmTransaction> generateRealmQuery(Realm instance, List<Integer> networkFilters, long fetchTime, int fetchLimit)
     {
+        RealmQuery<RealmTransaction> query = instance.where(RealmTransaction.class)
+                .sort("timeStamp", Sort.DESCENDING)
+                .in("chainId", networkFilters.toArray(new Integer[0]));
+
         if (fetchTime > 0)
         {
-            return instance.where(RealmTransaction.class)
-                    .sort("timeStamp", Sort.DESCENDING)
-                    .lessThan("timeStamp", fetchTime)
-                    .limit(fetchLimit);
-        }
-        else
-        {
-            return instance.where(RealmTransaction.class)
-                    .sort("timeStamp", Sort.DESCENDING)
-                    .limit(fetchLimit);
+            query.lessThan("timeStamp", fetchTime);
         }
+
+        return query.limit(fetchLimit);
     }
 
-    //Correct any bad value that was previously recorded in a way that wrote the wrong time value
-    //TODO: Remove this after a couple more releases, but it's harmless
-    private void fixBadTXValues(@NotNull Realm instance, final long fetchTime, final int fetchLimit)
+    /**
+     * Fetch one page of the activity list: transactions (with their token transfers) and TokenScript events,
+     * merged newest first. Each source is read with a keyset query from the cursor so page cost doesn't grow
+     * with the number of pages already shown.
+     * @param wallet
+     * @param networkFilters
+     * @param cursor position after the last row of the previous page, or ActivityCursor.START
+     * @param pageSize number of transaction and event rows in the page (transfers are added on top)
+     * @return the page; errors if the database can't be read, rather than returning an empty page
+     */
+    @Override
+    public Single<ActivityPage> fetchActivityPage(Wallet wallet, List<Integer> networkFilters, ActivityCursor cursor, int pageSize)
     {
-        long currentTime = System.currentTimeMillis() / 1000L;
-        instance.executeTransactionAsync(r -> {
-            final RealmResults<RealmTransaction> txs = generateRealmQuery(r, fetchTime, fetchLimit).findAll();
-            for (RealmTransaction item : txs)
+        return Single.fromCallable(() -> {
+            List<ActivityMeta> metas = new ArrayList<>();
+            ActivityCursor next = null;
+
+            try (Realm instance = realmManager.getRealmInstance(wallet))
             {
-                if ((currentTime - item.getTimeStamp()) < -3000 * 24 * 60 * 60 && (item.getBlockNumber().equals("-1") || item.getBlockNumber().equals("0")))
+                Integer[] chains = networkFilters.toArray(new Integer[0]);
+                List<PageRow> rows = new ArrayList<>();
+                rows.addAll(pageTransactions(instance, chains, cursor, pageSize));
+                rows.addAll(pageEvents(instance, chains, cursor, pageSize));
+                Collections.sort(rows, PAGE_ORDER);
+
+                int count = Math.min(pageSize, rows.size());
+                for (int i = 0; i < count; i++)
+                {
+                    PageRow row = rows.get(i);
+                    if (row.meta instanceof TransactionMeta)
+                    {
+                        addTransactionWithTransfers(instance, (TransactionMeta)row.meta, metas);
+                    }
+                    else
+                    {
+                        metas.add(row.meta);
+                    }
+                }
+
+                if (rows.size() >= pageSize)
                 {
-                    // potentially incorrectly recorded tx, change to pending to re-scan
-                    item.setBlockNumber("0");
-                    item.setError("0");
-                    item.setTimeStamp(currentTime);
+                    PageRow last = rows.get(pageSize - 1);
+                    next = new ActivityCursor(last.timeStamp, last.key);
                 }
             }
+
+            return new ActivityPage(metas.toArray(new ActivityMeta[0]), next);
         });
     }
 
+    private List<PageRow> pageTransactions(Realm instance, Integer[] chains, ActivityCursor cursor, int pageSize)
+    {
+        RealmQuery<RealmTransaction> query = instance.where(RealmTransaction.class)
+                .in("chainId", chains)
+                .lessThanOrEqualTo("timeStamp", cursor.timeStamp);
+        long ties = cursor.isStart() ? 0 : instance.where(RealmTransaction.class)
+                .in("chainId", chains)
+                .equalTo("timeStamp", cursor.timeStamp)
+                .count();
+
+        RealmResults<RealmTransaction> window = query.sort("timeStamp", Sort.DESCENDING)
+                .limit(pageSize + ties)
+                .findAll();
+
+        List<RealmTransaction> candidates = new ArrayList<>(window);
+        if (window.size() == pageSize + ties && window.size() > 0)
+        {
+            //the limit may have cut through a run of equal timestamps; re-read that run in full so key order is respected
+            long edgeTime = window.last().getTimeStamp();
+            for (int i = candidates.size() - 1; i >= 0 && candidates.get(i).getTimeStamp() == edgeTime; i--)
+            {
+                candidates.remove(i);
+            }
+            candidates.addAll(instance.where(RealmTransaction.class)
+                    .in("chainId", chains)
+                    .equalTo("timeStamp", edgeTime)
+                    .findAll());
+        }
+
+        List<PageRow> rows = new ArrayList<>();
+        for (RealmTransaction item : candidates)
+        {
+            String key = TX_KEY + item.getHash();
+            if (!cursor.precedes(item.getTimeStamp(), key)) continue;
+            rows.add(new PageRow(item.getTimeStamp(), key,
+                    new TransactionMeta(item.getHash(), item.getTimeStamp(), item.getTo(), item.getChainId(), item.getBlockNumber())));
+        }
+
+        return trimPage(rows, pageSize);
+    }
+
+    private List<PageRow> pageEvents(Realm instance, Integer[] chains, ActivityCursor cursor, int pageSize)
+    {
+        RealmQuery<RealmAuxData> query = instance.where(RealmAuxData.class)
+                .in("chainId", chains)
+                .endsWith("instanceKey", EVENT_CARDS)
+                .lessThanOrEqualTo("resultTime", cursor.timeStamp);
+        long ties = cursor.isStart() ? 0 : instance.where(RealmAuxData.class)
+                .in("chainId", chains)
+                .endsWith("instanceKey", EVENT_CARDS)
+                .equalTo("resultTime", cursor.timeStamp)
+                .count();
+
+        RealmResults<RealmAuxData> window = query.sort("resultTime", Sort.DESCENDING)
+                .limit(pageSize + ties)
+                .findAll();
+
+        List<RealmAuxData> candidates = new ArrayList<>(window);
+        if (window.size() == pageSize + ties && window.size() > 0)
+        {
+            long edgeTime = window.last().getResultTime();
+            for (int i = candidates.size() - 1; i >= 0 && candidates.get(i).getResultTime() == edgeTime; i--)
+            {
+                candidates.remove(i);
+            }
+            candidates.addAll(instance.where(RealmAuxData.class)
+                    .in("chainId", chains)
+                    .endsWith("instanceKey", EVENT_CARDS)
+                    .equalTo("resultTime", edgeTime)
+                    .findAll());
+        }
+
+        List<PageRow> rows = new ArrayList<>();
+        for (RealmAuxData item : candidates)
+        {
+            String key = EVENT_KEY + item.getInstanceKey();
+            if (!cursor.precedes(item.getResultTime(), key)) continue;
+            rows.add(new PageRow(item.getResultTime(), key,
+                    new EventMeta(item.getTransactionHash(), item.getEventName(), item.getFunctionId(), item.getResultTime(), item.getChainId())));
+        }
+
+        return trimPage(rows, pageSize);
+    }
+
+    private List<PageRow> trimPage(List<PageRow> rows, int pageSize)
+    {
+        Collections.sort(rows, PAGE_ORDER);
+        return rows.size() > pageSize ? rows.subList(0, pageSize) : rows;
+    }
+
+    private static final Comparator<PageRow> PAGE_ORDER = (r1, r2) -> {
+        if (r1.timeStamp != r2.timeStamp) return Long.compare(r2.timeStamp, r1.timeStamp);
+        return r1.key.compareTo(r2.key);
+    };
+
+    private static class PageRow
+    {
+        final long timeStamp;
+        final String key;
+        final ActivityMeta meta;
+
+        PageRow(long timeStamp, String key, ActivityMeta meta)
+        {
+            this.timeStamp = timeStamp;
+            this.key = key;
+            this.meta = meta;
+        }
+    }
+
+    /**
+     * Adds the transaction and its token transfers to the activity list with the following rules:
+     * - allow through all normal transactions with no token transfer consequences
+     * - for any transaction with token transfers; if there's only one token transfer, only show the transfer
+     * - for any transaction with more than one token transfer, show the transaction and show the child transfer consequences
+     */
+    public static void addTransactionWithTransfers(Realm realm, TransactionMeta tm, List<ActivityMeta> metas)
+    {
+        List<TokenTransferData> tokenTransfers = getTokenTransfersForHash(realm, tm);
+        if (tokenTransfers.size() != 1) { metas.add(tm); } //only 1 token transfer ? No need to show the underlying transaction
+        metas.addAll(tokenTransfers);
+    }
+
+    private static List<TokenTransferData> getTokenTransfersForHash(Realm realm, TransactionMeta tm)
+    {
+        List<TokenTransferData> transferData = new ArrayList<>();
+        //get matching entries for this transaction
+        RealmResults<RealmTransfer> transfers = realm.where(RealmTransfer.class)
+                .equalTo("hash", tm.hash)
+                .findAll();
+
+        if (transfers != null && transfers.size() > 0)
+        {
+            //list of transfers, descending in time to give ordered list
+            long nextTransferTime = transfers.size() == 1 ? tm.getTimeStamp() : tm.getTimeStamp() - 1; // if there's only 1 transfer, keep the transaction timestamp
+            for (RealmTransfer rt : transfers)
+            {
+                TokenTransferData ttd = new TokenTransferData(rt.getHash(), tm.chainId,
+                        rt.getTokenAddress(), rt.getEventName(), rt.getTransferDetail(), nextTransferTime);
+                transferData.add(ttd);
+                nextTransferTime--;
+            }
+        }
+
+        return transferData;
+    }
+
     @Override
     public RealmAuxData fetchEvent(String walletAddress, String eventKey)
     {
@@ -250,9 +427,9 @@ public class TransactionsRealmCache implements TransactionLocalSource {
     @Override
     public void putTransaction(Wallet wallet, final Transaction tx)
     {
-        try (Realm instance = realmManager.getRealmInstance(wallet))
+        try
         {
-            instance.executeTransactionAsync(r -> {
+            realmManager.getRealmWriter(wallet).write(r -> {
                 RealmTransaction realmTx = r.where(RealmTransaction.class)
                         .equalTo("hash", tx.hash)
                         .findFirst();
@@ -264,7 +441,7 @@ public class TransactionsRealmCache implements TransactionLocalSource {
 
                 fill(r, realmTx, tx);
                 r.insertOrUpdate(realmTx);
-            });
+            }).subscribe(() -> { }, Throwable::printStackTrace).isDisposed();
         }
         catch (Exception e)
         {
@@ -281,14 +458,14 @@ public class TransactionsRealmCache implements TransactionLocalSource {
 
         final Transaction tx = new Transaction(ethTx, chainId, isSuccessful, timeStamp);
 
-        deleteTransaction(wallet, ethTx.getHash());
-        try (Realm instance = realmManager.getRealmInstance(wallet))
+        deleteTransaction(wallet, ethTx.getHash()); //queued on the same writer, so runs first
+        try
         {
-            instance.executeTransactionAsync(r -> {
+            realmManager.getRealmWriter(wallet).write(r -> {
                 RealmTransaction item = r.createObject(RealmTransaction.class, ethTx.getHash());
                 fill(r, item, tx);
                 r.insertOrUpdate(item);
-            });
+            }).subscribe(() -> { }, Throwable::printStackTrace).isDisposed();
         }
         catch (Exception e)
         {
@@ -301,9 +478,9 @@ public class TransactionsRealmCache implements TransactionLocalSource {
     @Override
     public void deleteTransaction(Wallet wallet, String oldTxHash)
     {
-        try (Realm instance = realmManager.getRealmInstance(wallet))
+        try
         {
-            instance.executeTransactionAsync(r -> {
+            realmManager.getRealmWriter(wallet).write(r -> {
                 RealmTransaction realmTx = r.where(RealmTransaction.class)
                         .equalTo("hash", oldTxHash)
                         .findFirst();
@@ -313,7 +490,7 @@ public class TransactionsRealmCache implements TransactionLocalSource {
                     //deleteOperations(realmTx);
                     realmTx.deleteFromRealm();
                 }
-            });
+            }).subscribe(() -> { }, Throwable::printStackTrace).isDisposed();
         }
         catch (Exception e)
         {
@@ -362,9 +539,9 @@ public class TransactionsRealmCache implements TransactionLocalSource {
     @Override
     public void markTransactionBlock(String walletAddress, String hash, long blockValue)
     {
-        try (Realm instance = realmManager.getRealmInstance(new Wallet(walletAddress)))
+        try
         {
-            instance.executeTransactionAsync(r -> {
+            realmManager.getRealmWriter(walletAddress).write(r -> {
                 RealmTransaction realmTx = r.where(RealmTransaction.class)
                         .equalTo("hash", hash)
                         .findFirst();
@@ -374,7 +551,7 @@ public class TransactionsRealmCache implements TransactionLocalSource {
                     realmTx.setBlockNumber(String.valueOf(blockValue));
                     realmTx.setTimeStamp(System.currentTimeMillis() / 1000); //update timestamp so it's updated on the UI
                 }
-            });
+            }).subscribe(() -> { }, Throwable::printStackTrace).isDisposed();
         }
         catch (Exception e)
         {
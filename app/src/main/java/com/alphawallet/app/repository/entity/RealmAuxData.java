@@ -22,6 +22,7 @@ import io.realm.RealmObject;
 import io.realm.RealmQuery;
 import io.realm.RealmResults;
 import io.realm.Sort;
+import io.realm.annotations.Index;
 import io.realm.annotations.PrimaryKey;
 
 import static com.alphawallet.app.repository.TokensRealmSource.EVENT_CARDS;
@@ -34,11 +35,13 @@ public class RealmAuxData extends RealmObject
 {
     @PrimaryKey
     private String instanceKey; //should be token address, token Id, chainId
+    @Index
     private int chainId;
     private String tokenAddress;
     private String tokenId;
     private String functionId;
     private String result;
+    @Index
     private long resultTime;
     private long resultReceivedTime; //allows us to filter new events
 
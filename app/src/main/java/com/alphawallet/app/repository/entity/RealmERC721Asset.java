@@ -35,6 +35,11 @@ public class RealmERC721Asset extends RealmObject
         }
     }
 
+    public String getTokenIdAddr()
+    {
+        return tokenIdAddr;
+    }
+
     public String getImagePreviewUrl()
     {
         return imagePreviewUrl;
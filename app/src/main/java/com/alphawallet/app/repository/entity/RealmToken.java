@@ -10,11 +10,14 @@ import java.util.Collections;
 import java.util.List;
 
 import io.realm.RealmObject;
+import io.realm.annotations.Index;
 import io.realm.annotations.PrimaryKey;
 
 public class RealmToken extends RealmObject {
     @PrimaryKey
     private String address;
+    @Index
+    private String contractAddress; //plain contract address, only set for well formed 'address-chainId' keys
     private String name;
     private String symbol;
     private int decimals;
@@ -22,11 +25,13 @@ public class RealmToken extends RealmObject {
     private long updatedTime;
     private long lastTxTime;
     private String balance;
+    private byte[] tokenIds; //packed ticket IDs for ERC875 and ERC721 tickets, see PackedTokenIds
     private boolean isEnabled;
     private int tokenId;
     private int interfaceSpec;
     private String auxData;
     private long lastBlockRead;
+    @Index
     private int chainId;
     private long earliestTxBlock;
     private boolean visibilityChanged;
@@ -55,6 +60,18 @@ public class RealmToken extends RealmObject {
         this.name = name;
     }
 
+    public String getDatabaseKey() {
+        return address;
+    }
+
+    public String getContractAddress() {
+        return contractAddress;
+    }
+
+    public void setContractAddress(String contractAddress) {
+        this.contractAddress = contractAddress;
+    }
+
     public String getTokenAddress() {
         String tAddress = address;
         if (tAddress.contains(".")) //base chain
@@ -102,6 +119,14 @@ public class RealmToken extends RealmObject {
         this.balance = balance;
     }
 
+    public byte[] getTokenIds() {
+        return tokenIds;
+    }
+
+    public void setTokenIds(byte[] tokenIds) {
+        this.tokenIds = tokenIds;
+    }
+
     public boolean getEnabled() {
         return isEnabled;
     }
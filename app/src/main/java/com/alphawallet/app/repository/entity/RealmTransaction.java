@@ -1,12 +1,14 @@
 package com.alphawallet.app.repository.entity;
 
 import io.realm.RealmObject;
+import io.realm.annotations.Index;
 import io.realm.annotations.PrimaryKey;
 
 public class RealmTransaction extends RealmObject {
     @PrimaryKey
     private String hash;
     private String blockNumber;
+    @Index
     private long timeStamp;
     private int nonce;
     private String from;
@@ -17,6 +19,7 @@ public class RealmTransaction extends RealmObject {
     private String gasUsed;
     private String input;
     private String error;
+    @Index
     private int chainId;
     private long expectedCompletion;
     //private RealmList<RealmTransactionOperation> operations;
@@ -21,6 +21,7 @@ import io.realm.RealmObject;
 import io.realm.RealmQuery;
 import io.realm.RealmResults;
 import io.realm.Sort;
+import io.realm.annotations.Index;
 
 import static com.alphawallet.app.repository.TokensRealmSource.EVENT_CARDS;
 
@@ -29,6 +30,7 @@ import static com.alphawallet.app.repository.TokensRealmSource.EVENT_CARDS;
  */
 public class RealmTransfer extends RealmObject
 {
+    @Index
     private String hash;
     private String tokenAddress;
     private String eventName;
@@ -29,6 +29,7 @@ import java.util.Map;
 import okhttp3.CipherSuite;
 import okhttp3.ConnectionSpec;
 import okhttp3.Headers;
+import okhttp3.Interceptor;
 import okhttp3.MediaType;
 import okhttp3.OkHttpClient;
 import okhttp3.RequestBody;
@@ -94,6 +95,8 @@ public class AWHttpService extends HttpService
 
     private static final Logger log = LoggerFactory.getLogger(org.web3j.protocol.http.HttpService.class);
 
+    private static volatile Interceptor transportInterceptor; //eg RpcReplayInterceptor, for offline benchmarks and tests
+
     private OkHttpClient httpClient;
 
     private final String url;
@@ -106,11 +109,21 @@ public class AWHttpService extends HttpService
     public AWHttpService(String url, String secondaryUrl, OkHttpClient httpClient, boolean includeRawResponses) {
         super(includeRawResponses);
         this.url = url;
-        this.httpClient = httpClient;
+        Interceptor interceptor = transportInterceptor;
+        this.httpClient = interceptor != null ? httpClient.newBuilder().addInterceptor(interceptor).build() : httpClient;
         this.includeRawResponse = includeRawResponses;
         this.secondaryUrl = secondaryUrl;
     }
 
+    /**
+     * Route node calls made by services created after this call through the interceptor, eg to record or replay them.
+     * Pass null to go back to the network
+     */
+    public static void setTransportInterceptor(Interceptor interceptor)
+    {
+        transportInterceptor = interceptor;
+    }
+
     @Override
     protected InputStream performIO(String request) throws IOException
     {
@@ -159,6 +172,35 @@ public class AWHttpService extends HttpService
         return processNodeResponse(response, request, false);
     }
 
+    /**
+     * Send a JSON-RPC batch (a JSON array of calls) in one POST, falling back to the secondary node on failure
+     *
+     * @return response body: a JSON array of results, matched to calls by id
+     */
+    public String sendBatch(String batch) throws IOException
+    {
+        RequestBody requestBody = RequestBody.create(batch, JSON_MEDIA_TYPE);
+        Headers headers = buildHeaders();
+        IOException failure = new IOException("No node for batch");
+        for (String nodeUrl : new String[] { url, secondaryUrl })
+        {
+            if (nodeUrl == null) continue;
+            okhttp3.Request httpRequest =
+                    new okhttp3.Request.Builder().url(nodeUrl).headers(headers).post(requestBody).build();
+            try (okhttp3.Response response = httpClient.newCall(httpRequest).execute())
+            {
+                ResponseBody responseBody = response.body();
+                if (response.isSuccessful() && responseBody != null) return responseBody.string();
+                failure = new IOException("Invalid response received: " + response.code());
+            }
+            catch (IOException e)
+            {
+                failure = e;
+            }
+        }
+        throw failure;
+    }
+
     private InputStream trySecondaryNode(String request) throws IOException
     {
         RequestBody requestBody = RequestBody.create(request, JSON_MEDIA_TYPE);
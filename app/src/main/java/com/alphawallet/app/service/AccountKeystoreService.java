@@ -75,6 +75,16 @@ public interface AccountKeystoreService {
 			byte[] message,
 			long chainId);
 
+	/**
+	 * Unlock the signer's key for a run of signatures. User must have authenticated first
+	 * @param signer wallet to sign with
+	 * @param validity session lifetime in milliseconds
+	 * @return open {@link SigningSession}, to be closed by the caller
+	 */
+	Single<SigningSession> openSigningSession(
+			Wallet signer,
+			long validity);
+
 	/**
 	 * Check if there is an address in the keystore
 	 * @param address {@link Wallet} address
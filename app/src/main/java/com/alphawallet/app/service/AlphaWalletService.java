@@ -7,6 +7,7 @@ import com.alphawallet.app.entity.Wallet;
 import com.alphawallet.app.entity.tokens.Ticket;
 import com.alphawallet.app.repository.EthereumNetworkRepository;
 import com.alphawallet.app.repository.TransactionRepositoryType;
+import com.alphawallet.app.service.OutboundRequestScheduler.Priority;
 import com.alphawallet.app.util.Utils;
 import com.alphawallet.token.entity.MagicLinkData;
 import com.alphawallet.token.entity.XMLDsigDescriptor;
@@ -100,6 +101,7 @@ public class AlphaWalletService
                     .build();
 
             Request request = new Request.Builder().url(XML_VERIFIER_ENDPOINT)
+                    .tag(Priority.class, Priority.USER)
                     .post(requestBody)
                     .build();
 
@@ -260,6 +262,7 @@ public class AlphaWalletService
 
         Request request = new Request.Builder()
                 .url(sb.toString())
+                .tag(Priority.class, Priority.USER)
                 .post(RequestBody.create(mediaType, ""))
                 .build();
 
@@ -311,6 +314,7 @@ public class AlphaWalletService
 
                     Request request = new Request.Builder()
                             .url(sb.toString())
+                            .tag(Priority.class, Priority.USER)
                             .get()
                             .build();
 
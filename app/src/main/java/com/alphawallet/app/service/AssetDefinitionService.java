@@ -36,6 +36,7 @@ import com.alphawallet.app.repository.entity.RealmCertificateData;
 import com.alphawallet.app.repository.entity.RealmTokenScriptData;
 import com.alphawallet.app.ui.HomeActivity;
 import com.alphawallet.app.ui.widget.entity.IconItem;
+import com.alphawallet.app.util.DeferredStartup;
 import com.alphawallet.app.util.Utils;
 import com.alphawallet.app.viewmodel.HomeViewModel;
 import com.alphawallet.token.entity.Attribute;
@@ -88,13 +89,16 @@ import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.Set;
 import java.util.TimeZone;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.Semaphore;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import io.reactivex.Completable;
 import io.reactivex.Observable;
@@ -145,9 +149,13 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
     private final TokenLocalSource tokenLocalSource;
     private final AlphaWalletService alphaWalletService;
     private final TransactionRepositoryType transactionRespository;
+    private final BlockHeadTracker blockHeadTracker;
+    private final NodeSubscriptionService nodeSubscriptions;
+    private final Map<String, Disposable> logSubscriptions = new ConcurrentHashMap<>(); //pushed event logs, keyed as for event checks
     private TokenDefinition cachedDefinition = null;
     private final ConcurrentHashMap<String, EventDefinition> eventList = new ConcurrentHashMap<>(); //List of events built during file load
     private final Semaphore assetLoadingLock;  // used to block if someone calls getAssetDefinitionASync() while loading
+    private final AtomicBoolean initialLoadStarted = new AtomicBoolean(false);
     private Disposable eventListener;           // timer thread that periodically checks event logs for scripts that require events
     private final Semaphore eventConnection;
     private FragmentMessenger homeMessenger;
@@ -164,7 +172,8 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
     public AssetDefinitionService(OkHttpClient client, Context ctx, NotificationService svs,
                                   RealmManager rm, EthereumNetworkRepositoryType eth, TokensService tokensService,
                                   TokenLocalSource trs, TransactionRepositoryType trt,
-                                  AlphaWalletService alphaService)
+                                  AlphaWalletService alphaService, BlockHeadTracker blockHeadTracker,
+                                  NodeSubscriptionService nodeSubscriptions)
     {
         context = ctx;
         okHttpClient = client;
@@ -177,10 +186,25 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
         tokenscriptUtility = new TokenscriptFunction() { }; //no overridden functions
         tokenLocalSource = trs;
         transactionRespository = trt;
-        assetLoadingLock = new Semaphore(1);
+        this.blockHeadTracker = blockHeadTracker;
+        this.nodeSubscriptions = nodeSubscriptions;
+        assetLoadingLock = new Semaphore(0); //held until the initial load completes
         eventConnection = new Semaphore(1);
         //deleteAllEventData();
-        loadAssetScripts();
+        DeferredStartup.post("loadAssetScripts", this::initialLoad);
+    }
+
+    /**
+     * First load of the TokenScripts, off the startup path. Runs once: from the deferred startup queue, or sooner
+     * on the thread of whichever caller needs the scripts first.
+     *
+     * @return true if this call did the load
+     */
+    private boolean initialLoad()
+    {
+        if (!initialLoadStarted.compareAndSet(false, true)) return false;
+        loadAssetScriptsLocked();
+        return true;
     }
 
     /**
@@ -202,6 +226,11 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
             e.printStackTrace();
         }
 
+        loadAssetScriptsLocked();
+    }
+
+    private void loadAssetScriptsLocked()
+    {
         List<String> handledHashes = checkRealmScriptsForChanges();
         loadNewFiles(handledHashes);
 
@@ -784,25 +813,28 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
     public Single<TokenDefinition> getAssetDefinitionASync(int chainId, final String address)
     {
         if (address == null) return Single.fromCallable(TokenDefinition::new);
-        String contractName = address;
-        if (contractName.equalsIgnoreCase(tokensService.getCurrentAddress())) contractName = "ethereum";
+        final String contractName = address.equalsIgnoreCase(tokensService.getCurrentAddress()) ? "ethereum" : address;
 
-        // hold until asset definitions have finished loading
-        waitForAssets();
+        //wait for the asset definitions on the subscribing thread, not the caller's
+        return Single.defer(() -> {
+            // hold until asset definitions have finished loading
+            waitForAssets();
 
-        final TokenDefinition assetDef = getDefinition(chainId, contractName.toLowerCase());
-        if (assetDef != null) return Single.fromCallable(() -> assetDef);
-        else if (!contractName.equals("ethereum"))
-        {
-            //at this stage, this script isn't replacing any existing script, so it's safe to write to database without checking if we need to delete anything
-            return fetchXMLFromServer(contractName.toLowerCase())
-                    .flatMap(this::handleNewTSFile);
-        }
-        else return Single.fromCallable(TokenDefinition::new);
+            final TokenDefinition assetDef = getDefinition(chainId, contractName.toLowerCase());
+            if (assetDef != null) return Single.just(assetDef);
+            else if (!contractName.equals("ethereum"))
+            {
+                //at this stage, this script isn't replacing any existing script, so it's safe to write to database without checking if we need to delete anything
+                return fetchXMLFromServer(contractName.toLowerCase())
+                        .flatMap(this::handleNewTSFile);
+            }
+            else return Single.fromCallable(TokenDefinition::new);
+        });
     }
 
     private void waitForAssets()
     {
+        initialLoad();
         try
         {
             assetLoadingLock.acquire();
@@ -1208,6 +1240,7 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
     {
         if (eventListener != null && !eventListener.isDisposed()) eventListener.dispose();
         if (checkEventDisposable != null && !checkEventDisposable.isDisposed()) checkEventDisposable.dispose();
+        stopLogSubscriptions();
     }
 
     public void startEventListener()
@@ -1229,10 +1262,20 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
     {
         //check events for corresponding tokens
         return Completable.fromAction(() -> {
-            for (EventDefinition ev : eventList.values())
+            Set<String> liveKeys = new HashSet<>();
+            for (Map.Entry<String, EventDefinition> entry : eventList.entrySet())
             {
+                //no new logs can have appeared unless the chain has advanced since the last check
+                EventDefinition ev = entry.getValue();
+                String consumerKey = "ev:" + tokensService.getCurrentAddress() + "-" + entry.getKey();
+                liveKeys.add(consumerKey);
+                subscribeLogs(consumerKey, ev);
+                if (nodeSubscriptions.isConnected(ev.getEventChainId())) continue; //logs are being pushed over the socket
+                if (!blockHeadTracker.blockAdvanced(consumerKey, ev.getEventChainId())) continue;
+                blockHeadTracker.markBlock(consumerKey, ev.getEventChainId());
                 getEvent(ev);
             }
+            blockHeadTracker.retainConsumers("ev:", liveKeys); //events of removed scripts or the previous wallet
         });
     }
 
@@ -1276,14 +1319,39 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
             }
             return txHash;
         });
-        //More elegant, but requires a private node
-//        return web3j.ethLogFlowable(filter)
-//                .subscribeOn(Schedulers.io())
-//                .observeOn(AndroidSchedulers.mainThread())
-//                .subscribe(log -> {
-//            System.out.println("log.toString(): " +  log.toString());
-//            //TODO here: callback to event service listener
-//        }, this::onLogError);
+    }
+
+    /**
+     * For chains with a WebSocket node, take the event's logs as they are mined rather than polling for them.
+     * While the socket is down checkEvents polls as usual, picking up from the last block the logs were read to.
+     */
+    private void subscribeLogs(String consumerKey, EventDefinition ev) throws Exception
+    {
+        if (logSubscriptions.containsKey(consumerKey) || !nodeSubscriptions.hasWebSocket(ev.getEventChainId())) return;
+
+        final String walletAddress = tokensService.getCurrentAddress();
+        for (String key : logSubscriptions.keySet())
+        {
+            //drop subscriptions for the previous wallet
+            if (!key.startsWith("ev:" + walletAddress + "-"))
+            {
+                Disposable d = logSubscriptions.remove(key);
+                if (d != null) d.dispose();
+            }
+        }
+
+        EthFilter filter = getEventFilter(ev);
+        if (filter == null) return;
+
+        logSubscriptions.put(consumerKey, nodeSubscriptions.logs(ev.getEventChainId(), filter)
+                .observeOn(Schedulers.computation())
+                .subscribe(log -> processLogs(ev, Collections.<EthLog.LogResult>singletonList(log), walletAddress), Throwable::printStackTrace));
+    }
+
+    private void stopLogSubscriptions()
+    {
+        for (Disposable d : logSubscriptions.values()) d.dispose();
+        logSubscriptions.clear();
     }
 
     private EthFilter getEventFilter(EventDefinition ev) throws Exception
@@ -1354,23 +1422,24 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
     private void storeLatestEventBlockTime(String walletAddress, EventDefinition ev, BigInteger readBlock)
     {
         ev.readBlock = readBlock.add(BigInteger.ONE);
-        try (Realm realm = realmManager.getRealmInstance(walletAddress))
+        try
         {
             int chainId = ev.getEventChainId();
             String eventAddress = ev.getEventContractAddress();
             String eventName = ev.activityName != null ? ev.activityName : ev.attributeName;
             String databaseKey = TokensRealmSource.eventBlockKey(chainId, eventAddress, ev.type.name, ev.filter);
-            realm.executeTransactionAsync(r -> {
+            String readBlockHex = ev.readBlock.toString(16);
+            realmManager.getRealmWriter(walletAddress).write(r -> {
                 RealmAuxData realmToken = r.where(RealmAuxData.class)
                         .equalTo("instanceKey", databaseKey)
                         .findFirst();
                 if (realmToken == null) realmToken = r.createObject(RealmAuxData.class, databaseKey);
                 realmToken.setResultTime(System.currentTimeMillis());
-                realmToken.setResult(ev.readBlock.toString(16));
+                realmToken.setResult(readBlockHex);
                 realmToken.setFunctionId(eventName);
                 realmToken.setChainId(chainId);
                 realmToken.setTokenAddress("");
-            });
+            }).subscribe(() -> { }, Throwable::printStackTrace).isDisposed();
         }
         catch (Exception e)
         {
@@ -1397,9 +1466,9 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
 
     private void storeAuxData(String walletAddress, String databaseKey, BigInteger tokenId, String eventData, String activityName, ContractAddress cAddr, long blockTime)
     {
-        try (Realm realm = realmManager.getRealmInstance(walletAddress))
+        try
         {
-            realm.executeTransactionAsync(r -> {
+            realmManager.getRealmWriter(walletAddress).write(r -> {
                 RealmAuxData realmToken = r.where(RealmAuxData.class)
                         .equalTo("instanceKey", databaseKey)
                         .findFirst();
@@ -1411,7 +1480,7 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
                 realmToken.setTokenId(tokenId.toString(16));
                 realmToken.setTokenAddress(cAddr.address);
                 realmToken.setResultReceivedTime(System.currentTimeMillis());
-            });
+            }).subscribe(() -> { }, Throwable::printStackTrace).isDisposed();
         }
         catch (Exception e)
         {
@@ -2061,11 +2130,11 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
     {
         if (tokensService.getCurrentAddress() == null || !Utils.isAddressValid(tokensService.getCurrentAddress())) return tResult;
         if (tResult.result == null || tResult.resultTime < 0) return tResult;
-        try (Realm realm = realmManager.getRealmInstance(walletAddress))
+        try
         {
             ContractAddress cAddr = new ContractAddress(tResult.contractChainId, tResult.contractAddress);
             String databaseKey = functionKey(cAddr, tResult.tokenId, tResult.attrId);
-            realm.executeTransactionAsync(r -> {
+            realmManager.getRealmWriter(walletAddress).write(r -> {
                 RealmAuxData realmToken = r.where(RealmAuxData.class)
                         .equalTo("instanceKey", databaseKey)
                         .equalTo("chainId", tResult.contractChainId)
@@ -2081,7 +2150,7 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
                     realmToken.setResultTime(tResult.resultTime);
                     realmToken.setResultReceivedTime(System.currentTimeMillis());
                 }
-            });
+            }).subscribe(() -> { }, Throwable::printStackTrace).isDisposed();
         }
         catch (Exception e)
         {
@@ -2409,7 +2478,7 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
     public Single<List<TokenLocator>> getAllTokenDefinitions(boolean refresh)
     {
         return Single.fromCallable(() -> {
-            if (refresh)
+            if (refresh && !initialLoad())
             {
                 loadAssetScripts();
             }
@@ -2537,6 +2606,14 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
     }
 
     public IconItem fetchIconForToken(Token token)
+    {
+        return fetchIconForToken(token, true);
+    }
+
+    /**
+     * @param markChecked false if the icon isn't being shown yet; see {@link IconItem}
+     */
+    public IconItem fetchIconForToken(Token token, boolean markChecked)
     {
         String correctedAddr = Keys.toChecksumAddress(token.getAddress());
 
@@ -2546,7 +2623,7 @@ public class AssetDefinitionService implements ParseResult, AttributeInterface
             tURL = Utils.getTokenImageUrl(token.tokenInfo.chainId, correctedAddr);
         }
 
-        return new IconItem(tURL, correctedAddr, token.tokenInfo.chainId);
+        return new IconItem(tURL, correctedAddr, token.tokenInfo.chainId, markChecked);
     }
 
     public Single<Integer> fetchViewHeight(int chainId, String address)
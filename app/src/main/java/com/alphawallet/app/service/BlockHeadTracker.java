@@ -0,0 +1,188 @@
+package com.alphawallet.app.service;
+
+import com.alphawallet.app.repository.TokenRepository;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
+
+/**
+ * Shared per-chain source of new block numbers. The first subscriber for a chain starts an eth_blockNumber poll,
+ * later subscribers share it and immediately receive the last known block; the poll stops when the last
+ * subscriber goes away.
+ *
+ * The poll adapts to the chain: each poll that doesn't see a new block backs the interval off, up to a limit,
+ * and a new block resets it. While the app is out of focus the base interval and limit are much longer.
+ *
+ * Chains with a WebSocket endpoint also take pushed newHeads; the HTTP poll only runs while the socket is down.
+ *
+ * Pollers use {@link #blockAdvanced} / {@link #markBlock} to skip work for chains that haven't produced a
+ * block since they last ran, and {@link #newBlockEvents} to run work as soon as a block arrives. Each poller
+ * prunes its own marks with {@link #retainConsumers} as the things it polls for go away.
+ */
+public class BlockHeadTracker
+{
+    private static final long FOCUS_POLL_INTERVAL = 4000; //In milliseconds
+    private static final long FOCUS_MAX_INTERVAL = 30000;
+    private static final long BACKGROUND_POLL_INTERVAL = 60000;
+    private static final long BACKGROUND_MAX_INTERVAL = 5 * 60000;
+
+    private final NodeSubscriptionService nodeSubscriptions;
+    private final ConcurrentHashMap<Integer, Observable<BigInteger>> blockHeads = new ConcurrentHashMap<>();
+    private final Map<Integer, BigInteger> latestBlock = new ConcurrentHashMap<>();
+    private final Map<String, BigInteger> consumerBlocks = new ConcurrentHashMap<>();
+    private final Subject<Integer> newBlockSubject = PublishSubject.<Integer>create().toSerialized();
+    private volatile boolean appHasFocus = true;
+
+    public BlockHeadTracker(NodeSubscriptionService nodeSubscriptions)
+    {
+        this.nodeSubscriptions = nodeSubscriptions;
+    }
+
+    /**
+     * @return stream of block numbers for this chain, only emitting when the block changes
+     */
+    public Observable<BigInteger> blockHeads(int chainId)
+    {
+        Observable<BigInteger> heads = blockHeads.get(chainId);
+        if (heads == null)
+        {
+            heads = Observable.defer(() -> pollChain(chainId))
+                    .doOnNext(block -> {
+                        latestBlock.put(chainId, block);
+                        newBlockSubject.onNext(chainId);
+                    })
+                    .doOnDispose(() -> latestBlock.remove(chainId))
+                    .replay(1)
+                    .refCount();
+            Observable<BigInteger> existing = blockHeads.putIfAbsent(chainId, heads);
+            if (existing != null) heads = existing;
+        }
+
+        return heads;
+    }
+
+    /**
+     * @return chainId each time any tracked chain produces a new block
+     */
+    public Observable<Integer> newBlockEvents()
+    {
+        return newBlockSubject;
+    }
+
+    /**
+     * @return last block seen for the chain while it is being tracked, or null if not known
+     */
+    public BigInteger getLatestBlock(int chainId)
+    {
+        return latestBlock.get(chainId);
+    }
+
+    /**
+     * @param consumer key for the piece of work, eg a token balance or an event definition
+     * @return true if the chain has moved on since the consumer last marked it, or if the chain isn't being tracked
+     */
+    public boolean blockAdvanced(String consumer, int chainId)
+    {
+        BigInteger latest = latestBlock.get(chainId);
+        return latest == null || !latest.equals(consumerBlocks.get(consumer));
+    }
+
+    /**
+     * Record that the consumer has done its work for the current block
+     */
+    public void markBlock(String consumer, int chainId)
+    {
+        BigInteger latest = latestBlock.get(chainId);
+        if (latest != null) consumerBlocks.put(consumer, latest);
+    }
+
+    /**
+     * Record that the consumer has done its work for a block read before the work started; work that takes a
+     * while to finish uses this so a block arriving meanwhile isn't marked as done
+     * @param block from {@link #getLatestBlock} when the work started, may be null
+     */
+    public void markBlock(String consumer, BigInteger block)
+    {
+        if (block != null) consumerBlocks.put(consumer, block);
+    }
+
+    /**
+     * Drop the marks for consumers of one kind that no longer exist, eg mined transactions, removed tokens or the
+     * previous wallet's event definitions. A dropped consumer that comes back is treated as never having run.
+     * @param prefix kind of consumer, eg "tx:"
+     * @param live keys of that kind which are still in use
+     */
+    public void retainConsumers(String prefix, Set<String> live)
+    {
+        consumerBlocks.keySet().removeIf(key -> key.startsWith(prefix) && !live.contains(key));
+    }
+
+    public void setAppFocus(boolean hasFocus)
+    {
+        appHasFocus = hasFocus;
+    }
+
+    private Observable<BigInteger> pollChain(int chainId)
+    {
+        final PollState state = new PollState();
+        Observable<BigInteger> poll = fetchBlockNumber(chainId)
+                .repeatWhen(done -> done.concatMap(v -> Observable.timer(state.nextDelay(appHasFocus), TimeUnit.MILLISECONDS, Schedulers.io())));
+
+        Observable<BigInteger> heads = poll;
+        if (nodeSubscriptions.hasWebSocket(chainId))
+        {
+            //pushed heads keep the socket open; fall back to polling whenever it's down
+            heads = Observable.merge(nodeSubscriptions.newHeads(chainId),
+                    nodeSubscriptions.connectionState(chainId).switchMap(connected -> connected ? Observable.<BigInteger>empty() : poll));
+        }
+
+        return heads.filter(state::isNewBlock);
+    }
+
+    private Observable<BigInteger> fetchBlockNumber(int chainId)
+    {
+        return Observable.fromCallable(() -> TokenRepository.getWeb3jService(chainId).ethBlockNumber().send().getBlockNumber())
+                .subscribeOn(Schedulers.io())
+                .onErrorResumeNext(Observable.empty()); //skip this poll, try again next time
+    }
+
+    private static class PollState
+    {
+        private BigInteger lastBlock;
+        private boolean sawNewBlock;
+        private long delay;
+
+        synchronized boolean isNewBlock(BigInteger block)
+        {
+            //only move forward, socket and HTTP node may briefly disagree while switching over
+            sawNewBlock = lastBlock == null || block.compareTo(lastBlock) > 0;
+            if (sawNewBlock) lastBlock = block;
+            return sawNewBlock;
+        }
+
+        synchronized long nextDelay(boolean hasFocus)
+        {
+            long base = hasFocus ? FOCUS_POLL_INTERVAL : BACKGROUND_POLL_INTERVAL;
+            long max = hasFocus ? FOCUS_MAX_INTERVAL : BACKGROUND_MAX_INTERVAL;
+            //outside the current range means focus changed; start again from the base interval
+            if (sawNewBlock || delay < base || delay > max)
+            {
+                delay = base;
+            }
+            else
+            {
+                delay = Math.min(max, delay * 3 / 2);
+            }
+            sawNewBlock = false;
+            return delay;
+        }
+    }
+}
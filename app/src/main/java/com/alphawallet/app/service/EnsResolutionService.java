@@ -0,0 +1,353 @@
+package com.alphawallet.app.service;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.text.TextUtils;
+import android.util.LruCache;
+
+import com.alphawallet.app.entity.tokenscript.TokenscriptFunction;
+import com.alphawallet.app.repository.TokenRepository;
+import com.alphawallet.app.util.AWEnsResolver;
+import com.alphawallet.app.util.Utils;
+
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.FunctionReturnDecoder;
+import org.web3j.abi.TypeReference;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.DynamicArray;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.abi.datatypes.Type;
+import org.web3j.abi.datatypes.Utf8String;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.response.EthCall;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.SingleSubject;
+import io.reactivex.subjects.Subject;
+
+import static com.alphawallet.ethereum.EthereumNetworkBase.MAINNET_ID;
+import static org.web3j.protocol.core.methods.request.Transaction.createEthCallTransaction;
+
+/**
+ * Shared front end for ENS lookups. Forward (name -> address) and reverse (address -> name) results are cached
+ * with a TTL in a bounded memory layer, backed by a SharedPreferences store so they survive restarts.
+ * Concurrent requests for the same key share one lookup, and reverse lookups arriving within a short window
+ * are collected and resolved together with one call to the ENS ReverseRecords contract.
+ */
+public class EnsResolutionService
+{
+    private static final String REVERSE_RECORDS = "0x3671aE578E63FdF66ad4F3E12CC0c0d71Ac7510C";
+    private static final String CACHE_PREFS = "ens_resolution_cache";
+    private static final String FORWARD_KEY = "f:";
+    private static final String REVERSE_KEY = "r:";
+
+    private static final int MEMORY_CACHE_SIZE = 512;
+    private static final int MAX_STORED_ENTRIES = 2000;
+    private static final int MAX_BATCH_SIZE = 100;
+    private static final long BATCH_WINDOW = 60; //In milliseconds
+    private static final long LOOKUP_TIMEOUT = 20; //In seconds
+
+    private static final long FOUND_TTL = TimeUnit.HOURS.toMillis(6);
+    private static final long NOT_FOUND_TTL = TimeUnit.MINUTES.toMillis(10);
+
+    private static volatile EnsResolutionService mInstance;
+
+    private final AWEnsResolver resolver;
+    private final SharedPreferences store;
+    private final LruCache<String, CacheEntry> memoryCache = new LruCache<>(MEMORY_CACHE_SIZE);
+    private final Map<String, Single<String>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, SingleSubject<String>> pendingReverse = new ConcurrentHashMap<>();
+    private final Subject<String> reverseQueue = PublishSubject.<String>create().toSerialized();
+    private int storedCount = -1; //entries in the store, counted on first write
+
+    public static EnsResolutionService getInstance(Context ctx)
+    {
+        if (mInstance == null)
+        {
+            synchronized (EnsResolutionService.class)
+            {
+                if (mInstance == null)
+                {
+                    mInstance = new EnsResolutionService(ctx.getApplicationContext());
+                }
+            }
+        }
+        return mInstance;
+    }
+
+    private EnsResolutionService(Context ctx)
+    {
+        resolver = new AWEnsResolver(TokenRepository.getWeb3jService(MAINNET_ID), ctx);
+        store = ctx.getSharedPreferences(CACHE_PREFS, Context.MODE_PRIVATE);
+
+        reverseQueue.buffer(BATCH_WINDOW, TimeUnit.MILLISECONDS, Schedulers.io(), MAX_BATCH_SIZE)
+                .filter(batch -> !batch.isEmpty())
+                .subscribe(this::resolveReverseBatch, Throwable::printStackTrace);
+    }
+
+    /**
+     * Given an address, find any corresponding ENS name (eg fredblogs.eth)
+     * @param address Ethereum address
+     * @return ENS name or empty string; also empty if the lookup fails or takes longer than LOOKUP_TIMEOUT
+     */
+    public Single<String> resolveEnsName(String address)
+    {
+        if (!Utils.isAddressValid(address)) return Single.just("");
+        String key = REVERSE_KEY + address.toLowerCase();
+        String cached = getCached(key);
+        if (cached != null) return Single.just(cached);
+
+        return Single.defer(() -> {
+            SingleSubject<String> created = SingleSubject.create();
+            SingleSubject<String> existing = pendingReverse.putIfAbsent(key, created);
+            if (existing == null) reverseQueue.onNext(address.toLowerCase());
+            final SingleSubject<String> pending = existing != null ? existing : created;
+            return pending.timeout(LOOKUP_TIMEOUT, TimeUnit.SECONDS)
+                    .doOnError(e -> pendingReverse.remove(key, pending)) //let the next request queue a fresh lookup
+                    .onErrorReturnItem("");
+        });
+    }
+
+    /**
+     * Resolve many addresses at once, eg the counterparties of a page of activity
+     * @param addresses Ethereum addresses
+     * @return map of lower case address to ENS name, only containing addresses that have a name
+     */
+    public Single<Map<String, String>> resolveEnsNames(Collection<String> addresses)
+    {
+        return Observable.fromIterable(addresses)
+                .filter(Utils::isAddressValid)
+                .map(String::toLowerCase)
+                .distinct()
+                .flatMapSingle(address -> resolveEnsName(address)
+                        .map(name -> new String[] { address, name }))
+                .filter(pair -> !TextUtils.isEmpty(pair[1]))
+                .toMap(pair -> pair[0], pair -> pair[1]);
+    }
+
+    /**
+     * Warm the cache for addresses that are about to be displayed; results are picked up by {@link #getCachedEnsName}
+     */
+    public void prefetchEnsNames(Collection<String> addresses)
+    {
+        resolveEnsNames(addresses)
+                .subscribeOn(Schedulers.io())
+                .subscribe(names -> { }, Throwable::printStackTrace)
+                .isDisposed();
+    }
+
+    /**
+     * Given an ENS Name (eg fredblogs.eth), find corresponding Ethereum address
+     * @param ensName ensName to be resolved to address
+     * @return Ethereum address or empty string
+     */
+    public Single<String> resolveENSAddress(String ensName)
+    {
+        if (TextUtils.isEmpty(ensName)) return Single.just("");
+        String key = FORWARD_KEY + ensName.toLowerCase();
+        String cached = getCached(key);
+        if (cached != null) return Single.just(cached);
+
+        return Single.defer(() -> {
+            Single<String> lookup = inFlight.get(key);
+            if (lookup == null)
+            {
+                lookup = resolver.resolveENSAddress(ensName)
+                        .subscribeOn(Schedulers.io())
+                        .doOnSuccess(address -> {
+                            //the resolver returns empty on network errors too, so only cache definite answers
+                            if (!TextUtils.isEmpty(address)) putCached(key, address);
+                        })
+                        .doFinally(() -> inFlight.remove(key))
+                        .cache();
+                Single<String> existing = inFlight.putIfAbsent(key, lookup);
+                if (existing != null) lookup = existing;
+            }
+            return lookup;
+        });
+    }
+
+    /**
+     * Non-blocking check for an already known name, suitable for calling while binding views
+     * @return ENS name, or null if the address has not been resolved yet
+     */
+    public String getCachedEnsName(String address)
+    {
+        if (TextUtils.isEmpty(address)) return null;
+        String name = getCached(REVERSE_KEY + address.toLowerCase());
+        return TextUtils.isEmpty(name) ? null : name;
+    }
+
+    //Only checks names the user has previously entered
+    public String checkENSHistoryForAddress(String address)
+    {
+        return resolver.checkENSHistoryForAddress(address);
+    }
+
+    /**
+     * Must not throw: an error would end the subscription to reverseQueue, and with it reverse lookups for the
+     * rest of the session. Empty results are only cached when they came from the ReverseRecords contract; the
+     * resolver also returns empty when a lookup fails, so its empty results aren't cached.
+     */
+    private void resolveReverseBatch(List<String> addresses)
+    {
+        Map<String, String> results = null;
+        try
+        {
+            results = fetchReverseRecords(addresses);
+        }
+        catch (Exception e)
+        {
+            //batch contract call failed; fall back to resolving each address individually
+        }
+
+        for (String address : addresses)
+        {
+            String name = "";
+            boolean definite = false;
+            try
+            {
+                if (results != null)
+                {
+                    name = results.get(address) != null ? results.get(address) : "";
+                    definite = true;
+                }
+                //a name the user previously entered may be set forward-only without a reverse record; let the resolver verify it
+                if (TextUtils.isEmpty(name) && (results == null || !TextUtils.isEmpty(resolver.checkENSHistoryForAddress(address))))
+                {
+                    name = resolver.resolveEnsName(address).onErrorReturnItem("").blockingGet();
+                    definite = !TextUtils.isEmpty(name);
+                }
+            }
+            catch (Exception e)
+            {
+                definite = false;
+            }
+
+            String key = REVERSE_KEY + address;
+            if (definite) putCached(key, name);
+            SingleSubject<String> pending = pendingReverse.remove(key);
+            if (pending != null) pending.onSuccess(name);
+        }
+    }
+
+    /**
+     * The ReverseRecords contract performs the reverse lookup and the forward check for each address in one call,
+     * returning an empty string where there is no name or the name doesn't resolve back to the address
+     */
+    private Map<String, String> fetchReverseRecords(List<String> addresses) throws Exception
+    {
+        List<Address> addressList = new ArrayList<>();
+        for (String address : addresses) addressList.add(new Address(address));
+
+        Function getNames = new Function("getNames",
+                Collections.<Type>singletonList(new DynamicArray<>(Address.class, addressList)),
+                Collections.<TypeReference<?>>singletonList(new TypeReference<DynamicArray<Utf8String>>() {}));
+
+        org.web3j.protocol.core.methods.request.Transaction transaction
+                = createEthCallTransaction(TokenscriptFunction.ZERO_ADDRESS, REVERSE_RECORDS, FunctionEncoder.encode(getNames));
+        EthCall response = TokenRepository.getWeb3jService(MAINNET_ID).ethCall(transaction, DefaultBlockParameterName.LATEST).send();
+
+        if (response.hasError() || TextUtils.isEmpty(response.getValue()) || response.getValue().equals("0x"))
+        {
+            throw new Exception("ReverseRecords call failed");
+        }
+
+        List<Type> decoded = FunctionReturnDecoder.decode(response.getValue(), getNames.getOutputParameters());
+        List<Utf8String> names = ((DynamicArray<Utf8String>) decoded.get(0)).getValue();
+        if (names.size() != addresses.size()) throw new Exception("ReverseRecords result mismatch");
+
+        Map<String, String> results = new HashMap<>();
+        for (int i = 0; i < addresses.size(); i++)
+        {
+            results.put(addresses.get(i), names.get(i).getValue());
+        }
+        return results;
+    }
+
+    private String getCached(String key)
+    {
+        long now = System.currentTimeMillis();
+        CacheEntry entry = memoryCache.get(key);
+        if (entry == null)
+        {
+            entry = CacheEntry.decode(store.getString(key, null));
+            if (entry != null) memoryCache.put(key, entry);
+        }
+
+        return (entry != null && entry.expiry > now) ? entry.value : null;
+    }
+
+    private synchronized void putCached(String key, String value)
+    {
+        CacheEntry entry = new CacheEntry(value, System.currentTimeMillis() + (TextUtils.isEmpty(value) ? NOT_FOUND_TTL : FOUND_TTL));
+        memoryCache.put(key, entry);
+
+        SharedPreferences.Editor editor = store.edit();
+        if (storedCount < 0) storedCount = store.getAll().size();
+        if (!store.contains(key) && ++storedCount > MAX_STORED_ENTRIES) pruneStore(editor);
+        editor.putString(key, entry.encode()).apply();
+    }
+
+    private void pruneStore(SharedPreferences.Editor editor)
+    {
+        long now = System.currentTimeMillis();
+        Map<String, ?> stored = store.getAll();
+        int remaining = stored.size();
+        for (Map.Entry<String, ?> item : stored.entrySet())
+        {
+            CacheEntry entry = CacheEntry.decode((String) item.getValue());
+            //drop expired entries, and failed lookups if that isn't enough
+            if (entry == null || entry.expiry <= now || (remaining >= MAX_STORED_ENTRIES && TextUtils.isEmpty(entry.value)))
+            {
+                editor.remove(item.getKey());
+                remaining--;
+            }
+        }
+        storedCount = remaining + 1; //the entry being added
+    }
+
+    private static class CacheEntry
+    {
+        final String value;
+        final long expiry;
+
+        CacheEntry(String value, long expiry)
+        {
+            this.value = value;
+            this.expiry = expiry;
+        }
+
+        String encode()
+        {
+            return expiry + "," + value;
+        }
+
+        static CacheEntry decode(String stored)
+        {
+            if (stored == null) return null;
+            int index = stored.indexOf(',');
+            if (index < 0) return null;
+            try
+            {
+                return new CacheEntry(stored.substring(index + 1), Long.parseLong(stored.substring(0, index)));
+            }
+            catch (NumberFormatException e)
+            {
+                return null;
+            }
+        }
+    }
+}
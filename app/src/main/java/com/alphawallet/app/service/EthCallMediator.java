@@ -0,0 +1,206 @@
+package com.alphawallet.app.service;
+
+import android.util.LruCache;
+
+import com.alphawallet.app.repository.TokenRepository;
+import com.alphawallet.app.util.TokenBucket;
+import com.alphawallet.app.web3.entity.Web3Call;
+
+import org.web3j.protocol.core.DefaultBlockParameter;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.DefaultBlockParameterNumber;
+import org.web3j.protocol.core.methods.response.EthCall;
+
+import java.math.BigInteger;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Single;
+import io.reactivex.disposables.CompositeDisposable;
+import io.reactivex.schedulers.Schedulers;
+
+import static org.web3j.protocol.core.methods.request.Transaction.createEthCallTransaction;
+
+/**
+ * Sits between the dapp browser and the node for eth_call. Identical calls in flight share one request.
+ * Results for 'latest' are cached against the current block from the shared BlockHeadTracker and drop out
+ * when the next block arrives; results for a pinned block number (or 'earliest') never change so are kept
+ * until evicted. Calls that do reach the node are rate limited per page origin; a call over the limit waits for
+ * the next permit rather than failing, and is answered from the cache if an identical call filled it meanwhile.
+ */
+public class EthCallMediator
+{
+    private static final int CACHE_SIZE = 1024;
+    private static final int ORIGIN_BURST = 30;
+    private static final double ORIGIN_CALLS_PER_SECOND = 15.0;
+
+    private final BlockHeadTracker blockHeadTracker;
+    private final LruCache<String, CachedCall> resultCache = new LruCache<>(CACHE_SIZE);
+    private final Map<String, Single<EthCall>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, TokenBucket> originLimits = new ConcurrentHashMap<>();
+    private final Map<Integer, Boolean> trackedChains = new ConcurrentHashMap<>();
+    private final CompositeDisposable blockSubscriptions = new CompositeDisposable();
+
+    private final AtomicLong callCount = new AtomicLong();
+    private final AtomicLong cacheHits = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong rateLimited = new AtomicLong();
+
+    public EthCallMediator(BlockHeadTracker tracker)
+    {
+        this.blockHeadTracker = tracker;
+    }
+
+    public Single<EthCall> ethCall(String origin, int chainId, String from, Web3Call call)
+    {
+        callCount.incrementAndGet();
+        trackChain(chainId);
+
+        String callKey = chainId + "-" + from + "-" + call.to.toString() + "-" + call.payload + "-" + call.blockParam.getValue();
+        return mediate(origin, chainId, from, call, callKey, false);
+    }
+
+    private Single<EthCall> mediate(String origin, int chainId, String from, Web3Call call, String callKey, boolean delayed)
+    {
+        return Single.defer(() -> {
+            BigInteger cacheBlock = getCacheBlock(chainId, call.blockParam);
+            CachedCall cached = resultCache.get(callKey);
+            if (cached != null && cacheBlock != null && cacheBlock.equals(cached.block))
+            {
+                cacheHits.incrementAndGet();
+                return Single.just(cached.result);
+            }
+
+            Single<EthCall> pending = inFlight.get(callKey);
+            if (pending != null)
+            {
+                coalesced.incrementAndGet();
+                return pending;
+            }
+
+            TokenBucket limit = getOriginLimit(origin);
+            if (!limit.tryAcquire())
+            {
+                //wait for the next permit, then check the cache and in-flight calls again
+                if (!delayed) rateLimited.incrementAndGet();
+                return Single.timer(limit.nanosToNextPermit(), TimeUnit.NANOSECONDS)
+                        .flatMap(t -> mediate(origin, chainId, from, call, callKey, true));
+            }
+
+            Single<EthCall> request = Single.fromCallable(() -> TokenRepository.getWeb3jService(chainId)
+                        .ethCall(createEthCallTransaction(from, call.to.toString(), call.payload), call.blockParam).send())
+                    .subscribeOn(Schedulers.io())
+                    .doOnSuccess(result -> {
+                        //errors and reverts aren't cached; the next call retries
+                        if (cacheBlock != null && !result.hasError()) resultCache.put(callKey, new CachedCall(cacheBlock, result));
+                    })
+                    .doFinally(() -> inFlight.remove(callKey))
+                    .cache();
+
+            pending = inFlight.putIfAbsent(callKey, request);
+            if (pending != null)
+            {
+                coalesced.incrementAndGet();
+                return pending;
+            }
+            return request;
+        });
+    }
+
+    public long getCallCount()
+    {
+        return callCount.get();
+    }
+
+    /**
+     * @return calls answered from the cache or by joining an identical call already in flight
+     */
+    public long getCallsSaved()
+    {
+        return cacheHits.get() + coalesced.get();
+    }
+
+    public long getCacheHits()
+    {
+        return cacheHits.get();
+    }
+
+    public long getCoalesced()
+    {
+        return coalesced.get();
+    }
+
+    /**
+     * @return calls which had to wait for the origin rate limit
+     */
+    public long getRateLimited()
+    {
+        return rateLimited.get();
+    }
+
+    public void stop()
+    {
+        blockSubscriptions.clear();
+        trackedChains.clear();
+        resultCache.evictAll();
+    }
+
+    /**
+     * @return the block a result for this call can be cached against, or null if the result can't be cached
+     */
+    private BigInteger getCacheBlock(int chainId, DefaultBlockParameter blockParam)
+    {
+        if (blockParam instanceof DefaultBlockParameterNumber)
+        {
+            return ((DefaultBlockParameterNumber) blockParam).getBlockNumber();
+        }
+        else if (blockParam == DefaultBlockParameterName.EARLIEST)
+        {
+            return BigInteger.ZERO;
+        }
+        else if (blockParam == DefaultBlockParameterName.LATEST)
+        {
+            return blockHeadTracker.getLatestBlock(chainId);
+        }
+        else
+        {
+            return null; //pending state can change at any time
+        }
+    }
+
+    private void trackChain(int chainId)
+    {
+        if (trackedChains.put(chainId, true) == null)
+        {
+            //keep the shared poller running for this chain while the browser is using it
+            blockSubscriptions.add(blockHeadTracker.blockHeads(chainId)
+                    .subscribe(block -> { }, Throwable::printStackTrace));
+        }
+    }
+
+    private TokenBucket getOriginLimit(String origin)
+    {
+        TokenBucket limit = originLimits.get(origin);
+        if (limit == null)
+        {
+            limit = new TokenBucket(ORIGIN_BURST, ORIGIN_CALLS_PER_SECOND);
+            TokenBucket existing = originLimits.putIfAbsent(origin, limit);
+            if (existing != null) limit = existing;
+        }
+        return limit;
+    }
+
+    private static class CachedCall
+    {
+        final BigInteger block;
+        final EthCall result;
+
+        CachedCall(BigInteger block, EthCall result)
+        {
+            this.block = block;
+            this.result = result;
+        }
+    }
+}
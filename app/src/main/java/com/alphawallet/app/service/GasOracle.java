@@ -0,0 +1,229 @@
+package com.alphawallet.app.service;
+
+import com.alphawallet.app.entity.GasPriceSpread;
+import com.alphawallet.app.repository.TokenRepository;
+import com.alphawallet.token.tools.Numeric;
+
+import org.web3j.protocol.core.Request;
+import org.web3j.protocol.core.Response;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Local gas price estimates for any chain, built from the node's recent blocks rather than a single eth_gasPrice.
+ *
+ * Each chain has a fixed size ring buffer of the last WINDOW blocks' base fee and priority fee percentiles, filled
+ * incrementally from eth_feeHistory: only the blocks since the last update are fetched. Running sums of each
+ * percentile column are kept as blocks enter and leave the window, so the spread is recomputed in constant time.
+ * Nodes without eth_feeHistory, and pre London chains whose history has no base fee, are sampled with eth_gasPrice
+ * once per block instead. Any other eth_feeHistory error is thrown, and the next update tries it again.
+ *
+ * Buffers are kept for the life of the app, so switching back to a chain has its spread straight away.
+ */
+public class GasOracle
+{
+    private static final int WINDOW = 20; //blocks
+    private static final List<Integer> PERCENTILES = Arrays.asList(10, 50, 75, 90);
+    private static final int SLOW = 0;
+    private static final int STANDARD = 1;
+    private static final int FAST = 2;
+    private static final int RAPID = 3;
+
+    private final Map<Integer, FeeWindow> windows = new ConcurrentHashMap<>();
+
+    /**
+     * Bring the chain's window up to date and recompute its spread. Blocking; call on an io thread.
+     *
+     * @param latestBlock current block if known (eg from BlockHeadTracker), or null
+     * @return updated spread; unchanged if the chain hasn't moved on since the last update
+     */
+    public GasPriceSpread update(int chainId, BigInteger latestBlock) throws Exception
+    {
+        FeeWindow window = windows.get(chainId);
+        if (window == null)
+        {
+            window = new FeeWindow();
+            FeeWindow existing = windows.putIfAbsent(chainId, window);
+            if (existing != null) window = existing;
+        }
+
+        synchronized (window)
+        {
+            long latest = latestBlock != null ? latestBlock.longValue() : 0;
+            if (latest > 0 && latest <= window.lastBlock && window.spread != null) return window.spread;
+
+            if (window.hasFeeHistory)
+            {
+                int blockCount = WINDOW;
+                if (window.lastBlock > 0 && latest > 0) blockCount = (int) Math.max(1, Math.min(WINDOW, latest - window.lastBlock));
+                else if (window.lastBlock > 0) blockCount = 1;
+
+                FeeHistory history = new Request<>("eth_feeHistory",
+                        Arrays.asList(Numeric.toHexStringWithPrefix(BigInteger.valueOf(blockCount)), "latest", PERCENTILES),
+                        TokenRepository.getNodeService(chainId), FeeHistory.class).send();
+
+                if (history.hasError() || history.getResult() == null)
+                {
+                    if (!isUnsupported(history.getError()))
+                    {
+                        throw new IOException("eth_feeHistory failed: " + (history.hasError() ? history.getError().getMessage() : "no result"));
+                    }
+                    window.hasFeeHistory = false; //node doesn't support it; sample the legacy gas price from now on
+                }
+                else if (!hasBaseFee(history.getResult()))
+                {
+                    window.hasFeeHistory = false; //pre London chain
+                }
+                else
+                {
+                    return window.addHistory(history.getResult());
+                }
+            }
+
+            BigInteger gasPrice = TokenRepository.getWeb3jService(chainId).ethGasPrice().send().getGasPrice();
+            return window.addGasPrice(gasPrice.longValue(), latest);
+        }
+    }
+
+    /**
+     * @return true if the error means the node doesn't have the method, rather than a failure worth retrying
+     */
+    public static boolean isUnsupported(Response.Error error)
+    {
+        if (error == null) return false;
+        if (error.getCode() == -32601) return true; //JSON-RPC method not found
+        String message = error.getMessage() != null ? error.getMessage().toLowerCase(Locale.ROOT) : "";
+        return message.contains("not found") || message.contains("does not exist") || message.contains("not supported");
+    }
+
+    private static boolean hasBaseFee(FeeHistory.Result result)
+    {
+        List<String> baseFees = result.baseFeePerGas;
+        return baseFees != null && !baseFees.isEmpty() && Numeric.toBigInt(baseFees.get(baseFees.size() - 1)).signum() > 0;
+    }
+
+    /**
+     * @return last computed spread for the chain, or null if it hasn't been seen yet
+     */
+    public GasPriceSpread getSpread(int chainId)
+    {
+        FeeWindow window = windows.get(chainId);
+        return window != null ? window.getSpread() : null;
+    }
+
+    /**
+     * One chain's last WINDOW blocks. Not thread safe; GasOracle holds the window's lock while updating it
+     */
+    public static class FeeWindow
+    {
+        private final long[] baseFee = new long[WINDOW];
+        private final long[][] tips = new long[PERCENTILES.size()][WINDOW];
+        private final long[] tipSums = new long[PERCENTILES.size()];
+        private int head;
+        private int count;
+        private long lastBlock;
+        private long nextBaseFee;
+        private boolean hasFeeHistory = true;
+        private GasPriceSpread spread;
+
+        /**
+         * Add the blocks of an eth_feeHistory result which are newer than the window
+         * @return spread from the next block's base fee plus the window's mean tip at each percentile
+         */
+        public GasPriceSpread addHistory(FeeHistory.Result result)
+        {
+            long oldest = Numeric.toBigInt(result.oldestBlock).longValue();
+            int blocks = result.baseFeePerGas.size() - 1; //last entry is the base fee of the next block
+            for (int i = 0; i < blocks; i++)
+            {
+                if (oldest + i <= lastBlock) continue; //already in the window
+                long[] blockTips = new long[PERCENTILES.size()];
+                List<String> reward = result.reward != null && i < result.reward.size() ? result.reward.get(i) : null;
+                for (int p = 0; reward != null && p < blockTips.length && p < reward.size(); p++)
+                {
+                    blockTips[p] = Numeric.toBigInt(reward.get(p)).longValue();
+                }
+                push(Numeric.toBigInt(result.baseFeePerGas.get(i)).longValue(), blockTips);
+                lastBlock = oldest + i;
+            }
+
+            nextBaseFee = Numeric.toBigInt(result.baseFeePerGas.get(blocks)).longValue();
+            long base = nextBaseFee;
+            spread = new GasPriceSpread(
+                    BigInteger.valueOf(base + base / 8 + meanTip(RAPID)), //allow for one full block of base fee rise
+                    BigInteger.valueOf(base + meanTip(FAST)),
+                    BigInteger.valueOf(base + meanTip(STANDARD)),
+                    BigInteger.valueOf(base + meanTip(SLOW)));
+            return spread;
+        }
+
+        /**
+         * Pre London chains: the window holds the node's gas price per block. Standard is the current price;
+         * slow and fast are the window's low and high, where they differ from it.
+         */
+        public GasPriceSpread addGasPrice(long gasPrice, long block)
+        {
+            push(gasPrice, new long[PERCENTILES.size()]);
+            lastBlock = Math.max(lastBlock, block);
+
+            long low = gasPrice;
+            long high = gasPrice;
+            for (int i = 0; i < count; i++)
+            {
+                low = Math.min(low, baseFee[i]);
+                high = Math.max(high, baseFee[i]);
+            }
+
+            spread = new GasPriceSpread(
+                    BigInteger.ZERO,
+                    high > gasPrice ? BigInteger.valueOf(high) : BigInteger.ZERO,
+                    BigInteger.valueOf(gasPrice),
+                    low < gasPrice ? BigInteger.valueOf(low) : BigInteger.ZERO);
+            return spread;
+        }
+
+        public GasPriceSpread getSpread()
+        {
+            return spread;
+        }
+
+        public long getLastBlock()
+        {
+            return lastBlock;
+        }
+
+        private void push(long blockBaseFee, long[] blockTips)
+        {
+            for (int p = 0; p < blockTips.length; p++)
+            {
+                if (count == WINDOW) tipSums[p] -= tips[p][head];
+                tips[p][head] = blockTips[p];
+                tipSums[p] += blockTips[p];
+            }
+            baseFee[head] = blockBaseFee;
+            head = (head + 1) % WINDOW;
+            if (count < WINDOW) count++;
+        }
+
+        private long meanTip(int percentile)
+        {
+            return count > 0 ? tipSums[percentile] / count : 0;
+        }
+    }
+
+    public static class FeeHistory extends Response<FeeHistory.Result>
+    {
+        public static class Result
+        {
+            public String oldestBlock;
+            public List<String> baseFeePerGas;
+            public List<List<String>> reward;
+        }
+    }
+}
@@ -8,6 +8,7 @@ import com.alphawallet.app.entity.Wallet;
 import com.alphawallet.app.repository.EthereumNetworkRepository;
 import com.alphawallet.app.repository.EthereumNetworkRepositoryType;
 import com.alphawallet.app.util.BalanceUtils;
+import com.alphawallet.app.util.WorkerSchedulers;
 import com.alphawallet.token.tools.Numeric;
 
 import org.web3j.protocol.Web3j;
@@ -22,7 +23,6 @@ import java.util.concurrent.TimeUnit;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 import io.reactivex.disposables.Disposable;
-import io.reactivex.schedulers.Schedulers;
 
 import static com.alphawallet.app.repository.TokenRepository.getWeb3jService;
 import static com.alphawallet.ethereum.EthereumNetworkBase.XDAI_ID;
@@ -123,8 +123,7 @@ public class GasService implements ContractGasProvider
         Single.fromCallable(() -> web3j
                 .ethGasPrice()
                 .send())
-                .subscribeOn(Schedulers.io())
-                .observeOn(Schedulers.newThread())
+                .subscribeOn(WorkerSchedulers.rpc())
           .subscribe(price -> {
             if (price.getGasPrice().compareTo(BalanceUtils.gweiToWei(BigDecimal.ZERO)) > 0)
             {
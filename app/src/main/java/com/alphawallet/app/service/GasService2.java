@@ -9,6 +9,7 @@ import com.alphawallet.app.entity.tokens.Token;
 import com.alphawallet.app.repository.EthereumNetworkRepository;
 import com.alphawallet.app.repository.EthereumNetworkRepositoryType;
 import com.alphawallet.app.repository.entity.RealmGasSpread;
+import com.alphawallet.app.service.OutboundRequestScheduler.Priority;
 import com.alphawallet.app.web3.entity.Web3Transaction;
 import com.alphawallet.token.tools.Numeric;
 
@@ -16,7 +17,6 @@ import org.jetbrains.annotations.Nullable;
 import org.web3j.protocol.Web3j;
 import org.web3j.protocol.core.methods.request.Transaction;
 import org.web3j.protocol.core.methods.response.EthEstimateGas;
-import org.web3j.protocol.core.methods.response.EthGasPrice;
 import org.web3j.tx.gas.ContractGasProvider;
 
 import java.math.BigInteger;
@@ -49,23 +49,31 @@ public class GasService2 implements ContractGasProvider
 {
     private final static String GAS_NOW_API = "https://www.gasnow.org/api/v3/gas/price?utm_source=AlphaWallet";
     public final static long FETCH_GAS_PRICE_INTERVAL_SECONDS = 15;
+    private final static String GAS_CONSUMER = "gas";
     private final static long TWELVE_HOURS = 12 * DateUtils.HOUR_IN_MILLIS;
 
     private final EthereumNetworkRepositoryType networkRepository;
     private final OkHttpClient httpClient;
     private final RealmManager realmManager;
+    private final BlockHeadTracker blockHeadTracker;
+    private final GasOracle gasOracle;
     private int currentChainId;
     private Web3j web3j;
     private BigInteger currentGasPrice;
 
     @Nullable
     private Disposable gasFetchDisposable;
+    @Nullable
+    private Disposable blockHeadDisposable;
 
-    public GasService2(EthereumNetworkRepositoryType networkRepository, OkHttpClient httpClient, RealmManager realm)
+    public GasService2(EthereumNetworkRepositoryType networkRepository, OkHttpClient httpClient, RealmManager realm, BlockHeadTracker blockHeadTracker,
+                       GasOracle gasOracle)
     {
         this.networkRepository = networkRepository;
         this.httpClient = httpClient;
         this.realmManager = realm;
+        this.blockHeadTracker = blockHeadTracker;
+        this.gasOracle = gasOracle;
         gasFetchDisposable = null;
         currentChainId = MAINNET_ID;
 
@@ -75,10 +83,19 @@ public class GasService2 implements ContractGasProvider
     public void startGasPriceCycle(int chainId)
     {
         updateChainId(chainId);
+        if (blockHeadDisposable != null && !blockHeadDisposable.isDisposed()) blockHeadDisposable.dispose();
+        blockHeadDisposable = blockHeadTracker.blockHeads(chainId)
+                .subscribe(block -> { }, Throwable::printStackTrace);
+
         if (gasFetchDisposable == null || gasFetchDisposable.isDisposed())
         {
+            //gas price only moves with new blocks; skip the fetch if the chain hasn't advanced since the last one
             gasFetchDisposable = Observable.interval(0, FETCH_GAS_PRICE_INTERVAL_SECONDS, TimeUnit.SECONDS)
-                    .doOnNext(l -> fetchCurrentGasPrice()).subscribe();
+                    .filter(l -> blockHeadTracker.blockAdvanced(GAS_CONSUMER, currentChainId))
+                    .doOnNext(l -> {
+                        blockHeadTracker.markBlock(GAS_CONSUMER, currentChainId);
+                        fetchCurrentGasPrice();
+                    }).subscribe();
         }
     }
 
@@ -88,6 +105,10 @@ public class GasService2 implements ContractGasProvider
         {
             gasFetchDisposable.dispose();
         }
+        if (blockHeadDisposable != null && !blockHeadDisposable.isDisposed())
+        {
+            blockHeadDisposable.dispose();
+        }
     }
 
     public void updateChainId(int chainId)
@@ -104,6 +125,9 @@ public class GasService2 implements ContractGasProvider
         {
             currentChainId = chainId;
             web3j = getWeb3jService(chainId);
+            //oracle keeps each chain's window, so a chain we've seen before has a price before the next fetch
+            GasPriceSpread known = gasOracle.getSpread(chainId);
+            if (known != null) currentGasPrice = fixGasPrice(known.standard, chainId);
         }
     }
 
@@ -144,7 +168,8 @@ public class GasService2 implements ContractGasProvider
     {
         if (currentChainId == MAINNET_ID)
         {
-            return updateGasNow();
+            return updateGasNow()
+                    .flatMap(updated -> updated ? Single.just(true) : useNodeEstimate());
         }
         else
         {
@@ -164,16 +189,23 @@ public class GasService2 implements ContractGasProvider
         else
         {
             final int nodeId = currentChainId;
-            return Single.fromCallable(() -> web3j
-                    .ethGasPrice().send())
-                    .map(price -> updateGasPrice(price, nodeId));
+            return Single.fromCallable(() -> gasOracle.update(nodeId, blockHeadTracker.getLatestBlock(nodeId)))
+                    .map(spread -> updateGasPrice(spread, nodeId));
         }
     }
 
-    private Boolean updateGasPrice(EthGasPrice ethGasPrice, int chainId)
+    private Boolean updateGasPrice(GasPriceSpread spread, int chainId)
     {
-        currentGasPrice = fixGasPrice(ethGasPrice.getGasPrice(), chainId);
-        updateRealm(new GasPriceSpread(currentGasPrice), chainId);
+        if (spread.standard.compareTo(BigInteger.ZERO) > 0)
+        {
+            currentGasPrice = spread.standard;
+            updateRealm(spread, chainId);
+        }
+        else
+        {
+            currentGasPrice = fixGasPrice(spread.standard, chainId);
+            updateRealm(new GasPriceSpread(currentGasPrice), chainId);
+        }
         return true;
     }
 
@@ -205,6 +237,7 @@ public class GasService2 implements ContractGasProvider
             {
                 Request request = new Request.Builder()
                         .url(GAS_NOW_API)
+                        .tag(Priority.class, Priority.BACKGROUND)
                         .get()
                         .build();
                 okhttp3.Response response = httpClient.newCall(request)
@@ -383,6 +383,51 @@ public class KeyService implements AuthenticationCallback, PinAuthenticationCall
         return returnSig;
     }
 
+    /**
+     * Unlock the wallet's key once for a run of signatures, eg a market queue sales batch.
+     * As for signData, the user must have authenticated just before this call.
+     *
+     * @param wallet HD or keystore wallet
+     * @param validity session lifetime in milliseconds, capped at SigningSession.MAX_VALIDITY
+     * @return open session; the caller must close it when done
+     */
+    synchronized SigningSession openSigningSession(Wallet wallet, long validity) throws KeyServiceException, UserNotAuthenticatedException
+    {
+        currentWallet = wallet;
+        byte[] privateKey;
+        switch (wallet.type)
+        {
+            case KEYSTORE_LEGACY:
+            case KEYSTORE:
+                try
+                {
+                    String password = wallet.type == WalletType.KEYSTORE ? unpackMnemonic()
+                            : new String(getLegacyPassword(context, wallet.address));
+                    File keyFolder = new File(context.getFilesDir(), KEYSTORE_FOLDER);
+                    Credentials credentials = KeystoreAccountService.getCredentials(keyFolder, wallet.address, password);
+                    if (credentials == null) throw new KeyServiceException(context.getString(R.string.no_key));
+                    privateKey = Numeric.toBytesPadded(credentials.getEcKeyPair().getPrivateKey(), 32);
+                }
+                catch (ServiceErrorException e)
+                {
+                    throw new KeyServiceException(e.getMessage());
+                }
+                break;
+
+            case HDKEY:
+                HDWallet newWallet = new HDWallet(unpackMnemonic(), "");
+                privateKey = newWallet.getKeyForCoin(CoinType.ETHEREUM).data();
+                break;
+
+            case WATCH:
+                throw new KeyServiceException(context.getString(R.string.watch_wallet));
+            default:
+                throw new KeyServiceException(context.getString(R.string.no_key));
+        }
+
+        return new SigningSession(privateKey, validity);
+    }
+
     /**
      * Fetches keystore password for export/backup of keystore
      *
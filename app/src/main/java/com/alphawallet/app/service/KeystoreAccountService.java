@@ -7,7 +7,6 @@ import com.alphawallet.app.entity.Wallet;
 import com.alphawallet.app.entity.WalletType;
 import com.alphawallet.app.entity.cryptokeys.SignatureFromKey;
 import com.alphawallet.app.entity.cryptokeys.SignatureReturnType;
-import com.alphawallet.app.util.Utils;
 import com.alphawallet.token.entity.Signable;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.DeserializationFeature;
@@ -33,12 +32,8 @@ import java.math.BigInteger;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collections;
-import java.util.Date;
-import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
-import java.util.Map;
 
 import io.reactivex.Completable;
 import io.reactivex.Single;
@@ -112,7 +107,9 @@ public class KeystoreAccountService implements AccountKeystoreService
                 String fileName = "UTC--" + asString.replace(":", "-") + "--" + Numeric.cleanHexPrefix(credentials.getAddress());
                 //write new keystore to file
                 File destination = new File(keyFolder, fileName);
+                long folderModified = keyFolder.lastModified();
                 objectMapper.writeValue(destination, wFile);
+                KeystoreIndex.get(keyFolder).add(destination, folderModified);
 
                 wallet = new Wallet(credentials.getAddress());
                 wallet.setWalletType(WalletType.KEYSTORE);
@@ -195,18 +192,7 @@ public class KeystoreAccountService implements AccountKeystoreService
 
     private void deleteAccountFiles(String address)
     {
-        String cleanedAddr = Numeric.cleanHexPrefix(address);
-        File[] contents = keyFolder.listFiles();
-        if (contents != null)
-        {
-            for (File f : contents)
-            {
-                if (f.getName().contains(cleanedAddr))
-                {
-                    f.delete();
-                }
-            }
-        }
+        KeystoreIndex.get(keyFolder).remove(address);
     }
 
     private void deleteRecursive(File fp)
@@ -267,15 +253,10 @@ public class KeystoreAccountService implements AccountKeystoreService
         //first find the file
         try
         {
-            address = Numeric.cleanHexPrefix(address);
-            File[] contents = keyFolder.listFiles();
-            for (File f : contents)
+            File keyFile = KeystoreIndex.get(keyFolder).getFile(address);
+            if (keyFile != null)
             {
-                if (f.getName().contains(address))
-                {
-                    credentials = WalletUtils.loadCredentials(password, f);
-                    break;
-                }
+                credentials = WalletUtils.loadCredentials(password, keyFile);
             }
         }
         catch (Exception e)
@@ -344,6 +325,13 @@ public class KeystoreAccountService implements AccountKeystoreService
         }).subscribeOn(Schedulers.io());
     }
 
+    @Override
+    public Single<SigningSession> openSigningSession(Wallet signer, long validity)
+    {
+        return Single.fromCallable(() -> keyService.openSigningSession(signer, validity))
+                .subscribeOn(Schedulers.io());
+    }
+
     //In all cases where we need to sign data the signature needs to be in Ethereum format
     //Geth gives us the pure EC function, but for hash signing
     @Override
@@ -370,53 +358,19 @@ public class KeystoreAccountService implements AccountKeystoreService
 
     @Override
     public boolean hasAccount(String address) {
-        address = Numeric.cleanHexPrefix(address);
-        File[] contents = keyFolder.listFiles();
-        if (contents == null) return false;
-        for (File f : contents)
-        {
-            if (f.getName().contains(address))
-            {
-                return true;
-            }
-        }
-
-        return false;
+        return KeystoreIndex.get(keyFolder).contains(address);
     }
 
     @Override
     public Single<Wallet[]> fetchAccounts() {
         return Single.fromCallable(() -> {
-            File[] contents = keyFolder.listFiles();
-            List<Date> fileDates = new ArrayList<>();
-            Map<Date, String> walletMap = new HashMap<>();
             List<Wallet> wallets = new ArrayList<>();
-            if (contents == null || contents.length == 0) return new Wallet[0];
-            //Wallet[] result = new Wallet[contents.length];
-            for (File f : contents)
-            {
-                String fName = f.getName();
-                int index = fName.lastIndexOf("-");
-                String address = "0x" + fName.substring(index + 1);
-                if (Utils.isAddressValid(address))
-                {
-                    String d = fName.substring(5, index-1).replace("T", " ").substring(0, 23);
-                    SimpleDateFormat simpleDateFormat = new SimpleDateFormat("yyyy-MM-dd HH-mm-ss.SSS", Locale.ROOT);
-                    Date date = simpleDateFormat.parse(d);
-                    fileDates.add(date);
-                    walletMap.put(date, address);
-                }
-            }
-
-            Collections.sort(fileDates);
-
-            //now build a date sorted array:
-            for (Date d : fileDates)
+            //index is already in creation date order
+            for (KeystoreIndex.Entry entry : KeystoreIndex.get(keyFolder).getEntries())
             {
-                String address = walletMap.get(d);
-                Wallet wallet = new Wallet(address);
+                Wallet wallet = new Wallet(entry.address);
                 wallet.type = WalletType.KEYSTORE;
-                wallet.walletCreationTime = d.getTime();
+                wallet.walletCreationTime = entry.creationTime;
                 wallets.add(wallet);
             }
 
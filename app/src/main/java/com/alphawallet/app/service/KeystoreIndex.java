@@ -0,0 +1,257 @@
+package com.alphawallet.app.service;
+
+import org.web3j.crypto.WalletUtils;
+import org.web3j.utils.Numeric;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Index of the keystore folder: address to keystore file and the creation time encoded in its name, so account
+ * lookups don't list and scan the folder each time.
+ *
+ * The index is saved next to the keystore folder along with the folder's modified time. It's read once, then kept
+ * up to date as KeystoreAccountService adds and deletes files; the folder is only listed again if its modified
+ * time shows it has been changed by something else.
+ */
+public class KeystoreIndex
+{
+    private static final String INDEX_FILE = "keystore.index";
+    private static final String DATE_FORMAT = "yyyy-MM-dd HH-mm-ss.SSS";
+    private static final Map<String, KeystoreIndex> indices = new ConcurrentHashMap<>();
+
+    private final File keyFolder;
+    private final File indexFile;
+    private final Map<String, Entry> entries = new HashMap<>(); //by lower case address without 0x
+    private long folderModified = -1;
+
+    /**
+     * @return the shared index of the folder
+     */
+    public static KeystoreIndex get(File keyFolder)
+    {
+        String key = keyFolder.getAbsolutePath();
+        KeystoreIndex index = indices.get(key);
+        if (index == null)
+        {
+            index = new KeystoreIndex(keyFolder);
+            KeystoreIndex existing = indices.putIfAbsent(key, index);
+            if (existing != null) index = existing;
+        }
+        return index;
+    }
+
+    private KeystoreIndex(File keyFolder)
+    {
+        this.keyFolder = keyFolder;
+        this.indexFile = new File(keyFolder.getParentFile(), INDEX_FILE);
+    }
+
+    /**
+     * @return keystore file for the address, or null if there isn't one
+     */
+    public synchronized File getFile(String address)
+    {
+        validate();
+        Entry entry = entries.get(addressKey(address));
+        return entry != null ? new File(keyFolder, entry.fileName) : null;
+    }
+
+    public synchronized boolean contains(String address)
+    {
+        validate();
+        return entries.containsKey(addressKey(address));
+    }
+
+    /**
+     * @return all accounts, oldest first
+     */
+    public synchronized List<Entry> getEntries()
+    {
+        validate();
+        List<Entry> sorted = new ArrayList<>(entries.values());
+        Collections.sort(sorted, (e1, e2) -> Long.compare(e1.creationTime, e2.creationTime));
+        return sorted;
+    }
+
+    /**
+     * Record a keystore file just written to the folder. Writing the file changed the folder's modified time, so
+     * this doesn't validate first; that would take our own write for an outside change and list the folder again.
+     *
+     * @param folderModified the folder's modified time from just before the file was written. On first use, a saved
+     *                       index older than this missed an outside change, so the folder is listed instead
+     */
+    public synchronized void add(File file, long folderModified)
+    {
+        if (this.folderModified == -1 && (!load() || this.folderModified != folderModified)) scan(); //first use
+        Entry entry = parse(file.getName(), new SimpleDateFormat(DATE_FORMAT, Locale.ROOT));
+        if (entry == null) return;
+        Entry previous = entries.put(addressKey(entry.address), entry);
+        if (previous != null && !previous.fileName.equals(entry.fileName))
+        {
+            entry.olderFiles.addAll(previous.olderFiles);
+            entry.olderFiles.add(previous.fileName);
+        }
+        save();
+    }
+
+    /**
+     * Delete the address's keystore files from the folder
+     */
+    public synchronized void remove(String address)
+    {
+        validate();
+        Entry entry = entries.remove(addressKey(address));
+        if (entry == null) return;
+        new File(keyFolder, entry.fileName).delete();
+        for (String fileName : entry.olderFiles)
+        {
+            new File(keyFolder, fileName).delete();
+        }
+        save();
+    }
+
+    private static String addressKey(String address)
+    {
+        return Numeric.cleanHexPrefix(address).toLowerCase();
+    }
+
+    private void validate()
+    {
+        long modified = keyFolder.lastModified();
+        if (modified == folderModified) return;
+        if (folderModified == -1 && load() && modified == folderModified) return;
+
+        scan();
+        save();
+    }
+
+    private void scan()
+    {
+        entries.clear();
+        folderModified = keyFolder.lastModified();
+        File[] contents = keyFolder.listFiles();
+        if (contents == null) return;
+
+        SimpleDateFormat formatter = new SimpleDateFormat(DATE_FORMAT, Locale.ROOT);
+        for (File f : contents)
+        {
+            Entry entry = parse(f.getName(), formatter);
+            if (entry == null) continue;
+            String key = addressKey(entry.address);
+            Entry previous = entries.get(key);
+            if (previous != null)
+            {
+                //more than one file for the address; use the newest and keep track of the rest for deletion
+                Entry newer = previous.creationTime > entry.creationTime ? previous : entry;
+                Entry older = newer == previous ? entry : previous;
+                newer.olderFiles.addAll(older.olderFiles);
+                newer.olderFiles.add(older.fileName);
+                entry = newer;
+            }
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Key file names are 'UTC--<creation time>--<address>'
+     */
+    private static Entry parse(String fileName, SimpleDateFormat formatter)
+    {
+        int index = fileName.lastIndexOf("-");
+        String address = "0x" + fileName.substring(index + 1);
+        if (index < 6 || !WalletUtils.isValidAddress(address)) return null;
+
+        long creationTime = 0;
+        try
+        {
+            String d = fileName.substring(5, index - 1).replace("T", " ").substring(0, DATE_FORMAT.length());
+            creationTime = formatter.parse(d).getTime();
+        }
+        catch (ParseException | IndexOutOfBoundsException e)
+        {
+            //not a standard name; still a usable key
+        }
+        return new Entry(address, fileName, creationTime);
+    }
+
+    private boolean load()
+    {
+        if (!indexFile.exists()) return false;
+        Map<String, Entry> loaded = new HashMap<>();
+        long modified;
+        try (BufferedReader reader = new BufferedReader(new FileReader(indexFile)))
+        {
+            modified = Long.parseLong(reader.readLine());
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                String[] fields = line.split(",");
+                if (fields.length < 3) continue;
+                Entry entry = new Entry(fields[0], fields[1], Long.parseLong(fields[2]));
+                for (int i = 3; i < fields.length; i++) entry.olderFiles.add(fields[i]);
+                loaded.put(addressKey(entry.address), entry);
+            }
+        }
+        catch (IOException | RuntimeException e)
+        {
+            return false; //unreadable; rebuild from the folder
+        }
+
+        entries.clear();
+        entries.putAll(loaded);
+        folderModified = modified;
+        return true;
+    }
+
+    private void save()
+    {
+        folderModified = keyFolder.lastModified();
+        File tempFile = new File(indexFile.getPath() + ".tmp");
+        try (PrintWriter writer = new PrintWriter(new FileWriter(tempFile)))
+        {
+            writer.println(folderModified);
+            for (Entry entry : entries.values())
+            {
+                writer.print(entry.address + "," + entry.fileName + "," + entry.creationTime);
+                for (String fileName : entry.olderFiles) writer.print("," + fileName);
+                writer.println();
+            }
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+            return;
+        }
+
+        if (!tempFile.renameTo(indexFile)) tempFile.delete();
+    }
+
+    public static class Entry
+    {
+        public final String address;
+        public final String fileName;
+        public final long creationTime;
+        private final List<String> olderFiles = new ArrayList<>();
+
+        Entry(String address, String fileName, long creationTime)
+        {
+            this.address = address;
+            this.fileName = fileName;
+            this.creationTime = creationTime;
+        }
+    }
+}
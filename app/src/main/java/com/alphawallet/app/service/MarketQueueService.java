@@ -10,6 +10,8 @@ import com.alphawallet.app.entity.Wallet;
 import com.alphawallet.app.entity.cryptokeys.SignatureFromKey;
 import com.alphawallet.app.repository.EthereumNetworkRepository;
 import com.alphawallet.app.repository.TransactionRepositoryType;
+import com.alphawallet.app.service.OutboundRequestScheduler.Priority;
+import com.alphawallet.app.util.WorkerSchedulers;
 import com.alphawallet.token.entity.MagicLinkData;
 import com.alphawallet.token.entity.MessageData;
 import com.alphawallet.token.entity.Signable;
@@ -17,7 +19,6 @@ import com.alphawallet.token.tools.ParseMagicLink;
 
 import org.json.JSONArray;
 import org.json.JSONObject;
-import org.web3j.crypto.Keys;
 import org.web3j.crypto.Sign;
 
 import java.io.ByteArrayOutputStream;
@@ -25,8 +26,11 @@ import java.io.DataOutputStream;
 import java.io.UnsupportedEncodingException;
 import java.math.BigInteger;
 import java.net.URLEncoder;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import io.reactivex.Observable;
 import io.reactivex.Single;
@@ -50,6 +54,7 @@ import static com.alphawallet.app.entity.CryptoFunctions.sigFromByteArray;
 public class MarketQueueService {
     private static final long MARKET_INTERVAL = 10*60; // 10 minutes
     private static final int TRADE_AMOUNT = 1008;
+    private static final long SIGNING_SESSION_VALIDITY = 2 * 60 * 1000; //In milliseconds
     private static final String MARKET_QUEUE_URL = "https://482kdh4npg.execute-api.ap-southeast-1.amazonaws.com/dev/";
     private static final String MARKET_QUEUE_FETCH = MARKET_QUEUE_URL + "contract/";
 
@@ -89,7 +94,7 @@ public class MarketQueueService {
     private void processMarketTrades(TradeInstance trades)
     {
         marketQueueProcessing = sendSalesOrders(trades)
-                .subscribeOn(Schedulers.newThread())
+                .subscribeOn(WorkerSchedulers.httpApi())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(this::handleResponse);
     }
@@ -164,6 +169,7 @@ public class MarketQueueService {
             RequestBody body = RequestBody.create(DATA, data);
             Request request = new Request.Builder()
                     .url(writeURL)
+                    .tag(Priority.class, Priority.USER)
                     .put(body)
                     .addHeader("Content-Type", "application/vnd.awallet-signed-orders-v0")
                     .build();
@@ -189,6 +195,7 @@ public class MarketQueueService {
 
             Request request = new Request.Builder()
                     .url(fullUrl)
+                    .tag(Priority.class, Priority.USER)
                     .get()
                     .build();
 
@@ -219,38 +226,48 @@ public class MarketQueueService {
         return transactionRepository.getSignature(wallet, data, chainId);
     }
 
-    private Single<TradeInstance> tradesInnerLoop(Wallet wallet, String password, BigInteger price, int[] tickets, String contractAddr, BigInteger firstTicketId, int chainId) {
-        return Single.fromCallable(() ->
-        {
-            long initialExpiry = (System.currentTimeMillis() / 1000L) + MARKET_INTERVAL;
-            //Recover public key
-            BigInteger recoveredKey = ecRecoverPublicKey(wallet, password, chainId);
-
-            TradeInstance trade = new TradeInstance(price, BigInteger.valueOf(initialExpiry), tickets, contractAddr, recoveredKey, firstTicketId);
-
-            for (int i = 0; i < TRADE_AMOUNT; i++)
-            {
-                trade.expiry =  BigInteger.valueOf(initialExpiry + (i * MARKET_INTERVAL));
-                trade.addSignature(getTradeSignature(wallet, password, trade, chainId).blockingGet());
-                float upd = ((float)i/TRADE_AMOUNT)*100.0f;
-                messageCallback.queueUpdate((int)upd);
-            }
-            trade.expiry = BigInteger.valueOf(initialExpiry); //ensure expiry of first order is correct
-            return trade;
-        });
+    private Single<TradeInstance> tradesInnerLoop(Wallet wallet, BigInteger price, int[] tickets, String contractAddr, BigInteger firstTicketId) {
+        //unlock the key once for the whole batch rather than once per order
+        return transactionRepository.openSigningSession(wallet, SIGNING_SESSION_VALIDITY)
+                .map(session -> {
+                    try
+                    {
+                        long initialExpiry = (System.currentTimeMillis() / 1000L) + MARKET_INTERVAL;
+                        //Recover public key
+                        BigInteger recoveredKey = ecRecoverPublicKey(session);
+
+                        TradeInstance trade = new TradeInstance(price, BigInteger.valueOf(initialExpiry), tickets, contractAddr, recoveredKey, firstTicketId);
+
+                        List<byte[]> messages = new ArrayList<>(TRADE_AMOUNT);
+                        for (int i = 0; i < TRADE_AMOUNT; i++)
+                        {
+                            trade.expiry = BigInteger.valueOf(initialExpiry + (i * MARKET_INTERVAL));
+                            messages.add(trade.getTradeBytes());
+                        }
+
+                        AtomicInteger reported = new AtomicInteger(-1);
+                        List<byte[]> signatures = session.signAll(messages, (count, total) -> {
+                            int percent = (int) (((float) count / total) * 100.0f);
+                            int last = reported.get();
+                            if (percent > last && reported.compareAndSet(last, percent) && messageCallback != null)
+                            {
+                                messageCallback.queueUpdate(percent);
+                            }
+                        });
+
+                        for (byte[] signature : signatures) trade.addSignature(signature);
+                        trade.expiry = BigInteger.valueOf(initialExpiry); //ensure expiry of first order is correct
+                        return trade;
+                    }
+                    finally
+                    {
+                        session.close();
+                    }
+                });
     }
 
     private Single<TradeInstance> getTradeMessages(Wallet wallet, BigInteger price, int[] tickets, String contractAddr, BigInteger firstTicketId, int chainId) {
-        return tradesInnerLoop(wallet, "password", price, tickets, contractAddr, firstTicketId, chainId);
-    }
-
-    private Single<byte[]> getTradeSignature(Wallet wallet, String password, TradeInstance trade, int chainId) {
-        return encodeMessageForTrade(trade)
-                .flatMap(tradeBytes -> transactionRepository.getSignatureFast(wallet, password, tradeBytes, chainId));
-    }
-
-    private Single<byte[]> encodeMessageForTrade(TradeInstance trade) {
-        return Single.fromCallable(trade::getTradeBytes);
+        return tradesInnerLoop(wallet, price, tickets, contractAddr, firstTicketId);
     }
 
     public Observable<TradeInstance> getTradeInstances(Wallet wallet, BigInteger price, int[] tickets, String contractAddr, BigInteger firstTicketId, int chainId) {
@@ -302,6 +319,7 @@ public class MarketQueueService {
                 trades[i] = data;
             }
 
+            parser.getOwnerKeys(trades);
             return trades;
         }).toObservable();
     }
@@ -373,14 +391,11 @@ public class MarketQueueService {
         return sb.toString();
     }
 
-    private BigInteger ecRecoverPublicKey(Wallet wallet, String password, int chainId) throws Exception
+    private BigInteger ecRecoverPublicKey(SigningSession session) throws Exception
     {
         String testSigMsg = "obtain public key";
-        byte[] testSigBytes = transactionRepository.getSignatureFast(wallet, password, testSigMsg.getBytes(), chainId).blockingGet();
+        byte[] testSigBytes = session.sign(testSigMsg.getBytes());
         Sign.SignatureData testSig = sigFromByteArray(testSigBytes);
-        BigInteger recoveredKey = Sign.signedMessageToKey(testSigMsg.getBytes(), testSig);
-        String publicKeyString = Keys.getAddress(recoveredKey); //TODO: Remove - this is here for debug/testing
-
-        return recoveredKey;
+        return Sign.signedMessageToKey(testSigMsg.getBytes(), testSig);
     }
 }
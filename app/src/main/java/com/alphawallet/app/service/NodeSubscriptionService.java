@@ -0,0 +1,166 @@
+package com.alphawallet.app.service;
+
+import com.alphawallet.app.repository.EthereumNetworkBase;
+import com.google.gson.Gson;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonNull;
+import com.google.gson.JsonObject;
+
+import org.web3j.protocol.core.methods.request.EthFilter;
+import org.web3j.protocol.core.methods.request.Filter;
+import org.web3j.protocol.core.methods.response.EthLog;
+import org.web3j.utils.Numeric;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.reactivex.Observable;
+import okhttp3.OkHttpClient;
+
+/**
+ * Push notifications from chains which have a WebSocket endpoint configured in EthereumNetworkBase. One socket
+ * is shared per chain, and is only open while something is subscribed.
+ *
+ * Callers should check {@link #isConnected} and keep their HTTP polling path for chains without a socket, or while
+ * the socket is down; subscriptions resume by themselves when it reconnects.
+ */
+public class NodeSubscriptionService
+{
+    private final OkHttpClient httpClient;
+    private final Gson gson = new Gson();
+    private final ConcurrentHashMap<Integer, WebSocketNodeClient> clients = new ConcurrentHashMap<>();
+
+    public NodeSubscriptionService(OkHttpClient httpClient)
+    {
+        this.httpClient = httpClient;
+    }
+
+    public boolean hasWebSocket(int chainId)
+    {
+        return EthereumNetworkBase.getWebSocketURL(chainId) != null;
+    }
+
+    public boolean isConnected(int chainId)
+    {
+        WebSocketNodeClient client = clients.get(chainId);
+        return client != null && client.isConnected();
+    }
+
+    public Observable<Boolean> connectionState(int chainId)
+    {
+        WebSocketNodeClient client = getClient(chainId);
+        return client != null ? client.connectionState() : Observable.just(false);
+    }
+
+    /**
+     * @return block number of each new head
+     */
+    public Observable<BigInteger> newHeads(int chainId)
+    {
+        return newHeaders(chainId)
+                .map(header -> Numeric.toBigInt(header.get("number").getAsString()));
+    }
+
+    /**
+     * @return hashes of all transactions in each new block, for matching against pending transactions
+     */
+    public Observable<List<String>> blockTransactionHashes(int chainId)
+    {
+        WebSocketNodeClient client = getClient(chainId);
+        if (client == null) return Observable.empty();
+
+        return newHeaders(chainId)
+                .concatMapSingle(header -> {
+                    JsonArray params = new JsonArray();
+                    params.add(header.get("hash").getAsString());
+                    params.add(false); //only need the hashes
+                    return client.request("eth_getBlockByHash", params)
+                            .map(this::getTransactionHashes)
+                            .onErrorReturnItem(new ArrayList<>()); //block missed; the HTTP poll will pick it up
+                });
+    }
+
+    /**
+     * @return logs matching the filter's address and topics as they are mined. The block range of the filter is ignored.
+     * Logs the node re-sends as removed by a chain reorganisation are skipped
+     */
+    public Observable<EthLog.LogObject> logs(int chainId, EthFilter filter)
+    {
+        WebSocketNodeClient client = getClient(chainId);
+        if (client == null) return Observable.empty();
+
+        return client.subscribe("logs", toSubscriptionFilter(filter))
+                .map(log -> gson.fromJson(log, EthLog.LogObject.class))
+                .filter(log -> !log.isRemoved());
+    }
+
+    private Observable<JsonObject> newHeaders(int chainId)
+    {
+        WebSocketNodeClient client = getClient(chainId);
+        if (client == null) return Observable.empty();
+
+        return client.subscribe("newHeads", null)
+                .map(JsonElement::getAsJsonObject);
+    }
+
+    private WebSocketNodeClient getClient(int chainId)
+    {
+        WebSocketNodeClient client = clients.get(chainId);
+        if (client == null)
+        {
+            String url = EthereumNetworkBase.getWebSocketURL(chainId);
+            if (url == null) return null;
+            client = new WebSocketNodeClient(httpClient, url);
+            WebSocketNodeClient existing = clients.putIfAbsent(chainId, client);
+            if (existing != null) client = existing;
+        }
+
+        return client;
+    }
+
+    private List<String> getTransactionHashes(JsonElement block)
+    {
+        List<String> hashes = new ArrayList<>();
+        if (block.isJsonObject() && block.getAsJsonObject().has("transactions"))
+        {
+            for (JsonElement tx : block.getAsJsonObject().getAsJsonArray("transactions"))
+            {
+                hashes.add(tx.getAsString().toLowerCase());
+            }
+        }
+        return hashes;
+    }
+
+    private static JsonObject toSubscriptionFilter(EthFilter filter)
+    {
+        JsonObject params = new JsonObject();
+        JsonArray addresses = new JsonArray();
+        for (String address : filter.getAddress()) addresses.add(address);
+        params.add("address", addresses);
+
+        JsonArray topics = new JsonArray();
+        for (Filter.FilterTopic<?> topic : filter.getTopics())
+        {
+            Object value = topic.getValue();
+            if (value == null)
+            {
+                topics.add(JsonNull.INSTANCE);
+            }
+            else if (value instanceof List)
+            {
+                JsonArray options = new JsonArray();
+                for (Object option : (List<?>) value) options.add(((Filter.FilterTopic<?>) option).getValue().toString());
+                topics.add(options);
+            }
+            else
+            {
+                topics.add(value.toString());
+            }
+        }
+        params.add("topics", topics);
+        return params;
+    }
+}
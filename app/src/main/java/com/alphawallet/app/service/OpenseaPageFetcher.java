@@ -0,0 +1,251 @@
+package com.alphawallet.app.service;
+
+import com.alphawallet.app.service.OutboundRequestScheduler.Priority;
+import com.alphawallet.app.util.TokenBucket;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.reactivex.Observable;
+import io.reactivex.schedulers.Schedulers;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+
+/**
+ * Pages through the Opensea assets API for an owner. Requests pass through a token bucket so parallel page fetches
+ * stay within the API rate limit. Each page is fetched conditionally using the ETag/Last-Modified validators from
+ * the previous run, and the body is compared as well for servers which don't send validators; the result reports
+ * whether anything changed so callers can skip re-processing an unchanged collection.
+ *
+ * Kept free of Android dependencies so it can be exercised against a local mock server.
+ */
+public class OpenseaPageFetcher
+{
+    public static final int PAGE_SIZE = 40;
+    private static final int MAX_PARALLEL_PAGES = 3;
+    private static final int MAX_CACHED_PAGES = 64;
+
+    private final OkHttpClient httpClient;
+    private final TokenBucket rateLimiter;
+    private final Map<String, CachedPage> pageCache;
+    private final Map<String, Integer> lastPageCount = new ConcurrentHashMap<>();
+
+    public OpenseaPageFetcher(OkHttpClient httpClient, TokenBucket rateLimiter)
+    {
+        this.httpClient = httpClient;
+        this.rateLimiter = rateLimiter;
+        this.pageCache = new LinkedHashMap<String, CachedPage>(16, 0.75f, true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedPage> eldest)
+            {
+                return size() > MAX_CACHED_PAGES;
+            }
+        };
+    }
+
+    /**
+     * Fetch all asset pages for an owner
+     * @param apiBase eg https://api.opensea.io
+     * @param owner wallet address
+     * @return page bodies in order, with flags for whether the collection changed and whether all pages were read
+     */
+    public Result fetchAssets(String apiBase, String owner)
+    {
+        String queryKey = apiBase + owner.toLowerCase();
+        Integer previousCount = lastPageCount.get(queryKey);
+        Map<String, CachedPage> updatedPages = new HashMap<>();
+        List<String> pages = new ArrayList<>();
+        boolean changed = false;
+        boolean complete = false;
+
+        //first wave only fetches as many pages as last time, most wallets fit in one page. Later waves fetch
+        //MAX_PARALLEL_PAGES at once, so may read up to MAX_PARALLEL_PAGES - 1 empty pages past the end; those are dropped
+        int waveSize = previousCount != null ? Math.min(MAX_PARALLEL_PAGES, Math.max(1, previousCount)) : 1;
+        int pageIndex = 0;
+
+        wave:
+        while (true)
+        {
+            List<Page> wavePages = fetchWave(apiBase, owner, pageIndex, waveSize);
+            for (Page page : wavePages)
+            {
+                if (page.assetCount < 0) break wave; //fetch or parse failure, stop here with an incomplete result
+                pages.add(page.body);
+                if (page.changed) changed = true;
+                if (page.validators != null) updatedPages.put(page.url, page.validators);
+                if (page.assetCount < PAGE_SIZE)
+                {
+                    complete = true;
+                    break wave;
+                }
+            }
+            pageIndex += waveSize;
+            waveSize = MAX_PARALLEL_PAGES;
+        }
+
+        if (complete)
+        {
+            //only commit the validators once the whole collection has been read, otherwise a partial read could mask changes
+            if (previousCount == null || previousCount != pages.size()) changed = true;
+            lastPageCount.put(queryKey, pages.size());
+            synchronized (pageCache)
+            {
+                pageCache.putAll(updatedPages);
+            }
+        }
+
+        return new Result(pages, changed, complete);
+    }
+
+    private List<Page> fetchWave(String apiBase, String owner, int firstPage, int count)
+    {
+        List<Integer> offsets = new ArrayList<>();
+        for (int i = 0; i < count; i++) offsets.add((firstPage + i) * PAGE_SIZE);
+
+        return Observable.fromIterable(offsets)
+                .concatMapEager(offset -> Observable.fromCallable(() -> fetchPage(pageUrl(apiBase, owner, offset)))
+                        .subscribeOn(Schedulers.io()), MAX_PARALLEL_PAGES, 1)
+                .toList()
+                .blockingGet();
+    }
+
+    private Page fetchPage(String url)
+    {
+        CachedPage cached;
+        synchronized (pageCache)
+        {
+            cached = pageCache.get(url);
+        }
+
+        Request.Builder builder = new Request.Builder()
+                .url(url)
+                .tag(Priority.class, Priority.BACKGROUND)
+                .get();
+
+        if (cached != null)
+        {
+            if (cached.eTag != null) builder.header("If-None-Match", cached.eTag);
+            if (cached.lastModified != null) builder.header("If-Modified-Since", cached.lastModified);
+        }
+
+        try
+        {
+            rateLimiter.acquire();
+            try (Response response = httpClient.newCall(builder.build()).execute())
+            {
+                if (response.code() == 304 && cached != null)
+                {
+                    return new Page(url, cached.body, cached.assetCount, false, cached);
+                }
+                else if (!response.isSuccessful() || response.body() == null)
+                {
+                    return new Page(url, null, -1, false, null);
+                }
+
+                String body = response.body().string();
+                boolean changed = cached == null || !cached.body.equals(body);
+                CachedPage validators = changed
+                        ? new CachedPage(response.header("ETag"), response.header("Last-Modified"), body, countAssets(body))
+                        : new CachedPage(response.header("ETag", cached.eTag), response.header("Last-Modified", cached.lastModified), cached.body, cached.assetCount);
+                return new Page(url, validators.body, validators.assetCount, changed, validators);
+            }
+        }
+        catch (InterruptedIOException | InterruptedException e)
+        {
+            //If user switches account or network during a fetch
+            //this exception is going to be thrown because we're terminating the API call
+            //Don't display error
+        }
+        catch (Exception e)
+        {
+            e.printStackTrace();
+        }
+
+        return new Page(url, null, -1, false, null);
+    }
+
+    private static int countAssets(String body)
+    {
+        try
+        {
+            JsonElement element = JsonParser.parseString(body);
+            if (element.isJsonObject())
+            {
+                JsonObject result = element.getAsJsonObject();
+                if (result.has("assets") && result.get("assets").isJsonArray())
+                {
+                    return result.getAsJsonArray("assets").size();
+                }
+            }
+        }
+        catch (Exception e)
+        {
+            // not a valid page
+        }
+
+        return -1;
+    }
+
+    private static String pageUrl(String apiBase, String owner, int offset)
+    {
+        return apiBase + "/api/v1/assets/?owner=" + owner + "&limit=" + PAGE_SIZE + "&offset=" + offset;
+    }
+
+    public static class Result
+    {
+        public final List<String> pages;
+        public final boolean changed;
+        public final boolean complete;
+
+        Result(List<String> pages, boolean changed, boolean complete)
+        {
+            this.pages = pages;
+            this.changed = changed;
+            this.complete = complete;
+        }
+    }
+
+    private static class Page
+    {
+        final String url;
+        final String body;
+        final int assetCount;
+        final boolean changed;
+        final CachedPage validators;
+
+        Page(String url, String body, int assetCount, boolean changed, CachedPage validators)
+        {
+            this.url = url;
+            this.body = body;
+            this.assetCount = assetCount;
+            this.changed = changed;
+            this.validators = validators;
+        }
+    }
+
+    private static class CachedPage
+    {
+        final String eTag;
+        final String lastModified;
+        final String body;
+        final int assetCount;
+
+        CachedPage(String eTag, String lastModified, String body, int assetCount)
+        {
+            this.eTag = eTag;
+            this.lastModified = lastModified;
+            this.body = body;
+            this.assetCount = assetCount;
+        }
+    }
+}
@@ -9,24 +9,23 @@ import com.alphawallet.app.entity.opensea.Asset;
 import com.alphawallet.app.entity.tokens.Token;
 import com.alphawallet.app.entity.tokens.TokenFactory;
 import com.alphawallet.app.entity.tokens.TokenInfo;
+import com.alphawallet.app.util.TokenBucket;
 import com.google.gson.Gson;
 
 import org.json.JSONArray;
 import org.json.JSONException;
 import org.json.JSONObject;
 
-import java.io.InterruptedIOException;
 import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.TimeUnit;
 
 import io.reactivex.Single;
 import okhttp3.OkHttpClient;
-import okhttp3.Request;
 
 /**
  * Created by James on 2/10/2018.
@@ -34,48 +33,55 @@ import okhttp3.Request;
  */
 
 public class OpenseaService {
-    private static OkHttpClient httpClient;
+    private static final int RATE_LIMIT_BURST = 4;
+    private static final double RATE_LIMIT_PER_SECOND = 2.0;
+
     private static Map<String, Long> balanceAccess = new ConcurrentHashMap<>();
     private final Context context;
-    private static final int PAGE_SIZE = 40;
-    private final Map<String, String> imageUrls = new HashMap<>();
+    private final OpenseaPageFetcher pageFetcher;
+    private static final int MAX_PENDING_IMAGE_URLS = 256;
+
+    //contract image URLs waiting to be stored; bounded in case a chain's fetch never completes
+    private final Map<String, String> imageUrls = new LinkedHashMap<String, String>(16, 0.75f, false) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, String> eldest)
+        {
+            return size() > MAX_PENDING_IMAGE_URLS;
+        }
+    };
     private final List<Integer> storedImagesForChain = new ArrayList<>();
 
     //TODO: remove old files not accessed for some time
     //      On service creation, check files for old files and delete
 
-    public OpenseaService(Context ctx) {
+    public OpenseaService(Context ctx, OkHttpClient httpClient) {
         context = ctx;
         balanceAccess.clear();
-        httpClient = new OkHttpClient.Builder()
-                .connectTimeout(10, TimeUnit.SECONDS)
-                .readTimeout(10, TimeUnit.SECONDS)
-                .writeTimeout(10, TimeUnit.SECONDS)
-                .retryOnConnectionFailure(true)
-                .build();
+        //shared client carries the outbound scheduler; the page bucket keeps Opensea's own paging cadence
+        pageFetcher = new OpenseaPageFetcher(httpClient.newBuilder().retryOnConnectionFailure(true).build(),
+                new TokenBucket(RATE_LIMIT_BURST, RATE_LIMIT_PER_SECOND));
     }
 
     public Single<Token[]> getTokens(String address, int networkId, String networkName, TokensService tokensService)
     {
         return Single.fromCallable(() -> {
-            int receivedTokens;
-            int offset = 0;
-
             Map<String, Token> foundTokens = new HashMap<>();
+            String apiBase = getApiBase(networkId);
+            if (apiBase == null) return new Token[0];
 
-            do
+            OpenseaPageFetcher.Result result = pageFetcher.fetchAssets(apiBase, address);
+            balanceAccess.put(address, System.currentTimeMillis());
+
+            //A partial read can't be used: assets missing from it would be removed from storage.
+            //If nothing changed since the last read there's nothing to store
+            if (!result.complete || !result.changed) return new Token[0];
+
+            for (String jsonData : result.pages)
             {
-                String jsonData = fetchTokensFromOpensea(address, networkId, offset);
-                if (!verifyData(jsonData)) return foundTokens.values().toArray(new Token[0]); //on error return results found so far
-                JSONObject result = new JSONObject(jsonData);
-                JSONArray assets = result.getJSONArray("assets");
-                receivedTokens = assets.length();
-                offset += assets.length();
-
-                //process this page of results
-                processOpenseaTokens(foundTokens, assets, address, networkId, networkName, tokensService);
+                if (!verifyData(jsonData)) return new Token[0];
+                JSONObject page = new JSONObject(jsonData);
+                processOpenseaTokens(foundTokens, page.getJSONArray("assets"), address, networkId, networkName, tokensService);
             }
-            while (receivedTokens == PAGE_SIZE); //keep fetching until last page
 
             //now write the contract images
             if (!storedImagesForChain.contains(networkId))
@@ -90,7 +96,7 @@ public class OpenseaService {
 
             //check if the token was updated recently
             long updateThreshold = System.currentTimeMillis() - 3* DateUtils.MINUTE_IN_MILLIS; //Opensea usually lags behind by about 3 mins.
-            for (String cAddr : foundTokens.keySet())
+            for (String cAddr : new ArrayList<>(foundTokens.keySet()))
             {
                 Token t = foundTokens.get(cAddr);
                 if (t.lastTxTime > updateThreshold)
@@ -180,52 +186,16 @@ public class OpenseaService {
         return jsonData != null && jsonData.length() >= 10 && jsonData.contains("assets"); //validate return from API
     }
 
-    private String fetchTokensFromOpensea(String address, int networkId, int offset)
+    private String getApiBase(int networkId)
     {
-        String jsonResult = "{\"noresult\":[]}";
-        String apiBase;
         switch (networkId)
         {
             case 1:
-                apiBase = "https://api.opensea.io";
-                break;
+                return "https://api.opensea.io";
             case 4:
-                apiBase = "https://rinkeby-api.opensea.io";
-                break;
+                return "https://rinkeby-api.opensea.io";
             default:
-                return jsonResult;
-        }
-
-        StringBuilder sb = new StringBuilder();
-        sb.append(apiBase);
-        sb.append("/api/v1/assets/?owner=");
-        sb.append(address);
-        sb.append("&limit=" + PAGE_SIZE);
-        sb.append("&offset=");
-        sb.append(offset);
-
-        try
-        {
-            Request request = new Request.Builder()
-                    .url(sb.toString())
-                    .get()
-                    .build();
-
-            okhttp3.Response response = httpClient.newCall(request).execute();
-            jsonResult = response.body().string();
-            balanceAccess.put(address, System.currentTimeMillis());
+                return null;
         }
-        catch (InterruptedIOException e)
-        {
-            //If user switches account or network during a fetch
-            //this exception is going to be thrown because we're terminating the API call
-            //Don't display error
-        }
-        catch (Exception e)
-        {
-            e.printStackTrace();
-        }
-
-        return jsonResult;
     }
 }
@@ -0,0 +1,471 @@
+package com.alphawallet.app.service;
+
+import com.alphawallet.app.util.TokenBucket;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+
+/**
+ * Application interceptor on the shared OkHttpClient which schedules all outbound API calls: Etherscan, Covalent,
+ * CoinGecko, Opensea, gas oracles, the TokenScript repo server, the market queue and the nodes.
+ *
+ * Each host has a lane with a token bucket, and a cap on GETs in flight; POSTs (node JSON-RPC, transactions) are
+ * only rate limited, since nodes serve many concurrent calls. When a lane is saturated, waiting requests are let
+ * through by priority, then in arrival order; background requests beyond a bound fail fast rather than queueing
+ * without limit, their timer will retry on the next cycle.
+ *
+ * Identical GET requests of the same priority in flight at the same time share one network call, so a user request
+ * never waits behind a background one. Bodies over MAX_SHARED_BODY aren't shared; waiting callers make their own
+ * request. GETs which fail with a connection error, 429 or a 5xx gateway error are retried with jittered exponential
+ * backoff. Per-host latency and error counts are kept for diagnostics.
+ *
+ * Callers mark priority with a request tag: builder.tag(Priority.class, Priority.BACKGROUND). Untagged requests are
+ * treated as FOCUS.
+ */
+public class OutboundRequestScheduler implements Interceptor
+{
+    public enum Priority
+    {
+        USER,        //user is waiting on this, eg a transaction or sale
+        FOCUS,       //data for what's on screen
+        BACKGROUND   //timer driven refresh
+    }
+
+    private static final int DEFAULT_BURST = 8;
+    private static final double DEFAULT_RATE = 8.0; //per second
+    private static final int MAX_IN_FLIGHT_PER_HOST = 4; //GETs only
+    private static final int MAX_QUEUED_BACKGROUND = 32;
+    private static final int MAX_RETRIES = 2;
+    private static final long RETRY_BASE_DELAY = 500; //In milliseconds
+    private static final long RETRY_MAX_DELAY = 8000;
+    private static final long MAX_SHARED_BODY = 4 * 1024 * 1024;
+
+    //host suffix, burst, sustained rate per second; from the providers' published free tier limits
+    private static final Object[][] HOST_LIMITS = {
+            { "etherscan.io", 5, 4.0 },
+            { "covalenthq.com", 5, 4.0 },
+            { "coingecko.com", 5, 0.8 },
+            { "opensea.io", 4, 2.0 },
+            { "gasnow.org", 2, 1.0 },
+            { "infura.io", 20, 15.0 },
+    };
+
+    private final ConcurrentHashMap<String, HostLane> lanes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, SharedCall> inFlightGets = new ConcurrentHashMap<>();
+    private final Random random = new Random();
+
+    @Override
+    public Response intercept(Chain chain) throws IOException
+    {
+        Request request = chain.request();
+        if (request.header("Upgrade") != null) return chain.proceed(request); //WebSocket, long lived
+
+        if (request.method().equals("GET"))
+        {
+            return sharedGet(chain, request);
+        }
+        else
+        {
+            return schedule(chain, request, false, false);
+        }
+    }
+
+    /**
+     * @return snapshot of per-host metrics
+     */
+    public List<HostMetrics> getHostMetrics()
+    {
+        List<HostMetrics> metrics = new ArrayList<>();
+        for (HostLane lane : lanes.values()) metrics.add(lane.snapshot());
+        return metrics;
+    }
+
+    private Response sharedGet(Chain chain, Request request) throws IOException
+    {
+        //conditional or authorised GETs only share with identical ones, and only within a priority so a USER
+        //request doesn't take the queue position of a BACKGROUND one
+        String key = getPriority(request) + "\n" + request.url() + "\n" + request.headers();
+        SharedCall call = new SharedCall();
+        SharedCall existing = inFlightGets.putIfAbsent(key, call);
+        if (existing != null)
+        {
+            getLane(request).countShared();
+            Response shared = existing.await(request, sharedWaitNanos(chain));
+            if (shared != null) return shared;
+            return schedule(chain, request, true, true); //too large to share
+        }
+
+        Response response = null;
+        IOException error = null;
+        try
+        {
+            response = schedule(chain, request, true, true);
+            return response;
+        }
+        catch (IOException e)
+        {
+            error = e;
+            throw e;
+        }
+        finally
+        {
+            inFlightGets.remove(key, call);
+            call.complete(response, error); //always release waiters, even if the call threw unchecked
+        }
+    }
+
+    /**
+     * @return how long to wait for a shared call: the call timeout, or if none is set, long enough for every attempt
+     */
+    private static long sharedWaitNanos(Chain chain)
+    {
+        long callTimeout = chain.call().timeout().timeoutNanos();
+        if (callTimeout > 0) return callTimeout;
+        long attemptMillis = chain.connectTimeoutMillis() + chain.writeTimeoutMillis() + chain.readTimeoutMillis();
+        return TimeUnit.MILLISECONDS.toNanos((attemptMillis + RETRY_MAX_DELAY) * (MAX_RETRIES + 1));
+    }
+
+    private static Priority getPriority(Request request)
+    {
+        Priority priority = request.tag(Priority.class);
+        return priority != null ? priority : Priority.FOCUS;
+    }
+
+    private Response schedule(Chain chain, Request request, boolean retryable, boolean capped) throws IOException
+    {
+        HostLane lane = getLane(request);
+        Priority priority = getPriority(request);
+
+        for (int attempt = 0; ; attempt++)
+        {
+            lane.acquire(priority, capped);
+            long start = System.nanoTime();
+            Response response = null;
+            IOException error = null;
+            try
+            {
+                response = chain.proceed(request);
+            }
+            catch (IOException e)
+            {
+                if (Thread.currentThread().isInterrupted()) throw e;
+                error = e;
+            }
+            finally
+            {
+                lane.release(capped);
+            }
+
+            boolean failed = error != null || isRetryableStatus(response.code());
+            lane.record(System.nanoTime() - start, failed);
+
+            if (!failed || !retryable || attempt >= MAX_RETRIES)
+            {
+                if (error != null) throw error;
+                return response;
+            }
+
+            long delay = retryDelay(attempt, response);
+            if (response != null) response.close();
+            lane.countRetry();
+            sleep(delay);
+        }
+    }
+
+    private long retryDelay(int attempt, Response response)
+    {
+        if (response != null && response.code() == 429)
+        {
+            String retryAfter = response.header("Retry-After");
+            try
+            {
+                if (retryAfter != null) return Math.min(RETRY_MAX_DELAY, Long.parseLong(retryAfter.trim()) * 1000);
+            }
+            catch (NumberFormatException e)
+            {
+                //HTTP date form, use our own backoff
+            }
+        }
+
+        //full jitter: uniform between zero and the exponential cap
+        long cap = Math.min(RETRY_MAX_DELAY, RETRY_BASE_DELAY << attempt);
+        synchronized (random)
+        {
+            return (long) (random.nextDouble() * cap);
+        }
+    }
+
+    private static boolean isRetryableStatus(int code)
+    {
+        return code == 429 || code == 502 || code == 503 || code == 504;
+    }
+
+    private static void sleep(long millis) throws InterruptedIOException
+    {
+        try
+        {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private HostLane getLane(Request request)
+    {
+        String host = request.url().host();
+        HostLane lane = lanes.get(host);
+        if (lane == null)
+        {
+            int burst = DEFAULT_BURST;
+            double rate = DEFAULT_RATE;
+            for (Object[] limit : HOST_LIMITS)
+            {
+                if (host.endsWith((String) limit[0]))
+                {
+                    burst = (Integer) limit[1];
+                    rate = (Double) limit[2];
+                    break;
+                }
+            }
+            lane = new HostLane(host, new TokenBucket(burst, rate));
+            HostLane existing = lanes.putIfAbsent(host, lane);
+            if (existing != null) lane = existing;
+        }
+        return lane;
+    }
+
+    private static class HostLane
+    {
+        final String host;
+        final TokenBucket bucket;
+        final PriorityQueue<Waiter> waiting = new PriorityQueue<>();
+        long nextSequence;
+        int inFlight;
+        int queuedBackground;
+
+        //metrics, updated under the lane lock
+        long requests;
+        long errors;
+        long retries;
+        long sharedCalls;
+        long totalLatency;
+        long maxLatency;
+
+        HostLane(String host, TokenBucket bucket)
+        {
+            this.host = host;
+            this.bucket = bucket;
+        }
+
+        /**
+         * @param capped counts against the in-flight cap
+         */
+        synchronized void acquire(Priority priority, boolean capped) throws IOException
+        {
+            if (priority == Priority.BACKGROUND && queuedBackground >= MAX_QUEUED_BACKGROUND)
+            {
+                throw new IOException("Outbound queue full for " + host);
+            }
+
+            Waiter waiter = new Waiter(priority, nextSequence++);
+            waiting.add(waiter);
+            if (priority == Priority.BACKGROUND) queuedBackground++;
+
+            try
+            {
+                while (true)
+                {
+                    if (waiting.peek() == waiter && (!capped || inFlight < MAX_IN_FLIGHT_PER_HOST))
+                    {
+                        if (bucket.tryAcquire())
+                        {
+                            waiting.poll();
+                            if (capped) inFlight++;
+                            notifyAll(); //next in line becomes head
+                            return;
+                        }
+                        long waitNanos = bucket.nanosToNextPermit();
+                        wait(Math.max(1, waitNanos / 1000000), 0);
+                    }
+                    else
+                    {
+                        wait();
+                    }
+                }
+            }
+            catch (InterruptedException e)
+            {
+                waiting.remove(waiter);
+                notifyAll();
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+            finally
+            {
+                if (priority == Priority.BACKGROUND) queuedBackground--;
+            }
+        }
+
+        synchronized void release(boolean capped)
+        {
+            if (capped) inFlight--;
+            notifyAll();
+        }
+
+        synchronized void record(long latencyNanos, boolean failed)
+        {
+            requests++;
+            if (failed) errors++;
+            totalLatency += latencyNanos;
+            maxLatency = Math.max(maxLatency, latencyNanos);
+        }
+
+        synchronized void countRetry()
+        {
+            retries++;
+        }
+
+        synchronized void countShared()
+        {
+            sharedCalls++;
+        }
+
+        synchronized HostMetrics snapshot()
+        {
+            return new HostMetrics(host, requests, errors, retries, sharedCalls,
+                    requests > 0 ? totalLatency / requests / 1000000 : 0, maxLatency / 1000000, waiting.size());
+        }
+    }
+
+    private static class Waiter implements Comparable<Waiter>
+    {
+        final Priority priority;
+        final long sequence;
+
+        Waiter(Priority priority, long sequence)
+        {
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public int compareTo(Waiter other)
+        {
+            int byPriority = priority.compareTo(other.priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequence, other.sequence);
+        }
+    }
+
+    /**
+     * A GET in flight; later identical GETs wait for it and get a copy of its response
+     */
+    private static class SharedCall
+    {
+        private final CountDownLatch done = new CountDownLatch(1);
+        private Response response;
+        private byte[] body;
+        private MediaType contentType;
+        private IOException error;
+
+        /**
+         * @param response leader's response, or null if it failed
+         * @param error why it failed; null with no response means it threw unchecked
+         */
+        void complete(Response response, IOException error)
+        {
+            if (response == null)
+            {
+                this.error = error != null ? error : new IOException("Request aborted");
+            }
+            else
+            {
+                try
+                {
+                    ResponseBody peek = response.peekBody(MAX_SHARED_BODY + 1);
+                    byte[] bytes = peek.bytes();
+                    if (bytes.length <= MAX_SHARED_BODY) //otherwise leave body unset, waiters make their own call
+                    {
+                        this.body = bytes;
+                        this.contentType = peek.contentType();
+                    }
+                    this.response = response;
+                }
+                catch (IOException e)
+                {
+                    this.error = e;
+                }
+            }
+            done.countDown();
+        }
+
+        /**
+         * @return copy of the leader's response, or null if its body was too large to share
+         */
+        Response await(Request request, long timeoutNanos) throws IOException
+        {
+            try
+            {
+                if (!done.await(timeoutNanos, TimeUnit.NANOSECONDS)) throw new InterruptedIOException("timeout");
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException();
+            }
+
+            if (error != null) throw new IOException("Shared request failed: " + error.getMessage(), error);
+            if (body == null) return null;
+            return response.newBuilder()
+                    .request(request)
+                    .body(ResponseBody.create(body, contentType))
+                    .build();
+        }
+    }
+
+    public static class HostMetrics
+    {
+        public final String host;
+        public final long requests;
+        public final long errors;
+        public final long retries;
+        public final long sharedCalls;
+        public final long averageLatency; //In milliseconds
+        public final long maxLatency;
+        public final int queued;
+
+        HostMetrics(String host, long requests, long errors, long retries, long sharedCalls, long averageLatency, long maxLatency, int queued)
+        {
+            this.host = host;
+            this.requests = requests;
+            this.errors = errors;
+            this.retries = retries;
+            this.sharedCalls = sharedCalls;
+            this.averageLatency = averageLatency;
+            this.maxLatency = maxLatency;
+            this.queued = queued;
+        }
+
+        @Override
+        public String toString()
+        {
+            return host + ": " + requests + " requests, " + errors + " errors, " + retries + " retries, " + sharedCalls
+                    + " shared, avg " + averageLatency + "ms, max " + maxLatency + "ms, " + queued + " queued";
+        }
+    }
+}
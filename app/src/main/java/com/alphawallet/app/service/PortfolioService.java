@@ -0,0 +1,183 @@
+package com.alphawallet.app.service;
+
+import com.alphawallet.app.entity.WalletSnapshot;
+import com.alphawallet.app.repository.EthereumNetworkRepositoryType;
+import com.alphawallet.app.repository.TokenRepository;
+import com.alphawallet.token.tools.Numeric;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Observable;
+import io.reactivex.Single;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Keeps a snapshot of every wallet's native balances, so the wallet list can show them straight away without
+ * opening each wallet's Realm. Snapshots are held in memory only.
+ *
+ * All wallets are refreshed together on one shared schedule, which runs while anything observes
+ * {@link #snapshots}. Each refresh sends one JSON-RPC batch of eth_getBalance calls per chain covering every
+ * wallet, with the chains fetched in parallel. A chain that fails keeps its previous balances.
+ */
+public class PortfolioService
+{
+    private static final long REFRESH_INTERVAL = 30; //seconds
+    private static final int MAX_BATCH_SIZE = 50; //calls per POST; some public nodes reject larger batches
+
+    private final EthereumNetworkRepositoryType networkRepository;
+    private final Map<String, WalletSnapshot> snapshotCache = new ConcurrentHashMap<>();
+    private final List<String> wallets = new ArrayList<>();
+    private final Observable<WalletSnapshot> refreshCycle;
+
+    public PortfolioService(EthereumNetworkRepositoryType networkRepository)
+    {
+        this.networkRepository = networkRepository;
+
+        refreshCycle = Observable.interval(0, REFRESH_INTERVAL, TimeUnit.SECONDS, Schedulers.io())
+                .concatMap(l -> refresh())
+                .share();
+    }
+
+    /**
+     * Set the wallets to keep snapshots for; takes effect from the next refresh
+     */
+    public void setWallets(Collection<String> addresses)
+    {
+        synchronized (wallets)
+        {
+            wallets.clear();
+            for (String address : addresses) wallets.add(address.toLowerCase());
+        }
+    }
+
+    /**
+     * @return last snapshot of the wallet, or null if it hasn't been fetched yet. Non-blocking
+     */
+    public WalletSnapshot getSnapshot(String address)
+    {
+        return snapshotCache.get(address.toLowerCase());
+    }
+
+    /**
+     * @return the cached snapshots, then each wallet's new snapshot as every refresh completes
+     */
+    public Observable<WalletSnapshot> snapshots()
+    {
+        return Observable.defer(() -> Observable.fromIterable(new ArrayList<>(snapshotCache.values())))
+                .concatWith(refreshCycle);
+    }
+
+    private Observable<WalletSnapshot> refresh()
+    {
+        List<String> addresses;
+        synchronized (wallets)
+        {
+            addresses = new ArrayList<>(wallets);
+        }
+        if (addresses.isEmpty()) return Observable.empty();
+
+        return Observable.fromIterable(networkRepository.getFilterNetworkList())
+                .flatMapSingle(chainId -> fetchBalances(chainId, addresses)
+                        .subscribeOn(Schedulers.io()))
+                .toMap(ChainBalances::getChainId, ChainBalances::getBalances)
+                .flatMapObservable(results -> Observable.fromIterable(buildSnapshots(addresses, results)));
+    }
+
+    private Single<ChainBalances> fetchBalances(int chainId, List<String> addresses)
+    {
+        return Single.fromCallable(() -> {
+            Map<String, BigDecimal> balances = new HashMap<>();
+            AWHttpService node = getNodeService(chainId);
+            for (int start = 0; start < addresses.size(); start += MAX_BATCH_SIZE)
+            {
+                List<String> batch = addresses.subList(start, Math.min(addresses.size(), start + MAX_BATCH_SIZE));
+                JsonArray calls = new JsonArray();
+                for (int i = 0; i < batch.size(); i++)
+                {
+                    JsonArray params = new JsonArray();
+                    params.add(batch.get(i));
+                    params.add("latest");
+                    JsonObject call = new JsonObject();
+                    call.addProperty("jsonrpc", "2.0");
+                    call.addProperty("id", i);
+                    call.addProperty("method", "eth_getBalance");
+                    call.add("params", params);
+                    calls.add(call);
+                }
+
+                JsonElement response = JsonParser.parseString(node.sendBatch(calls.toString()));
+                if (!response.isJsonArray()) continue; //node doesn't do batches, or errored; keep the old balances
+                for (JsonElement element : response.getAsJsonArray())
+                {
+                    JsonObject result = element.getAsJsonObject();
+                    if (!result.has("result") || result.get("result").isJsonNull()) continue;
+                    int id = result.get("id").getAsInt();
+                    if (id < 0 || id >= batch.size()) continue;
+                    balances.put(batch.get(id), new BigDecimal(Numeric.toBigInt(result.get("result").getAsString())));
+                }
+            }
+            return new ChainBalances(chainId, balances);
+        }).onErrorReturnItem(new ChainBalances(chainId, new HashMap<>()));
+    }
+
+    /**
+     * @return node which the chain's balance batches are sent to
+     */
+    protected AWHttpService getNodeService(int chainId)
+    {
+        return TokenRepository.getNodeService(chainId);
+    }
+
+    private List<WalletSnapshot> buildSnapshots(List<String> addresses, Map<Integer, Map<String, BigDecimal>> results)
+    {
+        List<WalletSnapshot> updated = new ArrayList<>(addresses.size());
+        for (String address : addresses)
+        {
+            WalletSnapshot previous = snapshotCache.get(address);
+            Map<Integer, BigDecimal> balances = previous != null ? new HashMap<>(previous.getBalances()) : new HashMap<>();
+            for (Map.Entry<Integer, Map<String, BigDecimal>> chain : results.entrySet())
+            {
+                BigDecimal balance = chain.getValue().get(address);
+                if (balance != null) balances.put(chain.getKey(), balance);
+            }
+
+            WalletSnapshot snapshot = new WalletSnapshot(address, balances);
+            snapshotCache.put(address, snapshot);
+            updated.add(snapshot);
+        }
+        return updated;
+    }
+
+    private static class ChainBalances
+    {
+        private final int chainId;
+        private final Map<String, BigDecimal> balances;
+
+        ChainBalances(int chainId, Map<String, BigDecimal> balances)
+        {
+            this.chainId = chainId;
+            this.balances = balances;
+        }
+
+        int getChainId()
+        {
+            return chainId;
+        }
+
+        Map<String, BigDecimal> getBalances()
+        {
+            return balances;
+        }
+    }
+}
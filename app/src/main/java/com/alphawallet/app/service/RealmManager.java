@@ -3,9 +3,11 @@ package com.alphawallet.app.service;
 import com.alphawallet.app.BuildConfig;
 import com.alphawallet.app.entity.Wallet;
 import com.alphawallet.app.repository.AWRealmMigration;
+import com.alphawallet.app.util.StartupTracer;
 
 import java.util.HashMap;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 import io.realm.Realm;
 import io.realm.RealmConfiguration;
@@ -14,6 +16,7 @@ import io.realm.exceptions.RealmMigrationNeededException;
 public class RealmManager {
 
     private final Map<String, RealmConfiguration> realmConfigurations = new HashMap<>();
+    private final Map<String, RealmWriter> realmWriters = new ConcurrentHashMap<>();
 
     public String getRealmInstanceName(Wallet wallet) {
         return wallet.address.toLowerCase() + "-db.realm";
@@ -38,6 +41,9 @@ public class RealmManager {
                         .migration(new AWRealmMigration())
                         .build();
                 realmConfigurations.put(name, config);
+                //first open of this realm includes any migration
+                final RealmConfiguration firstConfig = config;
+                if (StartupTracer.isRecording()) return StartupTracer.trace("Realm open " + name, () -> Realm.getInstance(firstConfig));
             }
             return Realm.getInstance(config);
         }
@@ -57,6 +63,40 @@ public class RealmManager {
         }
     }
 
+    /**
+     * @return the shared writer for the wallet's Realm; queue writes here rather than opening a write transaction
+     */
+    public RealmWriter getRealmWriter(Wallet wallet) {
+        return getRealmWriterInternal(getRealmInstanceName(wallet));
+    }
+
+    public RealmWriter getRealmWriter(String walletAddress) {
+        return getRealmWriterInternal(walletAddress.toLowerCase() + "-db.realm");
+    }
+
+    RealmWriter getRealmWriterInternal(String name) {
+        RealmWriter writer = realmWriters.get(name);
+        if (writer == null)
+        {
+            writer = new RealmWriter(this, name, RealmWriter.DEFAULT_MAX_DELAY);
+            RealmWriter existing = realmWriters.putIfAbsent(name, writer);
+            if (existing != null) writer = existing;
+        }
+        return writer;
+    }
+
+    /**
+     * @return batch size and lock wait figures for each Realm writer in use
+     */
+    public String describeWriters() {
+        StringBuilder sb = new StringBuilder();
+        for (RealmWriter writer : realmWriters.values())
+        {
+            sb.append(writer).append('\n');
+        }
+        return sb.toString();
+    }
+
     public Realm getWalletDataRealmInstance() {
         return getRealmInstanceInternal("WalletData-db.realm");
     }
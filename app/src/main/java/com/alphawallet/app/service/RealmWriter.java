@@ -0,0 +1,191 @@
+package com.alphawallet.app.service;
+
+import com.alphawallet.app.util.WorkerSchedulers;
+import com.alphawallet.token.tools.LatencyHistogram;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Completable;
+import io.reactivex.subjects.CompletableSubject;
+import io.realm.Realm;
+
+/**
+ * Single writer for one Realm. Callers queue mutations instead of each opening its own write transaction; the
+ * queue is drained on the DB_WRITE worker pool, applying up to MAX_BATCH mutations in one transaction. A batch is
+ * committed at most maxDelay after its first mutation was queued, or straight away once the queue is full.
+ *
+ * Each write returns a Completable which completes when the mutation is committed, or errors if the mutation
+ * threw. A mutation which throws has none of its writes committed: the transaction is rolled back and the rest of
+ * the batch replayed without it. Callers which need to read their write back should wait on it; fire-and-forget
+ * writes can ignore it.
+ *
+ * Batch sizes and the time spent waiting for Realm's write lock (held by any writes still made outside this
+ * queue) are recorded for diagnostics.
+ */
+public class RealmWriter
+{
+    public static final long DEFAULT_MAX_DELAY = 50; //In milliseconds
+    private static final int MAX_BATCH = 250;
+
+    private final String realmName;
+    private final RealmManager realmManager;
+    private final long maxDelay;
+    private final List<PendingWrite> queue = new ArrayList<>();
+    private final LatencyHistogram batchSizes = new LatencyHistogram(); //recorded as counts rather than milliseconds
+    private final LatencyHistogram lockWaits = new LatencyHistogram();
+    private boolean drainScheduled;
+
+    RealmWriter(RealmManager realmManager, String realmName, long maxDelay)
+    {
+        this.realmManager = realmManager;
+        this.realmName = realmName;
+        this.maxDelay = maxDelay;
+    }
+
+    /**
+     * Queue a mutation. It runs inside a write transaction on the writer thread, so it must not use Realm objects
+     * from the caller's thread; look them up again from the Realm it is given. It runs again if another mutation in
+     * its batch throws, so it should change nothing but the Realm.
+     *
+     * @return completes once the mutation is committed; errors, with nothing written, if the mutation threw
+     */
+    public Completable write(Realm.Transaction mutation)
+    {
+        PendingWrite write = new PendingWrite(mutation);
+        boolean full;
+        boolean schedule;
+        synchronized (queue)
+        {
+            queue.add(write);
+            full = queue.size() >= MAX_BATCH;
+            schedule = !drainScheduled;
+            drainScheduled = true;
+        }
+
+        if (full) WorkerSchedulers.dbWrite().scheduleDirect(this::drain);
+        else if (schedule) WorkerSchedulers.dbWrite().scheduleDirect(this::drain, maxDelay, TimeUnit.MILLISECONDS);
+
+        return write.done;
+    }
+
+    /**
+     * Queue a mutation and wait for it to be committed; for callers which read their write back straight away.
+     * Realm instances are cached per thread, so the caller's thread instance is refreshed before returning; an
+     * instance the caller already has open then reads the write. Don't call from the main thread, or from inside a
+     * write transaction.
+     */
+    public void writeAndWait(Realm.Transaction mutation)
+    {
+        write(mutation).doOnError(Throwable::printStackTrace).onErrorComplete().blockingAwait();
+        try (Realm realm = realmManager.getRealmInstanceInternal(realmName))
+        {
+            realm.refresh(); //a non-looper thread's instance otherwise stays at the version it was opened at
+        }
+    }
+
+    public LatencyHistogram getBatchSizes()
+    {
+        return batchSizes;
+    }
+
+    public LatencyHistogram getLockWaits()
+    {
+        return lockWaits;
+    }
+
+    @Override
+    public String toString()
+    {
+        return realmName + ": batch size " + batchSizes + "; lock wait " + lockWaits;
+    }
+
+    private void drain()
+    {
+        List<PendingWrite> batch;
+        synchronized (queue)
+        {
+            if (queue.isEmpty()) return; //already taken by an earlier drain
+            int size = Math.min(MAX_BATCH, queue.size());
+            batch = new ArrayList<>(queue.subList(0, size));
+            queue.subList(0, size).clear();
+            drainScheduled = !queue.isEmpty();
+        }
+
+        commit(batch);
+
+        //anything left over didn't fit the batch; it has already waited, so go again straight away
+        boolean more;
+        synchronized (queue)
+        {
+            more = !queue.isEmpty();
+        }
+        if (more) WorkerSchedulers.dbWrite().scheduleDirect(this::drain);
+    }
+
+    private void commit(List<PendingWrite> batch)
+    {
+        Throwable[] errors = new Throwable[batch.size()];
+        try (Realm realm = realmManager.getRealmInstanceInternal(realmName))
+        {
+            //a mutation which throws may have written part of its change; roll back and replay the batch without it
+            boolean failed;
+            do
+            {
+                failed = false;
+                long lockStart = System.currentTimeMillis();
+                realm.beginTransaction();
+                lockWaits.record(System.currentTimeMillis() - lockStart);
+
+                try
+                {
+                    for (int i = 0; i < batch.size() && !failed; i++)
+                    {
+                        if (errors[i] != null) continue;
+                        try
+                        {
+                            batch.get(i).mutation.execute(realm);
+                        }
+                        catch (Exception e)
+                        {
+                            errors[i] = e;
+                            failed = true;
+                        }
+                    }
+
+                    if (!failed) realm.commitTransaction();
+                }
+                finally
+                {
+                    if (realm.isInTransaction()) realm.cancelTransaction();
+                }
+            }
+            while (failed);
+            batchSizes.record(batch.size());
+        }
+        catch (Exception e)
+        {
+            //nothing in the batch was committed
+            for (PendingWrite write : batch) write.done.onError(e);
+            return;
+        }
+
+        for (int i = 0; i < batch.size(); i++)
+        {
+            if (errors[i] != null) batch.get(i).done.onError(errors[i]);
+            else batch.get(i).done.onComplete();
+        }
+    }
+
+    private static class PendingWrite
+    {
+        final Realm.Transaction mutation;
+        final CompletableSubject done = CompletableSubject.create();
+
+        PendingWrite(Realm.Transaction mutation)
+        {
+            this.mutation = mutation;
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.alphawallet.app.service;
+
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.Random;
+
+import okhttp3.Interceptor;
+import okhttp3.MediaType;
+import okhttp3.Protocol;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+
+/**
+ * OkHttp interceptor which either records JSON-RPC calls to an {@link RpcReplayLog}, or answers them from one
+ * without touching the network. Non JSON-RPC requests always go through to the network.
+ *
+ * Replay adds a simulated node latency: a fixed delay plus a uniform jitter taken from a seeded random, so a run
+ * with the same seed and call order sees the same delays. Calls missing from the log get a JSON-RPC error, or go
+ * to the network if passThrough is set.
+ *
+ * Install it app-wide with {@link AWHttpService#setTransportInterceptor}, or add it to any OkHttpClient.
+ */
+public class RpcReplayInterceptor implements Interceptor
+{
+    public static final int NOT_RECORDED_ERROR = -32000;
+    private static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    private final RpcReplayLog log;
+    private final boolean recording;
+    private final long latency;
+    private final long jitter;
+    private final boolean passThrough;
+    private final Random random;
+
+    private RpcReplayInterceptor(RpcReplayLog log, boolean recording, long latency, long jitter, long seed, boolean passThrough)
+    {
+        this.log = log;
+        this.recording = recording;
+        this.latency = latency;
+        this.jitter = jitter;
+        this.passThrough = passThrough;
+        this.random = new Random(seed);
+    }
+
+    public static RpcReplayInterceptor recorder(RpcReplayLog log)
+    {
+        return new RpcReplayInterceptor(log, true, 0, 0, 0, true);
+    }
+
+    /**
+     * @param latency fixed delay added to each replayed call, in milliseconds
+     * @param jitter upper bound of a random extra delay, in milliseconds
+     * @param seed seed for the jitter
+     * @param passThrough send calls which aren't in the log to the network instead of failing them
+     */
+    public static RpcReplayInterceptor replay(RpcReplayLog log, long latency, long jitter, long seed, boolean passThrough)
+    {
+        return new RpcReplayInterceptor(log, false, latency, jitter, seed, passThrough);
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException
+    {
+        Request request = chain.request();
+        String body = readBody(request);
+        if (body == null || !RpcReplayLog.isRpcRequest(body)) return chain.proceed(request);
+
+        String host = request.url().host();
+        if (recording)
+        {
+            Response response = chain.proceed(request);
+            if (response.isSuccessful()) log.record(host, body, response.peekBody(Long.MAX_VALUE).string());
+            return response;
+        }
+
+        String replayed = log.replay(host, body);
+        if (replayed == null && passThrough) return chain.proceed(request);
+
+        simulateLatency();
+        return new Response.Builder()
+                .request(request)
+                .protocol(Protocol.HTTP_1_1)
+                .code(200)
+                .message("OK")
+                .body(ResponseBody.create(replayed != null ? replayed : notRecorded(body), JSON))
+                .build();
+    }
+
+    /**
+     * Answer a request body directly, eg from a local HTTP stand-in node. Applies the same latency as the interceptor
+     * @return response body, never null
+     */
+    public String answer(String host, String body) throws IOException
+    {
+        String replayed = log.replay(host, body);
+        simulateLatency();
+        return replayed != null ? replayed : notRecorded(body);
+    }
+
+    private void simulateLatency() throws InterruptedIOException
+    {
+        long delay = latency;
+        if (jitter > 0)
+        {
+            synchronized (random)
+            {
+                delay += (long) (random.nextDouble() * jitter);
+            }
+        }
+        if (delay <= 0) return;
+
+        try
+        {
+            Thread.sleep(delay);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException();
+        }
+    }
+
+    private static String readBody(Request request) throws IOException
+    {
+        if (request.body() == null) return null;
+        Buffer buffer = new Buffer();
+        request.body().writeTo(buffer);
+        return buffer.readUtf8();
+    }
+
+    private static String notRecorded(String body)
+    {
+        JsonElement request = JsonParser.parseString(body);
+        JsonObject call = request.isJsonArray() ? request.getAsJsonArray().get(0).getAsJsonObject() : request.getAsJsonObject();
+
+        JsonObject error = new JsonObject();
+        error.addProperty("code", NOT_RECORDED_ERROR);
+        error.addProperty("message", "Not recorded: " + call.get("method").getAsString());
+        JsonObject response = new JsonObject();
+        response.addProperty("jsonrpc", "2.0");
+        response.add("id", call.get("id"));
+        response.add("error", error);
+        return response.toString();
+    }
+}
@@ -0,0 +1,211 @@
+package com.alphawallet.app.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Recorded JSON-RPC request/response pairs, for running the node-facing pipelines offline.
+ *
+ * On disk the log is gzipped JSON Lines, one {"host","request","response"} object per call in the order they were
+ * made. Requests are matched on host, method and params; the JSON-RPC id is ignored when matching and the caller's
+ * id is written into the replayed response. A request recorded several times (eg eth_blockNumber) replays its
+ * responses in recorded order, then keeps returning the last one, so a replay run sees the same sequence each time.
+ */
+public class RpcReplayLog implements Closeable
+{
+    private final ConcurrentHashMap<String, List<String>> responses = new ConcurrentHashMap<>();
+    private final Map<String, AtomicInteger> replayPosition = new ConcurrentHashMap<>();
+    private final Writer writer; //set when recording
+
+    private RpcReplayLog(Writer writer)
+    {
+        this.writer = writer;
+    }
+
+    /**
+     * Start a new log, written to the file as calls are recorded. Call {@link #close()} to finish the file
+     */
+    public static RpcReplayLog record(File logFile) throws IOException
+    {
+        return new RpcReplayLog(new OutputStreamWriter(new GZIPOutputStream(new FileOutputStream(logFile)), StandardCharsets.UTF_8));
+    }
+
+    public static RpcReplayLog load(File logFile) throws IOException
+    {
+        RpcReplayLog log = new RpcReplayLog(null);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(new GZIPInputStream(new FileInputStream(logFile)), StandardCharsets.UTF_8)))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                if (line.isEmpty()) continue;
+                JsonObject entry = JsonParser.parseString(line).getAsJsonObject();
+                log.add(entry.get("host").getAsString(), entry.get("request").getAsString(), entry.get("response").getAsString());
+            }
+        }
+        return log;
+    }
+
+    /**
+     * In-memory log, eg for building a fixture in a test
+     */
+    public static RpcReplayLog inMemory()
+    {
+        return new RpcReplayLog(null);
+    }
+
+    /**
+     * @return true if the body is a JSON-RPC call or batch which can be recorded
+     */
+    public static boolean isRpcRequest(String body)
+    {
+        try
+        {
+            JsonElement request = JsonParser.parseString(body);
+            if (request.isJsonArray()) return request.getAsJsonArray().size() > 0 && request.getAsJsonArray().get(0).getAsJsonObject().has("method");
+            return request.isJsonObject() && request.getAsJsonObject().has("method");
+        }
+        catch (Exception e)
+        {
+            return false;
+        }
+    }
+
+    public void record(String host, String request, String response) throws IOException
+    {
+        add(host, request, response);
+        if (writer != null)
+        {
+            JsonObject entry = new JsonObject();
+            entry.addProperty("host", host);
+            entry.addProperty("request", request);
+            entry.addProperty("response", response);
+            synchronized (writer)
+            {
+                writer.write(entry.toString());
+                writer.write("\n");
+            }
+        }
+    }
+
+    /**
+     * @return the recorded response with the request's id, or null if this call wasn't recorded
+     */
+    public String replay(String host, String request)
+    {
+        JsonElement parsed = JsonParser.parseString(request);
+        String key = key(host, parsed);
+        List<String> recorded = responses.get(key);
+        if (recorded == null) return null;
+
+        AtomicInteger position = replayPosition.get(key);
+        int index;
+        synchronized (recorded)
+        {
+            index = Math.min(position.getAndIncrement(), recorded.size() - 1);
+        }
+        return withIds(JsonParser.parseString(recorded.get(index)), parsed).toString();
+    }
+
+    /**
+     * Start replay sequences from the beginning again
+     */
+    public void rewind()
+    {
+        for (AtomicInteger position : replayPosition.values()) position.set(0);
+    }
+
+    public int size()
+    {
+        return responses.size();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (writer != null)
+        {
+            synchronized (writer)
+            {
+                writer.close();
+            }
+        }
+    }
+
+    private void add(String host, String request, String response)
+    {
+        String key = key(host, JsonParser.parseString(request));
+        List<String> recorded = responses.get(key);
+        if (recorded == null)
+        {
+            recorded = new ArrayList<>();
+            replayPosition.putIfAbsent(key, new AtomicInteger());
+            List<String> existing = responses.putIfAbsent(key, recorded);
+            if (existing != null) recorded = existing;
+        }
+        synchronized (recorded)
+        {
+            recorded.add(response);
+        }
+    }
+
+    private static String key(String host, JsonElement request)
+    {
+        return host + " " + withoutIds(request);
+    }
+
+    private static JsonElement withoutIds(JsonElement request)
+    {
+        if (request.isJsonArray())
+        {
+            JsonArray stripped = new JsonArray();
+            for (JsonElement call : request.getAsJsonArray()) stripped.add(withoutIds(call));
+            return stripped;
+        }
+        else if (request.isJsonObject())
+        {
+            JsonObject stripped = request.getAsJsonObject().deepCopy();
+            stripped.remove("id");
+            return stripped;
+        }
+        return request;
+    }
+
+    /**
+     * Copy the ids of the request into the response. For a batch, responses are matched to calls by position
+     */
+    private static JsonElement withIds(JsonElement response, JsonElement request)
+    {
+        if (response.isJsonArray() && request.isJsonArray())
+        {
+            JsonArray calls = request.getAsJsonArray();
+            JsonArray results = response.getAsJsonArray();
+            for (int i = 0; i < results.size() && i < calls.size(); i++) withIds(results.get(i), calls.get(i));
+        }
+        else if (response.isJsonObject() && request.isJsonObject() && request.getAsJsonObject().has("id"))
+        {
+            response.getAsJsonObject().add("id", request.getAsJsonObject().get("id"));
+        }
+        return response;
+    }
+}
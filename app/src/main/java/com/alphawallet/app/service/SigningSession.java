@@ -0,0 +1,132 @@
+package com.alphawallet.app.service;
+
+import com.alphawallet.token.tools.WorkerPool;
+import com.alphawallet.token.tools.WorkerPools;
+
+import org.web3j.crypto.ECKeyPair;
+import org.web3j.crypto.Sign;
+
+import java.io.Closeable;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A short lived unlocked key, for signing a run of messages without unlocking the key for each one,
+ * eg the batch of orders for a market queue sale.
+ *
+ * Open with KeyService.openSigningSession after the user has authenticated; close as soon as signing is done.
+ * The session closes itself at its expiry whether or not the caller does. Closing wipes the private key bytes;
+ * the key pair built from them holds the key as a BigInteger, which can't be wiped, so it's dropped on close
+ * and only the one copy is ever made.
+ */
+public class SigningSession implements Closeable
+{
+    public static final long MAX_VALIDITY = 5 * 60 * 1000; //In milliseconds
+
+    public interface ProgressCallback
+    {
+        void signed(int count, int total);
+    }
+
+    private static final ScheduledThreadPoolExecutor expiryTimer = new ScheduledThreadPoolExecutor(1, r -> {
+        Thread t = new Thread(r, "SigningSessionExpiry");
+        t.setDaemon(true);
+        return t;
+    });
+
+    static
+    {
+        expiryTimer.setRemoveOnCancelPolicy(true);
+    }
+
+    private final byte[] privateKey;
+    private final long expiry;
+    private final ScheduledFuture<?> expiryTask;
+    private volatile ECKeyPair keyPair;
+
+    /**
+     * @param privateKey 32 byte key; the session takes ownership of the array and zeroes it on close
+     * @param validity lifetime in milliseconds, capped at MAX_VALIDITY
+     */
+    public SigningSession(byte[] privateKey, long validity)
+    {
+        validity = Math.min(validity, MAX_VALIDITY);
+        this.privateKey = privateKey;
+        this.keyPair = ECKeyPair.create(new BigInteger(1, privateKey));
+        this.expiry = System.currentTimeMillis() + validity;
+        this.expiryTask = expiryTimer.schedule(this::close, validity, TimeUnit.MILLISECONDS);
+    }
+
+    public boolean isOpen()
+    {
+        return keyPair != null && System.currentTimeMillis() < expiry;
+    }
+
+    /**
+     * @return Ethereum format signature of the message: r, s, v with v 27 or 28
+     */
+    public byte[] sign(byte[] message)
+    {
+        ECKeyPair key = keyPair;
+        if (key == null || System.currentTimeMillis() >= expiry)
+        {
+            close();
+            throw new IllegalStateException("Signing session closed");
+        }
+        return KeystoreAccountService.bytesFromSignature(Sign.signMessage(message, key));
+    }
+
+    /**
+     * Sign messages in parallel on the shared CPU pool. Blocks until all are signed, so call from outside that pool
+     *
+     * @return signatures in the same order as the messages
+     */
+    public List<byte[]> signAll(List<byte[]> messages, ProgressCallback callback) throws Exception
+    {
+        WorkerPool pool = WorkerPools.get(WorkerPools.Workload.CPU);
+        AtomicInteger signedCount = new AtomicInteger();
+        List<FutureTask<byte[]>> pending = new ArrayList<>(messages.size());
+        try
+        {
+            for (byte[] message : messages)
+            {
+                FutureTask<byte[]> task = new FutureTask<>(() -> {
+                    byte[] signature = sign(message);
+                    if (callback != null) callback.signed(signedCount.incrementAndGet(), messages.size());
+                    return signature;
+                });
+                pending.add(task);
+                pool.execute(task);
+            }
+
+            List<byte[]> signatures = new ArrayList<>(messages.size());
+            for (FutureTask<byte[]> signature : pending) signatures.add(signature.get());
+            return signatures;
+        }
+        catch (ExecutionException e)
+        {
+            throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+        }
+        finally
+        {
+            for (FutureTask<byte[]> task : pending) task.cancel(false); //drop any still queued after a failure
+        }
+    }
+
+    @Override
+    public synchronized void close()
+    {
+        if (keyPair == null) return;
+        keyPair = null;
+        Arrays.fill(privateKey, (byte) 0);
+        if (expiryTask != null) expiryTask.cancel(false); //null if the session expired while opening
+    }
+}
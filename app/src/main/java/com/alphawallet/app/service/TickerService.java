@@ -11,6 +11,7 @@ import com.alphawallet.app.entity.tokens.TokenCardMeta;
 import com.alphawallet.app.entity.tokens.TokenTicker;
 import com.alphawallet.app.repository.TokenLocalSource;
 import com.alphawallet.app.repository.TokenRepository;
+import com.alphawallet.app.service.OutboundRequestScheduler.Priority;
 import com.alphawallet.token.entity.EthereumReadBuffer;
 import com.alphawallet.token.tools.Numeric;
 import com.google.gson.Gson;
@@ -35,12 +36,14 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
 import io.reactivex.Observable;
@@ -72,13 +75,16 @@ public class TickerService
 
     public static final long TICKER_TIMEOUT = DateUtils.HOUR_IN_MILLIS; //remove ticker if not seen in one hour
     public static final long TICKER_STALE_TIMEOUT = 15 * DateUtils.MINUTE_IN_MILLIS; //try to use market API if AlphaWallet market oracle not updating
+    private static final int MAX_URL_LENGTH = 2000; //keep ticker queries inside common server and proxy limits
+    private static final int MAX_CONCURRENT_FETCHES = 2; //CoinGecko's public API is rate limited per client
 
     private final OkHttpClient httpClient;
     private final Gson gson;
     private final Context context;
     private final TokenLocalSource localSource;
-    private final Map<String, TokenTicker> erc20Tickers = new HashMap<>();
-    private final Map<Integer, TokenTicker> ethTickers = new ConcurrentHashMap<>();
+    private final TickerStore tickerStore = new TickerStore();
+    private final ConcurrentMap<String, TokenTicker> erc20TickerWrites = new ConcurrentHashMap<>(); //tickers changed since the last Realm write
+    private final ConcurrentMap<Integer, TokenTicker> ethTickerWrites = new ConcurrentHashMap<>();
     private Disposable tickerUpdateTimer;
     private double currentConversionRate = 0.0;
     private static String currentCurrencySymbolTxt;
@@ -163,49 +169,71 @@ public class TickerService
         });
     }
 
+    /**
+     * Fetch tickers for mainnet ERC20 tokens. The addresses are split into queries that fit the URL length limit,
+     * fetched a couple at a time; only tickers which moved are written to Realm.
+     */
     public Single<Integer> getERC20Tickers(List<TokenCardMeta> erc20Tokens)
     {
         if (!canUpdate || erc20Tokens.size() == 0) return Single.fromCallable(() -> 0);
+        canUpdate = false;
+
+        return Observable.fromIterable(buildAddressQueries(erc20Tokens))
+                .flatMap(query -> fetchERC20Tickers(query).toObservable(), false, MAX_CONCURRENT_FETCHES)
+                .reduce(0, (total, count) -> total + count)
+                .map(total -> {
+                    writeChangedTickers();
+                    return total;
+                });
+    }
+
+    private List<String> buildAddressQueries(List<TokenCardMeta> erc20Tokens)
+    {
+        int maxLength = MAX_URL_LENGTH - COINGECKO_API.length();
+        List<String> queries = new ArrayList<>();
+        StringBuilder sb = new StringBuilder();
+        for (TokenCardMeta t : erc20Tokens)
+        {
+            if (sb.length() > 0 && sb.length() + 1 + t.getAddress().length() > maxLength)
+            {
+                queries.add(sb.toString());
+                sb.setLength(0);
+            }
+            if (sb.length() > 0) sb.append(",");
+            sb.append(t.getAddress());
+        }
+        if (sb.length() > 0) queries.add(sb.toString());
+        return queries;
+    }
 
+    private Single<Integer> fetchERC20Tickers(String addresses)
+    {
         return Single.fromCallable(() -> {
             int newSize = 0;
-            canUpdate = false;
             try
             {
-                //build ticker header
-                StringBuilder sb = new StringBuilder();
-                boolean isFirst = true;
-                for (TokenCardMeta t : erc20Tokens)
-                {
-                    if (!isFirst) sb.append(",");
-                    sb.append(t.getAddress());
-                    isFirst = false;
-                }
-
-                 Request request = new Request.Builder()
-                        .url(COINGECKO_API.replace(CONTRACT_ADDR, sb.toString()))
+                Request request = new Request.Builder()
+                        .url(COINGECKO_API.replace(CONTRACT_ADDR, addresses))
+                        .tag(Priority.class, Priority.BACKGROUND)
                         .get()
                         .build();
 
                 okhttp3.Response response = httpClient.newCall(request)
                         .execute();
 
-                List<CoinGeckoTicker> tickers = CoinGeckoTicker.buildTickerList(response.body().string());
-                newSize = tickers.size();
-
-                erc20Tickers.clear();
-
-                for (CoinGeckoTicker t : tickers)
+                if (response.code() / 200 == 1)
                 {
-                    BigDecimal changeValue = new BigDecimal(t.usdChange);
-                    TokenTicker tTicker = new TokenTicker(String.valueOf(t.usdPrice * currentConversionRate),
-                            changeValue.setScale(3, RoundingMode.DOWN).toString(), currentCurrencySymbolTxt, "", System.currentTimeMillis());
+                    List<CoinGeckoTicker> tickers = CoinGeckoTicker.buildTickerList(response.body().string());
+                    newSize = tickers.size();
+                    long updateTime = System.currentTimeMillis();
 
-                    //store ticker
-                    erc20Tickers.put(t.address, tTicker);
+                    for (CoinGeckoTicker t : tickers)
+                    {
+                        TokenTicker changed = tickerStore.put(MAINNET_ID, t.address, t.usdPrice * currentConversionRate, t.usdChange,
+                                currentCurrencySymbolTxt, "", updateTime);
+                        if (changed != null) erc20TickerWrites.put(t.address, changed);
+                    }
                 }
-
-                localSource.updateERC20Tickers(erc20Tickers);
             }
             catch (Exception e)
             {
@@ -213,7 +241,7 @@ public class TickerService
             }
 
             return newSize;
-        });
+        }).subscribeOn(Schedulers.io());
     }
 
     private EtherscanTransaction[] getEtherscanTransactions(String response) throws JSONException
@@ -241,10 +269,7 @@ public class TickerService
 
             double price = priceValue.doubleValue();
 
-            TokenTicker tTicker = new TokenTicker(String.valueOf(price * currentConversionRate),
-                    changeValue.setScale(3, RoundingMode.DOWN).toString(), currentCurrencySymbolTxt, "", tickerTime);
-
-            ethTickers.put(chainId.intValue(), tTicker);
+            storeEthTicker(chainId.intValue(), price * currentConversionRate, changeValue.doubleValue(), tickerTime);
         }
         catch (Exception e)
         {
@@ -260,6 +285,7 @@ public class TickerService
             {
                 Request request = new Request.Builder()
                         .url(COINGECKO_COINS_API)
+                        .tag(Priority.class, Priority.BACKGROUND)
                         .get()
                         .build();
                 okhttp3.Response response = httpClient.newCall(request)
@@ -270,10 +296,6 @@ public class TickerService
 
                     for (CoinGeckoTicker t : tickers)
                     {
-                        BigDecimal changeValue = new BigDecimal(t.usdChange);
-                        TokenTicker tTicker = new TokenTicker(String.valueOf(t.usdPrice * currentConversionRate),
-                                changeValue.setScale(3, RoundingMode.DOWN).toString(), currentCurrencySymbolTxt, "", System.currentTimeMillis());
-
                         //store ticker
                         int id = MAINNET_ID;
                         switch (t.address)
@@ -288,7 +310,7 @@ public class TickerService
                                 break;
                         }
 
-                        ethTickers.put(id, tTicker);
+                        storeEthTicker(id, t.usdPrice * currentConversionRate, t.usdChange, System.currentTimeMillis());
                         newTickers++;
                     }
                 }
@@ -310,6 +332,7 @@ public class TickerService
             {
                 Request request = new Request.Builder()
                         .url(BLOCKSCOUT.replace("[CORE]", core))
+                        .tag(Priority.class, Priority.BACKGROUND)
                         .get()
                         .build();
                 okhttp3.Response response = httpClient.newCall(request)
@@ -321,7 +344,7 @@ public class TickerService
                     JSONObject stateData = new JSONObject(result);
                     JSONObject data = stateData.getJSONObject("result");
                     TokenTicker tt = decodeBlockScoutTicker(data);
-                    ethTickers.put(chainId, tt);
+                    storeEthTicker(chainId, tt);
                     newTickers = 1;
                 }
             }
@@ -337,15 +360,64 @@ public class TickerService
     private void checkTickers(int tickerSize)
     {
         System.out.println("Tickers received: " + tickerSize);
-        //store ticker values. If values have changed then update the token's update time so the wallet view will update
-        localSource.updateEthTickers(ethTickers);
-        localSource.updateERC20Tickers(erc20Tickers);
+        //store ticker values which have changed
+        writeChangedTickers();
         localSource.removeOutdatedTickers();
     }
 
+    private void writeChangedTickers()
+    {
+        if (!ethTickerWrites.isEmpty())
+        {
+            Map<Integer, TokenTicker> writes = new HashMap<>(ethTickerWrites);
+            for (Map.Entry<Integer, TokenTicker> write : writes.entrySet())
+            {
+                ethTickerWrites.remove(write.getKey(), write.getValue()); //leaves a newer ticker stored since the copy
+            }
+            localSource.updateEthTickers(writes);
+        }
+        if (!erc20TickerWrites.isEmpty())
+        {
+            Map<String, TokenTicker> writes = new HashMap<>(erc20TickerWrites);
+            for (Map.Entry<String, TokenTicker> write : writes.entrySet())
+            {
+                erc20TickerWrites.remove(write.getKey(), write.getValue());
+            }
+            localSource.updateERC20Tickers(writes);
+        }
+    }
+
+    private void storeEthTicker(int chainId, double price, double change24h, long updateTime)
+    {
+        TokenTicker changed = tickerStore.put(chainId, "eth", price, change24h, currentCurrencySymbolTxt, "", updateTime);
+        if (changed != null) ethTickerWrites.put(chainId, changed);
+    }
+
+    private void storeEthTicker(int chainId, TokenTicker ticker)
+    {
+        TokenTicker changed = tickerStore.put(chainId, "eth", ticker);
+        if (changed != null) ethTickerWrites.put(chainId, changed);
+    }
+
     public TokenTicker getEthTicker(int chainId)
     {
-        return ethTickers.get(chainId);
+        return tickerStore.get(chainId, "eth");
+    }
+
+    /**
+     * @return latest ticker for the token ("eth" for a chain's native currency) without going to Realm, or null
+     */
+    public TokenTicker getTokenTicker(int chainId, String address)
+    {
+        return tickerStore.get(chainId, address);
+    }
+
+    /**
+     * @return each ticker as it moves, for views to update just the affected values
+     */
+    public Observable<TickerStore.Change> tickerChanges()
+    {
+        return tickerStore.changes();
     }
 
     private Single<Integer> addArtisTicker(int tickerCount)
@@ -358,7 +430,7 @@ public class TickerService
 
     private TokenTicker addArtisTickers(TokenTicker tokenTicker)
     {
-        ethTickers.put(ARTIS_SIGMA1_ID, tokenTicker);
+        storeEthTicker(ARTIS_SIGMA1_ID, tokenTicker);
         return tokenTicker;
     }
 
@@ -391,6 +463,7 @@ public class TickerService
             {
                 Request request = new Request.Builder()
                         .url(conversionURL)
+                        .tag(Priority.class, Priority.BACKGROUND)
                         .addHeader("Connection","close")
                         .get()
                         .build();
@@ -480,7 +553,7 @@ public class TickerService
     {
         if (ticker != null)
         {
-            ethTickers.put(chainId, ticker);
+            storeEthTicker(chainId, ticker);
         }
     }
 
@@ -488,7 +561,8 @@ public class TickerService
     {
         if (ticker != null && address != null)
         {
-            erc20Tickers.put(address, ticker);
+            TokenTicker changed = tickerStore.put(MAINNET_ID, address, ticker);
+            if (changed != null) erc20TickerWrites.put(address, changed);
         }
     }
 
@@ -0,0 +1,129 @@
+package com.alphawallet.app.service;
+
+import com.alphawallet.app.entity.tokens.TokenTicker;
+import com.alphawallet.app.repository.TokensRealmSource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import io.reactivex.Observable;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
+
+import static com.alphawallet.app.service.TickerService.TICKER_TIMEOUT;
+
+/**
+ * In-memory home of the latest tickers, safe to read from any thread while the ticker fetches write to it.
+ * Entries are keyed as RealmTokenTicker rows are ("eth" for a chain's native currency) and hold price and 24h change
+ * as doubles; a TokenTicker is only built when someone reads one.
+ *
+ * A ticker only counts as changed when its price moves by more than PRICE_THRESHOLD (relative) or its 24h change
+ * by more than CHANGE_THRESHOLD percentage points. Changed tickers go out on {@link #changes()} and are the only
+ * ones the caller needs to write to Realm. Unchanged tickers are still reported once they'd otherwise age out of
+ * the Realm ticker table.
+ */
+public class TickerStore
+{
+    private static final double PRICE_THRESHOLD = 0.0005;
+    private static final double CHANGE_THRESHOLD = 0.01;
+    private static final long REWRITE_AGE = TICKER_TIMEOUT / 2;
+
+    private final Map<String, Entry> tickers = new ConcurrentHashMap<>();
+    private final Subject<Change> changes = PublishSubject.<Change>create().toSerialized();
+
+    /**
+     * @return the ticker if it should be written to Realm, otherwise null
+     */
+    public TokenTicker put(int chainId, String address, double price, double change24h, String currencySymbol, String image, long updateTime)
+    {
+        String key = TokensRealmSource.databaseKey(chainId, address);
+        Entry previous = tickers.get(key);
+        boolean changed = previous == null || previous.hasMoved(price, change24h, currencySymbol);
+        if (!changed && updateTime - previous.writeTime < REWRITE_AGE) return null;
+
+        Entry entry = new Entry(price, change24h, currencySymbol, image, updateTime);
+        tickers.put(key, entry);
+        TokenTicker ticker = entry.toTicker();
+        if (changed) changes.onNext(new Change(chainId, address.toLowerCase(), ticker));
+        return ticker;
+    }
+
+    /**
+     * Store a ticker given in TokenTicker form, eg a custom ticker or one decoded by an older API
+     */
+    public TokenTicker put(int chainId, String address, TokenTicker ticker)
+    {
+        double price;
+        double change;
+        try
+        {
+            price = Double.parseDouble(ticker.price);
+            change = ticker.percentChange24h == null || ticker.percentChange24h.isEmpty() ? 0.0 : Double.parseDouble(ticker.percentChange24h);
+        }
+        catch (NumberFormatException e)
+        {
+            return null; //not a usable ticker
+        }
+        return put(chainId, address, price, change, ticker.priceSymbol, ticker.image, ticker.updateTime);
+    }
+
+    public TokenTicker get(int chainId, String address)
+    {
+        Entry entry = tickers.get(TokensRealmSource.databaseKey(chainId, address));
+        return entry != null ? entry.toTicker() : null;
+    }
+
+    public Observable<Change> changes()
+    {
+        return changes;
+    }
+
+    public static class Change
+    {
+        public final int chainId;
+        public final String address; //lower case; "eth" for the chain's native currency
+        public final TokenTicker ticker;
+
+        Change(int chainId, String address, TokenTicker ticker)
+        {
+            this.chainId = chainId;
+            this.address = address;
+            this.ticker = ticker;
+        }
+    }
+
+    private static class Entry
+    {
+        final double price;
+        final double change24h;
+        final String currencySymbol;
+        final String image;
+        final long writeTime;
+
+        Entry(double price, double change24h, String currencySymbol, String image, long writeTime)
+        {
+            this.price = price;
+            this.change24h = change24h;
+            this.currencySymbol = currencySymbol;
+            this.image = image;
+            this.writeTime = writeTime;
+        }
+
+        boolean hasMoved(double newPrice, double newChange, String newSymbol)
+        {
+            if (!Objects.equals(currencySymbol, newSymbol)) return true;
+            if (Math.abs(newChange - change24h) > CHANGE_THRESHOLD) return true;
+            if (price == 0.0) return newPrice != 0.0;
+            return Math.abs(newPrice - price) / price > PRICE_THRESHOLD;
+        }
+
+        TokenTicker toTicker()
+        {
+            String change = BigDecimal.valueOf(change24h).setScale(3, RoundingMode.DOWN).toString();
+            return new TokenTicker(String.valueOf(price), change, currencySymbol, image, writeTime);
+        }
+    }
+}
@@ -19,18 +19,23 @@ import com.alphawallet.app.entity.Wallet;
 import com.alphawallet.app.entity.tokens.Token;
 import com.alphawallet.app.entity.tokens.TokenCardMeta;
 import com.alphawallet.app.entity.tokens.TokenInfo;
+import com.alphawallet.app.entity.tokens.TokenMetaChange;
 import com.alphawallet.app.entity.tokens.TokenTicker;
+import com.alphawallet.app.entity.tokens.TokenValueAccumulator;
 import com.alphawallet.app.repository.EthereumNetworkRepository;
 import com.alphawallet.app.repository.EthereumNetworkRepositoryType;
 import com.alphawallet.app.repository.PreferenceRepositoryType;
 import com.alphawallet.app.repository.TokenRepositoryType;
 import com.alphawallet.app.repository.TokensRealmSource;
+import com.alphawallet.app.util.WorkerSchedulers;
 import com.alphawallet.token.entity.ContractAddress;
 
 import java.math.BigDecimal;
+import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -38,11 +43,15 @@ import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentLinkedDeque;
 import java.util.concurrent.TimeUnit;
 
+import io.reactivex.Flowable;
 import io.reactivex.Observable;
 import io.reactivex.Single;
 import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.CompositeDisposable;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.PublishSubject;
+import io.reactivex.subjects.Subject;
 import io.realm.Realm;
 
 import static com.alphawallet.app.C.ADDED_TOKEN;
@@ -57,10 +66,11 @@ public class TokensService
     private static final long OPENSEA_RINKEBY_CHECK = 4; //1 in [OPENSEA_RINKEBY_CHECK] opensea calls will to Rinkeby opensea
     public static final long PENDING_TIME_LIMIT = 3*DateUtils.MINUTE_IN_MILLIS; //cut off pending chain after 3 minutes
 
-    private static final Map<String, Float> tokenValueMap = new ConcurrentHashMap<>(); //this is used to compute the USD value of the tokens on an address
+    private static final Map<String, TokenValueAccumulator> walletValues = new ConcurrentHashMap<>(); //running value of each wallet's tokens
     private static final Map<Integer, Long> pendingChainMap = new ConcurrentHashMap<>();
     private static final Map<String, SparseArray<ContractType>> interfaceSpecMap = new ConcurrentHashMap<>();
     private final Map<String, Token> tokenStoreList = new ConcurrentHashMap<>(); //used to hold tokens that will be stored
+    private final Map<String, TokenCardMeta> tokenMetaCache = new ConcurrentHashMap<>(); //kept in step with the database by the token meta change feed
     private String currentAddress = null;
     private final EthereumNetworkRepositoryType ethereumNetworkRepository;
     private final TokenRepositoryType tokenRepository;
@@ -68,7 +78,9 @@ public class TokensService
     private final TickerService tickerService;
     private final OpenseaService openseaService;
     private final AnalyticsServiceType<AnalyticsProperties> analyticsService;
+    private final BlockHeadTracker blockHeadTracker;
     private final List<Integer> networkFilter;
+    private final CompositeDisposable blockHeadSubscriptions = new CompositeDisposable();
     private ContractLocator focusToken;
     private final ConcurrentLinkedDeque<ContractAddress> unknownTokens;
     private long nextOpenSeaCheck;
@@ -89,6 +101,11 @@ public class TokensService
     private Disposable erc20CheckDisposable;
     @Nullable
     private Disposable storeErc20Tokens;
+    @Nullable
+    private Disposable tokenMetaFeed;
+    @Nullable
+    private Disposable tokenValueUpdates;
+    private final Subject<Integer> tokenValueChanges = PublishSubject.<Integer>create().toSerialized();
 
     public TokensService(EthereumNetworkRepositoryType ethereumNetworkRepository,
                          TokenRepositoryType tokenRepository,
@@ -96,19 +113,23 @@ public class TokensService
                          Context context,
                          TickerService tickerService,
                          OpenseaService openseaService,
-                         AnalyticsServiceType<AnalyticsProperties> analyticsService) {
+                         AnalyticsServiceType<AnalyticsProperties> analyticsService,
+                         BlockHeadTracker blockHeadTracker) {
         this.ethereumNetworkRepository = ethereumNetworkRepository;
         this.tokenRepository = tokenRepository;
         this.context = context;
         this.tickerService = tickerService;
         this.openseaService = openseaService;
         this.analyticsService = analyticsService;
+        this.blockHeadTracker = blockHeadTracker;
         networkFilter = new ArrayList<>();
         setupFilter();
         focusToken = null;
         setCurrentAddress(preferenceRepository.getCurrentWalletAddress()); //set current wallet address at service startup
         this.unknownTokens = new ConcurrentLinkedDeque<>();
         appHasFocus = true;
+        tokenValueUpdates = tickerService.tickerChanges()
+                .subscribe(this::onTickerChange, this::onError);
     }
 
     private void checkUnknownTokens()
@@ -175,7 +196,7 @@ public class TokensService
         if (storeErc20Tokens == null)
         {
             storeErc20Tokens = Observable.interval(0, 50, TimeUnit.MILLISECONDS)
-                    .doOnNext(l -> storeNextToken()).subscribeOn(Schedulers.newThread()).subscribe();
+                    .doOnNext(l -> storeNextToken()).subscribe();
         }
     }
 
@@ -201,7 +222,7 @@ public class TokensService
             tokenStoreList.remove(key);
             tokenRepository.checkInterface(new Token[]{t}, wallet) //if ERC721 determine the specific contract type
                     .flatMap(tkns -> tokenRepository.storeTokens(wallet, tkns))
-                    .subscribeOn(Schedulers.io())
+                    .subscribeOn(WorkerSchedulers.rpc())
                     .observeOn(AndroidSchedulers.mainThread())
                     .subscribe(this::storedToken, Throwable::printStackTrace)
                     .isDisposed();
@@ -223,7 +244,30 @@ public class TokensService
 
     public TokenTicker getTokenTicker(Token token)
     {
-        return tokenRepository.getTokenTicker(token);
+        TokenTicker ticker = tickerService.getTokenTicker(token.tokenInfo.chainId, tickerAddress(token));
+        return ticker != null ? ticker : tokenRepository.getTokenTicker(token);
+    }
+
+    /**
+     * @return the token's ticker each time it moves
+     */
+    public Observable<TokenTicker> tickerUpdates(Token token)
+    {
+        final int chainId = token.tokenInfo.chainId;
+        final String address = tickerAddress(token);
+        return tickerService.tickerChanges()
+                .filter(change -> change.chainId == chainId && change.address.equals(address))
+                .map(change -> change.ticker);
+    }
+
+    public Observable<TickerStore.Change> tickerChanges()
+    {
+        return tickerService.tickerChanges();
+    }
+
+    private static String tickerAddress(Token token)
+    {
+        return token.isEthereum() ? "eth" : token.getAddress().toLowerCase();
     }
 
     public Single<TokenCardMeta[]> getAllTokenMetas(String searchString)
@@ -248,13 +292,84 @@ public class TokensService
         if (newWalletAddr != null && (currentAddress == null || !currentAddress.equalsIgnoreCase(newWalletAddr)))
         {
             currentAddress = newWalletAddr.toLowerCase();
-            tokenValueMap.clear();
             pendingChainMap.clear();
             tokenStoreList.clear();
             stopUpdateCycle();
+            startTokenMetaFeed();
+        }
+    }
+
+    /**
+     * Subscribe once to the wallet's token changes, rather than re-reading every token from the database on each update cycle
+     */
+    private void startTokenMetaFeed()
+    {
+        if (tokenMetaFeed != null && !tokenMetaFeed.isDisposed()) tokenMetaFeed.dispose();
+        tokenMetaCache.clear();
+        tokenMetaFeed = tokenRepository.tokenMetaChanges(new Wallet(currentAddress), null)
+                .subscribe(this::onTokenMetaChange, this::onTokenMetaFeedError);
+    }
+
+    private void onTokenMetaChange(TokenMetaChange change)
+    {
+        if (change.isDelete())
+        {
+            TokenCardMeta meta = tokenMetaCache.remove(change.tokenId);
+            if (meta != null) getTokenValues().remove(meta.getChain(), meta.isEthereum() ? "eth" : meta.getAddress());
+        }
+        else
+        {
+            tokenMetaCache.put(change.tokenId, change.meta);
+            if (change.meta.isEthereum()) updateNativeValue(change.meta);
         }
     }
 
+    /**
+     * Native balances are counted as soon as they change, whether or not the token is on screen
+     */
+    private void updateNativeValue(TokenCardMeta meta)
+    {
+        int chainId = meta.getChain();
+        if (!EthereumNetworkRepository.hasRealValue(chainId)) return;
+        try
+        {
+            double balance = new BigDecimal(meta.balance).movePointLeft(C.ETHER_DECIMALS).doubleValue();
+            TokenValueAccumulator values = getTokenValues();
+            values.setBalance(chainId, "eth", balance);
+            setTickerPrice(values, chainId, "eth");
+            tokenValueChanges.onNext(chainId);
+        }
+        catch (NumberFormatException e)
+        {
+            //balance not fetched yet
+        }
+    }
+
+    private void onTokenMetaFeedError(Throwable throwable)
+    {
+        //fall back to reading from the database
+        tokenMetaCache.clear();
+        onError(throwable);
+    }
+
+    private TokenCardMeta[] getTokenMetasForUpdate(List<Integer> networkFilters)
+    {
+        if (tokenMetaCache.isEmpty())
+        {
+            return tokenRepository.fetchTokenMetasForUpdate(new Wallet(currentAddress), networkFilters);
+        }
+
+        List<TokenCardMeta> tokenMetas = new ArrayList<>();
+        for (TokenCardMeta meta : tokenMetaCache.values())
+        {
+            if (networkFilters.size() > 0 && !networkFilters.contains(meta.getChain()) ||
+                    (meta.type != ContractType.ETHEREUM && !meta.isEnabled)) continue;
+            tokenMetas.add(meta);
+        }
+
+        return tokenMetas.toArray(new TokenCardMeta[0]);
+    }
+
     private void stopUpdateCycle()
     {
         if (eventTimer != null && !eventTimer.isDisposed())
@@ -262,6 +377,8 @@ public class TokensService
             eventTimer.dispose();
             eventTimer = null;
         }
+
+        blockHeadSubscriptions.clear();
     }
 
     public String getCurrentAddress() { return currentAddress; }
@@ -412,6 +529,14 @@ public class TokensService
         addUnresolvedContracts(ethereumNetworkRepository.getAllKnownContracts(getNetworkFilters()));
         checkIssueTokens();
 
+        //keep the block head pollers running for the visible chains; balances are only re-checked once a chain advances
+        blockHeadSubscriptions.clear();
+        for (int chainId : networkFilter)
+        {
+            blockHeadSubscriptions.add(blockHeadTracker.blockHeads(chainId)
+                    .subscribe(block -> { }, this::onError));
+        }
+
         eventTimer = Observable.interval(1, 500, TimeUnit.MILLISECONDS)
                     .doOnNext(l -> checkTokensBalance()).subscribe();
     }
@@ -452,11 +577,16 @@ public class TokensService
 
         if (t != null)
         {
+            final BigInteger checkedBlock = blockHeadTracker.getLatestBlock(t.tokenInfo.chainId);
             if (BuildConfig.DEBUG) Log.d("TOKEN", "Updating: " + t.tokenInfo.chainId + (t.isEthereum() ? " (Base Chain) ":"") + " : " + t.getAddress() + " : " + t.getFullName());
             balanceCheckDisposable = tokenRepository.updateTokenBalance(currentAddress, t.tokenInfo.chainId, t.getAddress(), t.getInterfaceSpec())
                     .subscribeOn(Schedulers.io())
                     .observeOn(AndroidSchedulers.mainThread())
-                    .subscribe(balanceChange -> onBalanceChange(balanceChange, t.tokenInfo.chainId), this::onError);
+                    .subscribe(balanceChange -> {
+                        //only a balance that was read is up to date for this block; a failed read is tried again
+                        blockHeadTracker.markBlock(balanceKey(t), checkedBlock);
+                        onBalanceChange(balanceChange, t.tokenInfo.chainId);
+                    }, this::onError);
         }
 
         if (System.currentTimeMillis() > nextOpenSeaCheck &&
@@ -479,6 +609,11 @@ public class TokensService
         if (balanceChange && BuildConfig.DEBUG) Log.d("TOKEN", "Change Registered: * " + chainId);
     }
 
+    public boolean isChainPending(int chainId)
+    {
+        return pendingChainMap.containsKey(chainId);
+    }
+
     private void checkPendingChains()
     {
         long currentTime = System.currentTimeMillis();
@@ -553,7 +688,7 @@ public class TokensService
 
     private List<TokenCardMeta> getAllERC20(int chainId)
     {
-        TokenCardMeta[] tokenList = tokenRepository.fetchTokenMetasForUpdate(new Wallet(currentAddress), Collections.singletonList(chainId));
+        TokenCardMeta[] tokenList = getTokenMetasForUpdate(Collections.singletonList(chainId));
         List<TokenCardMeta> allERC20 = new ArrayList<>();
         for (TokenCardMeta tcm : tokenList)
         {
@@ -586,6 +721,11 @@ public class TokensService
         return tokenRepository.getRealmInstance(wallet);
     }
 
+    public Flowable<TokenMetaChange> getTokenMetaChanges(Wallet wallet, AssetDefinitionService svs)
+    {
+        return tokenRepository.tokenMetaChanges(wallet, svs);
+    }
+
     public Realm getWalletRealmInstance()
     {
         if (currentAddress != null)
@@ -607,24 +747,96 @@ public class TokensService
         pendingChainMap.put(chainId, System.currentTimeMillis() + PENDING_TIME_LIMIT);
     }
 
-    public void addTokenValue(int chainId, String tokenAddress, float value)
+    /**
+     * Count the token's balance towards the current wallet's total, at the given price
+     */
+    public void updateTokenValue(Token token, TokenTicker ticker)
+    {
+        int chainId = token.tokenInfo.chainId;
+        if (!EthereumNetworkRepository.hasRealValue(chainId)) return;
+        String address = tickerAddress(token);
+        TokenValueAccumulator values = getTokenValues();
+        values.setBalance(chainId, address, token.getCorrectedBalance(18).doubleValue());
+        if (ticker != null) setPrice(values, chainId, address, ticker);
+        else setTickerPrice(values, chainId, address);
+        tokenValueChanges.onNext(chainId);
+    }
+
+    /**
+     * @return total value of the current wallet's tokens, in the user's currency
+     */
+    public double getFiatValue()
+    {
+        return getTokenValues().getTotal(TickerService.getCurrencySymbolTxt());
+    }
+
+    /**
+     * @return value of the current wallet's tokens on each chain, in the user's currency
+     */
+    public Map<Integer, Double> getChainFiatValues()
+    {
+        return getTokenValues().getChainTotals(TickerService.getCurrencySymbolTxt());
+    }
+
+    /**
+     * @return chainId of each change to the current wallet's value. Several can arrive together, eg when a ticker
+     * batch lands; the new totals are available straight away from {@link #getFiatValue()}
+     */
+    public Observable<Integer> tokenValueChanges()
+    {
+        return tokenValueChanges;
+    }
+
+    public double getUSDValue()
     {
-        if (EthereumNetworkRepository.hasRealValue(chainId))
+        double totalVal = getFiatValue();
+        double conversionRate = tickerService.getCurrentConversionRate();
+        //tickers are priced in the user's currency, at conversionRate units per USD
+        return conversionRate > 0.0 ? totalVal / conversionRate : totalVal;
+    }
+
+    private TokenValueAccumulator getTokenValues()
+    {
+        String address = currentAddress != null ? currentAddress : "";
+        TokenValueAccumulator values = walletValues.get(address);
+        if (values == null)
         {
-            if (tokenAddress.equalsIgnoreCase(currentAddress)) tokenAddress = String.valueOf(chainId);
-            tokenValueMap.put(tokenAddress, value);
+            values = new TokenValueAccumulator();
+            TokenValueAccumulator existing = walletValues.putIfAbsent(address, values);
+            if (existing != null) values = existing;
         }
+        return values;
     }
 
-    public double getUSDValue()
+    /**
+     * Prices are the same for every wallet, so each wallet's total picks up the change
+     */
+    private void onTickerChange(TickerStore.Change change)
     {
-        double totalVal = 0.0f;
-        for (Float val : tokenValueMap.values())
+        if (!EthereumNetworkRepository.hasRealValue(change.chainId)) return;
+        for (TokenValueAccumulator values : walletValues.values())
         {
-            totalVal += val;
+            setPrice(values, change.chainId, change.address, change.ticker);
         }
+        tokenValueChanges.onNext(change.chainId);
+    }
 
-        return totalVal*tickerService.getCurrentConversionRate();
+    private void setTickerPrice(TokenValueAccumulator values, int chainId, String address)
+    {
+        TokenTicker ticker = tickerService.getTokenTicker(chainId, address);
+        if (ticker != null) setPrice(values, chainId, address, ticker);
+    }
+
+    private static void setPrice(TokenValueAccumulator values, int chainId, String address, TokenTicker ticker)
+    {
+        try
+        {
+            values.setPrice(chainId, address, Double.parseDouble(ticker.price), ticker.priceSymbol);
+        }
+        catch (NumberFormatException | NullPointerException e)
+        {
+            //no usable price
+        }
     }
 
     public void walletHidden()
@@ -650,22 +862,26 @@ public class TokensService
     public Token getNextInBalanceUpdateQueue()
     {
         //pull all tokens from this wallet out of DB
-        TokenCardMeta[] tokenList = tokenRepository.fetchTokenMetasForUpdate(new Wallet(currentAddress), networkFilter);
+        TokenCardMeta[] tokenList = getTokenMetasForUpdate(networkFilter);
 
         //calculate update based on last update time & importance
         float highestWeighting = 0;
         long currentTime = System.currentTimeMillis();
         Token highestToken = null;
 
+        Set<String> liveKeys = new HashSet<>();
+
         //this list will be in order of update.
         for (TokenCardMeta check : tokenList)
         {
             Token token = getToken(check.getChain(), check.getAddress());
             if (token == null) continue;
+            liveKeys.add(balanceKey(token));
             long lastUpdateDiff = currentTime - check.lastUpdate;
             float weighting = check.calculateBalanceUpdateWeight();
 
             if (!appHasFocus && (!token.isEthereum() && !isFocusToken(token))) continue; //only check chains when wallet out of focus
+            if (!blockHeadTracker.blockAdvanced(balanceKey(token), token.tokenInfo.chainId)) continue; //balance can't have changed since the last check
 
             //simply multiply the weighting by the last diff.
             float updateFactor = weighting * (float) lastUpdateDiff;
@@ -698,6 +914,8 @@ public class TokensService
             }
         }
 
+        blockHeadTracker.retainConsumers("bal:", liveKeys); //tokens removed or from the previous wallet
+
         return highestToken;
     }
 
@@ -709,7 +927,7 @@ public class TokensService
     public Token getRequiresTransactionUpdate(List<Integer> pendingTxChains)
     {
         //pull all tokens from this wallet out of DB
-        TokenCardMeta[] tokenList = tokenRepository.fetchTokenMetasForUpdate(new Wallet(currentAddress), networkFilter);
+        TokenCardMeta[] tokenList = getTokenMetasForUpdate(networkFilter);
 
         //calculate update based on last update time & importance
         long currentTime = System.currentTimeMillis();
@@ -799,11 +1017,18 @@ public class TokensService
     public void appInFocus()
     {
         appHasFocus = true;
+        blockHeadTracker.setAppFocus(true);
     }
 
     public void appOutOfFocus()
     {
         appHasFocus = false;
+        blockHeadTracker.setAppFocus(false);
+    }
+
+    private static String balanceKey(Token token)
+    {
+        return "bal:" + TokensRealmSource.databaseKey(token);
     }
 
     /**
@@ -24,6 +24,7 @@ import com.alphawallet.app.repository.entity.RealmAuxData;
 import com.alphawallet.app.repository.entity.RealmToken;
 import com.alphawallet.app.repository.entity.RealmTransaction;
 import com.alphawallet.app.repository.entity.RealmTransfer;
+import com.alphawallet.app.service.OutboundRequestScheduler.Priority;
 import com.alphawallet.app.util.Utils;
 import com.alphawallet.token.entity.ContractAddress;
 import com.google.gson.Gson;
@@ -187,7 +188,7 @@ public class TransactionsNetworkClient implements TransactionsNetworkClientType
                 lastTransaction = myTxs[myTxs.length - 1];
             }
 
-            writeTransactions(instance, txList); //record transactions here
+            writeTransactions(walletAddress, txList); //record transactions here
             writeUpdates(updates, txList);
 
             if (page > SYNC_PAGECOUNT) continueReading = false;
@@ -234,7 +235,7 @@ public class TransactionsNetworkClient implements TransactionsNetworkClientType
         else
         {
             getRelatedTransactionList(txList, myTxs, walletAddress, networkInfo.chainId);
-            writeTransactions(instance, txList); //record transactions here
+            writeTransactions(walletAddress, txList); //record transactions here
             writeUpdates(updates, txList);
             lastTransaction = myTxs[myTxs.length-1];
             return lastTransaction;
@@ -294,33 +295,28 @@ public class TransactionsNetworkClient implements TransactionsNetworkClientType
         return gson.fromJson(orders.toString(), EtherscanEvent[].class);
     }
 
-    private boolean writeTransactions(Realm instance, List<Transaction> txList) throws Exception
+    private void writeTransactions(String walletAddress, List<Transaction> txList)
     {
-        if (txList.size() == 0) return false;
-        boolean startedReWriting = false;
+        if (txList.size() == 0) return;
+        final List<Transaction> writes = new ArrayList<>(txList); //caller reuses the list for the next page
 
-        instance.beginTransaction();
-        for (Transaction tx : txList)
-        {
-            RealmTransaction realmTx = instance.where(RealmTransaction.class)
-                    .equalTo("hash", tx.hash)
-                    .findFirst();
-
-            if (realmTx == null)
-            {
-                realmTx = instance.createObject(RealmTransaction.class, tx.hash);
-            }
-            else
+        //wait for the commit; the next page's block reads depend on it
+        realmManager.getRealmWriter(walletAddress).writeAndWait(r -> {
+            for (Transaction tx : writes)
             {
-                startedReWriting = true;
-            }
+                RealmTransaction realmTx = r.where(RealmTransaction.class)
+                        .equalTo("hash", tx.hash)
+                        .findFirst();
 
-            TransactionsRealmCache.fill(instance, realmTx, tx);
-            instance.insertOrUpdate(realmTx);
-        }
-        instance.commitTransaction();
+                if (realmTx == null)
+                {
+                    realmTx = r.createObject(RealmTransaction.class, tx.hash);
+                }
 
-        return startedReWriting;
+                TransactionsRealmCache.fill(r, realmTx, tx);
+                r.insertOrUpdate(realmTx);
+            }
+        });
     }
 
     private EtherscanTransaction[] readTransactions(NetworkInfo networkInfo, String walletAddress, String tokenAddress, String firstBlock, boolean ascending, int page, int pageSize) throws JSONException
@@ -378,6 +374,7 @@ public class TransactionsNetworkClient implements TransactionsNetworkClientType
             {
                 Request request = new Request.Builder()
                         .url(fullUrl)
+                        .tag(Priority.class, Priority.BACKGROUND)
                         .get()
                         .build();
 
@@ -526,7 +523,7 @@ public class TransactionsNetworkClient implements TransactionsNetworkClientType
                     //convert to gson
                     EtherscanEvent[] events = getEtherscanEvents(fetchTransactions);
                     //we know all these events are relevant to the wallet, and they are all ERC20 events
-                    writeEvents(instance, events, walletAddress, networkInfo, false);
+                    writeEvents(events, walletAddress, networkInfo, false);
 
                     //Now update tokens if we don't already know this token
                     writeERC20Tokens(instance, walletAddress, networkInfo, events, svs);
@@ -561,7 +558,7 @@ public class TransactionsNetworkClient implements TransactionsNetworkClientType
                 {
                     //convert to gson
                     EtherscanEvent[] events = getEtherscanEvents(fetchTransactions);
-                    writeEvents(instance, events, walletAddress, networkInfo, true);
+                    writeEvents(events, walletAddress, networkInfo, true);
 
                     //Now update tokens if we don't already know this token
                     writeERC721Tokens(walletAddress, networkInfo, events, svs);
@@ -700,6 +697,7 @@ public class TransactionsNetworkClient implements TransactionsNetworkClientType
         {
             Request request = new Request.Builder()
                     .url(fullUrl)
+                    .tag(Priority.class, Priority.BACKGROUND)
                     .get()
                     .build();
 
@@ -742,6 +740,7 @@ public class TransactionsNetworkClient implements TransactionsNetworkClientType
         {
             Request request = new Request.Builder()
                     .url(fullUrl + args)
+                    .tag(Priority.class, Priority.BACKGROUND)
                     .get()
                     .build();
 
@@ -995,30 +994,35 @@ public class TransactionsNetworkClient implements TransactionsNetworkClientType
         }
     }
 
-    private void writeEvents(Realm instance, EtherscanEvent[] events, String walletAddress, @NonNull NetworkInfo networkInfo, final boolean isNFT) throws Exception
+    private void writeEvents(EtherscanEvent[] events, String walletAddress, @NonNull NetworkInfo networkInfo, final boolean isNFT)
     {
         String TO_TOKEN = "[TO_ADDRESS]";
         String FROM_TOKEN = "[FROM_ADDRESS]";
         String AMOUNT_TOKEN = "[AMOUNT_TOKEN]";
         String VALUES = "from,address," + FROM_TOKEN + ",to,address," + TO_TOKEN + ",amount,uint256," + AMOUNT_TOKEN;
 
-        //write event list
-        for (EtherscanEvent ev : events)
-        {
-            Transaction tx = isNFT ? ev.createNFTTransaction(networkInfo) : ev.createTransaction(networkInfo);
-            //find tx name
-            String activityName = tx.getEventName(walletAddress);
-            String valueList = VALUES.replace(TO_TOKEN, ev.to).replace(FROM_TOKEN, ev.from).replace(AMOUNT_TOKEN,
-                    (isNFT || ev.value == null) ? "1" : ev.value); //Etherscan sometimes interprets NFT transfers as FT's
-            storeTransferData(instance, tx.hash, valueList, activityName, ev.contractAddress);
-            //ensure we have fetched the transaction for each hash
-            writeTransaction(instance, tx);
-        }
+        //write the whole event list in one commit; wait for it, as the block read is written after
+        realmManager.getRealmWriter(walletAddress).writeAndWait(r -> {
+            for (EtherscanEvent ev : events)
+            {
+                Transaction tx = isNFT ? ev.createNFTTransaction(networkInfo) : ev.createTransaction(networkInfo);
+                //find tx name
+                String activityName = tx.getEventName(walletAddress);
+                String valueList = VALUES.replace(TO_TOKEN, ev.to).replace(FROM_TOKEN, ev.from).replace(AMOUNT_TOKEN,
+                        (isNFT || ev.value == null) ? "1" : ev.value); //Etherscan sometimes interprets NFT transfers as FT's
+                storeTransferData(r, tx.hash, valueList, activityName, ev.contractAddress);
+                //ensure we have fetched the transaction for each hash
+                writeTransaction(r, tx);
+            }
+        });
     }
 
-    private void storeTransferData(Realm instance, String hash, String valueList, String activityName, String tokenAddress) throws Exception
+    /**
+     * Call within a write transaction
+     */
+    private void storeTransferData(Realm r, String hash, String valueList, String activityName, String tokenAddress)
     {
-        RealmTransfer matchingEntry = instance.where(RealmTransfer.class)
+        RealmTransfer matchingEntry = r.where(RealmTransfer.class)
                 .equalTo("hash", hash)
                 .equalTo("tokenAddress", tokenAddress)
                 .equalTo("eventName", activityName)
@@ -1027,13 +1031,11 @@ public class TransactionsNetworkClient implements TransactionsNetworkClientType
 
         if (matchingEntry == null) //prevent duplicates
         {
-            instance.beginTransaction();
-            RealmTransfer realmToken = instance.createObject(RealmTransfer.class);
+            RealmTransfer realmToken = r.createObject(RealmTransfer.class);
             realmToken.setHash(hash);
             realmToken.setTokenAddress(tokenAddress);
             realmToken.setEventName(activityName);
             realmToken.setTransferDetail(valueList);
-            instance.commitTransaction();
         }
         else
         {
@@ -1078,39 +1080,33 @@ public class TransactionsNetworkClient implements TransactionsNetworkClientType
 
     private void writeTransaction(String walletAddress, Transaction tx)
     {
-        try (Realm instance = realmManager.getRealmInstance(walletAddress))
-        {
-            instance.beginTransaction();
-            RealmTransaction realmTx = instance.where(RealmTransaction.class)
+        realmManager.getRealmWriter(walletAddress).write(r -> {
+            RealmTransaction realmTx = r.where(RealmTransaction.class)
                     .equalTo("hash", tx.hash)
                     .findFirst();
 
-            if (realmTx == null) realmTx = instance.createObject(RealmTransaction.class, tx.hash);
-            TransactionsRealmCache.fill(instance, realmTx, tx);
-            instance.commitTransaction();
-        }
-        catch (Exception e)
-        {
-            //
-        }
+            if (realmTx == null) realmTx = r.createObject(RealmTransaction.class, tx.hash);
+            TransactionsRealmCache.fill(r, realmTx, tx);
+        }).subscribe(() -> { }, Throwable::printStackTrace).isDisposed();
     }
 
-    private void writeTransaction(Realm instance, Transaction tx)
+    /**
+     * Call within a write transaction
+     */
+    private void writeTransaction(Realm r, Transaction tx)
     {
-        instance.executeTransactionAsync(r -> {
-            RealmTransaction realmTx = r.where(RealmTransaction.class)
-                    .equalTo("hash", tx.hash)
-                    .findFirst();
-            if (realmTx == null)
-            {
-                realmTx = r.createObject(RealmTransaction.class, tx.hash);
-            }
+        RealmTransaction realmTx = r.where(RealmTransaction.class)
+                .equalTo("hash", tx.hash)
+                .findFirst();
+        if (realmTx == null)
+        {
+            realmTx = r.createObject(RealmTransaction.class, tx.hash);
+        }
 
-            if (realmTx.getInput() == null || realmTx.getInput().length() <= 10)
-            {
-                TransactionsRealmCache.fill(r, realmTx, tx);
-            }
-        });
+        if (realmTx.getInput() == null || realmTx.getInput().length() <= 10)
+        {
+            TransactionsRealmCache.fill(r, realmTx, tx);
+        }
     }
 
 
@@ -1173,6 +1169,7 @@ public class TransactionsNetworkClient implements TransactionsNetworkClientType
         {
             Request request = new Request.Builder()
                     .url(Utils.parseIPFS(tokenURI))
+                    .tag(Priority.class, Priority.BACKGROUND)
                     .get()
                     .build();
 
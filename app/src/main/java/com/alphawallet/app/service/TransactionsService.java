@@ -16,6 +16,7 @@ import com.alphawallet.app.entity.tokenscript.EventUtils;
 import com.alphawallet.app.repository.EthereumNetworkRepositoryType;
 import com.alphawallet.app.repository.TokenRepository;
 import com.alphawallet.app.repository.TransactionLocalSource;
+import com.alphawallet.app.util.WorkerSchedulers;
 import com.alphawallet.token.entity.ContractAddress;
 
 import org.web3j.exceptions.MessageDecodingException;
@@ -26,7 +27,11 @@ import org.web3j.protocol.core.methods.response.EthTransaction;
 
 import java.math.BigInteger;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 import io.reactivex.Observable;
@@ -40,11 +45,13 @@ import io.reactivex.schedulers.Schedulers;
  */
 public class TransactionsService
 {
-    private static final String NO_TRANSACTION_EXCEPTION = "NoSuchElementException";
     private final TokensService tokensService;
     private final EthereumNetworkRepositoryType ethereumNetworkRepository;
     private final TransactionsNetworkClientType transactionsClient;
     private final TransactionLocalSource transactionsCache;
+    private final BlockHeadTracker blockHeadTracker;
+    private final NodeSubscriptionService nodeSubscriptions;
+    private final Map<Integer, Disposable> minedTxWatchers = new ConcurrentHashMap<>();
     private int currentChainIndex;
     private boolean nftCheck;
 
@@ -61,16 +68,22 @@ public class TransactionsService
     private Disposable eventFetch;
     @Nullable
     private Disposable pendingTransactionFetch;
+    @Nullable
+    private Disposable pendingBlockCheck;
 
     public TransactionsService(TokensService tokensService,
                                EthereumNetworkRepositoryType ethereumNetworkRepositoryType,
                                TransactionsNetworkClientType transactionsClient,
-                               TransactionLocalSource transactionsCache)
+                               TransactionLocalSource transactionsCache,
+                               BlockHeadTracker blockHeadTracker,
+                               NodeSubscriptionService nodeSubscriptions)
     {
         this.tokensService = tokensService;
         this.ethereumNetworkRepository = ethereumNetworkRepositoryType;
         this.transactionsClient = transactionsClient;
         this.transactionsCache = transactionsCache;
+        this.blockHeadTracker = blockHeadTracker;
+        this.nodeSubscriptions = nodeSubscriptions;
 
         checkTransactionReset();
         fetchTransactions();
@@ -107,7 +120,16 @@ public class TransactionsService
         if (pendingTransactionFetch == null || pendingTransactionFetch.isDisposed())
         {
             pendingTransactionFetch = Observable.interval(15, 30, TimeUnit.SECONDS)
-                    .doOnNext(l -> checkPendingTransactions()).subscribe();
+                    .doOnNext(l -> checkPendingTransactions(0)).subscribe();
+        }
+
+        if (pendingBlockCheck == null || pendingBlockCheck.isDisposed())
+        {
+            //check pending transactions as soon as their chain produces a block; the timer above covers chains that aren't tracked.
+            //Chains with a connected socket are handled by matching mined transaction hashes instead
+            pendingBlockCheck = blockHeadTracker.newBlockEvents()
+                    .filter(chainId -> tokensService.isChainPending(chainId) && !nodeSubscriptions.isConnected(chainId))
+                    .subscribe(this::checkPendingTransactions, Throwable::printStackTrace);
         }
     }
 
@@ -283,63 +305,136 @@ public class TransactionsService
     {
         System.out.println("Marked Pending Tx Chain: " + tx.chainId);
         tokensService.markChainPending(tx.chainId);
+        watchMinedTransactions(tx.chainId);
+    }
+
+    /**
+     * On chains with a WebSocket node, watch each new block for the hashes of our pending transactions
+     */
+    private void watchMinedTransactions(int chainId)
+    {
+        if (!nodeSubscriptions.hasWebSocket(chainId) || minedTxWatchers.containsKey(chainId)) return;
+
+        minedTxWatchers.put(chainId, nodeSubscriptions.blockTransactionHashes(chainId)
+                .observeOn(Schedulers.io())
+                .subscribe(hashes -> onBlockTransactions(chainId, hashes), Throwable::printStackTrace));
+    }
+
+    private void onBlockTransactions(int chainId, List<String> blockTxHashes)
+    {
+        final String currentWallet = tokensService.getCurrentAddress();
+        for (Transaction tx : fetchPendingTransactions())
+        {
+            if (tx.chainId == chainId && blockTxHashes.contains(tx.hash.toLowerCase()))
+            {
+                checkPendingTransaction(tx, currentWallet);
+            }
+        }
     }
 
-    private void checkPendingTransactions()
+    /**
+     * Check pending transactions for inclusion in a block, or being dropped from the pool
+     * @param chainId only check transactions on this chain, or 0 for all chains
+     */
+    private void checkPendingTransactions(int chainId)
     {
         final String currentWallet = tokensService.getCurrentAddress();
         Transaction[] pendingTxs = fetchPendingTransactions();
         if (BuildConfig.DEBUG) Log.d("TRANSACTION", "Checking " + pendingTxs.length + " Transactions");
+        if (chainId == 0)
+        {
+            updateMinedTxWatchers(pendingTxs);
+            retainPendingMarks(pendingTxs);
+        }
         for (final Transaction tx : pendingTxs)
         {
-            Web3j web3j = TokenRepository.getWeb3jService(tx.chainId);
-            web3j.ethGetTransactionByHash(tx.hash).sendAsync().thenAccept(txDetails -> {
-                org.web3j.protocol.core.methods.response.Transaction fetchedTx = txDetails.getTransaction().orElseThrow(); //try to read the transaction data
-                //if transaction is complete; record it here
-                BigInteger blockNumber;
-                try
-                {
-                    blockNumber = fetchedTx.getBlockNumber();
-                }
-                catch (MessageDecodingException e)
-                {
-                    blockNumber = BigInteger.valueOf(-1);
-                }
-
-                if (blockNumber.compareTo(BigInteger.ZERO) > 0)
-                {
-                    //Write to database (including detecting Transaction write error)
-                    web3j.ethGetTransactionReceipt(tx.hash).sendAsync().thenAccept(receipt -> {
-                        if (receipt != null)
-                        {
-                            //get timestamp and write tx
-                            EventUtils.getBlockDetails(fetchedTx.getBlockHash(), web3j)
-                                    .map(ethBlock -> storeRawTx(ethBlock, tx.chainId, receipt, txDetails, currentWallet))
-                                    .map(this::triggerTokenMoveCheck)
-                                    .subscribeOn(Schedulers.io())
-                                    .observeOn(AndroidSchedulers.mainThread())
-                                    .subscribe().isDisposed();
-                        }
-                    }).exceptionally(throwable -> {
-                        throwable.printStackTrace();
-                        return null;
-                    });
-                }
-                else if (!tx.blockNumber.equals(String.valueOf(TRANSACTION_SEEN)))
-                {
-                    //detected the tx in the pool, mark as seen
-                    transactionsCache.markTransactionBlock(currentWallet, tx.hash, TRANSACTION_SEEN);
-                }
-            }).exceptionally(throwable -> {
-                String c1 = throwable.getMessage(); //java.util.NoSuchElementException: No value present
-                if (!TextUtils.isEmpty(c1) && c1.contains(NO_TRANSACTION_EXCEPTION) && tx.blockNumber.equals(String.valueOf(TRANSACTION_SEEN))) //we sighted this tx in the pool, now it's gone
-                {
-                    //transaction is no longer in pool or on chain. Cause: dropped from mining pool
-                    //mark transaction as dropped
-                    transactionsCache.markTransactionBlock(currentWallet, tx.hash, TRANSACTION_DROPPED);
-                }
-                return null;
-            });
+            if (chainId != 0 && tx.chainId != chainId) continue;
+            //status can't have changed unless the chain has advanced since this tx was last checked
+            String consumerKey = "tx:" + tx.hash;
+            if (!blockHeadTracker.blockAdvanced(consumerKey, tx.chainId)) continue;
+            blockHeadTracker.markBlock(consumerKey, tx.chainId);
+            checkPendingTransaction(tx, currentWallet);
+        }
+    }
+
+    /**
+     * Forget the block marks of transactions that have since been mined or dropped, or belong to another wallet
+     */
+    private void retainPendingMarks(Transaction[] pendingTxs)
+    {
+        Set<String> pendingKeys = new HashSet<>();
+        for (Transaction tx : pendingTxs) pendingKeys.add("tx:" + tx.hash);
+        blockHeadTracker.retainConsumers("tx:", pendingKeys);
+    }
+
+    private void updateMinedTxWatchers(Transaction[] pendingTxs)
+    {
+        List<Integer> pendingChains = new ArrayList<>();
+        for (Transaction tx : pendingTxs)
+        {
+            if (!pendingChains.contains(tx.chainId)) pendingChains.add(tx.chainId);
+            watchMinedTransactions(tx.chainId);
+        }
+
+        for (Integer chainId : minedTxWatchers.keySet())
+        {
+            if (!pendingChains.contains(chainId))
+            {
+                Disposable watcher = minedTxWatchers.remove(chainId);
+                if (watcher != null) watcher.dispose();
+            }
+        }
+    }
+
+    private void checkPendingTransaction(final Transaction tx, final String currentWallet)
+    {
+        Web3j web3j = TokenRepository.getWeb3jService(tx.chainId);
+        Single.fromCallable(() -> web3j.ethGetTransactionByHash(tx.hash).send())
+                .subscribeOn(WorkerSchedulers.rpc())
+                .subscribe(txDetails -> onPendingTransactionFetched(web3j, tx, txDetails, currentWallet),
+                        Throwable::printStackTrace).isDisposed();
+    }
+
+    private void onPendingTransactionFetched(Web3j web3j, Transaction tx, EthTransaction txDetails, String currentWallet)
+    {
+        org.web3j.protocol.core.methods.response.Transaction fetchedTx = txDetails.getTransaction().orElse(null); //try to read the transaction data
+        if (fetchedTx == null)
+        {
+            if (tx.blockNumber.equals(String.valueOf(TRANSACTION_SEEN))) //we sighted this tx in the pool, now it's gone
+            {
+                //transaction is no longer in pool or on chain. Cause: dropped from mining pool
+                //mark transaction as dropped
+                transactionsCache.markTransactionBlock(currentWallet, tx.hash, TRANSACTION_DROPPED);
+            }
+            return;
+        }
+
+        //if transaction is complete; record it here
+        BigInteger blockNumber;
+        try
+        {
+            blockNumber = fetchedTx.getBlockNumber();
+        }
+        catch (MessageDecodingException e)
+        {
+            blockNumber = BigInteger.valueOf(-1);
+        }
+
+        if (blockNumber.compareTo(BigInteger.ZERO) > 0)
+        {
+            //Write to database (including detecting Transaction write error), with the block timestamp
+            Single.fromCallable(() -> web3j.ethGetTransactionReceipt(tx.hash).send())
+                    .flatMap(receipt -> EventUtils.getBlockDetails(fetchedTx.getBlockHash(), web3j)
+                            .map(ethBlock -> storeRawTx(ethBlock, tx.chainId, receipt, txDetails, currentWallet)))
+                    .map(this::triggerTokenMoveCheck)
+                    .subscribeOn(WorkerSchedulers.rpc())
+                    .observeOn(AndroidSchedulers.mainThread())
+                    .subscribe(transaction -> { }, Throwable::printStackTrace).isDisposed();
+        }
+        else if (!tx.blockNumber.equals(String.valueOf(TRANSACTION_SEEN)))
+        {
+            //detected the tx in the pool, mark as seen
+            transactionsCache.markTransactionBlock(currentWallet, tx.hash, TRANSACTION_SEEN);
         }
     }
 
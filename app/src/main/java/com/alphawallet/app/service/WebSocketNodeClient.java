@@ -0,0 +1,319 @@
+package com.alphawallet.app.service;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import io.reactivex.Observable;
+import io.reactivex.ObservableEmitter;
+import io.reactivex.Single;
+import io.reactivex.SingleEmitter;
+import io.reactivex.disposables.Disposable;
+import io.reactivex.schedulers.Schedulers;
+import io.reactivex.subjects.BehaviorSubject;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+
+/**
+ * JSON-RPC over a WebSocket to a single node, for eth_subscribe push notifications.
+ *
+ * The socket is opened when the first subscription is made and closed when the last one is disposed. Subscriptions
+ * outlive the connection: if the socket drops they stay registered, the client reconnects with a growing delay and
+ * re-subscribes them, so consumers only see a gap in notifications. {@link #connectionState()} lets callers fall back
+ * to HTTP polling while the socket is down. A node which answers eth_subscribe with an error is treated as a dropped
+ * connection, and the reconnect delay only goes back to its minimum once a subscription has been accepted, so a node
+ * which doesn't support subscriptions is retried less and less often.
+ *
+ * Kept free of Android dependencies so it can be run against a local stand-in node.
+ */
+public class WebSocketNodeClient extends WebSocketListener
+{
+    private static final long RECONNECT_MIN_DELAY = 1000; //In milliseconds
+    private static final long RECONNECT_MAX_DELAY = 60000;
+    private static final long PING_INTERVAL = 30; //In seconds
+
+    private final OkHttpClient httpClient;
+    private final String url;
+    private final AtomicLong nextId = new AtomicLong(1);
+    private final List<Subscription> subscriptions = new CopyOnWriteArrayList<>();
+    private final Map<String, Subscription> activeSubscriptions = new ConcurrentHashMap<>(); //node subscription id -> subscription
+    private final Map<Long, Subscription> pendingSubscribes = new ConcurrentHashMap<>();
+    private final Map<Long, SingleEmitter<JsonElement>> pendingRequests = new ConcurrentHashMap<>();
+    private final BehaviorSubject<Boolean> connected = BehaviorSubject.createDefault(false);
+
+    private WebSocket webSocket;
+    private boolean socketOpen; //guarded by this, so a subscribe made while the socket opens is sent exactly once
+    private Disposable reconnectTimer;
+    private long reconnectDelay = RECONNECT_MIN_DELAY;
+
+    public WebSocketNodeClient(OkHttpClient httpClient, String url)
+    {
+        this.httpClient = httpClient.newBuilder()
+                .pingInterval(PING_INTERVAL, TimeUnit.SECONDS)
+                .build();
+        this.url = url;
+    }
+
+    /**
+     * @param type eg 'newHeads' or 'logs'
+     * @param params optional subscription parameter, eg a log filter object
+     * @return notification results for the subscription. Never completes or errors because of a dropped connection
+     */
+    public Observable<JsonElement> subscribe(String type, JsonElement params)
+    {
+        return Observable.create(emitter -> {
+            Subscription sub = new Subscription(type, params, emitter);
+            synchronized (this)
+            {
+                subscriptions.add(sub);
+                if (webSocket == null) connect();
+                else if (socketOpen) sendSubscribe(sub); //otherwise onOpen sends it
+            }
+
+            emitter.setCancellable(() -> removeSubscription(sub));
+        });
+    }
+
+    /**
+     * Single request over the open socket. Fails immediately if the socket isn't connected
+     */
+    public Single<JsonElement> request(String method, JsonArray params)
+    {
+        return Single.create(emitter -> {
+            if (!isConnected())
+            {
+                emitter.onError(new IOException("Not connected: " + url));
+                return;
+            }
+
+            long id = nextId.getAndIncrement();
+            pendingRequests.put(id, emitter);
+            emitter.setCancellable(() -> pendingRequests.remove(id));
+            if (!send(id, method, params))
+            {
+                pendingRequests.remove(id);
+                emitter.tryOnError(new IOException("Send failed: " + url));
+            }
+        });
+    }
+
+    public Observable<Boolean> connectionState()
+    {
+        return connected.distinctUntilChanged();
+    }
+
+    public boolean isConnected()
+    {
+        return Boolean.TRUE.equals(connected.getValue());
+    }
+
+    @Override
+    public void onOpen(WebSocket socket, Response response)
+    {
+        synchronized (this)
+        {
+            if (socket != webSocket) return;
+            socketOpen = true;
+            connected.onNext(true);
+            for (Subscription sub : subscriptions)
+            {
+                sendSubscribe(sub);
+            }
+        }
+    }
+
+    @Override
+    public void onMessage(WebSocket socket, String text)
+    {
+        JsonObject message;
+        try
+        {
+            message = JsonParser.parseString(text).getAsJsonObject();
+        }
+        catch (Exception e)
+        {
+            return; //not JSON-RPC, ignore
+        }
+
+        if (message.has("method") && "eth_subscription".equals(message.get("method").getAsString()))
+        {
+            JsonObject params = message.getAsJsonObject("params");
+            Subscription sub = activeSubscriptions.get(params.get("subscription").getAsString());
+            if (sub != null) sub.emitter.onNext(params.get("result"));
+        }
+        else if (message.has("id") && !message.get("id").isJsonNull())
+        {
+            long id = message.get("id").getAsLong();
+            JsonElement result = message.get("result");
+            Subscription sub = pendingSubscribes.remove(id);
+            SingleEmitter<JsonElement> request = pendingRequests.remove(id);
+
+            if (sub != null && result != null && !result.isJsonNull())
+            {
+                synchronized (this)
+                {
+                    reconnectDelay = RECONNECT_MIN_DELAY;
+                }
+                sub.subscriptionId = result.getAsString();
+                if (subscriptions.contains(sub)) activeSubscriptions.put(sub.subscriptionId, sub);
+                else unsubscribe(sub); //disposed while the subscribe was in flight
+            }
+            else if (sub != null)
+            {
+                //without the subscription the socket is no use; callers poll until a reconnect gets it accepted
+                socket.close(1000, "eth_subscribe failed");
+                onDisconnect(socket);
+            }
+            else if (request != null)
+            {
+                if (result != null) request.onSuccess(result);
+                else request.tryOnError(new IOException("RPC error: " + message.get("error")));
+            }
+        }
+    }
+
+    @Override
+    public void onClosing(WebSocket socket, int code, String reason)
+    {
+        socket.close(1000, null);
+    }
+
+    @Override
+    public void onClosed(WebSocket socket, int code, String reason)
+    {
+        onDisconnect(socket);
+    }
+
+    @Override
+    public void onFailure(WebSocket socket, Throwable t, Response response)
+    {
+        onDisconnect(socket);
+    }
+
+    private void onDisconnect(WebSocket socket)
+    {
+        synchronized (this)
+        {
+            if (socket != webSocket) return;
+            webSocket = null;
+            socketOpen = false;
+        }
+
+        connected.onNext(false);
+        activeSubscriptions.clear();
+        pendingSubscribes.clear();
+        for (SingleEmitter<JsonElement> request : pendingRequests.values())
+        {
+            request.tryOnError(new IOException("Connection lost: " + url));
+        }
+        pendingRequests.clear();
+
+        scheduleReconnect();
+    }
+
+    private synchronized void connect()
+    {
+        Request request = new Request.Builder().url(url).build();
+        webSocket = httpClient.newWebSocket(request, this);
+    }
+
+    private synchronized void scheduleReconnect()
+    {
+        if (subscriptions.isEmpty() || (reconnectTimer != null && !reconnectTimer.isDisposed())) return;
+
+        long delay = reconnectDelay;
+        reconnectDelay = Math.min(RECONNECT_MAX_DELAY, reconnectDelay * 2);
+        reconnectTimer = Single.timer(delay, TimeUnit.MILLISECONDS, Schedulers.io())
+                .subscribe(l -> {
+                    synchronized (this)
+                    {
+                        if (webSocket == null && !subscriptions.isEmpty()) connect();
+                    }
+                }, Throwable::printStackTrace);
+    }
+
+    private void removeSubscription(Subscription sub)
+    {
+        subscriptions.remove(sub);
+        if (sub.subscriptionId != null)
+        {
+            activeSubscriptions.remove(sub.subscriptionId);
+            unsubscribe(sub);
+        }
+
+        synchronized (this)
+        {
+            if (subscriptions.isEmpty())
+            {
+                if (reconnectTimer != null && !reconnectTimer.isDisposed()) reconnectTimer.dispose();
+                if (webSocket != null)
+                {
+                    WebSocket socket = webSocket;
+                    webSocket = null;
+                    socketOpen = false;
+                    socket.close(1000, null);
+                    connected.onNext(false);
+                }
+                reconnectDelay = RECONNECT_MIN_DELAY;
+            }
+        }
+    }
+
+    private void sendSubscribe(Subscription sub)
+    {
+        JsonArray params = new JsonArray();
+        params.add(sub.type);
+        if (sub.params != null) params.add(sub.params);
+
+        long id = nextId.getAndIncrement();
+        pendingSubscribes.put(id, sub);
+        send(id, "eth_subscribe", params);
+    }
+
+    private void unsubscribe(Subscription sub)
+    {
+        JsonArray params = new JsonArray();
+        params.add(sub.subscriptionId);
+        send(nextId.getAndIncrement(), "eth_unsubscribe", params);
+    }
+
+    private boolean send(long id, String method, JsonArray params)
+    {
+        WebSocket socket = webSocket;
+        if (socket == null) return false;
+
+        JsonObject message = new JsonObject();
+        message.addProperty("jsonrpc", "2.0");
+        message.addProperty("id", id);
+        message.addProperty("method", method);
+        message.add("params", params);
+        return socket.send(message.toString());
+    }
+
+    private static class Subscription
+    {
+        final String type;
+        final JsonElement params;
+        final ObservableEmitter<JsonElement> emitter;
+        volatile String subscriptionId;
+
+        Subscription(String type, JsonElement params, ObservableEmitter<JsonElement> emitter)
+        {
+            this.type = type;
+            this.params = params;
+            this.emitter = emitter;
+        }
+    }
+}
@@ -23,12 +23,11 @@ import com.alphawallet.app.entity.TransactionMeta;
 import com.alphawallet.app.entity.Wallet;
 import com.alphawallet.app.entity.WalletPage;
 import com.alphawallet.app.interact.ActivityDataInteract;
+import com.alphawallet.app.repository.TransactionsRealmCache;
 import com.alphawallet.app.repository.entity.RealmAuxData;
 import com.alphawallet.app.repository.entity.RealmTransaction;
-import com.alphawallet.app.repository.entity.RealmTransfer;
 import com.alphawallet.app.ui.widget.adapter.ActivityAdapter;
 import com.alphawallet.app.ui.widget.adapter.RecycleViewDivider;
-import com.alphawallet.app.ui.widget.entity.TokenTransferData;
 import com.alphawallet.app.viewmodel.ActivityViewModel;
 import com.alphawallet.app.viewmodel.ActivityViewModelFactory;
 import com.alphawallet.app.widget.EmptyTransactionsView;
@@ -87,6 +86,7 @@ public class ActivityFragment extends BaseFragment implements View.OnClickListen
                     .get(ActivityViewModel.class);
             viewModel.defaultWallet().observe(getViewLifecycleOwner(), this::onDefaultWallet);
             viewModel.activityItems().observe(getViewLifecycleOwner(), this::onItemsLoaded);
+            viewModel.activityPage().observe(getViewLifecycleOwner(), this::onPageLoaded);
         }
     }
 
@@ -95,6 +95,20 @@ public class ActivityFragment extends BaseFragment implements View.OnClickListen
         realm = viewModel.getRealmInstance();
         adapter.updateActivityItems(buildTransactionList(activityItems).toArray(new ActivityMeta[0]));
         showEmptyTx();
+        startTxListener(activityItems);
+    }
+
+    //page items arrive already merged with their transfers and events
+    private void onPageLoaded(ActivityMeta[] pageItems)
+    {
+        realm = viewModel.getRealmInstance();
+        adapter.updateActivityItems(pageItems);
+        showEmptyTx();
+        startTxListener(pageItems);
+    }
+
+    private void startTxListener(ActivityMeta[] activityItems)
+    {
         long lastUpdateTime = 0;
 
         for (ActivityMeta am : activityItems)
@@ -108,10 +122,11 @@ public class ActivityFragment extends BaseFragment implements View.OnClickListen
     private void startTxListener(long lastUpdateTime)
     {
         String walletAddress = viewModel.defaultWallet().getValue() != null ? viewModel.defaultWallet().getValue().address : "";
-        eventTimeFilter = lastUpdateTime;
         if (realmId == null || !realmId.equalsIgnoreCase(walletAddress))
         {
+            eventTimeFilter = lastUpdateTime;
             if (realmUpdates != null) realmUpdates.removeAllChangeListeners();
+            if (auxRealmUpdates != null) auxRealmUpdates.removeAllChangeListeners();
 
             realmId = walletAddress;
             realmUpdates = realm.where(RealmTransaction.class).greaterThan("timeStamp", lastUpdateTime).findAllAsync();
@@ -165,50 +180,19 @@ public class ActivityFragment extends BaseFragment implements View.OnClickListen
 
     private List<ActivityMeta> buildTransactionList(ActivityMeta[] activityItems)
     {
-        //selectively filter the items with the following rules:
-        // - allow through all normal transactions with no token transfer consequences
-        // - for any transaction with token transfers; if there's only one token transfer, only show the transfer
-        // - for any transaction with more than one token transfer, show the transaction and show the child transfer consequences
         List<ActivityMeta> filteredList = new ArrayList<>();
 
         for (ActivityMeta am : activityItems)
         {
             if (am instanceof TransactionMeta)
             {
-                List<TokenTransferData> tokenTransfers = getTokenTransfersForHash((TransactionMeta)am);
-                if (tokenTransfers.size() != 1) { filteredList.add(am); } //only 1 token transfer ? No need to show the underlying transaction
-                filteredList.addAll(tokenTransfers);
+                TransactionsRealmCache.addTransactionWithTransfers(realm, (TransactionMeta)am, filteredList);
             }
         }
 
         return filteredList;
     }
 
-    private List<TokenTransferData> getTokenTransfersForHash(TransactionMeta tm)
-    {
-        List<TokenTransferData> transferData = new ArrayList<>();
-        //summon realm items
-        //get matching entries for this transaction
-        RealmResults<RealmTransfer> transfers = realm.where(RealmTransfer.class)
-                .equalTo("hash", tm.hash)
-                .findAll();
-
-        if (transfers != null && transfers.size() > 0)
-        {
-            //list of transfers, descending in time to give ordered list
-            long nextTransferTime = transfers.size() == 1 ? tm.getTimeStamp() : tm.getTimeStamp() - 1; // if there's only 1 transfer, keep the transaction timestamp
-            for (RealmTransfer rt : transfers)
-            {
-                TokenTransferData ttd = new TokenTransferData(rt.getHash(), tm.chainId,
-                        rt.getTokenAddress(), rt.getEventName(), rt.getTransferDetail(), nextTransferTime);
-                transferData.add(ttd);
-                nextTransferTime--;
-            }
-        }
-
-        return transferData;
-    }
-
     private void initViews(View view)
     {
         adapter = new ActivityAdapter(viewModel.getTokensService(), viewModel.provideTransactionsInteract(),
@@ -298,7 +282,11 @@ public class ActivityFragment extends BaseFragment implements View.OnClickListen
     @Override
     public void fetchMoreData(long latestDate)
     {
-        if (checkTimer)
+        if (viewModel.hasMoreStoredActivity())
+        {
+            viewModel.fetchNextPage();
+        }
+        else if (checkTimer)
         {
             viewModel.fetchMoreTransactions(latestDate);
             checkTimer = false;
@@ -67,7 +67,6 @@ import com.alphawallet.app.entity.WalletPage;
 import com.alphawallet.app.entity.tokens.Token;
 import com.alphawallet.app.repository.EthereumNetworkBase;
 import com.alphawallet.app.repository.EthereumNetworkRepository;
-import com.alphawallet.app.repository.TokenRepository;
 import com.alphawallet.app.repository.TokensRealmSource;
 import com.alphawallet.app.repository.entity.RealmToken;
 import com.alphawallet.app.ui.widget.OnDappClickListener;
@@ -110,7 +109,6 @@ import com.alphawallet.token.tools.ParseMagicLink;
 
 import org.web3j.crypto.Keys;
 import org.web3j.crypto.Sign;
-import org.web3j.protocol.Web3j;
 import org.web3j.protocol.core.methods.response.EthCall;
 import org.web3j.protocol.core.methods.response.EthEstimateGas;
 
@@ -125,7 +123,6 @@ import javax.inject.Inject;
 
 import dagger.android.support.AndroidSupportInjection;
 import io.reactivex.Observable;
-import io.reactivex.Single;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.schedulers.Schedulers;
@@ -140,7 +137,6 @@ import static com.alphawallet.app.entity.tokens.Token.TOKEN_BALANCE_PRECISION;
 import static com.alphawallet.app.ui.MyAddressActivity.KEY_ADDRESS;
 import static com.alphawallet.app.util.KeyboardUtils.showKeyboard;
 import static com.alphawallet.app.widget.AWalletAlertDialog.ERROR;
-import static org.web3j.protocol.core.methods.request.Transaction.createEthCallTransaction;
 
 public class DappBrowserFragment extends Fragment implements OnSignTransactionListener, OnSignPersonalMessageListener, OnSignTypedMessageListener, OnSignMessageListener,
         OnEthCallListener, URLLoadInterface, ItemClickListener, OnDappClickListener, OnDappHomeNavClickListener, OnHistoryItemRemovedListener, DappBrowserSwipeInterface, SignAuthenticationCallback,
@@ -210,6 +206,7 @@ public class DappBrowserFragment extends Fragment implements OnSignTransactionLi
 
     private String currentWebpageTitle;
     private String currentFragment;
+    private volatile String pageOrigin = ""; //read from the JS bridge thread
 
     private Signable messageTBS;  // To-Be-Signed
     private DAppFunction dAppFunction;
@@ -887,6 +884,8 @@ public class DappBrowserFragment extends Fragment implements OnSignTransactionLi
 
     private void setUrlText(String newUrl)
     {
+        String host = newUrl != null ? Uri.parse(newUrl).getHost() : null;
+        pageOrigin = host != null ? host : "";
         if (getView() == null) return;
         urlTv = getView().findViewById(R.id.url_tv);
         urlTv.setText(newUrl);
@@ -943,15 +942,9 @@ public class DappBrowserFragment extends Fragment implements OnSignTransactionLi
     @Override
     public void onEthCall(Web3Call call)
     {
-        Single.fromCallable(() -> {
-            //let's make the call
-            Web3j web3j = TokenRepository.getWeb3jService(activeNetwork.chainId);
-            //construct call
-            org.web3j.protocol.core.methods.request.Transaction transaction
-                    = createEthCallTransaction(wallet.address, call.to.toString(), call.payload);
-            return web3j.ethCall(transaction, call.blockParam).send();
-        }).map(EthCall::getValue)
-                .subscribeOn(Schedulers.io())
+        //identical calls are shared and 'latest' results are reused until the next block
+        viewModel.ethCall(pageOrigin, activeNetwork.chainId, wallet.address, call)
+                .map(EthCall::getValue)
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(result -> web3.onCallFunctionSuccessful(call.leafPosition, result),
                         error -> web3.onCallFunctionError(call.leafPosition, error.getMessage()))
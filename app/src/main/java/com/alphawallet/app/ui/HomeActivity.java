@@ -58,6 +58,7 @@ import com.alphawallet.app.entity.WalletPage;
 import com.alphawallet.app.repository.EthereumNetworkRepository;
 import com.alphawallet.app.service.NotificationService;
 import com.alphawallet.app.ui.widget.entity.ScrollControlViewPager;
+import com.alphawallet.app.util.DeferredStartup;
 import com.alphawallet.app.util.LocaleUtils;
 import com.alphawallet.app.util.RootUtil;
 import com.alphawallet.app.util.Utils;
@@ -211,7 +212,8 @@ public class HomeActivity extends BaseNavigationActivity implements View.OnClick
 
         viewModel = new ViewModelProvider(this, homeViewModelFactory)
                 .get(HomeViewModel.class);
-        viewModel.identify(this);
+        Context appContext = getApplicationContext();
+        DeferredStartup.post("analytics identify", () -> viewModel.identify(appContext));
 
         setContentView(R.layout.activity_home);
 
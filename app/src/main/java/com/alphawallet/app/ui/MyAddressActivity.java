@@ -27,10 +27,9 @@ import com.alphawallet.app.entity.NetworkInfo;
 import com.alphawallet.app.entity.Wallet;
 import com.alphawallet.app.entity.tokens.Token;
 import com.alphawallet.app.repository.EthereumNetworkRepository;
-import com.alphawallet.app.repository.TokenRepository;
+import com.alphawallet.app.service.EnsResolutionService;
 import com.alphawallet.app.ui.QRScanning.DisplayUtils;
 import com.alphawallet.app.ui.widget.entity.AmountReadyCallback;
-import com.alphawallet.app.util.AWEnsResolver;
 import com.alphawallet.app.util.KeyboardUtils;
 import com.alphawallet.app.util.QRUtils;
 import com.alphawallet.app.util.Utils;
@@ -270,7 +269,7 @@ public class MyAddressActivity extends BaseActivity implements AmountReadyCallba
         //When view changes, this function loads again. It will again try to fetch ENS
         if(TextUtils.isEmpty(displayName))
         {
-            new AWEnsResolver(TokenRepository.getWeb3jService(MAINNET_ID), getApplicationContext())
+            EnsResolutionService.getInstance(getApplicationContext())
                     .resolveEnsName(displayAddress)
                     .observeOn(AndroidSchedulers.mainThread())
                     .subscribeOn(Schedulers.io())
@@ -14,9 +14,8 @@ import android.widget.Button;
 
 import com.alphawallet.app.R;
 import com.alphawallet.app.repository.EthereumNetworkRepository;
-import com.alphawallet.app.repository.TokenRepository;
+import com.alphawallet.app.service.EnsResolutionService;
 import com.alphawallet.app.ui.widget.OnSetWatchWalletListener;
-import com.alphawallet.app.util.AWEnsResolver;
 import com.alphawallet.app.util.EnsResolver;
 import com.alphawallet.app.util.KeyboardUtils;
 import com.alphawallet.app.util.Utils;
@@ -30,7 +29,6 @@ import java.util.regex.Pattern;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.schedulers.Schedulers;
 
-import static com.alphawallet.ethereum.EthereumNetworkBase.MAINNET_ID;
 
 /**
  * Created by James on 26/07/2019.
@@ -46,7 +44,7 @@ public class SetWatchWalletFragment extends Fragment implements View.OnClickList
     private Button importButton;
     private OnSetWatchWalletListener onSetWatchWalletListener = dummyWatchWalletListener;
     private Pattern pattern;
-    private AWEnsResolver ensResolver;
+    private EnsResolutionService ensResolver;
     private AWalletAlertDialog dialog;
 
     public static SetWatchWalletFragment create()
@@ -193,7 +191,7 @@ public class SetWatchWalletFragment extends Fragment implements View.OnClickList
     {
         ensProgress();
         if (ensResolver == null)
-            ensResolver = new AWEnsResolver(TokenRepository.getWeb3jService(MAINNET_ID), getContext());
+            ensResolver = EnsResolutionService.getInstance(getContext());
         ensResolver.resolveENSAddress(name)
                 .subscribeOn(Schedulers.io())
                 .observeOn(AndroidSchedulers.mainThread())
@@ -33,7 +33,6 @@ import dagger.android.AndroidInjection;
 import io.realm.Realm;
 import io.realm.RealmResults;
 
-import static com.alphawallet.app.repository.TokensRealmSource.ADDRESS_FORMAT;
 
 public class TokenManagementActivity extends BaseActivity implements TokenListAdapter.ItemClickListener {
     @Inject
@@ -179,7 +178,7 @@ public class TokenManagementActivity extends BaseActivity implements TokenListAd
     private void setRealmListener()
     {
         realmUpdates = realm.where(RealmToken.class)
-                .like("address", ADDRESS_FORMAT)
+                .isNotNull("contractAddress")
                 .findAllAsync();
         realmUpdates.addChangeListener(realmTokens -> {
             String filterText = search.getText().toString();
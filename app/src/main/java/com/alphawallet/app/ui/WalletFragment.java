@@ -39,10 +39,10 @@ import com.alphawallet.app.entity.WalletPage;
 import com.alphawallet.app.entity.WalletType;
 import com.alphawallet.app.entity.tokens.Token;
 import com.alphawallet.app.entity.tokens.TokenCardMeta;
+import com.alphawallet.app.entity.tokens.TokenMetaChange;
 import com.alphawallet.app.interact.GenericWalletInteract;
-import com.alphawallet.app.repository.TokensRealmSource;
-import com.alphawallet.app.repository.entity.RealmToken;
 import com.alphawallet.app.ui.widget.OnTokenClickListener;
+import com.alphawallet.app.ui.widget.adapter.TokenImagePreloader;
 import com.alphawallet.app.ui.widget.adapter.TokensAdapter;
 import com.alphawallet.app.ui.widget.entity.WarningData;
 import com.alphawallet.app.ui.widget.holder.ManageTokensHolder;
@@ -50,6 +50,8 @@ import com.alphawallet.app.ui.widget.holder.TokenGridHolder;
 import com.alphawallet.app.ui.widget.holder.TokenHolder;
 import com.alphawallet.app.ui.widget.holder.WarningHolder;
 import com.alphawallet.app.util.Blockies;
+import com.alphawallet.app.util.DeferredStartup;
+import com.alphawallet.app.util.StartupTracer;
 import com.alphawallet.app.util.TabUtils;
 import com.alphawallet.app.viewmodel.WalletViewModel;
 import com.alphawallet.app.viewmodel.WalletViewModelFactory;
@@ -59,19 +61,19 @@ import com.alphawallet.app.widget.SystemView;
 import com.google.android.material.snackbar.Snackbar;
 import com.google.android.material.tabs.TabLayout;
 
+import java.math.BigDecimal;
 import java.math.BigInteger;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import javax.inject.Inject;
 
 import dagger.android.support.AndroidSupportInjection;
-import io.realm.Realm;
-import io.realm.RealmResults;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.Disposable;
 
 import static com.alphawallet.app.C.ErrorCode.EMPTY_COLLECTION;
 import static com.alphawallet.app.C.Key.WALLET;
-import static com.alphawallet.app.repository.TokensRealmSource.ADDRESS_FORMAT;
 
 /**
  * Created by justindeguzman on 2/28/18.
@@ -88,6 +90,7 @@ public class WalletFragment extends BaseFragment implements
     private static final int TAB_CURRENCY = 1;
     private static final int TAB_COLLECTIBLES = 2;
     private static final int TAB_ATTESTATIONS = 3;
+    private static final long TOTAL_UPDATE_DELAY = 500; //In milliseconds
 
     @Inject
     WalletViewModelFactory walletViewModelFactory;
@@ -96,6 +99,7 @@ public class WalletFragment extends BaseFragment implements
     private SystemView systemView;
     private ProgressView progressView;
     private TokensAdapter adapter;
+    private TokenImagePreloader imagePreloader;
     private ImageView addressBlockie;
     private View selectedToken;
     private final Handler handler = new Handler();
@@ -104,8 +108,8 @@ public class WalletFragment extends BaseFragment implements
     private SwipeRefreshLayout refreshLayout;
     private boolean isVisible;
     private int currentTabPos = -1;
-    private Realm realm;
-    private RealmResults<RealmToken> realmUpdates;
+    private Disposable tokenMetaUpdates;
+    private Disposable tickerUpdates;
     private String realmId;
 
     @Nullable
@@ -152,6 +156,9 @@ public class WalletFragment extends BaseFragment implements
 
         refreshLayout.setOnRefreshListener(this::refreshList);
         recyclerView.setRecyclerListener(holder -> adapter.onRViewRecycled(holder));
+
+        imagePreloader = new TokenImagePreloader(adapter);
+        recyclerView.addOnScrollListener(imagePreloader);
     }
 
     private void initViewModel() {
@@ -197,49 +204,39 @@ public class WalletFragment extends BaseFragment implements
         if (realmId == null || !realmId.equalsIgnoreCase(wallet.address))
         {
             realmId = wallet.address;
-            realm = viewModel.getRealmInstance(wallet);
-            setRealmListener();
+            if (tokenMetaUpdates != null && !tokenMetaUpdates.isDisposed()) tokenMetaUpdates.dispose();
+            tokenMetaUpdates = viewModel.tokenMetaChanges(wallet)
+                    .observeOn(AndroidSchedulers.mainThread())
+                    .subscribe(this::onTokenMetaChange, Throwable::printStackTrace);
         }
-    }
 
-    private void setRealmListener()
-    {
-        realmUpdates = realm.where(RealmToken.class).equalTo("isEnabled", true)
-                .like("address", ADDRESS_FORMAT).findAllAsync();
-        realmUpdates.addChangeListener(realmTokens -> {
-            if (!isVisible && realmTokens.size() == 0) return;
-            List<TokenCardMeta> metas = new ArrayList<>();
-            //make list
-            for (RealmToken t : realmTokens)
-            {
-                if (!viewModel.getTokensService().getNetworkFilters().contains(t.getChainId())) continue;
-
-                String balance = TokensRealmSource.convertStringBalance(t.getBalance(), t.getContractType());
-
-                TokenCardMeta meta = new TokenCardMeta(t.getChainId(), t.getTokenAddress(), balance,
-                        t.getUpdateTime(), viewModel.getAssetDefinitionService(), t.getName(), t.getSymbol(), t.getContractType());
-                meta.lastTxUpdate = t.getLastTxTime();
-                metas.add(meta);
-            }
-
-            updateMetas(metas);
-        });
+        if (tickerUpdates == null || tickerUpdates.isDisposed())
+        {
+            //holders pick up their own ticker changes; the total only needs updating once each batch has landed
+            tickerUpdates = viewModel.getTokensService().tokenValueChanges()
+                    .debounce(TOTAL_UPDATE_DELAY, TimeUnit.MILLISECONDS)
+                    .observeOn(AndroidSchedulers.mainThread())
+                    .subscribe(change -> adapter.setTotal(BigDecimal.valueOf(viewModel.getTokensService().getFiatValue())),
+                            Throwable::printStackTrace);
+        }
     }
 
-    private void updateMetas(List<TokenCardMeta> metas)
+    private void onTokenMetaChange(TokenMetaChange change)
     {
-        handler.post(() -> {
-            if (metas.size() > 0)
-            {
-                adapter.setTokens(metas.toArray(new TokenCardMeta[0]));
-                systemView.hide();
-            }
+        if (change.isDelete() || !change.meta.isEnabled)
+        {
+            adapter.removeToken(change.tokenId);
+        }
+        else if (viewModel.getTokensService().getNetworkFilters().contains(change.meta.getChain()))
+        {
+            adapter.updateToken(change.meta, true);
+            systemView.hide();
+        }
 
-            if (viewModel.getWallet().type != WalletType.WATCH && isVisible)
-            {
-                viewModel.checkBackup();
-            }
-        });
+        if (viewModel.getWallet() != null && viewModel.getWallet().type != WalletType.WATCH && isVisible)
+        {
+            viewModel.checkBackup();
+        }
     }
 
     private void refreshList()
@@ -386,10 +383,18 @@ public class WalletFragment extends BaseFragment implements
     {
         if (tokens != null)
         {
+            imagePreloader.reset();
             adapter.setTokens(tokens);
             checkScrollPosition();
         }
         systemView.showProgress(false);
+
+        DeferredStartup.release(); //no-op after the first time
+        if (StartupTracer.isRecording())
+        {
+            StartupTracer.mark("wallet list shown");
+            StartupTracer.finish(getContext());
+        }
     }
 
     /**
@@ -474,8 +479,8 @@ public class WalletFragment extends BaseFragment implements
     {
         super.onDestroy();
         //viewModel.clearProcess();
-        if (realmUpdates != null) realmUpdates.removeAllChangeListeners();
-        if (realm != null && !realm.isClosed()) realm.close();
+        if (tokenMetaUpdates != null && !tokenMetaUpdates.isDisposed()) tokenMetaUpdates.dispose();
+        if (tickerUpdates != null && !tickerUpdates.isDisposed()) tickerUpdates.dispose();
         if (adapter != null && recyclerView != null) adapter.onDestroy(recyclerView);
     }
 
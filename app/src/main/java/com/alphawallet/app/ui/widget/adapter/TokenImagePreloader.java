@@ -0,0 +1,67 @@
+package com.alphawallet.app.ui.widget.adapter;
+
+import androidx.annotation.NonNull;
+import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
+
+/**
+ * Follows the token list's scroll position and preloads token icons for the rows just beyond the edge it is
+ * scrolling towards, so they are in memory by the time they are bound. Each row is requested once per pass in the
+ * same direction; rows already on screen are left to the normal bind.
+ */
+public class TokenImagePreloader extends RecyclerView.OnScrollListener
+{
+    private static final int PRELOAD_AHEAD = 10; //rows beyond the edge of the screen
+
+    private final TokensAdapter adapter;
+    private boolean scrollingDown = true;
+    private int preloadedEdge = RecyclerView.NO_POSITION; //furthest position already requested in this direction
+
+    public TokenImagePreloader(TokensAdapter adapter)
+    {
+        this.adapter = adapter;
+    }
+
+    @Override
+    public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy)
+    {
+        if (!(recyclerView.getLayoutManager() instanceof LinearLayoutManager)) return; //also covers the grid view
+        LinearLayoutManager layoutManager = (LinearLayoutManager) recyclerView.getLayoutManager();
+        int first = layoutManager.findFirstVisibleItemPosition();
+        int last = layoutManager.findLastVisibleItemPosition();
+        if (first == RecyclerView.NO_POSITION) return;
+
+        //dy is 0 after a layout change; treat it as downwards, which is where an unscrolled list can go
+        boolean down = dy >= 0;
+        if (down != scrollingDown)
+        {
+            scrollingDown = down;
+            preloadedEdge = RecyclerView.NO_POSITION;
+        }
+
+        if (down)
+        {
+            int from = preloadedEdge == RecyclerView.NO_POSITION ? last + 1 : Math.max(last + 1, preloadedEdge + 1);
+            int to = Math.min(last + PRELOAD_AHEAD, adapter.getItemCount() - 1);
+            if (from > to) return;
+            adapter.preloadImages(from, to);
+            preloadedEdge = to;
+        }
+        else
+        {
+            int to = preloadedEdge == RecyclerView.NO_POSITION ? first - 1 : Math.min(first - 1, preloadedEdge - 1);
+            int from = Math.max(first - PRELOAD_AHEAD, 0);
+            if (from > to) return;
+            adapter.preloadImages(from, to);
+            preloadedEdge = from;
+        }
+    }
+
+    /**
+     * Call when the list contents are replaced, so rows at positions already covered are requested again
+     */
+    public void reset()
+    {
+        preloadedEdge = RecyclerView.NO_POSITION;
+    }
+}
@@ -10,6 +10,7 @@ import android.view.ViewGroup;
 import com.alphawallet.app.R;
 import com.alphawallet.app.entity.ContractLocator;
 import com.alphawallet.app.entity.CustomViewSettings;
+import com.alphawallet.app.entity.tokens.Token;
 import com.alphawallet.app.entity.tokens.TokenCardMeta;
 import com.alphawallet.app.repository.TokensRealmSource;
 import com.alphawallet.app.service.AssetDefinitionService;
@@ -29,6 +30,7 @@ import com.alphawallet.app.ui.widget.holder.TokenGridHolder;
 import com.alphawallet.app.ui.widget.holder.TokenHolder;
 import com.alphawallet.app.ui.widget.holder.TotalBalanceHolder;
 import com.alphawallet.app.ui.widget.holder.WarningHolder;
+import com.alphawallet.app.widget.TokenIcon;
 
 import org.jetbrains.annotations.NotNull;
 
@@ -36,7 +38,6 @@ import java.math.BigDecimal;
 import java.util.ArrayList;
 import java.util.List;
 
-import io.realm.Realm;
 
 public class TokensAdapter extends RecyclerView.Adapter<BinderViewHolder> {
     private static final String TAG = "TKNADAPTER";
@@ -45,7 +46,6 @@ public class TokensAdapter extends RecyclerView.Adapter<BinderViewHolder> {
     public static final int FILTER_ASSETS = 2;
     public static final int FILTER_COLLECTIBLES = 3;
     private static final BigDecimal CUTOFF_VALUE = BigDecimal.valueOf(99999999999L);
-    private final Realm realm;
 
     private int filterType;
     protected final AssetDefinitionService assetService;
@@ -103,14 +103,12 @@ public class TokensAdapter extends RecyclerView.Adapter<BinderViewHolder> {
         this.assetService = aService;
         this.tokensService = tService;
         this.context = context;
-        this.realm = tokensService.getTickerRealmInstance();
     }
 
     protected TokensAdapter(OnTokenClickListener onTokenClickListener, AssetDefinitionService aService) {
         this.onTokenClickListener = onTokenClickListener;
         this.assetService = aService;
         this.tokensService = null;
-        this.realm = null;
     }
 
     @Override
@@ -133,7 +131,7 @@ public class TokensAdapter extends RecyclerView.Adapter<BinderViewHolder> {
         BinderViewHolder<?> holder = null;
         switch (viewType) {
             case TokenHolder.VIEW_TYPE: {
-                TokenHolder tokenHolder = new TokenHolder(parent, assetService, tokensService, realm);
+                TokenHolder tokenHolder = new TokenHolder(parent, assetService, tokensService);
                 tokenHolder.setOnTokenClickListener(onTokenClickListener);
                 holder = tokenHolder;
                 break;
@@ -196,6 +194,25 @@ public class TokensAdapter extends RecyclerView.Adapter<BinderViewHolder> {
         return items.size();
     }
 
+    /**
+     * Fetch the icons, or NFT images in grid view, for the tokens in positions from..to inclusive into the image caches
+     */
+    public void preloadImages(int from, int to)
+    {
+        if (tokensService == null || context == null) return;
+        for (int i = Math.max(from, 0); i <= to && i < items.size(); i++)
+        {
+            SortedItem<?> si = items.get(i);
+            if (!(si instanceof TokenSortedItem)) continue;
+            TokenCardMeta tcm = ((TokenSortedItem) si).value;
+            Token token = tokensService.getToken(tcm.getChain(), tcm.getAddress());
+            if (token == null) continue;
+
+            if (si.viewType == TokenGridHolder.VIEW_TYPE) TokenGridHolder.preload(context, token);
+            else TokenIcon.preload(context, token, assetService);
+        }
+    }
+
     public void setWalletAddress(String walletAddress) {
         this.walletAddress = walletAddress;
     }
@@ -298,12 +315,16 @@ public class TokensAdapter extends RecyclerView.Adapter<BinderViewHolder> {
     }
 
     public void removeToken(TokenCardMeta token) {
+        removeToken(token.tokenId);
+    }
+
+    public void removeToken(String tokenId) {
         for (int i = 0; i < items.size(); i++) {
             Object si = items.get(i);
             if (si instanceof TokenSortedItem) {
                 TokenSortedItem tsi = (TokenSortedItem) si;
                 TokenCardMeta thisToken = tsi.value;
-                if (thisToken.tokenId.equalsIgnoreCase(token.tokenId)) {
+                if (thisToken.tokenId.equalsIgnoreCase(tokenId)) {
                     items.removeItemAt(i);
                     break;
                 }
@@ -475,7 +496,7 @@ public class TokensAdapter extends RecyclerView.Adapter<BinderViewHolder> {
 
     public void onDestroy(RecyclerView recyclerView)
     {
-        //ensure all holders have their realm listeners cleaned up
+        //ensure all holders have their ticker listeners cleaned up
         for (int childCount = recyclerView.getChildCount(), i = 0; i < childCount; ++i)
         {
             ((BinderViewHolder<?>)recyclerView.getChildViewHolder(recyclerView.getChildAt(i))).onDestroyView();
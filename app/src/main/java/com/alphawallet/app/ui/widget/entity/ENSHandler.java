@@ -16,9 +16,8 @@ import androidx.annotation.Nullable;
 
 import com.alphawallet.app.C;
 import com.alphawallet.app.R;
-import com.alphawallet.app.repository.TokenRepository;
+import com.alphawallet.app.service.EnsResolutionService;
 import com.alphawallet.app.ui.widget.adapter.AutoCompleteAddressAdapter;
-import com.alphawallet.app.util.AWEnsResolver;
 import com.alphawallet.app.util.Utils;
 import com.alphawallet.app.widget.InputAddress;
 import com.google.gson.Gson;
@@ -34,7 +33,6 @@ import io.reactivex.disposables.Disposable;
 import io.reactivex.schedulers.Schedulers;
 
 import static com.alphawallet.app.util.AWEnsResolver.couldBeENS;
-import static com.alphawallet.ethereum.EthereumNetworkBase.MAINNET_ID;
 
 /**
  * Created by James on 4/12/2018.
@@ -47,7 +45,7 @@ public class ENSHandler implements Runnable
     private TextWatcher ensTextWatcher;
     private final Handler handler;
     private final AutoCompleteAddressAdapter adapterUrl;
-    private AWEnsResolver ensResolver;
+    private EnsResolutionService ensResolver;
     private final float standardTextSize;
 
     @Nullable
@@ -147,6 +145,7 @@ public class ENSHandler implements Runnable
             if (Utils.isAddressValid(host.getInputText()) && TextUtils.isEmpty(host.getStatusText()))
             {
                 //check our known ENS names list for a match
+                initENSHandler();
                 String ensName = ensResolver.checkENSHistoryForAddress(host.getInputText());
                 if (!TextUtils.isEmpty(ensName))
                 {
@@ -289,9 +288,13 @@ public class ENSHandler implements Runnable
         String checkSumAddr = Keys.toChecksumAddress(ethAddress);
         if (!TextUtils.isEmpty(ethAddress) && Utils.isAddressValid(ethAddress))
         {
-            HashMap<String, String> ensMap = getENSHistoryFromPrefs(ctx);
-            String ensName = ensMap.get(ethAddress.toLowerCase());
-            if (ensName == null) ensName = ensMap.get(checkSumAddr);
+            String ensName = EnsResolutionService.getInstance(ctx).getCachedEnsName(ethAddress);
+            if (ensName == null)
+            {
+                HashMap<String, String> ensMap = getENSHistoryFromPrefs(ctx);
+                ensName = ensMap.get(ethAddress.toLowerCase());
+                if (ensName == null) ensName = ensMap.get(checkSumAddr);
+            }
             return ensName != null ? ensName : Utils.formatAddress(ethAddress);
         }
         else
@@ -305,8 +308,8 @@ public class ENSHandler implements Runnable
         String returnAddress = Utils.formatAddress(ethAddress);
         if (!TextUtils.isEmpty(ethAddress) && Utils.isAddressValid(ethAddress))
         {
-            HashMap<String, String> ensMap = getENSHistoryFromPrefs(ctx);
-            String ensName = ensMap.get(ethAddress);
+            String ensName = EnsResolutionService.getInstance(ctx).getCachedEnsName(ethAddress);
+            if (ensName == null) ensName = getENSHistoryFromPrefs(ctx).get(ethAddress);
             returnAddress = ensName != null ? ensName : returnAddress;
         }
 
@@ -345,7 +348,7 @@ public class ENSHandler implements Runnable
     {
         if (ensResolver == null)
         {
-            this.ensResolver = new AWEnsResolver(TokenRepository.getWeb3jService(MAINNET_ID), host.getContext());
+            this.ensResolver = EnsResolutionService.getInstance(host.getContext());
         }
     }
 }
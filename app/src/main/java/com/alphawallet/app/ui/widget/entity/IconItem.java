@@ -14,12 +14,20 @@ public class IconItem {
     private final static Map<String, Boolean> iconCheck = new ConcurrentHashMap<>();
 
     public IconItem(String url, String correctedAddress, int chainId) {
+        this(url, correctedAddress, chainId, true);
+    }
+
+    /**
+     * @param markChecked false for a request made before the icon is shown, eg a preload; the view's own request
+     *                    then still goes to the network, and shares the preload if it's still in flight
+     */
+    public IconItem(String url, String correctedAddress, int chainId, boolean markChecked) {
         this.url = url;
         this.fetchFromCache = iconCheck.containsKey(correctedAddress);
         this.correctedAddress = correctedAddress;
         this.chainId = chainId;
 
-        iconCheck.put(correctedAddress, true);
+        if (markChecked) iconCheck.put(correctedAddress, true);
     }
 
     public String getUrl() {
@@ -1,5 +1,6 @@
 package com.alphawallet.app.ui.widget.holder;
 
+import android.content.Context;
 import android.os.Bundle;
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
@@ -61,9 +62,10 @@ public class TokenGridHolder extends BinderViewHolder<TokenCardMeta> {
                 if (assets != null && assets.size() > 0) {
                     Asset firstAsset = assets.iterator().next();
                     if (firstAsset != null) {
+                        int size = getContext().getResources().getDimensionPixelSize(R.dimen.grid_icon_height);
                         Glide.with(getContext())
                                 .load(firstAsset.getImagePreviewUrl())
-                                .override(72)
+                                .override(size)
                                 .into(imageIcon);
                         name.setText(token.tokenInfo.name);
                         textIcon.setVisibility(View.GONE);
@@ -90,6 +92,23 @@ public class TokenGridHolder extends BinderViewHolder<TokenCardMeta> {
         }
     }
 
+    /**
+     * Fetch the image bind would show for an ERC721 token into the image caches, at the same size
+     */
+    public static void preload(Context context, Token token) {
+        if (!token.isERC721()) return;
+        Collection<Asset> assets = ((ERC721Token) token).getTokenAssets().values();
+        if (assets == null || assets.isEmpty()) return;
+        Asset firstAsset = assets.iterator().next();
+        if (firstAsset == null) return;
+
+        int size = context.getResources().getDimensionPixelSize(R.dimen.grid_icon_height);
+        Glide.with(context.getApplicationContext())
+                .load(firstAsset.getImagePreviewUrl())
+                .override(size)
+                .preload(size, size);
+    }
+
     private void setupIcon(@NotNull Token token) {
         imageIcon.setVisibility(View.GONE);
         textIcon.setVisibility(View.VISIBLE);
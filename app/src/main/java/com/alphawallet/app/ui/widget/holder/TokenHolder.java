@@ -22,8 +22,6 @@ import com.alphawallet.app.entity.tokens.Token;
 import com.alphawallet.app.entity.tokens.TokenCardMeta;
 import com.alphawallet.app.entity.tokens.TokenTicker;
 import com.alphawallet.app.repository.EthereumNetworkRepository;
-import com.alphawallet.app.repository.TokensRealmSource;
-import com.alphawallet.app.repository.entity.RealmTokenTicker;
 import com.alphawallet.app.service.AssetDefinitionService;
 import com.alphawallet.app.service.TickerService;
 import com.alphawallet.app.service.TokensService;
@@ -34,8 +32,8 @@ import com.alphawallet.app.widget.TokenIcon;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 
-import io.realm.Realm;
-import io.realm.RealmResults;
+import io.reactivex.android.schedulers.AndroidSchedulers;
+import io.reactivex.disposables.Disposable;
 
 import static com.alphawallet.ethereum.EthereumNetworkBase.MAINNET_ID;
 
@@ -60,16 +58,15 @@ public class TokenHolder extends BinderViewHolder<TokenCardMeta> implements View
     private final TextView pendingText;
     private final RelativeLayout tokenLayout;
     private final ChainName testnet;
-    private RealmResults<RealmTokenTicker> realmUpdate = null;
+    private Disposable tickerUpdates = null;
     private boolean primaryElement;
-    private final Realm realm;
 
     private final Handler handler = new Handler();
 
     public Token token;
     private OnTokenClickListener onTokenClickListener;
 
-    public TokenHolder(ViewGroup parent, AssetDefinitionService assetService, TokensService tSvs, Realm r)
+    public TokenHolder(ViewGroup parent, AssetDefinitionService assetService, TokensService tSvs)
     {
         super(R.layout.item_token, parent);
 
@@ -90,7 +87,6 @@ public class TokenHolder extends BinderViewHolder<TokenCardMeta> implements View
         itemView.setOnClickListener(this);
         assetDefinition = assetService;
         tokensService = tSvs;
-        realm = r;
     }
 
     @Override
@@ -111,11 +107,7 @@ public class TokenHolder extends BinderViewHolder<TokenCardMeta> implements View
                 if (backupChain != null) token = backupChain;
             }
 
-            if (realmUpdate != null)
-            {
-                realmUpdate.removeAllChangeListeners();
-                realmUpdate = null;
-            }
+            stopTickerUpdates();
 
             tokenLayout.setBackgroundResource(R.drawable.background_marketplace_event);
             if (EthereumNetworkRepository.isPriorityToken(token)) extendedInfo.setVisibility(View.GONE);
@@ -144,11 +136,7 @@ public class TokenHolder extends BinderViewHolder<TokenCardMeta> implements View
     @Override
     public void onDestroyView()
     {
-        if (realmUpdate != null)
-        {
-            realmUpdate.removeAllChangeListeners();
-            realmUpdate = null;
-        }
+        stopTickerUpdates();
     }
 
     private void setPendingAmount()
@@ -170,7 +158,7 @@ public class TokenHolder extends BinderViewHolder<TokenCardMeta> implements View
         TokenTicker ticker = tokensService.getTokenTicker(token);
         if (ticker != null || (token.isEthereum() && EthereumNetworkRepository.hasRealValue(token.tokenInfo.chainId)))
         {
-            handleTicker();
+            handleTicker(ticker);
         }
         else
         {
@@ -189,13 +177,14 @@ public class TokenHolder extends BinderViewHolder<TokenCardMeta> implements View
         }
     }
 
-    private void handleTicker()
+    private void handleTicker(TokenTicker ticker)
     {
         primaryElement = true;
         hideIssuerViews();
         layoutAppreciation.setVisibility(View.VISIBLE);
         balanceCurrency.setVisibility(View.VISIBLE);
-        startTickerRealmListener();
+        if (ticker != null) setTickerInfo(ticker);
+        startTickerUpdates();
     }
 
     private void showNetworkLabel() {
@@ -303,23 +292,19 @@ public class TokenHolder extends BinderViewHolder<TokenCardMeta> implements View
         balanceCurrency.setText(R.string.unknown_balance_without_symbol);
     }
 
-    private void startTickerRealmListener()
+    private void startTickerUpdates()
+    {
+        stopTickerUpdates();
+        //only this token's ticker changes reach the holder, no need to rebind the list
+        tickerUpdates = tokensService.tickerUpdates(token)
+                .observeOn(AndroidSchedulers.mainThread())
+                .subscribe(this::setTickerInfo, Throwable::printStackTrace);
+    }
+
+    private void stopTickerUpdates()
     {
-        realmUpdate = realm.where(RealmTokenTicker.class)
-                .equalTo("contract", TokensRealmSource.databaseKey(token.tokenInfo.chainId, token.isEthereum() ? "eth" : token.getAddress().toLowerCase()))
-                .findAllAsync();
-        realmUpdate.addChangeListener(realmTicker -> {
-            //update balance
-            if (realmTicker.size() == 0) return;
-            RealmTokenTicker rawTicker = realmTicker.first();
-            if (rawTicker == null) return;
-            //update ticker info
-            final TokenTicker tt = new TokenTicker(rawTicker.getPrice(), rawTicker.getPercentChange24h(), rawTicker.getCurrencySymbol(),
-                    rawTicker.getImage(), rawTicker.getUpdatedTime());
-            handler.post(() -> {
-                setTickerInfo(tt);
-            });
-        });
+        if (tickerUpdates != null && !tickerUpdates.isDisposed()) tickerUpdates.dispose();
+        tickerUpdates = null;
     }
 
     private void setTickerInfo(TokenTicker ticker)
@@ -369,6 +354,6 @@ public class TokenHolder extends BinderViewHolder<TokenCardMeta> implements View
                 lbl.length(), lbl.length(), Spannable.SPAN_EXCLUSIVE_EXCLUSIVE);
         this.textAppreciation.setText(lbl);
 
-        tokensService.addTokenValue(token.tokenInfo.chainId, token.getAddress(), fiatBalance.floatValue());
+        tokensService.updateTokenValue(token, ticker);
     }
 }
\ No newline at end of file
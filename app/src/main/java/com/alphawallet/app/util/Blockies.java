@@ -7,23 +7,45 @@ import android.graphics.Paint;
 import android.graphics.PorterDuff;
 import android.graphics.PorterDuffXfermode;
 import android.graphics.Rect;
+import android.util.LruCache;
 
 import java.util.Arrays;
 
+/**
+ * Address identicons. Icons are memoized by address and scale, so the same Bitmap is returned each time an address
+ * is shown; callers must not recycle or draw on it. Safe to call from any thread.
+ */
 public class Blockies {
     private static final int size = 8;
-    private static long[] randSeed = new long[4];
+    private static final int CACHE_SIZE = 4 * 1024 * 1024; //bytes; around 60 icons at the default scale
+
+    private static final LruCache<String, Bitmap> icons = new LruCache<String, Bitmap>(CACHE_SIZE) {
+        @Override
+        protected int sizeOf(String key, Bitmap icon) {
+            return icon.getByteCount();
+        }
+    };
 
     public static Bitmap createIcon(String address) {
         return createIcon(address, 16);
     }
 
     public static Bitmap createIcon(String address, int scale) {
-        seedRand(address);
-        HSL color = createColor();
-        HSL bgColor = createColor();
-        HSL spotColor = createColor();
-        return createCanvas(createImageData(), color, bgColor, spotColor, scale);
+        String key = address + "-" + scale;
+        Bitmap icon = icons.get(key);
+        if (icon == null) {
+            icon = renderIcon(address, scale);
+            icons.put(key, icon);
+        }
+        return icon;
+    }
+
+    private static Bitmap renderIcon(String address, int scale) {
+        long[] randSeed = seedRand(address);
+        HSL color = createColor(randSeed);
+        HSL bgColor = createColor(randSeed);
+        HSL spotColor = createColor(randSeed);
+        return createCanvas(createImageData(randSeed), color, bgColor, spotColor, scale);
     }
 
     private static Bitmap createCanvas(double[] imgData, HSL color, HSL bgColor, HSL spotColor, int scale) {
@@ -57,10 +79,12 @@ public class Blockies {
                 canvas.drawRect(col * scale, row * scale, (col * scale) + scale, (row * scale) + scale, paint);
             }
         }
-        return getCroppedBitmap(bmp);
+        Bitmap cropped = getCroppedBitmap(bmp);
+        bmp.recycle();
+        return cropped;
     }
 
-    private static double rand() {
+    private static double rand(long[] randSeed) {
         int t = (int) (randSeed[0] ^ (randSeed[0] << 11));
         randSeed[0] = randSeed[1];
         randSeed[1] = randSeed[2];
@@ -70,14 +94,14 @@ public class Blockies {
         return (t1 / Integer.MAX_VALUE);
     }
 
-    private static HSL createColor() {
-        double h = Math.floor(rand() * 360d);
-        double s = ((rand() * 60d) + 40d);
-        double l = ((rand() + rand() + rand() + rand()) * 25d);
+    private static HSL createColor(long[] randSeed) {
+        double h = Math.floor(rand(randSeed) * 360d);
+        double s = ((rand(randSeed) * 60d) + 40d);
+        double l = ((rand(randSeed) + rand(randSeed) + rand(randSeed) + rand(randSeed)) * 25d);
         return new HSL(h, s, l);
     }
 
-    private static double[] createImageData() {
+    private static double[] createImageData(long[] randSeed) {
         int width = size;
         int height = size;
 
@@ -89,7 +113,7 @@ public class Blockies {
         for (int y = 0; y < height; y++) {
             double[] row = new double[(int) dataWidth];
             for (int x = 0; x < dataWidth; x++) {
-                row[x] = Math.floor(rand() * 2.3d);
+                row[x] = Math.floor(rand(randSeed) * 2.3d);
 
             }
             double[] r = Arrays.copyOfRange(row, 0, (int) mirrorWidth);
@@ -123,21 +147,21 @@ public class Blockies {
         return data;
     }
 
-    private static void seedRand(String seed) {
-        for (int i = 0; i < Blockies.randSeed.length; i++) {
-            Blockies.randSeed[i] = 0;
-        }
+    private static long[] seedRand(String seed) {
+        long[] randSeed = new long[4];
         for (int i = 0; i < seed.length(); i++) {
-            long test = Blockies.randSeed[i % 4] << 5;
+            long test = randSeed[i % 4] << 5;
             if (test > Integer.MAX_VALUE << 1 || test < Integer.MIN_VALUE << 1)
                 test = (int) test;
 
-            long test2 = test - Blockies.randSeed[i % 4];
-            Blockies.randSeed[i % 4] = (test2 + Character.codePointAt(seed, i));
+            long test2 = test - randSeed[i % 4];
+            randSeed[i % 4] = (test2 + Character.codePointAt(seed, i));
         }
 
-        for (int i = 0; i < Blockies.randSeed.length; i++)
-            Blockies.randSeed[i] = (int) Blockies.randSeed[i];
+        for (int i = 0; i < randSeed.length; i++)
+            randSeed[i] = (int) randSeed[i];
+
+        return randSeed;
     }
 
     private static int toRGB(float h, float s, float l) {
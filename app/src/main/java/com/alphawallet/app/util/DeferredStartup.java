@@ -0,0 +1,87 @@
+package com.alphawallet.app.util;
+
+import com.alphawallet.app.BuildConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import io.reactivex.Completable;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * Holds back startup work which the first frame doesn't need until the wallet list has been shown, or at most
+ * MAX_DEFER seconds after App start for launches which don't reach the wallet list (eg a deep link, or no wallet yet).
+ * Tasks posted after release, or with DEFERRED_STARTUP off, start straight away. Tasks always run on the io
+ * scheduler, so a task which something else may need sooner should be safe to trigger early from that caller.
+ */
+public class DeferredStartup
+{
+    private static final long MAX_DEFER = 10; //In seconds
+
+    private static final List<Task> pending = new ArrayList<>();
+    private static boolean released = !BuildConfig.DEFERRED_STARTUP;
+
+    public static void post(String name, Runnable work)
+    {
+        Task task = new Task(name, work);
+        synchronized (pending)
+        {
+            if (!released)
+            {
+                pending.add(task);
+                return;
+            }
+        }
+        start(task);
+    }
+
+    /**
+     * Call from Application.onCreate; releases the held back work if nothing has by MAX_DEFER seconds
+     */
+    public static void appStart()
+    {
+        Completable.timer(MAX_DEFER, TimeUnit.SECONDS, Schedulers.io())
+                .subscribe(DeferredStartup::release, Throwable::printStackTrace)
+                .isDisposed();
+    }
+
+    /**
+     * Start all held back work; called once the wallet list is on screen
+     */
+    public static void release()
+    {
+        List<Task> tasks;
+        synchronized (pending)
+        {
+            if (released) return;
+            released = true;
+            tasks = new ArrayList<>(pending);
+            pending.clear();
+        }
+        for (Task task : tasks) start(task);
+    }
+
+    private static void start(Task task)
+    {
+        Completable.fromAction(() -> StartupTracer.trace("deferred: " + task.name, () -> {
+                    task.work.run();
+                    return true;
+                }))
+                .subscribeOn(Schedulers.io())
+                .subscribe(() -> { }, Throwable::printStackTrace)
+                .isDisposed();
+    }
+
+    private static class Task
+    {
+        final String name;
+        final Runnable work;
+
+        Task(String name, Runnable work)
+        {
+            this.name = name;
+            this.work = work;
+        }
+    }
+}
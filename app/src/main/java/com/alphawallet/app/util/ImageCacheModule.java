@@ -0,0 +1,41 @@
+package com.alphawallet.app.util;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+
+import com.bumptech.glide.GlideBuilder;
+import com.bumptech.glide.annotation.GlideModule;
+import com.bumptech.glide.load.engine.cache.InternalCacheDiskCacheFactory;
+import com.bumptech.glide.module.AppGlideModule;
+
+/**
+ * Configures the one image pipeline used for token icons, NFT art and dapp icons. Glide's disk cache is keyed by
+ * request, not by content: each image is stored under the SHA-256 of its URL plus any signature (eg the token's
+ * address and chain). A URL is fetched once however many views show it, but the same image served from two URLs,
+ * or requested with two signatures, is fetched and stored twice. The cache is bounded by size: the least recently
+ * used images are evicted once it passes DISK_CACHE_SIZE.
+ *
+ * Requests should be sized to the view they're shown in (override, or into an ImageView of fixed size) so images
+ * are decoded at display size rather than the size of the source.
+ */
+@GlideModule
+public class ImageCacheModule extends AppGlideModule
+{
+    private static final String DISK_CACHE_NAME = "image_cache";
+    private static final long DISK_CACHE_SIZE = 100 * 1024 * 1024; //bytes
+
+    @Override
+    public void applyOptions(@NonNull Context context, @NonNull GlideBuilder builder)
+    {
+        builder.setDiskCache(new InternalCacheDiskCacheFactory(context, DISK_CACHE_NAME, DISK_CACHE_SIZE));
+        builder.setLogLevel(Log.ERROR); //icon fetches are expected to fail for tokens without one
+    }
+
+    @Override
+    public boolean isManifestParsingEnabled()
+    {
+        return false;
+    }
+}
@@ -0,0 +1,161 @@
+package com.alphawallet.app.util;
+
+import android.content.Context;
+import android.util.Log;
+
+import com.alphawallet.app.BuildConfig;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Records timed spans along the cold start path: service construction in the Dagger modules, first open of each
+ * Realm and deferred startup work. Times are relative to App.onCreate.
+ *
+ * Only debug builds record. Recording stops once the wallet list has been shown and the summary exported, so the
+ * tracer costs nothing for the rest of the session. The summary goes to logcat and to startup_trace.txt in the
+ * app's external files directory:
+ *
+ *     adb pull /sdcard/Android/data/io.stormbird.wallet/files/startup_trace.txt
+ */
+public class StartupTracer
+{
+    private static final String TAG = "STARTUP";
+    private static final String TRACE_FILE = "startup_trace.txt";
+    private static final int MAX_SPANS = 512;
+
+    public interface Step<T>
+    {
+        T run();
+    }
+
+    private static final List<Span> spans = new ArrayList<>();
+    private static long origin = System.nanoTime();
+    private static volatile boolean recording = BuildConfig.DEBUG;
+
+    /**
+     * Call first thing in Application.onCreate
+     */
+    public static void appStart()
+    {
+        synchronized (spans)
+        {
+            origin = System.nanoTime();
+            spans.clear();
+            recording = BuildConfig.DEBUG;
+        }
+    }
+
+    public static Span begin(String name)
+    {
+        return new Span(name, recording ? System.nanoTime() : 0);
+    }
+
+    public static <T> T trace(String name, Step<T> step)
+    {
+        Span span = begin(name);
+        try
+        {
+            return step.run();
+        }
+        finally
+        {
+            span.end();
+        }
+    }
+
+    /**
+     * Zero length span marking a milestone, eg the first frame of the wallet list
+     */
+    public static void mark(String name)
+    {
+        begin(name).end();
+    }
+
+    public static boolean isRecording()
+    {
+        return recording;
+    }
+
+    public static String summary()
+    {
+        List<Span> sorted;
+        long start;
+        synchronized (spans)
+        {
+            sorted = new ArrayList<>(spans);
+            start = origin;
+        }
+        Collections.sort(sorted, (a, b) -> Long.compare(a.start, b.start));
+
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "%8s %8s  %-20s %s%n", "start", "ms", "thread", "span"));
+        for (Span span : sorted)
+        {
+            sb.append(String.format(Locale.ROOT, "%8.1f %8.1f  %-20s %s%n",
+                    (span.start - start) / 1e6, span.duration / 1e6, span.thread, span.name));
+        }
+
+        Collections.sort(sorted, (a, b) -> Long.compare(b.duration, a.duration));
+        sb.append("\nSlowest:\n");
+        for (int i = 0; i < sorted.size() && i < 10; i++)
+        {
+            Span span = sorted.get(i);
+            sb.append(String.format(Locale.ROOT, "%8.1f ms  %s (%s)%n", span.duration / 1e6, span.name, span.thread));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Stop recording, and write the summary to logcat and the trace file
+     */
+    public static void finish(Context context)
+    {
+        if (!recording) return;
+        recording = false;
+
+        String summary = summary();
+        Log.d(TAG, summary);
+        File dir = context.getExternalFilesDir("");
+        if (dir == null) return;
+        try (Writer writer = new FileWriter(new File(dir, TRACE_FILE)))
+        {
+            writer.write(summary);
+        }
+        catch (IOException e)
+        {
+            e.printStackTrace();
+        }
+    }
+
+    public static class Span
+    {
+        private final String name;
+        private final long start;
+        private final String thread;
+        private long duration;
+
+        private Span(String name, long start)
+        {
+            this.name = name;
+            this.start = start;
+            this.thread = Thread.currentThread().getName();
+        }
+
+        public void end()
+        {
+            if (start == 0 || !recording) return;
+            duration = System.nanoTime() - start;
+            synchronized (spans)
+            {
+                if (spans.size() < MAX_SPANS) spans.add(this);
+            }
+        }
+    }
+}
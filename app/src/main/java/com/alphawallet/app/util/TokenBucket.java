@@ -0,0 +1,73 @@
+package com.alphawallet.app.util;
+
+/**
+ * Simple token bucket rate limiter. Holds up to 'capacity' permits, refilled continuously at 'ratePerSecond'.
+ * Callers block in acquire() until a permit is available, so bursts up to capacity go straight through
+ * and sustained traffic is smoothed to the refill rate.
+ */
+public class TokenBucket
+{
+    private final double capacity;
+    private final double refillPerNano;
+    private double available;
+    private long lastRefill;
+
+    public TokenBucket(int capacity, double ratePerSecond)
+    {
+        this.capacity = capacity;
+        this.refillPerNano = ratePerSecond / 1e9;
+        this.available = capacity;
+        this.lastRefill = System.nanoTime();
+    }
+
+    public void acquire() throws InterruptedException
+    {
+        long waitNanos;
+        while ((waitNanos = reserve()) > 0)
+        {
+            Thread.sleep(waitNanos / 1000000, (int) (waitNanos % 1000000));
+        }
+    }
+
+    public synchronized boolean tryAcquire()
+    {
+        refill();
+        if (available >= 1.0)
+        {
+            available -= 1.0;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return 0 if a permit is available now, otherwise the time in nanoseconds until one will be. Doesn't take a permit
+     */
+    public synchronized long nanosToNextPermit()
+    {
+        refill();
+        return available >= 1.0 ? 0 : Math.max(1, (long) ((1.0 - available) / refillPerNano));
+    }
+
+    /**
+     * Takes a permit if one is available
+     * @return 0 if a permit was taken, otherwise the time in nanoseconds until one will be available
+     */
+    private synchronized long reserve()
+    {
+        refill();
+        if (available >= 1.0)
+        {
+            available -= 1.0;
+            return 0;
+        }
+        return Math.max(1, (long) ((1.0 - available) / refillPerNano));
+    }
+
+    private void refill()
+    {
+        long now = System.nanoTime();
+        available = Math.min(capacity, available + (now - lastRefill) * refillPerNano);
+        lastRefill = now;
+    }
+}
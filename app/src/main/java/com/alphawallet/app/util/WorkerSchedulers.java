@@ -0,0 +1,51 @@
+package com.alphawallet.app.util;
+
+import com.alphawallet.token.tools.WorkerPools;
+
+import io.reactivex.Scheduler;
+import io.reactivex.schedulers.Schedulers;
+
+/**
+ * RxJava Schedulers on the shared WorkerPools. Use these instead of Schedulers.io() or Schedulers.newThread()
+ * for short blocking work, so bursts queue on a fixed set of threads; Schedulers.io() is still right for work
+ * that blocks indefinitely, eg sockets and long polls.
+ */
+public class WorkerSchedulers
+{
+    private static final Scheduler rpc = Schedulers.from(WorkerPools.get(WorkerPools.Workload.RPC));
+    private static final Scheduler httpApi = Schedulers.from(WorkerPools.get(WorkerPools.Workload.HTTP_API));
+    private static final Scheduler dbWrite = Schedulers.from(WorkerPools.get(WorkerPools.Workload.DB_WRITE));
+    private static final Scheduler cpu = Schedulers.from(WorkerPools.get(WorkerPools.Workload.CPU));
+
+    /**
+     * Blocking node calls
+     */
+    public static Scheduler rpc()
+    {
+        return rpc;
+    }
+
+    /**
+     * Indexer, ticker and market API calls
+     */
+    public static Scheduler httpApi()
+    {
+        return httpApi;
+    }
+
+    /**
+     * Realm writes; one thread, so writes happen in the order they're scheduled
+     */
+    public static Scheduler dbWrite()
+    {
+        return dbWrite;
+    }
+
+    /**
+     * Parsing and decoding
+     */
+    public static Scheduler cpu()
+    {
+        return cpu;
+    }
+}
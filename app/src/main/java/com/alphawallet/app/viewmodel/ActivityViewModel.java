@@ -4,16 +4,22 @@ import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.alphawallet.app.entity.ActivityCursor;
 import com.alphawallet.app.entity.ActivityMeta;
+import com.alphawallet.app.entity.ActivityPage;
 import com.alphawallet.app.entity.Transaction;
+import com.alphawallet.app.entity.TransactionMeta;
 import com.alphawallet.app.entity.Wallet;
 import com.alphawallet.app.interact.FetchTransactionsInteract;
 import com.alphawallet.app.interact.GenericWalletInteract;
 import com.alphawallet.app.service.AssetDefinitionService;
+import com.alphawallet.app.service.EnsResolutionService;
 import com.alphawallet.app.service.TokensService;
 import com.alphawallet.app.service.TransactionsService;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import io.reactivex.Observable;
 import io.reactivex.android.schedulers.AndroidSchedulers;
@@ -26,36 +32,45 @@ import io.realm.Realm;
  */
 public class ActivityViewModel extends BaseViewModel
 {
-    private final int TRANSACTION_FETCH_LIMIT = 500;
+    private final int ACTIVITY_PAGE_SIZE = 100;
 
     private final MutableLiveData<Wallet> wallet = new MutableLiveData<>();
     private final MutableLiveData<ActivityMeta[]> activityItems = new MutableLiveData<>();
+    private final MutableLiveData<ActivityMeta[]> activityPage = new MutableLiveData<>();
 
     private final GenericWalletInteract genericWalletInteract;
     private final FetchTransactionsInteract fetchTransactionsInteract;
     private final AssetDefinitionService assetDefinitionService;
     private final TokensService tokensService;
     private final TransactionsService transactionsService;
+    private final EnsResolutionService ensResolutionService;
 
     @Nullable
     private Disposable queryUnknownTokensDisposable;
+    @Nullable
+    private Disposable pageDisposable;
+
+    private ActivityCursor nextCursor;
 
     public LiveData<Wallet> defaultWallet() {
         return wallet;
     }
     public LiveData<ActivityMeta[]> activityItems() { return activityItems; }
+    public LiveData<ActivityMeta[]> activityPage() { return activityPage; }
 
     ActivityViewModel(
             GenericWalletInteract genericWalletInteract,
             FetchTransactionsInteract fetchTransactionsInteract,
             AssetDefinitionService assetDefinitionService,
             TokensService tokensService,
-            TransactionsService transactionsService) {
+            TransactionsService transactionsService,
+            EnsResolutionService ensResolutionService) {
         this.genericWalletInteract = genericWalletInteract;
         this.fetchTransactionsInteract = fetchTransactionsInteract;
         this.assetDefinitionService = assetDefinitionService;
         this.tokensService = tokensService;
         this.transactionsService = transactionsService;
+        this.ensResolutionService = ensResolutionService;
     }
 
     public void prepare()
@@ -69,21 +84,61 @@ public class ActivityViewModel extends BaseViewModel
     private void onDefaultWallet(Wallet defaultWallet)
     {
         wallet.postValue(defaultWallet);
-        disposable =
-                fetchTransactionsInteract.fetchTransactionMetas(defaultWallet, tokensService.getNetworkFilters(), 0, TRANSACTION_FETCH_LIMIT)
-                        .subscribeOn(Schedulers.io())
-                        .observeOn(AndroidSchedulers.mainThread())
-                        .subscribe(this::onActivityMetas, this::onError);
+        if (pageDisposable != null && !pageDisposable.isDisposed()) pageDisposable.dispose();
+        nextCursor = ActivityCursor.START;
+        fetchPage(defaultWallet);
     }
 
-    private void onActivityMetas(ActivityMeta[] metas)
+    private void fetchPage(Wallet fetchWallet)
     {
-        activityItems.postValue(metas);
-        disposable =
-                fetchTransactionsInteract.fetchEventMetas(wallet.getValue(), tokensService.getNetworkFilters())
+        pageDisposable =
+                fetchTransactionsInteract.fetchActivityPage(fetchWallet, tokensService.getNetworkFilters(), nextCursor, ACTIVITY_PAGE_SIZE)
                         .subscribeOn(Schedulers.io())
                         .observeOn(AndroidSchedulers.mainThread())
-                        .subscribe(activityItems::postValue, this::onError);
+                        .subscribe(this::onActivityPage, this::onPageError);
+    }
+
+    private void onPageError(Throwable throwable)
+    {
+        pageDisposable = null; //let the next scroll retry the same page
+        onError(throwable);
+    }
+
+    private void onActivityPage(ActivityPage page)
+    {
+        pageDisposable = null;
+        nextCursor = page.next;
+        activityPage.postValue(page.items);
+        prefetchCounterpartyNames(page.items);
+    }
+
+    //resolve ENS names for the page's counterparties in one batch so they're cached when the rows are displayed
+    private void prefetchCounterpartyNames(ActivityMeta[] items)
+    {
+        Set<String> addresses = new HashSet<>();
+        for (ActivityMeta am : items)
+        {
+            if (am instanceof TransactionMeta && ((TransactionMeta) am).contractAddress != null)
+            {
+                addresses.add(((TransactionMeta) am).contractAddress);
+            }
+        }
+
+        if (!addresses.isEmpty()) ensResolutionService.prefetchEnsNames(addresses);
+    }
+
+    /**
+     * @return true while there are pages in the database that have not yet been shown
+     */
+    public boolean hasMoreStoredActivity()
+    {
+        return nextCursor != null;
+    }
+
+    public void fetchNextPage()
+    {
+        if (nextCursor == null || wallet.getValue() == null || pageDisposable != null) return;
+        fetchPage(wallet.getValue());
     }
 
     public void fetchMoreTransactions(long startTime)
@@ -110,6 +165,8 @@ public class ActivityViewModel extends BaseViewModel
     {
         if (queryUnknownTokensDisposable != null && !queryUnknownTokensDisposable.isDisposed())
             queryUnknownTokensDisposable.dispose();
+        if (pageDisposable != null && !pageDisposable.isDisposed())
+            pageDisposable.dispose();
 
         queryUnknownTokensDisposable = null;
     }
@@ -4,6 +4,7 @@ import android.app.Activity;
 import android.content.Context;
 import android.content.Intent;
 import android.preference.PreferenceManager;
+import android.util.Log;
 import android.webkit.WebView;
 import android.widget.Toast;
 
@@ -12,6 +13,7 @@ import androidx.fragment.app.Fragment;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.alphawallet.app.BuildConfig;
 import com.alphawallet.app.C;
 import com.alphawallet.app.R;
 import com.alphawallet.app.entity.DApp;
@@ -27,6 +29,8 @@ import com.alphawallet.app.interact.CreateTransactionInteract;
 import com.alphawallet.app.interact.GenericWalletInteract;
 import com.alphawallet.app.repository.EthereumNetworkRepositoryType;
 import com.alphawallet.app.service.AssetDefinitionService;
+import com.alphawallet.app.service.BlockHeadTracker;
+import com.alphawallet.app.service.EthCallMediator;
 import com.alphawallet.app.service.GasService2;
 import com.alphawallet.app.service.KeyService;
 import com.alphawallet.app.service.TokensService;
@@ -39,9 +43,11 @@ import com.alphawallet.app.ui.SendActivity;
 import com.alphawallet.app.ui.WalletConnectActivity;
 import com.alphawallet.app.ui.zxing.QRScanningActivity;
 import com.alphawallet.app.util.DappBrowserUtils;
+import com.alphawallet.app.web3.entity.Web3Call;
 import com.alphawallet.app.web3.entity.Web3Transaction;
 import com.alphawallet.token.entity.Signable;
 
+import org.web3j.protocol.core.methods.response.EthCall;
 import org.web3j.protocol.core.methods.response.EthEstimateGas;
 
 import java.math.BigDecimal;
@@ -69,6 +75,7 @@ public class DappBrowserViewModel extends BaseViewModel  {
     private final EthereumNetworkRepositoryType ethereumNetworkRepository;
     private final KeyService keyService;
     private final GasService2 gasService;
+    private final EthCallMediator ethCallMediator;
 
     @Nullable
     private Disposable balanceTimerDisposable;
@@ -80,7 +87,8 @@ public class DappBrowserViewModel extends BaseViewModel  {
             TokensService tokensService,
             EthereumNetworkRepositoryType ethereumNetworkRepository,
             KeyService keyService,
-            GasService2 gasService) {
+            GasService2 gasService,
+            BlockHeadTracker blockHeadTracker) {
         this.genericWalletInteract = genericWalletInteract;
         this.assetDefinitionService = assetDefinitionService;
         this.createTransactionInteract = createTransactionInteract;
@@ -88,6 +96,7 @@ public class DappBrowserViewModel extends BaseViewModel  {
         this.ethereumNetworkRepository = ethereumNetworkRepository;
         this.keyService = keyService;
         this.gasService = gasService;
+        this.ethCallMediator = new EthCallMediator(blockHeadTracker);
     }
 
     public AssetDefinitionService getAssetDefinitionService() {
@@ -268,6 +277,19 @@ public class DappBrowserViewModel extends BaseViewModel  {
     public void onDestroy()
     {
         if (balanceTimerDisposable != null && !balanceTimerDisposable.isDisposed()) balanceTimerDisposable.dispose();
+        if (BuildConfig.DEBUG) Log.d("ETH_CALL", "Calls: " + ethCallMediator.getCallCount() + " saved: " + ethCallMediator.getCallsSaved()
+                + " (cached " + ethCallMediator.getCacheHits() + ", shared " + ethCallMediator.getCoalesced() + ") rate limited: " + ethCallMediator.getRateLimited());
+        ethCallMediator.stop();
+    }
+
+    public Single<EthCall> ethCall(String origin, int chainId, String from, Web3Call call)
+    {
+        return ethCallMediator.ethCall(origin, chainId, from, call);
+    }
+
+    public EthCallMediator getEthCallMediator()
+    {
+        return ethCallMediator;
     }
 
     public void updateGasPrice(int chainId)
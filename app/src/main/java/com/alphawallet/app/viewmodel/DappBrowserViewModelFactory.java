@@ -9,6 +9,7 @@ import com.alphawallet.app.interact.CreateTransactionInteract;
 import com.alphawallet.app.interact.GenericWalletInteract;
 import com.alphawallet.app.repository.EthereumNetworkRepositoryType;
 import com.alphawallet.app.service.AssetDefinitionService;
+import com.alphawallet.app.service.BlockHeadTracker;
 import com.alphawallet.app.service.GasService2;
 import com.alphawallet.app.service.KeyService;
 import com.alphawallet.app.service.TokensService;
@@ -21,6 +22,7 @@ public class DappBrowserViewModelFactory implements ViewModelProvider.Factory {
     private final EthereumNetworkRepositoryType ethereumNetworkRepository;
     private final KeyService keyService;
     private final GasService2 gasService;
+    private final BlockHeadTracker blockHeadTracker;
 
     public DappBrowserViewModelFactory(
             GenericWalletInteract genericWalletInteract,
@@ -29,7 +31,8 @@ public class DappBrowserViewModelFactory implements ViewModelProvider.Factory {
             TokensService tokensService,
             EthereumNetworkRepositoryType ethereumNetworkRepository,
             KeyService keyService,
-            GasService2 gasService) {
+            GasService2 gasService,
+            BlockHeadTracker blockHeadTracker) {
         this.genericWalletInteract = genericWalletInteract;
         this.assetDefinitionService = assetDefinitionService;
         this.createTransactionInteract = createTransactionInteract;
@@ -37,6 +40,7 @@ public class DappBrowserViewModelFactory implements ViewModelProvider.Factory {
         this.ethereumNetworkRepository = ethereumNetworkRepository;
         this.keyService = keyService;
         this.gasService = gasService;
+        this.blockHeadTracker = blockHeadTracker;
     }
 
     @NonNull
@@ -49,6 +53,7 @@ public class DappBrowserViewModelFactory implements ViewModelProvider.Factory {
                 tokensService,
                 ethereumNetworkRepository,
                 keyService,
-                gasService);
+                gasService,
+                blockHeadTracker);
     }
 }
@@ -35,17 +35,16 @@ import com.alphawallet.app.repository.EthereumNetworkRepository;
 import com.alphawallet.app.repository.EthereumNetworkRepositoryType;
 import com.alphawallet.app.repository.LocaleRepositoryType;
 import com.alphawallet.app.repository.PreferenceRepositoryType;
-import com.alphawallet.app.repository.TokenRepository;
 import com.alphawallet.app.router.AddTokenRouter;
 import com.alphawallet.app.router.ImportTokenRouter;
 import com.alphawallet.app.router.MyAddressRouter;
 import com.alphawallet.app.service.AnalyticsServiceType;
 import com.alphawallet.app.service.AssetDefinitionService;
+import com.alphawallet.app.service.EnsResolutionService;
 import com.alphawallet.app.service.TickerService;
 import com.alphawallet.app.service.TransactionsService;
 import com.alphawallet.app.ui.HomeActivity;
 import com.alphawallet.app.ui.SendActivity;
-import com.alphawallet.app.util.AWEnsResolver;
 import com.alphawallet.app.util.QRParser;
 import com.alphawallet.app.util.Utils;
 import com.alphawallet.token.entity.MagicLinkData;
@@ -57,7 +56,6 @@ import java.util.UUID;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.schedulers.Schedulers;
 
-import static com.alphawallet.ethereum.EthereumNetworkBase.MAINNET_ID;
 
 public class HomeViewModel extends BaseViewModel {
     private final String TAG = "HVM";
@@ -272,7 +270,7 @@ public class HomeViewModel extends BaseViewModel {
         {
             walletName.postValue("");
             //check for ENS name
-            new AWEnsResolver(TokenRepository.getWeb3jService(MAINNET_ID), context)
+            EnsResolutionService.getInstance(context)
                     .resolveEnsName(wallet.address)
                     .map(ensName -> { wallet.ENSname = ensName; return wallet; })
                     .flatMap(fetchWalletsInteract::updateENS) //store the ENS name
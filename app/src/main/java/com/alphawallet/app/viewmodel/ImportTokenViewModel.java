@@ -329,11 +329,12 @@ public class ImportTokenViewModel extends BaseViewModel
             case normal:
             case customizable:
                 List<BigInteger> newBalance = new ArrayList<>();
+                List<BigInteger> tokenBalance = importToken.getArrayBalance();
                 for (Integer index : importOrder.indices) //SalesOrder indices member contains the list of ticket indices we're importing
                 {
-                    if (importToken.getArrayBalance().size() > index)
+                    if (tokenBalance.size() > index)
                     {
-                        BigInteger ticketId = importToken.getArrayBalance().get(index);
+                        BigInteger ticketId = tokenBalance.get(index);
                         if (ticketId.compareTo(BigInteger.ZERO) != 0)
                         {
                             newBalance.add(ticketId); //ticket is there
@@ -30,6 +30,7 @@ import com.alphawallet.token.tools.TokenDefinition;
 import com.alphawallet.app.interact.FetchWalletsInteract;
 import com.alphawallet.app.service.AssetDefinitionService;
 import com.alphawallet.app.service.KeyService;
+import com.alphawallet.app.util.WorkerSchedulers;
 import com.alphawallet.token.tools.TokenDefinition;
 
 import java.io.File;
@@ -164,7 +165,7 @@ public class SplashViewModel extends ViewModel
     private void checkWebsiteAPKFileData(long currentInstallDate, final Context baseContext)
     {
         getFileDataFromURL(ALPHAWALLET_FILE_URL)
-                .subscribeOn(Schedulers.newThread())
+                .subscribeOn(WorkerSchedulers.httpApi())
                 .observeOn(AndroidSchedulers.mainThread())
                 .subscribe(result -> onUpdate(result, currentInstallDate, baseContext), this::onError).isDisposed();
     }
@@ -12,6 +12,7 @@ import com.alphawallet.app.entity.Wallet;
 import com.alphawallet.app.entity.WalletType;
 import com.alphawallet.app.entity.tokens.Token;
 import com.alphawallet.app.entity.tokens.TokenCardMeta;
+import com.alphawallet.app.entity.tokens.TokenMetaChange;
 import com.alphawallet.app.interact.ChangeTokenEnableInteract;
 import com.alphawallet.app.interact.FetchTokensInteract;
 import com.alphawallet.app.interact.GenericWalletInteract;
@@ -26,10 +27,10 @@ import org.jetbrains.annotations.NotNull;
 
 import java.math.BigDecimal;
 
+import io.reactivex.Flowable;
 import io.reactivex.android.schedulers.AndroidSchedulers;
 import io.reactivex.disposables.Disposable;
 import io.reactivex.schedulers.Schedulers;
-import io.realm.Realm;
 
 public class WalletViewModel extends BaseViewModel
 {
@@ -159,9 +160,9 @@ public class WalletViewModel extends BaseViewModel
         activity.startActivityForResult(intent, C.REQUEST_UNIVERSAL_SCAN);
     }
 
-    public Realm getRealmInstance(Wallet wallet)
+    public Flowable<TokenMetaChange> tokenMetaChanges(Wallet wallet)
     {
-        return tokensService.getRealmInstance(wallet);
+        return tokensService.getTokenMetaChanges(wallet, assetDefinitionService);
     }
 
     @Override
@@ -13,23 +13,25 @@ import com.alphawallet.app.entity.ErrorEnvelope;
 import com.alphawallet.app.entity.NetworkInfo;
 import com.alphawallet.app.entity.Operation;
 import com.alphawallet.app.entity.Wallet;
+import com.alphawallet.app.entity.WalletSnapshot;
 import com.alphawallet.app.entity.WalletType;
 import com.alphawallet.app.interact.FetchWalletsInteract;
 import com.alphawallet.app.interact.FindDefaultNetworkInteract;
 import com.alphawallet.app.interact.GenericWalletInteract;
 import com.alphawallet.app.interact.SetDefaultWalletInteract;
 import com.alphawallet.app.repository.EthereumNetworkRepository;
-import com.alphawallet.app.repository.TokenRepository;
 import com.alphawallet.app.router.HomeRouter;
 import com.alphawallet.app.router.ImportWalletRouter;
 import com.alphawallet.app.service.AssetDefinitionService;
+import com.alphawallet.app.service.EnsResolutionService;
 import com.alphawallet.app.service.KeyService;
+import com.alphawallet.app.service.PortfolioService;
 import com.alphawallet.app.service.TokensService;
-import com.alphawallet.app.util.AWEnsResolver;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.concurrent.TimeUnit;
 
 import io.reactivex.Completable;
 import io.reactivex.Observable;
@@ -39,14 +41,11 @@ import io.reactivex.schedulers.Schedulers;
 import io.realm.Realm;
 
 import static com.alphawallet.app.entity.tokenscript.TokenscriptFunction.ZERO_ADDRESS;
-import static com.alphawallet.ethereum.EthereumNetworkBase.MAINNET_ID;
 
 public class WalletsViewModel extends BaseViewModel
 {
     private final static String TAG = WalletsViewModel.class.getSimpleName();
 
-    private static final int BALANCE_CHECK_INTERVAL_SECONDS = 20;
-
     private final SetDefaultWalletInteract setDefaultWalletInteract;
     private final FetchWalletsInteract fetchWalletsInteract;
     private final GenericWalletInteract genericWalletInteract;
@@ -55,8 +54,9 @@ public class WalletsViewModel extends BaseViewModel
     private final ImportWalletRouter importWalletRouter;
     private final HomeRouter homeRouter;
     private final TokensService tokensService;
-    private final AWEnsResolver ensResolver;
+    private final EnsResolutionService ensResolver;
     private final AssetDefinitionService assetService;
+    private final PortfolioService portfolioService;
 
     private final MutableLiveData<Wallet[]> wallets = new MutableLiveData<>();
     private final MutableLiveData<Wallet> defaultWallet = new MutableLiveData<>();
@@ -65,7 +65,6 @@ public class WalletsViewModel extends BaseViewModel
     private final MutableLiveData<Boolean> noWalletsError = new MutableLiveData<>();
 
     private NetworkInfo currentNetwork;
-    private Map<String, Wallet> walletBalances = new HashMap<>();
 
     @Nullable
     private Disposable balanceTimerDisposable;
@@ -80,6 +79,7 @@ public class WalletsViewModel extends BaseViewModel
             KeyService keyService,
             TokensService tokensService,
             AssetDefinitionService assetService,
+            PortfolioService portfolioService,
             Context context)
     {
         this.setDefaultWalletInteract = setDefaultWalletInteract;
@@ -91,8 +91,9 @@ public class WalletsViewModel extends BaseViewModel
         this.keyService = keyService;
         this.tokensService = tokensService;
         this.assetService = assetService;
+        this.portfolioService = portfolioService;
 
-        ensResolver = new AWEnsResolver(TokenRepository.getWeb3jService(MAINNET_ID), context);
+        ensResolver = EnsResolutionService.getInstance(context);
     }
 
     public LiveData<Wallet[]> wallets()
@@ -125,7 +126,6 @@ public class WalletsViewModel extends BaseViewModel
 
     public void onPrepare(int chainId)
     {
-        walletBalances.clear();
         progress.postValue(true);
         currentNetwork = findDefaultNetworkInteract.getNetworkInfo(chainId);
 
@@ -155,15 +155,16 @@ public class WalletsViewModel extends BaseViewModel
     {
         progress.postValue(false);
 
+        List<String> addresses = new ArrayList<>();
         for (Wallet w : items)
         {
             w.balanceSymbol = currentNetwork.symbol;
-            Wallet mapW = walletBalances.get(w.address.toLowerCase());
-            if (mapW != null)
-            {
-                w.balance = mapW.balance;
-            }
+            addresses.add(w.address);
+            //show the last known balance straight away
+            WalletSnapshot snapshot = portfolioService.getSnapshot(w.address);
+            if (snapshot != null) updateBalance(w, snapshot);
         }
+        portfolioService.setWallets(addresses);
         wallets.postValue(items);
 
         startBalanceUpdateTimer(items);
@@ -172,7 +173,7 @@ public class WalletsViewModel extends BaseViewModel
     public void swipeRefreshWallets()
     {
         //check for updates
-        //check names first
+        //check names first; the lookups are collected into one batched reverse resolve
         disposable = fetchWalletsInteract.fetch().toObservable()
                 .flatMap(Observable::fromArray)
                 .forEach(wallet -> ensResolver.resolveEnsName(wallet.address)
@@ -204,8 +205,23 @@ public class WalletsViewModel extends BaseViewModel
     {
         if (balanceTimerDisposable != null && !balanceTimerDisposable.isDisposed()) balanceTimerDisposable.dispose();
 
-        balanceTimerDisposable = Observable.interval(1, BALANCE_CHECK_INTERVAL_SECONDS, TimeUnit.SECONDS) //initial delay 1 second to allow view to stabilise
-                .doOnNext(l -> getWalletsBalance(wallets)).subscribe();
+        Map<String, Wallet> walletMap = new HashMap<>();
+        for (Wallet w : wallets) walletMap.put(w.address.toLowerCase(), w);
+
+        //balances for all wallets come from the portfolio service's shared refresh
+        balanceTimerDisposable = portfolioService.snapshots()
+                .subscribe(snapshot -> {
+                    Wallet w = walletMap.get(snapshot.address);
+                    if (w != null) updateBalance(w, snapshot);
+                }, this::onError);
+    }
+
+    private void updateBalance(Wallet wallet, WalletSnapshot snapshot)
+    {
+        genericWalletInteract.updateBalanceIfRequired(wallet, snapshot.getBalance(currentNetwork.chainId))
+                .subscribeOn(Schedulers.io())
+                .subscribe(w -> { }, e -> { })
+                .isDisposed();
     }
 
     /**
@@ -13,6 +13,7 @@ import com.alphawallet.app.router.HomeRouter;
 import com.alphawallet.app.router.ImportWalletRouter;
 import com.alphawallet.app.service.AssetDefinitionService;
 import com.alphawallet.app.service.KeyService;
+import com.alphawallet.app.service.PortfolioService;
 import com.alphawallet.app.service.TokensService;
 
 import javax.inject.Inject;
@@ -27,6 +28,7 @@ public class WalletsViewModelFactory implements ViewModelProvider.Factory {
     private final KeyService keyService;
     private final TokensService tokensService;
     private final AssetDefinitionService assetService;
+    private final PortfolioService portfolioService;
     private final Context context;
 
     @Inject
@@ -40,6 +42,7 @@ public class WalletsViewModelFactory implements ViewModelProvider.Factory {
             KeyService keyService,
             TokensService tokensService,
             AssetDefinitionService assetService,
+            PortfolioService portfolioService,
             Context context) {
         this.setDefaultWalletInteract = setDefaultWalletInteract;
         this.fetchWalletsInteract = fetchWalletsInteract;
@@ -50,6 +53,7 @@ public class WalletsViewModelFactory implements ViewModelProvider.Factory {
         this.keyService = keyService;
         this.tokensService = tokensService;
         this.assetService = assetService;
+        this.portfolioService = portfolioService;
         this.context = context;
     }
 
@@ -66,6 +70,7 @@ public class WalletsViewModelFactory implements ViewModelProvider.Factory {
                 keyService,
                 tokensService,
                 assetService,
+                portfolioService,
                 context);
     }
 }
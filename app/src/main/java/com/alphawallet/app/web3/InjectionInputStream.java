@@ -0,0 +1,162 @@
+package com.alphawallet.app.web3;
+
+import android.os.SystemClock;
+import android.util.Log;
+
+import com.alphawallet.app.BuildConfig;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+
+/**
+ * Streams a main frame document to the WebView, inserting the provider script at the same point injectJS would:
+ * before the first <script> or IE conditional comment, else before </head>, else at the start of the document.
+ * Only the bytes up to the insertion point are held back; after the script is emitted the rest of the body is
+ * passed straight through from the network as the WebView reads it.
+ *
+ * Markers are matched as ASCII bytes, so the source must be in an ASCII compatible charset.
+ */
+class InjectionInputStream extends InputStream
+{
+    private static final String TAG = "WEB3_TIMING";
+    private static final int CHUNK_SIZE = 8 * 1024;
+    private static final int MAX_SCAN = 64 * 1024; //if no insertion point is found in this much of the page, inject at the start
+    private static final byte[][] MARKERS = { "<script".getBytes(), "<!--[if".getBytes(), "</head".getBytes() };
+
+    private final InputStream source;
+    private final byte[] script;
+    private final String url;
+    private final long requestStart;
+
+    private byte[] pending;
+    private int pendingPos;
+    private boolean scanned;
+    private long firstByteTime;
+    private long totalBytes;
+
+    InjectionInputStream(InputStream source, byte[] script, String url, long requestStart)
+    {
+        this.source = source;
+        this.script = script;
+        this.url = url;
+        this.requestStart = requestStart;
+    }
+
+    @Override
+    public int read() throws IOException
+    {
+        byte[] single = new byte[1];
+        int len = read(single, 0, 1);
+        return len < 0 ? -1 : (single[0] & 0xFF);
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException
+    {
+        if (!scanned) scanForInsertionPoint();
+
+        int read;
+        if (pending != null)
+        {
+            read = Math.min(len, pending.length - pendingPos);
+            System.arraycopy(pending, pendingPos, b, off, read);
+            pendingPos += read;
+            if (pendingPos == pending.length) pending = null;
+        }
+        else
+        {
+            read = source.read(b, off, len);
+        }
+
+        if (read > 0)
+        {
+            if (firstByteTime == 0)
+            {
+                firstByteTime = SystemClock.elapsedRealtime();
+                if (BuildConfig.DEBUG) Log.d(TAG, "TTFB " + (firstByteTime - requestStart) + "ms: " + url);
+            }
+            totalBytes += read;
+        }
+
+        return read;
+    }
+
+    @Override
+    public int available() throws IOException
+    {
+        return pending != null ? pending.length - pendingPos : (scanned ? source.available() : 0);
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        source.close();
+        if (BuildConfig.DEBUG && firstByteTime > 0)
+        {
+            Log.d(TAG, "Complete " + (SystemClock.elapsedRealtime() - requestStart) + "ms, " + totalBytes + " bytes: " + url);
+        }
+    }
+
+    private void scanForInsertionPoint() throws IOException
+    {
+        scanned = true;
+        byte[] buffer = new byte[CHUNK_SIZE];
+        int length = 0;
+        int searchFrom = 0;
+
+        while (length < MAX_SCAN)
+        {
+            if (length == buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            int read = source.read(buffer, length, buffer.length - length);
+            if (read < 0) break;
+            length += read;
+
+            int position = findMarker(buffer, searchFrom, length);
+            if (position >= 0)
+            {
+                pending = assemble(buffer, length, position);
+                return;
+            }
+
+            //a marker may straddle the chunk boundary
+            searchFrom = Math.max(0, length - MARKERS[0].length);
+        }
+
+        pending = assemble(buffer, length, 0);
+    }
+
+    private byte[] assemble(byte[] buffer, int length, int position)
+    {
+        byte[] result = new byte[length + script.length];
+        System.arraycopy(buffer, 0, result, 0, position);
+        System.arraycopy(script, 0, result, position, script.length);
+        System.arraycopy(buffer, position, result, position + script.length, length - position);
+        return result;
+    }
+
+    private static int findMarker(byte[] buffer, int from, int length)
+    {
+        for (int i = from; i < length; i++)
+        {
+            if (buffer[i] != '<') continue;
+            for (byte[] marker : MARKERS)
+            {
+                if (matches(buffer, i, length, marker)) return i;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean matches(byte[] buffer, int index, int length, byte[] marker)
+    {
+        if (index + marker.length > length) return false;
+        for (int j = 0; j < marker.length; j++)
+        {
+            byte b = buffer[index + j];
+            if (b >= 'A' && b <= 'Z') b += ('a' - 'A');
+            if (b != marker[j]) return false;
+        }
+        return true;
+    }
+}
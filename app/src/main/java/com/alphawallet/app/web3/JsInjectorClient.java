@@ -1,6 +1,7 @@
 package com.alphawallet.app.web3;
 
 import android.content.Context;
+import android.os.SystemClock;
 import android.text.TextUtils;
 import android.util.Log;
 
@@ -13,19 +14,24 @@ import com.alphawallet.app.web3.entity.Address;
 
 import org.web3j.crypto.Keys;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.math.BigInteger;
+import java.nio.charset.Charset;
 import java.util.Map;
 import java.util.Set;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
+import java.util.zip.GZIPInputStream;
 
 import okhttp3.Headers;
 import okhttp3.HttpUrl;
 import okhttp3.OkHttpClient;
 import okhttp3.Request;
 import okhttp3.Response;
+import okhttp3.ResponseBody;
 
 import static com.alphawallet.ethereum.EthereumNetworkBase.MAINNET_ID;
 
@@ -76,11 +82,15 @@ public class JsInjectorClient {
 
     @Nullable
     JsInjectorResponse loadUrl(final String url, final Map<String, String> headers) {
+        long requestStart = SystemClock.elapsedRealtime();
         Request request = buildRequest(url, headers);
+        if (request == null) {
+            return null;
+        }
         JsInjectorResponse result = null;
         try {
             Response response = httpClient.newCall(request).execute();
-            result = buildResponse(response);
+            result = buildResponse(response, requestStart);
         } catch (Exception ex) {
             Log.d("REQUEST_ERROR", "", ex);
         }
@@ -95,26 +105,73 @@ public class JsInjectorClient {
         return String.format(template, jsLibrary, initJs);
     }
 
+    /**
+     * Build the response without reading the body; the returned stream injects the provider script as the
+     * WebView reads the page from the network.
+     */
     @Nullable
-    private JsInjectorResponse buildResponse(Response response) {
-        String body = null;
+    private JsInjectorResponse buildResponse(Response response, long requestStart) {
         int code = response.code();
-        try {
-            if (response.isSuccessful()) {
-                body = response.body().string();
-            }
-        } catch (IOException ex) {
-            Log.d("READ_BODY_ERROR", "Ex", ex);
-        }
         Request request = response.request();
         Response prior = response.priorResponse();
         boolean isRedirect = prior != null && prior.isRedirect();
-        String result = injectJS(body);
         String contentType = getContentTypeHeader(response);
         String charset = getCharset(contentType);
         String mime = getMimeType(contentType);
         String finalUrl = request.url().toString();
-        return new JsInjectorResponse(result, code, finalUrl, mime, charset, isRedirect);
+        ResponseBody body = response.body();
+        InputStream stream = null;
+
+        if (!response.isSuccessful() || isRedirect || body == null) {
+            response.close(); //let the WebView load it directly
+        } else {
+            Charset pageCharset = getPageCharset(charset);
+            try {
+                stream = body.byteStream();
+                //OkHttp only decodes gzip transparently when it negotiated it; otherwise the header is still present
+                if ("gzip".equalsIgnoreCase(response.header("Content-Encoding"))) {
+                    stream = new GZIPInputStream(stream);
+                }
+                byte[] script = assembleJs(context, JS_TAG_TEMPLATE).getBytes(pageCharset);
+                if (isAsciiCompatible(pageCharset)) {
+                    stream = new InjectionInputStream(stream, script, finalUrl, requestStart);
+                } else {
+                    //can't scan for markers in the raw bytes, so decode and inject the whole page
+                    String html = new String(readFully(stream), pageCharset);
+                    stream = new ByteArrayInputStream(injectJS(html).getBytes(pageCharset));
+                }
+            } catch (IOException ex) {
+                Log.d("READ_BODY_ERROR", "Ex", ex);
+                response.close();
+                stream = null;
+            }
+        }
+
+        return new JsInjectorResponse(stream, code, finalUrl, mime, charset, isRedirect);
+    }
+
+    private Charset getPageCharset(String charset) {
+        try {
+            return Charset.forName(charset);
+        } catch (Exception e) {
+            return Charset.forName(DEFAULT_CHARSET);
+        }
+    }
+
+    private boolean isAsciiCompatible(Charset charset) {
+        String name = charset.name().toUpperCase();
+        return !name.startsWith("UTF-16") && !name.startsWith("UTF-32");
+    }
+
+    private static byte[] readFully(InputStream in) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        int len;
+        while ((len = in.read(buffer)) > 0) {
+            out.write(buffer, 0, len);
+        }
+        in.close();
+        return out.toByteArray();
     }
 
     String injectJS(String html) {
@@ -197,6 +254,8 @@ public class JsInjectorClient {
                 .url(httpUrl);
         Set<String> keys = headers.keySet();
         for (String key : keys) {
+            //leave compression to OkHttp so the body is decoded transparently
+            if (key.equalsIgnoreCase("Accept-Encoding")) continue;
             requestBuilder.addHeader(key, headers.get(key));
         }
         return requestBuilder.build();
@@ -248,7 +307,7 @@ public class JsInjectorClient {
     private String getCharset(String contentType) {
         Matcher regexResult = Pattern.compile("charset=([a-zA-Z0-9-]+)").matcher(contentType);
         if (regexResult.find()) {
-            if (regexResult.groupCount() >= 2) {
+            if (regexResult.groupCount() >= 1) {
                 return regexResult.group(1);
             }
         }
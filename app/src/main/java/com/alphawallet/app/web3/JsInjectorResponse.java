@@ -1,13 +1,15 @@
 package com.alphawallet.app.web3;
 
+import java.io.InputStream;
+
 class JsInjectorResponse {
-    final String data;
+    final InputStream data;
     final String url;
     final String mime;
     final String charset;
     final boolean isRedirect;
 
-    JsInjectorResponse(String data, int code, String url, String mime, String charset, boolean isRedirect) {
+    JsInjectorResponse(InputStream data, int code, String url, String mime, String charset, boolean isRedirect) {
         this.data = data;
         this.url = url;
         this.mime = mime;
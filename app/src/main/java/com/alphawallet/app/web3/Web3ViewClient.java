@@ -16,7 +16,6 @@ import android.webkit.WebResourceResponse;
 import android.webkit.WebView;
 import android.webkit.WebViewClient;
 
-import java.io.ByteArrayInputStream;
 import java.util.List;
 import java.util.Map;
 
@@ -136,14 +135,12 @@ public class Web3ViewClient extends WebViewClient {
         } catch (Exception ex) {
             return null;
         }
-        if (response == null || response.isRedirect) {
-            return null;
-        } else if (TextUtils.isEmpty(response.data)){
+        if (response == null || response.isRedirect || response.data == null) {
             return null;
         } else {
-            ByteArrayInputStream inputStream = new ByteArrayInputStream(response.data.getBytes());
+            //the body streams to the WebView as it arrives, with the provider script inserted on the way through
             WebResourceResponse webResourceResponse = new WebResourceResponse(
-                    response.mime, response.charset, inputStream);
+                    response.mime, response.charset, response.data);
             synchronized (lock) {
                 isInjected = true;
             }
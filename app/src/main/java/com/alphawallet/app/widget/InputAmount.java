@@ -24,6 +24,7 @@ import com.alphawallet.app.service.TokensService;
 import com.alphawallet.app.ui.widget.entity.AmountReadyCallback;
 import com.alphawallet.app.ui.widget.entity.NumericInput;
 import com.alphawallet.app.util.BalanceUtils;
+import com.alphawallet.app.util.WorkerSchedulers;
 
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
@@ -34,6 +35,7 @@ import java.math.BigInteger;
 import java.math.RoundingMode;
 import java.text.DecimalFormat;
 
+import io.reactivex.Single;
 import io.realm.Case;
 import io.realm.Realm;
 import io.realm.RealmQuery;
@@ -360,9 +362,9 @@ public class InputAmount extends LinearLayout
                 {
                     gasFetch.setVisibility(View.VISIBLE);
                     Web3j web3j = TokenRepository.getWeb3jService(token.tokenInfo.chainId);
-                    web3j.ethGasPrice().sendAsync()
-                            .thenAccept(ethGasPrice -> onLatestGasPrice(ethGasPrice.getGasPrice()))
-                            .exceptionally(this::onGasFetchError);
+                    Single.fromCallable(() -> web3j.ethGasPrice().send().getGasPrice())
+                            .subscribeOn(WorkerSchedulers.rpc())
+                            .subscribe(this::onLatestGasPrice, this::onGasFetchError).isDisposed();
                 }
             }
             else
@@ -423,10 +425,9 @@ public class InputAmount extends LinearLayout
         }
     }
 
-    private Void onGasFetchError(Throwable throwable)
+    private void onGasFetchError(Throwable throwable)
     {
-        gasFetch.setVisibility(View.GONE);
-        return null;
+        handler.post(() -> gasFetch.setVisibility(View.GONE));
     }
 
     private String convertWeiAmountToFiat(BigDecimal value)
@@ -43,6 +43,7 @@ public class TokenIcon extends ConstraintLayout
     private final TextView textIcon;
     private final ImageView statusIcon;
     private final ProgressKnobkerry pendingProgress;
+    private final int iconSize;
 
     private OnTokenClickListener onTokenClickListener;
     private Token token;
@@ -67,6 +68,7 @@ public class TokenIcon extends ConstraintLayout
             inflate(context, R.layout.item_token_icon, this);
         }
 
+        iconSize = getResources().getDimensionPixelSize(largeIcon ? R.dimen.token_icon_size_large : R.dimen.token_icon_size);
         icon = findViewById(R.id.icon);
         textIcon = findViewById(R.id.text_icon);
         statusIcon = findViewById(R.id.status_icon);
@@ -155,27 +157,50 @@ public class TokenIcon extends ConstraintLayout
         else
         {
             setupTextIcon(token);
-            RequestBuilder<Drawable> rb = null;
-
-            //if the main request wasn't checking the AW icon repo, check it if main repo doesn't have an icon
-            if (!iconItem.getUrl().contains(Utils.ALPHAWALLET_REPO_NAME) && !iconItem.onlyFetchFromCache())
-            {
-                rb = Glide.with(getContext().getApplicationContext())
-                        .load(Utils.getAWIconRepo(token.getAddress()));
-            }
-
-            Glide.with(getContext().getApplicationContext())
-                    .load(iconItem.getUrl())
-                    .signature(iconItem.getSignature())
-                    .onlyRetrieveFromCache(iconItem.onlyFetchFromCache()) //reduce URL checking, only check once per session
-                    .error(rb)
-                    .apply(new RequestOptions().circleCrop())
+            iconRequest(getContext().getApplicationContext(), token, iconItem, iconSize)
                     .apply(new RequestOptions().placeholder(chainIcon))
                     .listener(requestListener)
                     .into(viewTarget);
         }
     }
 
+    /**
+     * Fetch a token's icon into the image caches before its view is bound, eg for rows about to scroll into view.
+     * This is the same request bindData makes for a standard size icon, so the bind is served from memory. The
+     * token isn't marked as checked, so a bind while the preload is in flight waits for it rather than only looking
+     * in the cache.
+     */
+    public static void preload(Context context, Token token, AssetDefinitionService assetDefinition)
+    {
+        if (token.isEthereum()) return; //chain icons are resources
+
+        int size = context.getResources().getDimensionPixelSize(R.dimen.token_icon_size);
+        iconRequest(context.getApplicationContext(), token, assetDefinition.fetchIconForToken(token, false), size)
+                .preload(size, size);
+    }
+
+    private static RequestBuilder<Drawable> iconRequest(Context context, Token token, IconItem iconItem, int size)
+    {
+        RequestBuilder<Drawable> rb = null;
+
+        //if the main request isn't checking the AW icon repo, check it if main repo doesn't have an icon
+        if (!iconItem.getUrl().contains(Utils.ALPHAWALLET_REPO_NAME))
+        {
+            rb = Glide.with(context)
+                    .load(Utils.getAWIconRepo(token.getAddress()))
+                    .onlyRetrieveFromCache(iconItem.onlyFetchFromCache())
+                    .override(size);
+        }
+
+        return Glide.with(context)
+                .load(iconItem.getUrl())
+                .signature(iconItem.getSignature())
+                .onlyRetrieveFromCache(iconItem.onlyFetchFromCache()) //reduce URL checking, only check once per session
+                .error(rb)
+                .override(size) //decode at the size shown, not the size of the source image
+                .apply(new RequestOptions().circleCrop());
+    }
+
     private IconItem getIconUrl(Token token)
     {
         String correctedAddr = Keys.toChecksumAddress(token.getAddress());
@@ -0,0 +1,94 @@
+package com.alphawallet.app;
+
+import com.alphawallet.app.entity.GasPriceSpread;
+import com.alphawallet.app.service.GasOracle;
+
+import org.junit.Test;
+import org.web3j.protocol.core.Response;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class GasOracleTest
+{
+    private static final long NEXT_BASE_FEE = 1000;
+
+    @Test
+    public void windowKeepsTheLastTwentyBlocks()
+    {
+        GasOracle.FeeWindow window = new GasOracle.FeeWindow();
+        GasPriceSpread spread = null;
+        for (long block = 1; block <= 25; block++) spread = window.addHistory(history(block, block));
+
+        //blocks 6 to 25 remain; block n tips n, 2n, 3n, 4n at the 10th, 50th, 75th and 90th percentiles
+        long sum = 0;
+        for (long block = 6; block <= 25; block++) sum += block;
+        assertEquals(NEXT_BASE_FEE + sum / 20, spread.slow.longValue());
+        assertEquals(NEXT_BASE_FEE + 2 * sum / 20, spread.standard.longValue());
+        assertEquals(NEXT_BASE_FEE + 3 * sum / 20, spread.fast.longValue());
+        assertEquals(NEXT_BASE_FEE + NEXT_BASE_FEE / 8 + 4 * sum / 20, spread.rapid.longValue());
+        assertEquals(25, window.getLastBlock());
+    }
+
+    @Test
+    public void overlappingHistoryIsOnlyCountedOnce()
+    {
+        GasOracle.FeeWindow window = new GasOracle.FeeWindow();
+        window.addHistory(history(1, 3)); //blocks 1, 2, 3
+        GasPriceSpread spread = window.addHistory(history(2, 4)); //2 and 3 again, then 4
+
+        assertEquals(NEXT_BASE_FEE + 2 * (1 + 2 + 3 + 4) / 4, spread.standard.longValue());
+        assertEquals(4, window.getLastBlock());
+    }
+
+    @Test
+    public void legacyWindowSpreadsAroundCurrentPrice()
+    {
+        GasOracle.FeeWindow window = new GasOracle.FeeWindow();
+        window.addGasPrice(30, 1);
+        window.addGasPrice(50, 2);
+        GasPriceSpread spread = window.addGasPrice(40, 3);
+
+        assertEquals(40, spread.standard.longValue());
+        assertEquals(50, spread.fast.longValue());
+        assertEquals(30, spread.slow.longValue());
+    }
+
+    @Test
+    public void onlyMissingMethodDisablesFeeHistory()
+    {
+        assertTrue(GasOracle.isUnsupported(new Response.Error(-32601, "Method not found")));
+        assertTrue(GasOracle.isUnsupported(new Response.Error(-32000, "the method eth_feeHistory does not exist/is not available")));
+        assertFalse(GasOracle.isUnsupported(new Response.Error(-32005, "daily request count exceeded, request rate limited")));
+        assertFalse(GasOracle.isUnsupported(new Response.Error(-32603, "Internal error")));
+        assertFalse(GasOracle.isUnsupported(null));
+    }
+
+    /**
+     * History for blocks from..to; block n has base fee 100n and tips n, 2n, 3n, 4n
+     */
+    private static GasOracle.FeeHistory.Result history(long from, long to)
+    {
+        GasOracle.FeeHistory.Result result = new GasOracle.FeeHistory.Result();
+        result.oldestBlock = hex(from);
+        result.baseFeePerGas = new ArrayList<>();
+        result.reward = new ArrayList<>();
+        for (long block = from; block <= to; block++)
+        {
+            result.baseFeePerGas.add(hex(100 * block));
+            result.reward.add(Arrays.asList(hex(block), hex(2 * block), hex(3 * block), hex(4 * block)));
+        }
+        result.baseFeePerGas.add(hex(NEXT_BASE_FEE));
+        return result;
+    }
+
+    private static String hex(long value)
+    {
+        return "0x" + BigInteger.valueOf(value).toString(16);
+    }
+}
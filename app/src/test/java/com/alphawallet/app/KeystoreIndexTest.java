@@ -0,0 +1,168 @@
+package com.alphawallet.app;
+
+import com.alphawallet.app.service.KeystoreIndex;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class KeystoreIndexTest
+{
+    private static final String ADDRESS_A = "0x1111111111111111111111111111111111111111";
+    private static final String ADDRESS_B = "0x2222222222222222222222222222222222222222";
+    private static final String ADDRESS_C = "0x3333333333333333333333333333333333333333";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File keyFolder;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        keyFolder = folder.newFolder("keystore", "keystore");
+    }
+
+    @Test
+    public void scansFolderInCreationOrder() throws IOException
+    {
+        keyFile("2021-03-01T10-00-00.000Z", ADDRESS_B);
+        keyFile("2020-01-01T10-00-00.000Z", ADDRESS_A);
+        folder.newFile("keystore/keystore/not-a-key.txt");
+
+        List<KeystoreIndex.Entry> entries = KeystoreIndex.get(keyFolder).getEntries();
+
+        assertEquals(2, entries.size());
+        assertEquals(ADDRESS_A, entries.get(0).address);
+        assertEquals(ADDRESS_B, entries.get(1).address);
+        assertTrue(KeystoreIndex.get(keyFolder).contains(ADDRESS_A.toUpperCase().replace("0X", "")));
+        assertTrue(new File(keyFolder.getParentFile(), "keystore.index").exists());
+    }
+
+    @Test
+    public void loadsSavedIndexWithoutListingFolder() throws IOException
+    {
+        keyFile("2020-01-01T10-00-00.000Z", ADDRESS_A);
+        //index written by an earlier run; its folder time matches, so it's trusted over the folder contents
+        saveIndex(ADDRESS_C + ",UTC--indexed--" + ADDRESS_C.substring(2) + ",5");
+
+        List<KeystoreIndex.Entry> entries = KeystoreIndex.get(keyFolder).getEntries();
+        assertEquals(1, entries.size());
+        assertEquals(ADDRESS_C, entries.get(0).address);
+        assertEquals(5, entries.get(0).creationTime);
+
+        //a change by something else is noticed from the folder's modified time
+        assertTrue(keyFolder.setLastModified(keyFolder.lastModified() + 2000));
+        assertTrue(KeystoreIndex.get(keyFolder).contains(ADDRESS_A));
+        assertFalse(KeystoreIndex.get(keyFolder).contains(ADDRESS_C));
+    }
+
+    @Test
+    public void addAndRemove() throws IOException
+    {
+        KeystoreIndex index = KeystoreIndex.get(keyFolder);
+        keyFile("2020-01-01T10-00-00.000Z", ADDRESS_A);
+        assertEquals(1, index.getEntries().size());
+
+        File stray = keyFile("2020-06-01T10-00-00.000Z", ADDRESS_C); //not reported to the index
+        long folderModified = keyFolder.lastModified();
+        File added = keyFile("2021-01-01T10-00-00.000Z", ADDRESS_B);
+        index.add(added, folderModified);
+
+        //add records the file it was given rather than listing the folder
+        assertEquals(added, index.getFile(ADDRESS_B));
+        assertNull(index.getFile(ADDRESS_C));
+        assertTrue(stray.exists());
+
+        index.remove(ADDRESS_B);
+        assertFalse(added.exists());
+        assertFalse(index.contains(ADDRESS_B));
+        assertTrue(index.contains(ADDRESS_A));
+    }
+
+    @Test
+    public void firstAddRescansStaleSavedIndex() throws IOException
+    {
+        keyFile("2020-01-01T10-00-00.000Z", ADDRESS_A);
+        saveIndex(ADDRESS_A + ",UTC--2020-01-01T10-00-00.000Z--" + ADDRESS_A.substring(2) + ",5");
+        keyFile("2020-06-01T10-00-00.000Z", ADDRESS_C); //written by something else after the index was saved
+
+        long folderModified = keyFolder.lastModified();
+        File added = keyFile("2021-01-01T10-00-00.000Z", ADDRESS_B);
+        KeystoreIndex index = KeystoreIndex.get(keyFolder);
+        index.add(added, folderModified);
+
+        //the saved index predates the outside change, so add lists the folder rather than trusting it
+        assertEquals(3, index.getEntries().size());
+        assertTrue(index.contains(ADDRESS_C));
+        assertEquals(added, index.getFile(ADDRESS_B));
+    }
+
+    @Test
+    public void firstAddTrustsCurrentSavedIndex() throws IOException
+    {
+        keyFile("2020-01-01T10-00-00.000Z", ADDRESS_A);
+        saveIndex(ADDRESS_C + ",UTC--indexed--" + ADDRESS_C.substring(2) + ",5");
+
+        long folderModified = keyFolder.lastModified();
+        File added = keyFile("2021-01-01T10-00-00.000Z", ADDRESS_B);
+        KeystoreIndex index = KeystoreIndex.get(keyFolder);
+        index.add(added, folderModified);
+
+        assertEquals(2, index.getEntries().size());
+        assertTrue(index.contains(ADDRESS_C));
+        assertFalse(index.contains(ADDRESS_A));
+        assertEquals(added, index.getFile(ADDRESS_B));
+    }
+
+    @Test
+    public void duplicateFilesUseNewestAndAreAllRemoved() throws IOException
+    {
+        File oldest = keyFile("2019-01-01T10-00-00.000Z", ADDRESS_A);
+        File newest = keyFile("2021-01-01T10-00-00.000Z", ADDRESS_A);
+        File middle = keyFile("2020-01-01T10-00-00.000Z", ADDRESS_A);
+        KeystoreIndex index = KeystoreIndex.get(keyFolder);
+
+        assertEquals(1, index.getEntries().size());
+        assertEquals(newest, index.getFile(ADDRESS_A));
+
+        index.remove(ADDRESS_A);
+        assertFalse(oldest.exists());
+        assertFalse(middle.exists());
+        assertFalse(newest.exists());
+        assertTrue(index.getEntries().isEmpty());
+    }
+
+    /**
+     * Write an index as an earlier run would have, stamped with the folder's current modified time
+     */
+    private void saveIndex(String... lines) throws IOException
+    {
+        try (PrintWriter writer = new PrintWriter(new FileWriter(new File(keyFolder.getParentFile(), "keystore.index"))))
+        {
+            writer.println(keyFolder.lastModified());
+            for (String line : lines) writer.println(line);
+        }
+    }
+
+    private File keyFile(String time, String address) throws IOException
+    {
+        File file = new File(keyFolder, "UTC--" + time + "--" + address.substring(2));
+        assertTrue(file.createNewFile());
+        //make each change visible in the folder's modified time, which has whole second resolution on some filesystems
+        keyFolder.setLastModified(keyFolder.lastModified() + 1000);
+        return file;
+    }
+}
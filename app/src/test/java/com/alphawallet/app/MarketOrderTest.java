@@ -2,7 +2,9 @@ package com.alphawallet.app;
 
 import androidx.annotation.NonNull;
 
+import com.alphawallet.app.entity.ActivityCursor;
 import com.alphawallet.app.entity.ActivityMeta;
+import com.alphawallet.app.entity.ActivityPage;
 import com.alphawallet.app.entity.BaseViewCallback;
 import com.alphawallet.app.entity.ContractType;
 import com.alphawallet.app.entity.NetworkInfo;
@@ -16,12 +18,14 @@ import com.alphawallet.app.entity.Wallet;
 import com.alphawallet.app.repository.TransactionRepositoryType;
 import com.alphawallet.app.repository.entity.RealmAuxData;
 import com.alphawallet.app.service.MarketQueueService;
+import com.alphawallet.app.service.SigningSession;
 
 import org.junit.BeforeClass;
 import org.junit.Test;
 import org.web3j.crypto.ECKeyPair;
 import org.web3j.crypto.Sign;
 import org.web3j.protocol.core.methods.response.EthTransaction;
+import org.web3j.utils.Numeric;
 
 import java.math.BigInteger;
 import java.util.List;
@@ -207,6 +211,18 @@ public class MarketOrderTest
             {
 
             }
+
+            @Override
+            public Single<ActivityPage> fetchActivityPage(Wallet wallet, List<Integer> networkFilters, ActivityCursor cursor, int pageSize)
+            {
+                return null;
+            }
+
+            @Override
+            public Single<SigningSession> openSigningSession(Wallet wallet, long validity)
+            {
+                return Single.fromCallable(() -> new SigningSession(Numeric.toBytesPadded(testKey.getPrivateKey(), 32), validity));
+            }
         };
 
         marketService = new MarketQueueService(null, null, transactionRepository);
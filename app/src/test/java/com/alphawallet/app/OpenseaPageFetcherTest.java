@@ -0,0 +1,157 @@
+package com.alphawallet.app;
+
+import com.alphawallet.app.service.OpenseaPageFetcher;
+import com.alphawallet.app.util.TokenBucket;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.HttpUrl;
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the Opensea page fetcher against a local mock server that honours If-None-Match
+ */
+public class OpenseaPageFetcherTest
+{
+    private static final String OWNER = "0xbc8dafeaca658ae0857c80d8aa6de4d487577c63";
+
+    private MockWebServer server;
+    private OpenseaPageFetcher fetcher;
+    private String apiBase;
+    private volatile int assetCount;
+    private volatile int version;
+    private final AtomicInteger fullResponses = new AtomicInteger();
+    private final AtomicInteger notModifiedResponses = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException
+    {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher()
+        {
+            @Override
+            public MockResponse dispatch(RecordedRequest request)
+            {
+                HttpUrl url = request.getRequestUrl();
+                int offset = Integer.parseInt(url.queryParameter("offset"));
+                int count = Math.max(0, Math.min(OpenseaPageFetcher.PAGE_SIZE, assetCount - offset));
+                String eTag = "\"" + offset + "-" + count + "-" + version + "\"";
+                if (eTag.equals(request.getHeader("If-None-Match")))
+                {
+                    notModifiedResponses.incrementAndGet();
+                    return new MockResponse().setResponseCode(304);
+                }
+
+                fullResponses.incrementAndGet();
+                return new MockResponse().setHeader("ETag", eTag).setBody(page(offset, count));
+            }
+        });
+        server.start();
+        apiBase = server.url("").toString().replaceAll("/$", "");
+        fetcher = new OpenseaPageFetcher(new OkHttpClient(), new TokenBucket(10, 100));
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        server.shutdown();
+    }
+
+    @Test
+    public void readsAllPages()
+    {
+        assetCount = 90;
+        OpenseaPageFetcher.Result result = fetcher.fetchAssets(apiBase, OWNER);
+
+        assertTrue(result.complete);
+        assertTrue(result.changed);
+        assertEquals(3, result.pages.size());
+        //the first read of a collection fetches page 0 alone, then a wave of MAX_PARALLEL_PAGES from offset 40;
+        //that wave reaches one page past the end (offset 120, empty), which is fetched but not returned
+        assertEquals(4, fullResponses.get());
+    }
+
+    @Test
+    public void knownCollectionIsReadInOneWave()
+    {
+        assetCount = 90;
+        fetcher.fetchAssets(apiBase, OWNER);
+        fullResponses.set(0);
+
+        version++;
+        OpenseaPageFetcher.Result result = fetcher.fetchAssets(apiBase, OWNER);
+        assertTrue(result.changed);
+        assertEquals(3, result.pages.size());
+        assertEquals(3, fullResponses.get()); //page count from the last read, so nothing past the end
+    }
+
+    @Test
+    public void unchangedCollectionIsNotModified()
+    {
+        assetCount = 90;
+        fetcher.fetchAssets(apiBase, OWNER);
+        OpenseaPageFetcher.Result result = fetcher.fetchAssets(apiBase, OWNER);
+
+        assertTrue(result.complete);
+        assertFalse(result.changed);
+        assertEquals(3, result.pages.size());
+        assertEquals(3, notModifiedResponses.get());
+    }
+
+    @Test
+    public void detectsChanges()
+    {
+        assetCount = 90;
+        fetcher.fetchAssets(apiBase, OWNER);
+
+        version++;
+        assertTrue(fetcher.fetchAssets(apiBase, OWNER).changed);
+
+        assetCount = 130;
+        OpenseaPageFetcher.Result result = fetcher.fetchAssets(apiBase, OWNER);
+        assertTrue(result.changed);
+        assertEquals(4, result.pages.size());
+    }
+
+    @Test
+    public void failedPageGivesIncompleteResult()
+    {
+        assetCount = 90;
+        server.setDispatcher(new Dispatcher()
+        {
+            @Override
+            public MockResponse dispatch(RecordedRequest request)
+            {
+                return new MockResponse().setResponseCode(429);
+            }
+        });
+
+        OpenseaPageFetcher.Result result = fetcher.fetchAssets(apiBase, OWNER);
+        assertFalse(result.complete);
+    }
+
+    private String page(int offset, int count)
+    {
+        StringBuilder sb = new StringBuilder("{\"assets\":[");
+        for (int i = 0; i < count; i++)
+        {
+            if (i > 0) sb.append(",");
+            sb.append("{\"token_id\":\"").append(offset + i).append("\",\"name\":\"v").append(version).append("\"}");
+        }
+        sb.append("]}");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,231 @@
+package com.alphawallet.app;
+
+import com.alphawallet.app.service.OutboundRequestScheduler;
+import com.alphawallet.app.service.OutboundRequestScheduler.Priority;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ * Runs the outbound scheduler against a local mock server which answers slowly, so concurrent calls overlap
+ */
+public class OutboundRequestSchedulerTest
+{
+    private static final long RESPONSE_DELAY = 300; //In milliseconds
+    private static final long JOIN_DELAY = 100; //second caller starts while the first is in flight
+
+    private MockWebServer server;
+    private OutboundRequestScheduler scheduler;
+    private ExecutorService callers;
+    private final AtomicInteger concurrent = new AtomicInteger();
+    private final AtomicInteger maxConcurrent = new AtomicInteger();
+    private volatile int status503Count;
+    private volatile String body = "ok";
+
+    @Before
+    public void setUp() throws IOException
+    {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher()
+        {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException
+            {
+                int now = concurrent.incrementAndGet();
+                maxConcurrent.accumulateAndGet(now, Math::max);
+                Thread.sleep(RESPONSE_DELAY);
+                concurrent.decrementAndGet();
+                if (status503Count > 0)
+                {
+                    status503Count--;
+                    return new MockResponse().setResponseCode(503);
+                }
+                return new MockResponse().setBody(body);
+            }
+        });
+        server.start();
+        scheduler = new OutboundRequestScheduler();
+        callers = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        callers.shutdownNow();
+        server.shutdown();
+    }
+
+    @Test
+    public void identicalGetsShareOneCall() throws Exception
+    {
+        OkHttpClient client = client(scheduler);
+        Future<String> first = callers.submit(() -> fetch(client, get("/a", Priority.FOCUS)));
+        Thread.sleep(JOIN_DELAY);
+        Future<String> second = callers.submit(() -> fetch(client, get("/a", Priority.FOCUS)));
+
+        assertEquals("ok", first.get(5, TimeUnit.SECONDS));
+        assertEquals("ok", second.get(5, TimeUnit.SECONDS));
+        assertEquals(1, server.getRequestCount());
+        assertEquals(1, scheduler.getHostMetrics().get(0).sharedCalls);
+    }
+
+    @Test
+    public void getsOfDifferentPriorityDontShare() throws Exception
+    {
+        OkHttpClient client = client(scheduler);
+        Future<String> background = callers.submit(() -> fetch(client, get("/a", Priority.BACKGROUND)));
+        Thread.sleep(JOIN_DELAY);
+        Future<String> user = callers.submit(() -> fetch(client, get("/a", Priority.USER)));
+
+        assertEquals("ok", background.get(5, TimeUnit.SECONDS));
+        assertEquals("ok", user.get(5, TimeUnit.SECONDS));
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void oversizedBodyIsFetchedByEachCaller() throws Exception
+    {
+        StringBuilder large = new StringBuilder();
+        while (large.length() <= 4 * 1024 * 1024) large.append("0123456789abcdef");
+        body = large.toString();
+
+        OkHttpClient client = client(scheduler);
+        Future<String> first = callers.submit(() -> fetch(client, get("/a", Priority.FOCUS)));
+        Thread.sleep(JOIN_DELAY);
+        Future<String> second = callers.submit(() -> fetch(client, get("/a", Priority.FOCUS)));
+
+        assertEquals(body.length(), first.get(10, TimeUnit.SECONDS).length());
+        assertEquals(body.length(), second.get(10, TimeUnit.SECONDS).length());
+        assertEquals(2, server.getRequestCount());
+    }
+
+    @Test
+    public void waitersAreReleasedWhenLeaderThrows() throws Exception
+    {
+        //an interceptor after the scheduler fails the first call with an unchecked exception
+        AtomicInteger calls = new AtomicInteger();
+        OkHttpClient client = new OkHttpClient.Builder()
+                .addInterceptor(scheduler)
+                .addInterceptor(chain -> {
+                    if (calls.getAndIncrement() == 0)
+                    {
+                        sleep(RESPONSE_DELAY);
+                        throw new IllegalStateException("leader failed");
+                    }
+                    return chain.proceed(chain.request());
+                })
+                .build();
+
+        Future<String> first = callers.submit(() -> fetch(client, get("/a", Priority.FOCUS)));
+        Thread.sleep(JOIN_DELAY);
+        Future<String> second = callers.submit(() -> fetch(client, get("/a", Priority.FOCUS)));
+
+        assertFails(first, IllegalStateException.class);
+        assertFails(second, IOException.class); //rather than waiting forever
+    }
+
+    @Test
+    public void retriesGatewayErrors() throws Exception
+    {
+        status503Count = 1;
+        assertEquals("ok", fetch(client(scheduler), get("/a", Priority.FOCUS)));
+        assertEquals(2, server.getRequestCount());
+        assertEquals(1, scheduler.getHostMetrics().get(0).retries);
+    }
+
+    @Test
+    public void capsGetsInFlightButNotPosts() throws Exception
+    {
+        OkHttpClient client = client(scheduler);
+        List<Callable<String>> gets = new ArrayList<>();
+        for (int i = 0; i < 6; i++)
+        {
+            Request request = get("/get" + i, Priority.FOCUS);
+            gets.add(() -> fetch(client, request));
+        }
+        for (Future<String> f : callers.invokeAll(gets)) assertEquals("ok", f.get());
+        assertEquals(4, maxConcurrent.get());
+
+        maxConcurrent.set(0);
+        List<Callable<String>> posts = new ArrayList<>();
+        for (int i = 0; i < 6; i++)
+        {
+            Request request = new Request.Builder().url(server.url("/rpc"))
+                    .post(RequestBody.create("{}", MediaType.get("application/json"))).build();
+            posts.add(() -> fetch(client, request));
+        }
+        //the lane's token bucket was drained by the GETs; once it refills all POSTs are let through together
+        Thread.sleep(1000);
+        for (Future<String> f : callers.invokeAll(posts)) assertEquals("ok", f.get());
+        assertTrue("POSTs in flight: " + maxConcurrent.get(), maxConcurrent.get() > 4);
+    }
+
+    private OkHttpClient client(OutboundRequestScheduler scheduler)
+    {
+        return new OkHttpClient.Builder().addInterceptor(scheduler).build();
+    }
+
+    private Request get(String path, Priority priority)
+    {
+        return new Request.Builder().url(server.url(path)).tag(Priority.class, priority).build();
+    }
+
+    private static String fetch(OkHttpClient client, Request request) throws IOException
+    {
+        try (Response response = client.newCall(request).execute())
+        {
+            return response.body().string();
+        }
+    }
+
+    private static void assertFails(Future<String> call, Class<? extends Throwable> expected) throws Exception
+    {
+        try
+        {
+            call.get(5, TimeUnit.SECONDS);
+            fail("Expected " + expected.getSimpleName());
+        }
+        catch (ExecutionException e)
+        {
+            assertTrue(e.getCause().toString(), expected.isInstance(e.getCause()));
+        }
+    }
+
+    private static void sleep(long millis)
+    {
+        try
+        {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
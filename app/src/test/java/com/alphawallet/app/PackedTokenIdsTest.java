@@ -0,0 +1,77 @@
+package com.alphawallet.app;
+
+import com.alphawallet.app.entity.tokens.PackedTokenIds;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class PackedTokenIdsTest
+{
+    private static final BigInteger LARGE_ID = new BigInteger("8000000000000000000000000000000000000000000000000000000000000001", 16);
+
+    @Test
+    public void roundTripsSmallIds()
+    {
+        List<BigInteger> ids = Arrays.asList(BigInteger.valueOf(5), BigInteger.ZERO, BigInteger.valueOf(0x1234), BigInteger.valueOf(5));
+        PackedTokenIds packed = PackedTokenIds.of(ids);
+
+        assertEquals(ids, PackedTokenIds.fromBytes(packed.toBytes()).toList());
+        assertEquals(3, packed.nonZeroCount());
+        assertEquals(2, packed.indexOf(BigInteger.valueOf(0x1234)));
+    }
+
+    @Test
+    public void roundTripsLargeIds()
+    {
+        List<BigInteger> ids = Arrays.asList(BigInteger.ONE, LARGE_ID);
+        PackedTokenIds packed = PackedTokenIds.of(ids);
+
+        assertEquals(ids, PackedTokenIds.fromBytes(packed.toBytes()).toList());
+        assertTrue(packed.contains(LARGE_ID));
+        assertEquals(PackedTokenIds.of(Arrays.asList(BigInteger.ONE)).append(LARGE_ID), packed);
+    }
+
+    @Test
+    public void parsesLegacyHexList()
+    {
+        List<BigInteger> ids = Arrays.asList(BigInteger.valueOf(0xff), BigInteger.ZERO, LARGE_ID);
+        String legacy = "ff,0," + LARGE_ID.toString(16); //as written by Utils.bigIntListToString
+
+        PackedTokenIds packed = PackedTokenIds.fromHexList(legacy);
+        assertEquals(ids, packed.toList());
+        assertEquals(legacy, packed.toHexList());
+        assertEquals(0, PackedTokenIds.fromHexList("not,hex").size());
+    }
+
+    @Test
+    public void equalListsHashTheSame()
+    {
+        //same small IDs, once packed as longs and once as words
+        PackedTokenIds longs = PackedTokenIds.of(Arrays.asList(BigInteger.ONE, BigInteger.valueOf(0x1234)));
+        byte[] withLarge = PackedTokenIds.of(Arrays.asList(LARGE_ID, BigInteger.ONE, BigInteger.valueOf(0x1234))).toBytes();
+        byte[] wordBlob = new byte[1 + 2 * 32];
+        wordBlob[0] = withLarge[0];
+        System.arraycopy(withLarge, 1 + 32, wordBlob, 1, 2 * 32); //drop the large ID, keep the word format
+        PackedTokenIds words = PackedTokenIds.fromBytes(wordBlob);
+
+        assertEquals(longs, words);
+        assertEquals(longs.hashCode(), words.hashCode());
+    }
+
+    @Test
+    public void differenceSkipsZeroAndDuplicates()
+    {
+        PackedTokenIds held = PackedTokenIds.of(Arrays.asList(BigInteger.ONE, BigInteger.ZERO, BigInteger.valueOf(2), BigInteger.ONE, LARGE_ID));
+        PackedTokenIds spent = PackedTokenIds.of(Arrays.asList(BigInteger.valueOf(2)));
+
+        assertEquals(Arrays.asList(BigInteger.ONE, LARGE_ID), held.difference(spent).toList());
+        assertFalse(held.difference(held).iterator().hasNext());
+    }
+}
@@ -0,0 +1,154 @@
+package com.alphawallet.app;
+
+import com.alphawallet.app.entity.WalletSnapshot;
+import com.alphawallet.app.repository.EthereumNetworkRepositoryType;
+import com.alphawallet.app.service.AWHttpService;
+import com.alphawallet.app.service.PortfolioService;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Runs the portfolio refresh against a stand-in node per chain which answers eth_getBalance batches
+ */
+public class PortfolioServiceTest
+{
+    private static final int CHAIN_A = 1;
+    private static final int CHAIN_B = 100;
+    private static final int WALLET_COUNT = 60; //more than one batch
+
+    private MockWebServer server;
+    private PortfolioService service;
+    private final List<String> wallets = new ArrayList<>();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private volatile int round = 1;
+    private volatile boolean chainBDown;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        server = new MockWebServer();
+        server.setDispatcher(new Dispatcher()
+        {
+            @Override
+            public MockResponse dispatch(RecordedRequest request)
+            {
+                int chainId = Integer.parseInt(request.getPath().substring(1));
+                if (chainId == CHAIN_B && chainBDown) return new MockResponse().setResponseCode(502);
+
+                JsonArray calls = JsonParser.parseString(request.getBody().readUtf8()).getAsJsonArray();
+                batchSizes.add(calls.size());
+                JsonArray results = new JsonArray();
+                for (JsonElement element : calls)
+                {
+                    JsonObject call = element.getAsJsonObject();
+                    String address = call.getAsJsonArray("params").get(0).getAsString();
+                    JsonObject result = new JsonObject();
+                    result.addProperty("jsonrpc", "2.0");
+                    result.add("id", call.get("id"));
+                    result.addProperty("result", "0x" + Long.toHexString(balance(chainId, address, round)));
+                    results.add(result);
+                }
+
+                //answer in reverse, as a node may; results are matched by id
+                JsonArray reversed = new JsonArray();
+                for (int i = results.size() - 1; i >= 0; i--) reversed.add(results.get(i));
+                return new MockResponse().setBody(reversed.toString());
+            }
+        });
+        server.start();
+
+        EthereumNetworkRepositoryType networks = mock(EthereumNetworkRepositoryType.class);
+        when(networks.getFilterNetworkList()).thenReturn(Arrays.asList(CHAIN_A, CHAIN_B));
+        service = new PortfolioService(networks)
+        {
+            @Override
+            protected AWHttpService getNodeService(int chainId)
+            {
+                return new AWHttpService(server.url("/" + chainId).toString(), null, new OkHttpClient(), false);
+            }
+        };
+
+        for (int i = 0; i < WALLET_COUNT; i++) wallets.add(String.format("0x%040x", i + 1));
+        service.setWallets(wallets);
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        server.shutdown();
+    }
+
+    @Test
+    public void batchesBalancesPerChain()
+    {
+        Map<String, WalletSnapshot> snapshots = nextRefresh(0);
+
+        assertEquals(WALLET_COUNT, snapshots.size());
+        for (String wallet : wallets)
+        {
+            assertEquals(BigDecimal.valueOf(balance(CHAIN_A, wallet, 1)), snapshots.get(wallet).getBalance(CHAIN_A));
+            assertEquals(BigDecimal.valueOf(balance(CHAIN_B, wallet, 1)), snapshots.get(wallet).getBalance(CHAIN_B));
+        }
+
+        //each chain: a full batch and the remainder
+        List<Integer> sizes = new ArrayList<>(batchSizes);
+        sizes.sort(null);
+        assertEquals(Arrays.asList(10, 10, 50, 50), sizes);
+    }
+
+    @Test
+    public void failedChainKeepsPreviousBalances()
+    {
+        nextRefresh(0);
+        round = 2;
+        chainBDown = true;
+        Map<String, WalletSnapshot> snapshots = nextRefresh(WALLET_COUNT); //skip the cached snapshots
+
+        for (String wallet : wallets)
+        {
+            assertEquals(BigDecimal.valueOf(balance(CHAIN_A, wallet, 2)), snapshots.get(wallet).getBalance(CHAIN_A));
+            assertEquals(BigDecimal.valueOf(balance(CHAIN_B, wallet, 1)), snapshots.get(wallet).getBalance(CHAIN_B));
+        }
+        assertEquals(snapshots.get(wallets.get(0)), service.getSnapshot(wallets.get(0)));
+    }
+
+    private Map<String, WalletSnapshot> nextRefresh(int cached)
+    {
+        Map<String, WalletSnapshot> snapshots = new HashMap<>();
+        for (WalletSnapshot snapshot : service.snapshots().skip(cached).take(WALLET_COUNT).blockingIterable())
+        {
+            snapshots.put(snapshot.address, snapshot);
+        }
+        return snapshots;
+    }
+
+    private static long balance(int chainId, String address, int round)
+    {
+        return Long.parseLong(address.substring(2), 16) * 1000 + chainId * 10 + round;
+    }
+}
@@ -0,0 +1,125 @@
+package com.alphawallet.app;
+
+import com.alphawallet.app.service.AWHttpService;
+import com.alphawallet.app.service.RpcReplayInterceptor;
+import com.alphawallet.app.service.RpcReplayLog;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.response.EthCall;
+
+import java.io.File;
+import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import okhttp3.OkHttpClient;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.web3j.protocol.core.methods.request.Transaction.createEthCallTransaction;
+
+/**
+ * Records node calls from a stand-in node, then replays them with the node gone
+ */
+public class RpcReplayTest
+{
+    private static final String CONTRACT = "0x0000000000000000000000000000000000000001";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @After
+    public void tearDown()
+    {
+        AWHttpService.setTransportInterceptor(null);
+    }
+
+    @Test
+    public void replaysRecordedCallsOffline() throws Exception
+    {
+        MockWebServer node = new MockWebServer();
+        AtomicInteger block = new AtomicInteger(100);
+        node.setDispatcher(new Dispatcher()
+        {
+            @Override
+            public MockResponse dispatch(RecordedRequest request)
+            {
+                JsonObject call = JsonParser.parseString(request.getBody().readUtf8()).getAsJsonObject();
+                String result = call.get("method").getAsString().equals("eth_blockNumber") ? "0x" + Integer.toHexString(block.getAndIncrement()) : "0x2a";
+                return new MockResponse().setBody("{\"jsonrpc\":\"2.0\",\"id\":" + call.get("id") + ",\"result\":\"" + result + "\"}");
+            }
+        });
+        node.start();
+        String url = node.url("/").toString();
+
+        File logFile = folder.newFile("rpc.log.gz");
+        RpcReplayLog recording = RpcReplayLog.record(logFile);
+        AWHttpService.setTransportInterceptor(RpcReplayInterceptor.recorder(recording));
+        Web3j web3j = buildWeb3j(url);
+        assertEquals(BigInteger.valueOf(100), web3j.ethBlockNumber().send().getBlockNumber());
+        assertEquals(BigInteger.valueOf(101), web3j.ethBlockNumber().send().getBlockNumber());
+        assertEquals("0x2a", ethCall(web3j).getValue());
+        recording.close();
+        node.shutdown();
+
+        AWHttpService.setTransportInterceptor(RpcReplayInterceptor.replay(RpcReplayLog.load(logFile), 0, 0, 1, false));
+        web3j = buildWeb3j(url);
+        assertEquals(BigInteger.valueOf(100), web3j.ethBlockNumber().send().getBlockNumber());
+        assertEquals(BigInteger.valueOf(101), web3j.ethBlockNumber().send().getBlockNumber());
+        assertEquals(BigInteger.valueOf(101), web3j.ethBlockNumber().send().getBlockNumber()); //sequence ends on last response
+        assertEquals("0x2a", ethCall(web3j).getValue());
+        assertEquals(RpcReplayInterceptor.NOT_RECORDED_ERROR, web3j.ethGasPrice().send().getError().getCode());
+    }
+
+    @Test
+    public void servesLogAsLocalNode() throws Exception
+    {
+        RpcReplayLog log = RpcReplayLog.inMemory();
+        log.record("node", "{\"jsonrpc\":\"2.0\",\"method\":\"eth_blockNumber\",\"params\":[],\"id\":1}", "{\"jsonrpc\":\"2.0\",\"id\":1,\"result\":\"0x10\"}");
+        RpcReplayInterceptor replay = RpcReplayInterceptor.replay(log, 50, 20, 1, false);
+
+        MockWebServer standIn = new MockWebServer();
+        standIn.setDispatcher(new Dispatcher()
+        {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException
+            {
+                try
+                {
+                    return new MockResponse().setBody(replay.answer("node", request.getBody().readUtf8()));
+                }
+                catch (Exception e)
+                {
+                    throw new InterruptedException(e.getMessage());
+                }
+            }
+        });
+        standIn.start();
+
+        Web3j web3j = buildWeb3j(standIn.url("/").toString());
+        long start = System.currentTimeMillis();
+        assertEquals(BigInteger.valueOf(16), web3j.ethBlockNumber().send().getBlockNumber());
+        assertTrue(System.currentTimeMillis() - start >= 50);
+        standIn.shutdown();
+    }
+
+    private static Web3j buildWeb3j(String url)
+    {
+        return Web3j.build(new AWHttpService(url, null, new OkHttpClient(), false));
+    }
+
+    private static EthCall ethCall(Web3j web3j) throws Exception
+    {
+        return web3j.ethCall(createEthCallTransaction(null, CONTRACT, "0x06fdde03"), DefaultBlockParameterName.LATEST).send();
+    }
+}
@@ -0,0 +1,137 @@
+package com.alphawallet.app;
+
+import com.alphawallet.app.service.SigningSession;
+
+import org.junit.Test;
+import org.web3j.utils.Numeric;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SigningSessionTest
+{
+    private static final String KEY = "4c0883a69102937d6231471b5dbb6204fe5129617082792ae468d01a3f362318";
+
+    @Test
+    public void closeWipesTheKey()
+    {
+        byte[] key = privateKey();
+        SigningSession session = new SigningSession(key, SigningSession.MAX_VALIDITY);
+        assertTrue(session.isOpen());
+        session.sign(message(0));
+
+        session.close();
+
+        assertFalse(session.isOpen());
+        assertArrayEquals(new byte[32], key);
+        assertSigningFails(session);
+    }
+
+    @Test
+    public void expiryWipesTheKey() throws InterruptedException
+    {
+        byte[] key = privateKey();
+        SigningSession session = new SigningSession(key, 50);
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Arrays.equals(new byte[32], key) && System.currentTimeMillis() < deadline) Thread.sleep(10);
+
+        assertArrayEquals(new byte[32], key); //wiped by the expiry timer, without a call to close
+        assertFalse(session.isOpen());
+        assertSigningFails(session);
+    }
+
+    @Test
+    public void signingAfterExpiryFails() throws InterruptedException
+    {
+        SigningSession session = new SigningSession(privateKey(), 50);
+        Thread.sleep(100);
+
+        assertFalse(session.isOpen());
+        assertSigningFails(session);
+    }
+
+    @Test
+    public void validityIsCapped()
+    {
+        SigningSession session = new SigningSession(privateKey(), Long.MAX_VALUE); //uncapped, the expiry would overflow
+        assertTrue(session.isOpen());
+        session.close();
+    }
+
+    @Test
+    public void signAllKeepsMessageOrder() throws Exception
+    {
+        List<byte[]> messages = new ArrayList<>();
+        for (int i = 0; i < 40; i++) messages.add(message(i));
+        List<Integer> progress = new ArrayList<>();
+
+        try (SigningSession session = new SigningSession(privateKey(), SigningSession.MAX_VALIDITY))
+        {
+            List<byte[]> signatures = session.signAll(messages, (count, total) -> {
+                synchronized (progress)
+                {
+                    progress.add(count);
+                }
+                assertEquals(messages.size(), total);
+            });
+
+            assertEquals(messages.size(), signatures.size());
+            for (int i = 0; i < messages.size(); i++)
+            {
+                assertArrayEquals(session.sign(messages.get(i)), signatures.get(i)); //signatures are deterministic
+            }
+        }
+
+        assertEquals(messages.size(), progress.size());
+        assertTrue(progress.contains(messages.size()));
+    }
+
+    @Test
+    public void signAllFailsOnceClosed()
+    {
+        SigningSession session = new SigningSession(privateKey(), SigningSession.MAX_VALIDITY);
+        session.close();
+
+        try
+        {
+            session.signAll(Arrays.asList(message(0), message(1)), null);
+            fail("Expected signing to fail");
+        }
+        catch (Exception e)
+        {
+            assertTrue(e instanceof IllegalStateException);
+        }
+    }
+
+    private static void assertSigningFails(SigningSession session)
+    {
+        try
+        {
+            session.sign(message(0));
+            fail("Expected signing to fail");
+        }
+        catch (IllegalStateException e)
+        {
+            //expected
+        }
+    }
+
+    private static byte[] privateKey()
+    {
+        return Numeric.hexStringToByteArray(KEY); //a fresh array each time, as the session wipes it
+    }
+
+    private static byte[] message(int index)
+    {
+        return ("order " + index).getBytes(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,76 @@
+package com.alphawallet.app;
+
+import com.alphawallet.app.entity.tokens.TokenTicker;
+import com.alphawallet.app.service.TickerStore;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+public class TickerStoreTest
+{
+    private static final String TOKEN = "0xA0b86991c6218b36c1d19D4a2e9Eb0cE3606eB48";
+    private static final long START = 1_600_000_000_000L;
+    private static final long MINUTE = 60 * 1000;
+
+    private final TickerStore store = new TickerStore();
+    private final List<TickerStore.Change> changes = new ArrayList<>();
+
+    public TickerStoreTest()
+    {
+        store.changes().subscribe(changes::add);
+    }
+
+    @Test
+    public void firstTickerIsWrittenAndReported()
+    {
+        assertNotNull(store.put(1, TOKEN, 100.0, 1.5, "USD", "", START));
+        assertEquals(1, changes.size());
+        assertEquals(TOKEN.toLowerCase(), changes.get(0).address);
+        assertEquals("100.0", store.get(1, TOKEN).price);
+    }
+
+    @Test
+    public void smallMovesAreIgnored()
+    {
+        store.put(1, TOKEN, 100.0, 1.5, "USD", "", START);
+        assertNull(store.put(1, TOKEN, 100.04, 1.505, "USD", "", START + MINUTE)); //0.04% and 0.005 points
+        assertEquals(1, changes.size());
+        assertEquals("100.0", store.get(1, TOKEN).price); //old value kept
+    }
+
+    @Test
+    public void movesPastEitherThresholdAreReported()
+    {
+        store.put(1, TOKEN, 100.0, 1.5, "USD", "", START);
+        assertNotNull(store.put(1, TOKEN, 100.06, 1.5, "USD", "", START + MINUTE)); //price 0.06%
+        assertNotNull(store.put(1, TOKEN, 100.06, 1.52, "USD", "", START + 2 * MINUTE)); //change 0.02 points
+        assertNotNull(store.put(1, TOKEN, 100.06, 1.52, "EUR", "", START + 3 * MINUTE)); //currency switched
+        assertEquals(4, changes.size());
+    }
+
+    @Test
+    public void unchangedTickerIsRewrittenAfterHalfTheTimeout()
+    {
+        store.put(1, TOKEN, 100.0, 1.5, "USD", "", START);
+        assertNull(store.put(1, TOKEN, 100.0, 1.5, "USD", "", START + 29 * MINUTE));
+
+        TokenTicker rewrite = store.put(1, TOKEN, 100.0, 1.5, "USD", "", START + 30 * MINUTE);
+        assertNotNull(rewrite); //so it doesn't age out of the Realm ticker table
+        assertEquals(START + 30 * MINUTE, rewrite.updateTime);
+        assertEquals(1, changes.size()); //but isn't a change
+    }
+
+    @Test
+    public void unusableTickerIsSkipped()
+    {
+        assertNull(store.put(1, TOKEN, new TokenTicker("n/a", "", "USD", "", START)));
+        assertNotNull(store.put(1, TOKEN, new TokenTicker("2.5", "", "USD", "", START)));
+        assertEquals("0.000", store.get(1, TOKEN).percentChange24h);
+    }
+}
@@ -0,0 +1,73 @@
+package com.alphawallet.app;
+
+import com.alphawallet.app.entity.tokens.PackedTokenIds;
+import com.alphawallet.app.entity.tokens.TicketGroupIndex;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class TicketGroupIndexTest
+{
+    private static final BigInteger A = BigInteger.valueOf(0xa1);
+    private static final BigInteger B = BigInteger.valueOf(0xb2);
+    private static final BigInteger C = new BigInteger("8000000000000000000000000000000000000000000000000000000000000003", 16);
+
+    //balance positions 0 to 7; position 3 is a spent ticket
+    private final TicketGroupIndex index = TicketGroupIndex.build(ids(A, A, B, BigInteger.ZERO, A, B, C, A));
+
+    @Test
+    public void groupsDistinctNonZeroIdsInBalanceOrder()
+    {
+        assertEquals(Arrays.asList(A, B, C), index.getTokenIds());
+        assertTrue(TicketGroupIndex.build(ids(BigInteger.ZERO, BigInteger.ZERO)).getTokenIds().isEmpty());
+        assertTrue(TicketGroupIndex.build(null).getTokenIds().isEmpty());
+    }
+
+    @Test
+    public void indexOfGivesFirstPosition()
+    {
+        assertEquals(0, index.indexOf(A));
+        assertEquals(2, index.indexOf(B));
+        assertEquals(6, index.indexOf(C));
+        assertEquals(-1, index.indexOf(BigInteger.ZERO));
+        assertEquals(-1, index.indexOf(BigInteger.TEN));
+    }
+
+    @Test
+    public void selectTakesUpToTheTicketsHeld()
+    {
+        assertEquals(Arrays.asList(A, A), index.select(A, 2));
+        assertEquals(Arrays.asList(A, A, A, A), index.select(A, 10)); //only four A tickets
+        assertEquals(Collections.singletonList(C), index.select(C, 1));
+        assertTrue(index.select(B, 0).isEmpty());
+        assertTrue(index.select(BigInteger.TEN, 1).isEmpty());
+    }
+
+    @Test
+    public void indicesForTakesNextUnusedTicketOfEachId()
+    {
+        //A is held in runs [0,1], [4], [7]; repeats walk across the runs
+        assertArrayEquals(new int[] { 0, 2, 1, 4, 5, 7, 6 }, index.indicesFor(Arrays.asList(A, B, A, A, B, A, C)));
+        assertArrayEquals(new int[] { 2 }, index.indicesFor(Arrays.asList(BigInteger.ZERO, B))); //zero is skipped
+    }
+
+    @Test
+    public void indicesForFailsWhenNotHeld()
+    {
+        assertNull(index.indicesFor(Arrays.asList(A, BigInteger.TEN)));
+        assertNull(index.indicesFor(Arrays.asList(C, C))); //only one C ticket
+    }
+
+    private static PackedTokenIds ids(BigInteger... ids)
+    {
+        return PackedTokenIds.of(Arrays.asList(ids));
+    }
+}
@@ -0,0 +1,54 @@
+package com.alphawallet.app;
+
+import com.alphawallet.app.entity.tokens.TokenValueAccumulator;
+
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+public class TokenValueAccumulatorTest
+{
+    private static final double DELTA = 0.000001;
+
+    @Test
+    public void tracksBalanceAndPriceChanges()
+    {
+        TokenValueAccumulator values = new TokenValueAccumulator();
+        values.setBalance(1, "eth", 2.0);
+        assertEquals(0.0, values.getTotal("USD"), DELTA); //no price yet
+
+        values.setPrice(1, "eth", 1500.0, "USD");
+        values.setPrice(1, "0xA0b86991c6218b36c1d19D4a2e9Eb0cE3606eB48", 1.0, "USD");
+        values.setBalance(1, "0xa0b86991c6218b36c1d19d4a2e9eb0ce3606eb48", 250.5);
+        values.setBalance(137, "eth", 10.0);
+        values.setPrice(137, "eth", 0.75, "USD");
+        assertEquals(3258.0, values.getTotal("USD"), DELTA);
+
+        values.setBalance(1, "eth", 1.0);
+        values.setPrice(137, "eth", 1.0, "USD");
+        assertEquals(1760.5, values.getTotal("USD"), DELTA);
+
+        Map<Integer, Double> chains = values.getChainTotals("USD");
+        assertEquals(1750.5, chains.get(1), DELTA);
+        assertEquals(10.0, chains.get(137), DELTA);
+
+        values.remove(137, "eth");
+        assertEquals(1750.5, values.getTotal("USD"), DELTA);
+        assertFalse(values.getChainTotals("USD").containsKey(137));
+    }
+
+    @Test
+    public void movesValueToNewCurrency()
+    {
+        TokenValueAccumulator values = new TokenValueAccumulator();
+        values.setBalance(1, "eth", 2.0);
+        values.setPrice(1, "eth", 1500.0, "USD");
+        values.setPrice(1, "eth", 1400.0, "EUR");
+
+        assertEquals(0.0, values.getTotal("USD"), DELTA);
+        assertEquals(2800.0, values.getTotal("EUR"), DELTA);
+    }
+}
@@ -0,0 +1,223 @@
+package com.alphawallet.app;
+
+import com.alphawallet.app.service.WebSocketNodeClient;
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import com.google.gson.JsonPrimitive;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import io.reactivex.disposables.Disposable;
+import okhttp3.OkHttpClient;
+import okhttp3.Response;
+import okhttp3.WebSocket;
+import okhttp3.WebSocketListener;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the WebSocket node client against a local stand-in node which answers eth_subscribe and eth_getBlockByHash
+ */
+public class WebSocketNodeClientTest
+{
+    private static final long TIMEOUT = 5; //seconds
+
+    private MockWebServer server;
+    private StandInNode node;
+    private WebSocketNodeClient client;
+
+    @Before
+    public void setUp() throws IOException
+    {
+        server = new MockWebServer();
+        node = new StandInNode();
+        server.enqueue(new MockResponse().withWebSocketUpgrade(node));
+        server.enqueue(new MockResponse().withWebSocketUpgrade(node)); //for the reconnect
+        server.start();
+        client = new WebSocketNodeClient(new OkHttpClient(), server.url("/").toString());
+    }
+
+    @After
+    public void tearDown() throws IOException
+    {
+        server.shutdown();
+    }
+
+    @Test
+    public void receivesSubscriptionNotifications() throws Exception
+    {
+        BlockingQueue<JsonElement> heads = new LinkedBlockingQueue<>();
+        Disposable d = client.subscribe("newHeads", null).subscribe(heads::add);
+
+        String subId = node.subscriptions.poll(TIMEOUT, TimeUnit.SECONDS);
+        assertNotNull(subId);
+        assertTrue(client.isConnected());
+
+        node.push(subId, header("0x10"));
+        node.push(subId, header("0x11"));
+
+        assertEquals("0x10", heads.poll(TIMEOUT, TimeUnit.SECONDS).getAsJsonObject().get("number").getAsString());
+        assertEquals("0x11", heads.poll(TIMEOUT, TimeUnit.SECONDS).getAsJsonObject().get("number").getAsString());
+        d.dispose();
+    }
+
+    @Test
+    public void answersRequests() throws Exception
+    {
+        Disposable d = client.subscribe("newHeads", null).subscribe();
+        assertNotNull(node.subscriptions.poll(TIMEOUT, TimeUnit.SECONDS));
+
+        JsonArray params = new JsonArray();
+        params.add("0xabc");
+        params.add(false);
+        JsonElement block = client.request("eth_getBlockByHash", params).blockingGet();
+
+        assertEquals(2, block.getAsJsonObject().getAsJsonArray("transactions").size());
+        d.dispose();
+    }
+
+    @Test
+    public void resubscribesAfterConnectionDrops() throws Exception
+    {
+        BlockingQueue<JsonElement> heads = new LinkedBlockingQueue<>();
+        BlockingQueue<Boolean> states = new LinkedBlockingQueue<>();
+        Disposable state = client.connectionState().subscribe(states::add);
+        Disposable d = client.subscribe("newHeads", null).subscribe(heads::add);
+
+        assertFalse(states.poll(TIMEOUT, TimeUnit.SECONDS));
+        assertNotNull(node.subscriptions.poll(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(states.poll(TIMEOUT, TimeUnit.SECONDS));
+
+        node.socket.close(1001, "going away"); //node drops the connection
+        assertFalse(states.poll(TIMEOUT, TimeUnit.SECONDS));
+        client.request("eth_blockNumber", new JsonArray()).test().assertError(IOException.class); //no socket, caller uses HTTP
+
+        //client reconnects and subscribes again
+        String subId = node.subscriptions.poll(TIMEOUT, TimeUnit.SECONDS);
+        assertNotNull(subId);
+        assertTrue(states.poll(TIMEOUT, TimeUnit.SECONDS));
+
+        node.push(subId, header("0x20"));
+        assertEquals("0x20", heads.poll(TIMEOUT, TimeUnit.SECONDS).getAsJsonObject().get("number").getAsString());
+        d.dispose();
+        state.dispose();
+    }
+
+    @Test
+    public void rejectedSubscribeIsTreatedAsDroppedConnection() throws Exception
+    {
+        BlockingQueue<JsonElement> heads = new LinkedBlockingQueue<>();
+        BlockingQueue<Boolean> states = new LinkedBlockingQueue<>();
+        node.rejectSubscribes.set(1);
+        Disposable state = client.connectionState().subscribe(states::add);
+        Disposable d = client.subscribe("newHeads", null).subscribe(heads::add);
+
+        assertFalse(states.poll(TIMEOUT, TimeUnit.SECONDS));
+        assertTrue(states.poll(TIMEOUT, TimeUnit.SECONDS));
+        assertFalse(states.poll(TIMEOUT, TimeUnit.SECONDS)); //subscribe rejected, caller falls back to polling
+
+        //client reconnects and the node accepts the subscribe this time
+        String subId = node.subscriptions.poll(TIMEOUT, TimeUnit.SECONDS);
+        assertNotNull(subId);
+        assertTrue(states.poll(TIMEOUT, TimeUnit.SECONDS));
+
+        node.push(subId, header("0x30"));
+        assertEquals("0x30", heads.poll(TIMEOUT, TimeUnit.SECONDS).getAsJsonObject().get("number").getAsString());
+        d.dispose();
+        state.dispose();
+    }
+
+    private static JsonObject header(String number)
+    {
+        JsonObject header = new JsonObject();
+        header.addProperty("number", number);
+        header.addProperty("hash", "0xabc" + number);
+        return header;
+    }
+
+    private static class StandInNode extends WebSocketListener
+    {
+        final BlockingQueue<String> subscriptions = new LinkedBlockingQueue<>();
+        final AtomicInteger nextSubscription = new AtomicInteger(1);
+        final AtomicInteger rejectSubscribes = new AtomicInteger(); //number of eth_subscribe calls to answer with an error
+        volatile WebSocket socket;
+
+        @Override
+        public void onOpen(WebSocket webSocket, Response response)
+        {
+            socket = webSocket;
+        }
+
+        @Override
+        public void onClosing(WebSocket webSocket, int code, String reason)
+        {
+            webSocket.close(1000, null);
+        }
+
+        @Override
+        public void onMessage(WebSocket webSocket, String text)
+        {
+            JsonObject request = JsonParser.parseString(text).getAsJsonObject();
+            JsonObject reply = new JsonObject();
+            reply.addProperty("jsonrpc", "2.0");
+            reply.add("id", request.get("id"));
+
+            switch (request.get("method").getAsString())
+            {
+                case "eth_subscribe":
+                    if (rejectSubscribes.getAndDecrement() > 0)
+                    {
+                        JsonObject error = new JsonObject();
+                        error.addProperty("code", -32601);
+                        error.addProperty("message", "the method eth_subscribe does not exist/is not available");
+                        reply.add("error", error);
+                        break;
+                    }
+                    String subId = "0x" + nextSubscription.getAndIncrement();
+                    reply.addProperty("result", subId);
+                    webSocket.send(reply.toString());
+                    subscriptions.add(subId);
+                    return;
+                case "eth_getBlockByHash":
+                    JsonObject block = new JsonObject();
+                    JsonArray txs = new JsonArray();
+                    txs.add(new JsonPrimitive("0x01"));
+                    txs.add(new JsonPrimitive("0x02"));
+                    block.add("transactions", txs);
+                    reply.add("result", block);
+                    break;
+                default:
+                    reply.addProperty("result", true);
+                    break;
+            }
+            webSocket.send(reply.toString());
+        }
+
+        void push(String subId, JsonElement result)
+        {
+            JsonObject params = new JsonObject();
+            params.addProperty("subscription", subId);
+            params.add("result", result);
+            JsonObject message = new JsonObject();
+            message.addProperty("jsonrpc", "2.0");
+            message.addProperty("method", "eth_subscription");
+            message.add("params", params);
+            socket.send(message.toString());
+        }
+    }
+}
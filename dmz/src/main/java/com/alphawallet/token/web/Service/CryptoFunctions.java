@@ -6,6 +6,7 @@ import java.util.Arrays;
 
 import com.alphawallet.token.entity.CryptoFunctionsInterface;
 import com.alphawallet.token.entity.ProviderTypedData;
+import com.alphawallet.token.tools.SignatureRecovery;
 import com.alphawallet.token.web.Ethereum.web3j.StructuredDataEncoder;
 
 import java.util.Base64;
@@ -33,9 +34,8 @@ public class CryptoFunctions implements CryptoFunctionsInterface
     @Override
     public BigInteger signedMessageToKey(byte[] data, byte[] signature) throws SignatureException
     {
-        Sign.SignatureData sigData = sigFromByteArray(signature);
-        if (sigData == null) return BigInteger.ZERO;
-        else return Sign.signedMessageToKey(data, sigData);
+        if (signature.length < 64 || signature.length > 65) return BigInteger.ZERO;
+        else return SignatureRecovery.recoverPublicKey(data, signature);
     }
 
     @Override
@@ -43,7 +43,7 @@ public class TicketRange
     {
         if (count < tokenIds.size())
         {
-            tokenIds = tokenIds.subList(0, count);
+            tokenIds = new ArrayList<>(tokenIds.subList(0, count)); //copy, so the range can still be added to
         }
     }
 
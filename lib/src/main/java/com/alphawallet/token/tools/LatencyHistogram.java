@@ -0,0 +1,69 @@
+package com.alphawallet.token.tools;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free histogram of durations in milliseconds, with power of two buckets: under 1ms, 1ms, 2-3ms, 4-7ms and
+ * so on up to 32s and over. Cheap enough to record every task a pool runs; percentiles are reported as the upper
+ * bound of the bucket they fall in.
+ */
+public class LatencyHistogram
+{
+    private static final int BUCKETS = 17;
+
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    public void record(long millis)
+    {
+        counts.incrementAndGet(bucket(millis));
+    }
+
+    public long getCount()
+    {
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++) total += counts.get(i);
+        return total;
+    }
+
+    /**
+     * @param percentile 0 to 100
+     * @return upper bound in milliseconds of the bucket holding the percentile, or 0 if nothing has been recorded
+     */
+    public long getPercentile(double percentile)
+    {
+        long[] snapshot = new long[BUCKETS];
+        long total = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            snapshot[i] = counts.get(i);
+            total += snapshot[i];
+        }
+        if (total == 0) return 0;
+
+        long target = (long) Math.ceil(total * percentile / 100.0);
+        long seen = 0;
+        for (int i = 0; i < BUCKETS; i++)
+        {
+            seen += snapshot[i];
+            if (seen >= Math.max(1, target)) return upperBound(i);
+        }
+        return upperBound(BUCKETS - 1);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "p50 " + getPercentile(50) + "ms, p90 " + getPercentile(90) + "ms, p99 " + getPercentile(99) + "ms (" + getCount() + ")";
+    }
+
+    private static int bucket(long millis)
+    {
+        if (millis <= 0) return 0;
+        return Math.min(BUCKETS - 1, 64 - Long.numberOfLeadingZeros(millis));
+    }
+
+    private static long upperBound(int bucket)
+    {
+        return bucket == 0 ? 1 : 1L << bucket;
+    }
+}
@@ -6,6 +6,7 @@ import java.io.DataOutputStream;
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.math.BigInteger;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -226,16 +227,28 @@ public class ParseMagicLink
      * @return string address of the owner
      */
     public String getOwnerKey(MagicLinkData data) {
-        data.ownerAddress = "0x";
-        try {
-            BigInteger recoveredKey = cryptoInterface.signedMessageToKey(data.message, data.signature);
-            data.ownerAddress += cryptoInterface.getAddressFromKey(recoveredKey);
+        String owner = SignatureRecovery.recoverAddress(data.message, data.signature);
+        data.ownerAddress = owner != null ? owner : "0x";
+        return data.ownerAddress;
+    }
+
+    /**
+     * ECRecover the owner addresses of a batch of sales orders in parallel, eg a market queue listing
+     */
+    public void getOwnerKeys(MagicLinkData[] orders) {
+        List<byte[]> messages = new ArrayList<>(orders.length);
+        List<byte[]> signatures = new ArrayList<>(orders.length);
+        for (MagicLinkData order : orders)
+        {
+            messages.add(order.message);
+            signatures.add(order.signature);
         }
-        catch (Exception e)
+
+        String[] owners = SignatureRecovery.recoverAddresses(messages, signatures);
+        for (int i = 0; i < orders.length; i++)
         {
-            e.printStackTrace();
+            orders[i].ownerAddress = owners[i] != null ? owners[i] : "0x";
         }
-        return data.ownerAddress;
     }
 
     private byte[] getTradeBytes(MagicLinkData data)
@@ -0,0 +1,287 @@
+package com.alphawallet.token.tools;
+
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.digests.KeccakDigest;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.math.ec.ECAlgorithms;
+import org.bouncycastle.math.ec.ECCurve;
+import org.bouncycastle.math.ec.ECPoint;
+
+import java.math.BigInteger;
+import java.security.SignatureException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * secp256k1 public key recovery from Ethereum signatures, for checking who signed a magic link, sales order
+ * or message.
+ *
+ * All recoveries share one curve and generator instance, so the generator's precomputed multiples are built once
+ * and reused. Both multiplies run together in a single GLV endomorphism pass (Shamir's trick), and the address is
+ * hashed straight from the point encoding.
+ *
+ * Batches are split over a fork-join pool. Each chunk inverts all of its r values with one modular inversion,
+ * and normalises all of its recovered points with one field inversion.
+ *
+ * Signatures are 65 bytes: r, s, v, where v is 27/28 or 0/1. Messages are hashed with keccak256 before
+ * recovery, as web3j's Sign.signedMessageToKey does; use the FromHash forms to supply the digest directly.
+ */
+public class SignatureRecovery
+{
+    private static final X9ECParameters CURVE_PARAMS = CustomNamedCurves.getByName("secp256k1");
+    private static final ECCurve CURVE = CURVE_PARAMS.getCurve();
+    private static final ECPoint G = CURVE_PARAMS.getG();
+    private static final BigInteger N = CURVE_PARAMS.getN();
+    private static final BigInteger P = CURVE.getField().getCharacteristic();
+    private static final int CHUNK_SIZE = 32;
+
+    private static volatile ForkJoinPool pool;
+
+    /**
+     * @return recovered public key as a 512 bit integer (x, y), as web3j returns it
+     * @throws SignatureException if the signature is malformed or recovers no key
+     */
+    public static BigInteger recoverPublicKey(byte[] message, byte[] signature) throws SignatureException
+    {
+        ECPoint q = recover(keccak256(message), signature);
+        if (q == null) throw new SignatureException("Could not recover public key from signature");
+        byte[] encoded = q.normalize().getEncoded(false);
+        return new BigInteger(1, Arrays.copyOfRange(encoded, 1, encoded.length));
+    }
+
+    /**
+     * @return 0x prefixed lower case signer address, or null if the signature is invalid
+     */
+    public static String recoverAddress(byte[] message, byte[] signature)
+    {
+        return recoverAddressFromHash(keccak256(message), signature);
+    }
+
+    public static String recoverAddressFromHash(byte[] messageHash, byte[] signature)
+    {
+        ECPoint q = recover(messageHash, signature);
+        return q != null ? toAddress(q.normalize()) : null;
+    }
+
+    /**
+     * Recover the signer of each message in parallel
+     *
+     * @return addresses in the order of the inputs; null where a signature is invalid
+     */
+    public static String[] recoverAddresses(List<byte[]> messages, List<byte[]> signatures)
+    {
+        if (messages.size() != signatures.size()) throw new IllegalArgumentException("Each message needs one signature");
+        byte[][] msgs = messages.toArray(new byte[0][]);
+        byte[][] sigs = signatures.toArray(new byte[0][]);
+
+        String[] addresses = new String[msgs.length];
+        if (msgs.length <= CHUNK_SIZE)
+        {
+            new RecoverTask(msgs, sigs, addresses, 0, msgs.length).compute();
+        }
+        else
+        {
+            getPool().invoke(new RecoverTask(msgs, sigs, addresses, 0, msgs.length));
+        }
+        return addresses;
+    }
+
+    /**
+     * @return for each message, true if it was signed by the expected address (case insensitive)
+     */
+    public static boolean[] verify(List<byte[]> messages, List<byte[]> signatures, List<String> expectedSigners)
+    {
+        String[] signers = recoverAddresses(messages, signatures);
+        boolean[] result = new boolean[signers.length];
+        for (int i = 0; i < signers.length; i++)
+        {
+            result[i] = signers[i] != null && signers[i].equalsIgnoreCase(Numeric.prependHexPrefix(expectedSigners.get(i)));
+        }
+        return result;
+    }
+
+    private static ECPoint recover(byte[] messageHash, byte[] signature)
+    {
+        Parsed sig = Parsed.from(messageHash, signature);
+        if (sig == null) return null;
+        ECPoint q = sig.combine(sig.r.modInverse(N));
+        return (q == null || q.isInfinity()) ? null : q;
+    }
+
+    private static ForkJoinPool getPool()
+    {
+        if (pool == null)
+        {
+            synchronized (SignatureRecovery.class)
+            {
+                //Own pool rather than the common pool, which Android only has from API 24
+                if (pool == null) pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+            }
+        }
+        return pool;
+    }
+
+    private static byte[] keccak256(byte[] input)
+    {
+        if (input == null) return null;
+        KeccakDigest digest = new KeccakDigest(256);
+        digest.update(input, 0, input.length);
+        byte[] hash = new byte[32];
+        digest.doFinal(hash, 0);
+        return hash;
+    }
+
+    private static String toAddress(ECPoint normalised)
+    {
+        byte[] encoded = normalised.getEncoded(false);
+        KeccakDigest digest = new KeccakDigest(256);
+        digest.update(encoded, 1, encoded.length - 1);
+        byte[] hash = new byte[32];
+        digest.doFinal(hash, 0);
+        return Numeric.toHexString(hash, 12, 20, true);
+    }
+
+    /**
+     * Signature fields checked and decoded, ready for the point arithmetic
+     */
+    private static class Parsed
+    {
+        final BigInteger r;
+        final BigInteger s;
+        final BigInteger e;
+        final ECPoint rPoint;
+
+        private Parsed(BigInteger r, BigInteger s, BigInteger e, ECPoint rPoint)
+        {
+            this.r = r;
+            this.s = s;
+            this.e = e;
+            this.rPoint = rPoint;
+        }
+
+        static Parsed from(byte[] messageHash, byte[] signature)
+        {
+            if (signature == null || signature.length != 65 || messageHash == null) return null;
+            int recId = signature[64] & 0xFF;
+            if (recId >= 27) recId -= 27;
+            if (recId < 0 || recId > 3) return null;
+
+            BigInteger r = new BigInteger(1, Arrays.copyOfRange(signature, 0, 32));
+            BigInteger s = new BigInteger(1, Arrays.copyOfRange(signature, 32, 64));
+            if (r.signum() == 0 || r.compareTo(N) >= 0 || s.signum() == 0 || s.compareTo(N) >= 0) return null;
+
+            //x of R is r, or r + n for the rare recovery ids 2 and 3
+            BigInteger x = recId >= 2 ? r.add(N) : r;
+            if (x.compareTo(P) >= 0) return null;
+
+            ECPoint rPoint;
+            try
+            {
+                byte[] compressed = new byte[33];
+                compressed[0] = (byte) ((recId & 1) == 1 ? 0x03 : 0x02);
+                byte[] xBytes = Numeric.toBytesPadded(x, 32);
+                System.arraycopy(xBytes, 0, compressed, 1, 32);
+                rPoint = CURVE.decodePoint(compressed);
+            }
+            catch (IllegalArgumentException e)
+            {
+                return null; //x is not on the curve
+            }
+
+            return new Parsed(r, s, new BigInteger(1, messageHash), rPoint);
+        }
+
+        /**
+         * Q = r^-1 (sR - eG), as (-e/r) G + (s/r) R; unnormalised
+         */
+        ECPoint combine(BigInteger rInv)
+        {
+            BigInteger u1 = e.negate().multiply(rInv).mod(N);
+            BigInteger u2 = s.multiply(rInv).mod(N);
+            return ECAlgorithms.sumOfTwoMultiplies(G, u1, rPoint, u2);
+        }
+    }
+
+    private static class RecoverTask extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+
+        private final byte[][] messages;
+        private final byte[][] signatures;
+        private final String[] addresses;
+        private final int from;
+        private final int to;
+
+        RecoverTask(byte[][] messages, byte[][] signatures, String[] addresses, int from, int to)
+        {
+            this.messages = messages;
+            this.signatures = signatures;
+            this.addresses = addresses;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from > CHUNK_SIZE)
+            {
+                int mid = (from + to) >>> 1;
+                invokeAll(new RecoverTask(messages, signatures, addresses, from, mid),
+                        new RecoverTask(messages, signatures, addresses, mid, to));
+                return;
+            }
+
+            int count = to - from;
+            Parsed[] parsed = new Parsed[count];
+            int valid = 0;
+            for (int i = 0; i < count; i++)
+            {
+                parsed[i] = Parsed.from(keccak256(messages[from + i]), signatures[from + i]);
+                if (parsed[i] != null) valid++;
+            }
+            if (valid == 0) return;
+
+            //invert every r with a single modInverse (Montgomery's trick)
+            BigInteger[] prefix = new BigInteger[count];
+            BigInteger acc = BigInteger.ONE;
+            for (int i = 0; i < count; i++)
+            {
+                if (parsed[i] == null) continue;
+                prefix[i] = acc;
+                acc = acc.multiply(parsed[i].r).mod(N);
+            }
+            BigInteger inv = acc.modInverse(N);
+
+            ECPoint[] points = new ECPoint[valid];
+            int[] index = new int[valid];
+            int p = valid;
+            for (int i = count - 1; i >= 0; i--)
+            {
+                if (parsed[i] == null) continue;
+                BigInteger rInv = inv.multiply(prefix[i]).mod(N);
+                inv = inv.multiply(parsed[i].r).mod(N);
+                p--;
+                points[p] = parsed[i].combine(rInv);
+                index[p] = from + i;
+            }
+
+            //one field inversion for the whole chunk; infinity is left unnormalised, and is invalid
+            int finite = 0;
+            for (ECPoint point : points) if (!point.isInfinity()) finite++;
+            ECPoint[] toNormalise = new ECPoint[finite];
+            int[] finiteIndex = new int[finite];
+            for (int i = 0, j = 0; i < points.length; i++)
+            {
+                if (points[i].isInfinity()) continue;
+                toNormalise[j] = points[i];
+                finiteIndex[j++] = index[i];
+            }
+            CURVE.normalizeAll(toNormalise);
+
+            for (int i = 0; i < finite; i++) addresses[finiteIndex[i]] = toAddress(toNormalise[i]);
+        }
+    }
+}
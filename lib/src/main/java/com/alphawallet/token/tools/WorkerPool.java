@@ -0,0 +1,114 @@
+package com.alphawallet.token.tools;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A named pool from {@link WorkerPools}: runs tasks on the executor it was built with, and keeps count of the
+ * tasks waiting and running, how long they waited and how long they ran.
+ *
+ * A task holds one of maxThreads permits while it runs, and counts as waiting until it has one. With platform
+ * threads there is a permit per thread, so none waits for one; an executor which starts a thread per task (virtual
+ * threads) is capped by the permits alone.
+ */
+public class WorkerPool implements Executor
+{
+    private final String name;
+    private final int maxThreads;
+    private final Executor executor;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicInteger running = new AtomicInteger();
+    private final AtomicLong rejected = new AtomicLong();
+    private final LatencyHistogram waitTimes = new LatencyHistogram();
+    private final LatencyHistogram runTimes = new LatencyHistogram();
+
+    WorkerPool(String name, int maxThreads, Executor executor)
+    {
+        this.name = name;
+        this.maxThreads = maxThreads;
+        this.executor = executor;
+        this.permits = new Semaphore(maxThreads, true);
+    }
+
+    @Override
+    public void execute(Runnable command)
+    {
+        final long submitTime = System.currentTimeMillis();
+        queued.incrementAndGet();
+        try
+        {
+            executor.execute(() -> {
+                permits.acquireUninterruptibly();
+                long startTime = System.currentTimeMillis();
+                queued.decrementAndGet();
+                running.incrementAndGet();
+                waitTimes.record(startTime - submitTime);
+                try
+                {
+                    command.run();
+                }
+                finally
+                {
+                    running.decrementAndGet();
+                    runTimes.record(System.currentTimeMillis() - startTime);
+                    permits.release();
+                }
+            });
+        }
+        catch (RejectedExecutionException e)
+        {
+            queued.decrementAndGet();
+            rejected.incrementAndGet();
+            throw e;
+        }
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    public int getMaxThreads()
+    {
+        return maxThreads;
+    }
+
+    public int getQueueDepth()
+    {
+        return queued.get();
+    }
+
+    public int getRunning()
+    {
+        return running.get();
+    }
+
+    public long getRejected()
+    {
+        return rejected.get();
+    }
+
+    /**
+     * @return time from submission to start
+     */
+    public LatencyHistogram getWaitTimes()
+    {
+        return waitTimes;
+    }
+
+    public LatencyHistogram getRunTimes()
+    {
+        return runTimes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return name + ": " + running.get() + "/" + maxThreads + " running, " + queued.get() + " queued, "
+                + rejected.get() + " rejected; wait " + waitTimes + "; run " + runTimes;
+    }
+}
@@ -0,0 +1,132 @@
+package com.alphawallet.token.tools;
+
+import java.lang.reflect.Method;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Shared, fixed size worker pools for blocking work, one per kind of workload, so a burst of calls queues for a
+ * fixed number of threads instead of starting a thread each. Queues are unbounded: the pools back Rx schedulers,
+ * which can't take a rejected task, so callers limit how much they submit.
+ *
+ * Pools are built on first use by the current {@link ExecutorFactory}. The default gives each pool its own
+ * daemon threads, which time out when idle. On a JVM with virtual threads (Java 21+) the command line tools
+ * call setExecutorFactory(VIRTUAL_THREADS) at startup; each task then gets a virtual thread, and the pool's
+ * permits still cap how many run at once.
+ */
+public class WorkerPools
+{
+    public enum Workload
+    {
+        RPC(8),         //blocking node calls
+        HTTP_API(4),    //indexer, ticker and market APIs
+        DB_WRITE(1),    //database writes, run in order of submission
+        CPU(Math.max(2, Runtime.getRuntime().availableProcessors())); //parsing and decoding
+
+        private final int threads;
+
+        Workload(int threads)
+        {
+            this.threads = threads;
+        }
+    }
+
+    public interface ExecutorFactory
+    {
+        Executor create(String name, int threads);
+    }
+
+    private static final long IDLE_TIMEOUT = 30; //seconds
+
+    public static final ExecutorFactory PLATFORM_THREADS = (name, threads) -> {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, IDLE_TIMEOUT, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new NamedThreadFactory(name));
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    };
+
+    /**
+     * Falls back to platform threads where virtual threads aren't available, and for single thread pools, which
+     * need to keep tasks in order
+     */
+    public static final ExecutorFactory VIRTUAL_THREADS = (name, threads) -> {
+        ExecutorService virtualExecutor = threads > 1 ? newVirtualThreadExecutor() : null;
+        return virtualExecutor != null ? virtualExecutor : PLATFORM_THREADS.create(name, threads);
+    };
+
+    private static final Map<Workload, WorkerPool> pools = new EnumMap<>(Workload.class);
+    private static ExecutorFactory executorFactory = PLATFORM_THREADS;
+
+    /**
+     * Choose how pools are built. Call before any pool is used; pools already built are kept
+     */
+    public static synchronized void setExecutorFactory(ExecutorFactory factory)
+    {
+        executorFactory = factory;
+    }
+
+    public static synchronized WorkerPool get(Workload workload)
+    {
+        WorkerPool pool = pools.get(workload);
+        if (pool == null)
+        {
+            String name = workload.name().toLowerCase();
+            pool = new WorkerPool(name, workload.threads, executorFactory.create(name, workload.threads));
+            pools.put(workload, pool);
+        }
+        return pool;
+    }
+
+    /**
+     * @return one line per pool in use, with its queue depth and latencies
+     */
+    public static synchronized String describe()
+    {
+        StringBuilder sb = new StringBuilder();
+        for (WorkerPool pool : pools.values())
+        {
+            sb.append(pool).append('\n');
+        }
+        return sb.toString();
+    }
+
+    private static ExecutorService newVirtualThreadExecutor()
+    {
+        try
+        {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        }
+        catch (Exception e)
+        {
+            return null; //before Java 21
+        }
+    }
+
+    private static class NamedThreadFactory implements ThreadFactory
+    {
+        private final String name;
+        private final AtomicInteger count = new AtomicInteger();
+
+        NamedThreadFactory(String name)
+        {
+            this.name = name;
+        }
+
+        @Override
+        public Thread newThread(Runnable r)
+        {
+            Thread thread = new Thread(r, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
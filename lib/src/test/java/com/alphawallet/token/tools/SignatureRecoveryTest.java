@@ -0,0 +1,106 @@
+package com.alphawallet.token.tools;
+
+import org.bouncycastle.asn1.x9.X9ECParameters;
+import org.bouncycastle.crypto.digests.KeccakDigest;
+import org.bouncycastle.crypto.digests.SHA256Digest;
+import org.bouncycastle.crypto.ec.CustomNamedCurves;
+import org.bouncycastle.crypto.params.ECDomainParameters;
+import org.bouncycastle.crypto.params.ECPrivateKeyParameters;
+import org.bouncycastle.crypto.signers.ECDSASigner;
+import org.bouncycastle.crypto.signers.HMacDSAKCalculator;
+import org.junit.Test;
+
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class SignatureRecoveryTest
+{
+    //EIP-155 example key
+    private static final BigInteger KEY = new BigInteger("4646464646464646464646464646464646464646464646464646464646464646", 16);
+    private static final String ADDRESS = "0x9d8a62f656a8d1615c1294fd71e9cfb3e4855a4f";
+
+    private static final X9ECParameters CURVE_PARAMS = CustomNamedCurves.getByName("secp256k1");
+    private static final ECDomainParameters CURVE = new ECDomainParameters(CURVE_PARAMS.getCurve(), CURVE_PARAMS.getG(),
+            CURVE_PARAMS.getN(), CURVE_PARAMS.getH());
+
+    @Test
+    public void recoversSigner() throws Exception
+    {
+        byte[] message = "obtain public key".getBytes();
+        byte[] signature = sign(message);
+        assertEquals(ADDRESS, SignatureRecovery.recoverAddress(message, signature));
+
+        BigInteger publicKey = SignatureRecovery.recoverPublicKey(message, signature);
+        assertEquals(ADDRESS, "0x" + Numeric.toHexStringNoPrefix(keccak256(Numeric.toBytesPadded(publicKey, 64))).substring(24));
+
+        signature[64] -= 27; //0/1 form of v
+        assertEquals(ADDRESS, SignatureRecovery.recoverAddress(message, signature));
+    }
+
+    @Test
+    public void recoversBatchInOrder()
+    {
+        List<byte[]> messages = new ArrayList<>();
+        List<byte[]> signatures = new ArrayList<>();
+        for (int i = 0; i < 200; i++)
+        {
+            byte[] message = ("order " + i).getBytes();
+            messages.add(message);
+            signatures.add(sign(message));
+        }
+
+        byte[] tampered = signatures.get(7).clone();
+        tampered[10] ^= 1;
+        signatures.set(7, tampered);
+        signatures.set(11, new byte[64]); //malformed
+
+        String[] signers = SignatureRecovery.recoverAddresses(messages, signatures);
+        for (int i = 0; i < signers.length; i++)
+        {
+            if (i == 7) assertFalse(ADDRESS.equals(signers[i]));
+            else if (i == 11) assertNull(signers[i]);
+            else assertEquals(ADDRESS, signers[i]);
+        }
+
+        boolean[] verified = SignatureRecovery.verify(messages, signatures, Collections.nCopies(messages.size(), ADDRESS.toUpperCase().replace("X", "x")));
+        assertFalse(verified[7]);
+        assertFalse(verified[11]);
+        assertTrue(verified[0]);
+        assertTrue(verified[199]);
+    }
+
+    private static byte[] sign(byte[] message)
+    {
+        ECDSASigner signer = new ECDSASigner(new HMacDSAKCalculator(new SHA256Digest()));
+        signer.init(true, new ECPrivateKeyParameters(KEY, CURVE));
+        BigInteger[] components = signer.generateSignature(keccak256(message));
+        BigInteger s = components[1];
+        if (s.compareTo(CURVE.getN().shiftRight(1)) > 0) s = CURVE.getN().subtract(s);
+
+        byte[] signature = new byte[65];
+        System.arraycopy(Numeric.toBytesPadded(components[0], 32), 0, signature, 0, 32);
+        System.arraycopy(Numeric.toBytesPadded(s, 32), 0, signature, 32, 32);
+        for (byte v = 27; v <= 28; v++)
+        {
+            signature[64] = v;
+            if (ADDRESS.equals(SignatureRecovery.recoverAddress(message, signature))) return signature;
+        }
+        throw new IllegalStateException("No recovery id matches");
+    }
+
+    private static byte[] keccak256(byte[] input)
+    {
+        KeccakDigest digest = new KeccakDigest(256);
+        digest.update(input, 0, input.length);
+        byte[] hash = new byte[32];
+        digest.doFinal(hash, 0);
+        return hash;
+    }
+}
@@ -0,0 +1,107 @@
+package com.alphawallet.token.tools;
+
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class WorkerPoolsTest
+{
+    @Test
+    public void histogramReportsBucketBounds()
+    {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int i = 0; i < 90; i++) histogram.record(3);
+        for (int i = 0; i < 10; i++) histogram.record(100);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(4, histogram.getPercentile(50));
+        assertEquals(4, histogram.getPercentile(90));
+        assertEquals(128, histogram.getPercentile(99));
+        assertEquals(0, new LatencyHistogram().getPercentile(50));
+    }
+
+    @Test
+    public void poolCapsConcurrentTasks() throws InterruptedException
+    {
+        WorkerPool pool = WorkerPools.get(WorkerPools.Workload.HTTP_API);
+        int tasks = pool.getMaxThreads() * 4;
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch(tasks);
+
+        for (int i = 0; i < tasks; i++)
+        {
+            pool.execute(() -> {
+                int now = running.incrementAndGet();
+                maxRunning.accumulateAndGet(now, Math::max);
+                try
+                {
+                    Thread.sleep(10);
+                }
+                catch (InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertTrue(maxRunning.get() <= pool.getMaxThreads());
+        assertTrue(pool.getRunTimes().getCount() >= tasks - pool.getMaxThreads()); //last few may still be recording
+    }
+
+    @Test
+    public void threadPerTaskPoolCountsOnlyPermittedTasksAsRunning() throws InterruptedException
+    {
+        //stands in for virtual threads: every task gets a thread at once
+        ExecutorService threadPerTask = Executors.newCachedThreadPool();
+        WorkerPool pool = new WorkerPool("test", 2, threadPerTask);
+        int tasks = 8;
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(tasks);
+        AtomicInteger maxReported = new AtomicInteger();
+
+        try
+        {
+            for (int i = 0; i < tasks; i++)
+            {
+                pool.execute(() -> {
+                    maxReported.accumulateAndGet(pool.getRunning(), Math::max);
+                    try
+                    {
+                        release.await();
+                    }
+                    catch (InterruptedException e)
+                    {
+                        Thread.currentThread().interrupt();
+                    }
+                    done.countDown();
+                });
+            }
+
+            long deadline = System.currentTimeMillis() + 5000;
+            while (pool.getRunning() < 2 && System.currentTimeMillis() < deadline) Thread.sleep(5);
+            Thread.sleep(50); //give the tasks without a permit time to be miscounted
+            assertEquals(2, pool.getRunning());
+            assertEquals(tasks - 2, pool.getQueueDepth());
+
+            release.countDown();
+            assertTrue(done.await(10, TimeUnit.SECONDS));
+            assertTrue(maxReported.get() <= 2);
+        }
+        finally
+        {
+            release.countDown();
+            threadPerTask.shutdown();
+        }
+    }
+}
@@ -0,0 +1,237 @@
+package com.alphawallet.scripttool;
+
+import com.alphawallet.scripttool.Entity.TokenscriptFunction;
+import com.alphawallet.scripttool.Ethereum.DedupCallSource;
+import com.alphawallet.scripttool.Ethereum.EthCallSource;
+import com.alphawallet.token.entity.Attribute;
+import com.alphawallet.token.entity.AttributeInterface;
+import com.alphawallet.token.entity.ContractAddress;
+import com.alphawallet.token.entity.TokenScriptResult;
+import com.alphawallet.token.entity.TransactionResult;
+import com.alphawallet.token.tools.TokenDefinition;
+import com.alphawallet.token.tools.WorkerPool;
+import com.alphawallet.token.tools.WorkerPools;
+import com.google.gson.JsonObject;
+
+import org.web3j.abi.FunctionEncoder;
+import org.web3j.abi.datatypes.Address;
+import org.web3j.abi.datatypes.Function;
+import org.web3j.utils.Numeric;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigInteger;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Evaluates every attribute of a TokenScript for a list of (owner, tokenId) pairs, writing one JSON object per pair.
+ *
+ * Pairs are evaluated in parallel on the shared RPC pool, up to the given number at once. Contract calls all go
+ * through one {@link DedupCallSource}, so a call which is the same for many pairs is made once. Results are not
+ * cached per owner the way ScriptTool does for a single owner: a call depending on the owner has the owner in its
+ * call data, so the call cache keeps owners apart.
+ *
+ * TokenDefinition and TokenscriptFunction keep per-evaluation state, so each pair in flight takes a parsed copy of
+ * its own, returned for reuse when the pair is done. Copies aren't tied to threads: whether the pool reuses
+ * threads or starts one per task depends on the WorkerPools executor factory chosen at runtime.
+ */
+public class BatchEvaluator
+{
+    private final File scriptFile;
+    private final ContractAddress holdingContract;
+    private final DedupCallSource calls;
+    private final int threads;
+    private final Queue<Worker> idleWorkers = new ConcurrentLinkedQueue<>();
+
+    private final AtomicLong items = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong attributes = new AtomicLong();
+
+    public BatchEvaluator(File scriptFile, ContractAddress holdingContract, EthCallSource source, int threads)
+    {
+        this.scriptFile = scriptFile;
+        this.holdingContract = holdingContract;
+        this.calls = new DedupCallSource(source);
+        this.threads = threads;
+    }
+
+    /**
+     * @param pairs lines of 'owner,tokenId', tokenId in decimal or 0x hex. Blank lines and lines starting '#' are skipped
+     * @param output receives one JSON object per line, in completion order
+     * @return elapsed time in milliseconds
+     */
+    public long run(BufferedReader pairs, Writer output) throws IOException, InterruptedException
+    {
+        long startTime = System.currentTimeMillis();
+        WorkerPool pool = WorkerPools.get(WorkerPools.Workload.RPC);
+        Semaphore inFlight = new Semaphore(threads); //also keeps the input from being read ahead of the pool
+
+        try
+        {
+            String line;
+            while ((line = pairs.readLine()) != null)
+            {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) continue;
+                final String pair = line;
+                inFlight.acquire();
+                pool.execute(() -> {
+                    try
+                    {
+                        String result = evaluate(pair);
+                        synchronized (output)
+                        {
+                            output.write(result);
+                            output.write("\n");
+                        }
+                    }
+                    catch (IOException e)
+                    {
+                        e.printStackTrace();
+                    }
+                    finally
+                    {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        finally
+        {
+            inFlight.acquire(threads); //wait for the pairs still running
+            inFlight.release(threads);
+            output.flush();
+        }
+
+        return System.currentTimeMillis() - startTime;
+    }
+
+    public void printMetrics(long elapsed)
+    {
+        long requests = calls.getRequests();
+        double seconds = Math.max(elapsed, 1) / 1000.0;
+        System.err.println("Pairs: " + items.get() + " (" + failures.get() + " failed), attributes: " + attributes.get());
+        System.err.println(String.format(Locale.ROOT, "Elapsed: %.2fs, %.1f pairs/s, %.1f attributes/s",
+                seconds, items.get() / seconds, attributes.get() / seconds));
+        System.err.println(String.format(Locale.ROOT, "Contract calls: %d requested, %d made, %d shared (%.1f%% hit rate)",
+                requests, requests - calls.getHits(), calls.getHits(), requests > 0 ? 100.0 * calls.getHits() / requests : 0.0));
+        System.err.print(WorkerPools.describe());
+    }
+
+    private String evaluate(String pair)
+    {
+        items.incrementAndGet();
+        JsonObject result = new JsonObject();
+        String[] parts = pair.split(",");
+
+        try
+        {
+            if (parts.length < 2) throw new IllegalArgumentException("Expected 'owner,tokenId'");
+            String owner = new Address(parts[0].trim()).toString();
+            String idStr = parts[1].trim();
+            BigInteger tokenId = Numeric.containsHexPrefix(idStr) ? Numeric.toBigInt(idStr) : new BigInteger(idStr);
+
+            result.addProperty("owner", owner);
+            result.addProperty("tokenId", tokenId.toString());
+
+            Worker worker = takeWorker();
+            List<TokenScriptResult.Attribute> attrs;
+            try
+            {
+                attrs = worker.function
+                        .resolveAttributes(owner, tokenId, new OwnerAttributes(owner), holdingContract, worker.definition)
+                        .toList()
+                        .blockingGet();
+            }
+            finally
+            {
+                idleWorkers.offer(worker);
+            }
+
+            JsonObject values = new JsonObject();
+            for (TokenScriptResult.Attribute attr : attrs) values.addProperty(attr.id, attr.text);
+            result.add("attributes", values);
+            attributes.addAndGet(attrs.size());
+        }
+        catch (Exception e)
+        {
+            failures.incrementAndGet();
+            result.addProperty("input", pair);
+            result.addProperty("error", String.valueOf(e.getMessage()));
+        }
+
+        return result.toString();
+    }
+
+    private Worker takeWorker() throws Exception
+    {
+        Worker worker = idleWorkers.poll();
+        return worker != null ? worker : new Worker();
+    }
+
+    private class Worker
+    {
+        final TokenDefinition definition;
+        final TokenscriptFunction function = new TokenscriptFunction()
+        {
+            @Override
+            protected String callContract(ContractAddress contractAddress, Function function, String walletAddr) throws Exception
+            {
+                return calls.ethCall(contractAddress.chainId, walletAddr, contractAddress.address, FunctionEncoder.encode(function));
+            }
+        };
+
+        Worker() throws Exception
+        {
+            try (FileInputStream in = new FileInputStream(scriptFile))
+            {
+                definition = new TokenDefinition(in, new Locale("en"), null);
+            }
+        }
+    }
+
+    /**
+     * Resolves attributes for one owner without a result cache; repeated calls are shared by the call source instead
+     */
+    private static class OwnerAttributes implements AttributeInterface
+    {
+        private final String owner;
+
+        OwnerAttributes(String owner)
+        {
+            this.owner = owner;
+        }
+
+        @Override
+        public TransactionResult getFunctionResult(ContractAddress contract, Attribute attr, BigInteger tokenId)
+        {
+            return new TransactionResult(contract.chainId, contract.address, tokenId, attr);
+        }
+
+        @Override
+        public TransactionResult storeAuxData(String walletAddress, TransactionResult tResult)
+        {
+            return tResult;
+        }
+
+        @Override
+        public boolean resolveOptimisedAttr(ContractAddress contract, Attribute attr, TransactionResult transactionResult)
+        {
+            return false;
+        }
+
+        @Override
+        public String getWalletAddr()
+        {
+            return owner;
+        }
+    }
+}
@@ -2,5 +2,5 @@ package com.alphawallet.scripttool.Entity;
 
 public enum ParseState
 {
-    ARG, TS_FILE, USER_ADDR
+    ARG, TS_FILE, USER_ADDR, BATCH_FILE, FIXTURE_FILE, RECORD_FILE, OUTPUT_FILE, THREADS
 }
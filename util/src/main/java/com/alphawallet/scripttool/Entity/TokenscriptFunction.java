@@ -709,20 +709,7 @@ public abstract class TokenscriptFunction
 
             // 1: create transaction call
             org.web3j.abi.datatypes.Function transaction = generateTransactionFunction(walletAddress, tokenId, definition, attr.function, attrIf);
-            // 2: create web3 connection
-            OkHttpClient okClient = new OkHttpClient.Builder()
-                    .connectTimeout(5, TimeUnit.SECONDS)
-                    .readTimeout(5, TimeUnit.SECONDS)
-                    .writeTimeout(5, TimeUnit.SECONDS)
-                    .retryOnConnectionFailure(false)
-                    .build();
 
-            String nodeURL = EthereumNetworkBase.getNetworkByChain(contractAddress.chainId).rpcServerUrl;
-            HttpService nodeService = new HttpService(nodeURL, okClient, false);
-
-            Web3j web3j = Web3j.build(nodeService);
-
-            //now push the transaction
             String result;
             if (transaction.getInputParameters() == null)
             {
@@ -732,8 +719,8 @@ public abstract class TokenscriptFunction
             }
             else
             {
-                //now push the transaction
-                result = callSmartContractFunction(web3j, transaction, contractAddress.address, ZERO_ADDRESS);
+                // 2: now push the transaction
+                result = callContract(contractAddress, transaction, ZERO_ADDRESS);
             }
 
             transactionResult.result = handleTransactionResult(transactionResult, transaction, result, attr, txUpdateTime);
@@ -741,6 +728,26 @@ public abstract class TokenscriptFunction
         });
     }
 
+    /**
+     * Perform the eth_call for an attribute function. Override to route calls elsewhere, eg through a cache or fixture
+     * @return encoded result, or null if the call couldn't be made
+     */
+    protected String callContract(ContractAddress contractAddress, Function function, String walletAddr) throws Exception
+    {
+        OkHttpClient okClient = new OkHttpClient.Builder()
+                .connectTimeout(5, TimeUnit.SECONDS)
+                .readTimeout(5, TimeUnit.SECONDS)
+                .writeTimeout(5, TimeUnit.SECONDS)
+                .retryOnConnectionFailure(false)
+                .build();
+
+        String nodeURL = EthereumNetworkBase.getNetworkByChain(contractAddress.chainId).rpcServerUrl;
+        HttpService nodeService = new HttpService(nodeURL, okClient, false);
+
+        Web3j web3j = Web3j.build(nodeService);
+        return callSmartContractFunction(web3j, function, contractAddress.address, walletAddr);
+    }
+
     private String callSmartContractFunction(Web3j web3j,
                                              Function function, String contractAddress, String walletAddr) throws Exception {
         String encodedFunction = FunctionEncoder.encode(function);
@@ -0,0 +1,95 @@
+package com.alphawallet.scripttool.Ethereum;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Makes each distinct call once per run. Callers asking for a call which is already in flight wait for that result
+ * rather than making their own request. Attributes which don't depend on the owner or token ID (eg a contract-wide
+ * value) are only fetched once for the whole batch.
+ *
+ * Results are kept for the most recent MAX_CALLS distinct calls, so a long batch doesn't hold every result it has
+ * seen. A call evicted while still in flight only means a later caller makes the request again.
+ */
+public class DedupCallSource implements EthCallSource
+{
+    private static final int MAX_CALLS = 4096;
+
+    private final EthCallSource source;
+    private final Map<String, CompletableFuture<String>> calls = Collections.synchronizedMap(
+            new LinkedHashMap<String, CompletableFuture<String>>(16, 0.75f, true)
+            {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, CompletableFuture<String>> eldest)
+                {
+                    return size() > MAX_CALLS;
+                }
+            });
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+
+    public DedupCallSource(EthCallSource source)
+    {
+        this.source = source;
+    }
+
+    @Override
+    public String ethCall(int chainId, String from, String to, String data) throws IOException
+    {
+        requests.incrementAndGet();
+        String key = EthCallSource.callKey(chainId, from, to, data);
+        CompletableFuture<String> call = new CompletableFuture<>();
+        CompletableFuture<String> existing = calls.putIfAbsent(key, call);
+
+        if (existing != null)
+        {
+            hits.incrementAndGet();
+            return await(existing);
+        }
+
+        try
+        {
+            call.complete(source.ethCall(chainId, from, to, data));
+        }
+        catch (IOException | RuntimeException e)
+        {
+            calls.remove(key, call); //allow a later retry
+            call.completeExceptionally(e);
+        }
+
+        return await(call);
+    }
+
+    public long getRequests()
+    {
+        return requests.get();
+    }
+
+    public long getHits()
+    {
+        return hits.get();
+    }
+
+    private static String await(CompletableFuture<String> call) throws IOException
+    {
+        try
+        {
+            return call.get();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+        catch (ExecutionException e)
+        {
+            if (e.getCause() instanceof IOException) throw (IOException) e.getCause();
+            throw new IOException(e.getCause());
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package com.alphawallet.scripttool.Ethereum;
+
+import java.io.IOException;
+
+/**
+ * Where TokenScript attribute calls are answered from: a live node, a recorded fixture, or a cache in front of either
+ */
+public interface EthCallSource
+{
+    /**
+     * @return hex encoded call result, or null if there is no answer for this call
+     */
+    String ethCall(int chainId, String from, String to, String data) throws IOException;
+
+    static String callKey(int chainId, String from, String to, String data)
+    {
+        return chainId + ":" + from.toLowerCase() + ":" + to.toLowerCase() + ":" + data.toLowerCase();
+    }
+}
@@ -0,0 +1,59 @@
+package com.alphawallet.scripttool.Ethereum;
+
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileReader;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Answers calls from a recorded fixture file, one JSON object per line:
+ * {"chainId":1,"from":"0x..","to":"0x..","data":"0x..","result":"0x.."}
+ *
+ * Calls which aren't in the fixture get no answer, and are counted so a stale fixture shows up in the metrics.
+ */
+public class FixtureCallSource implements EthCallSource
+{
+    private final Map<String, String> responses = new HashMap<>();
+    private final AtomicLong misses = new AtomicLong();
+
+    public FixtureCallSource(File fixture) throws IOException
+    {
+        JsonParser parser = new JsonParser();
+        try (BufferedReader reader = new BufferedReader(new FileReader(fixture)))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                if (line.trim().isEmpty()) continue;
+                JsonObject entry = parser.parse(line).getAsJsonObject();
+                String key = EthCallSource.callKey(entry.get("chainId").getAsInt(), entry.get("from").getAsString(),
+                        entry.get("to").getAsString(), entry.get("data").getAsString());
+                responses.put(key, entry.get("result").isJsonNull() ? null : entry.get("result").getAsString());
+            }
+        }
+    }
+
+    @Override
+    public String ethCall(int chainId, String from, String to, String data)
+    {
+        String key = EthCallSource.callKey(chainId, from, to, data);
+        if (!responses.containsKey(key)) misses.incrementAndGet();
+        return responses.get(key);
+    }
+
+    public int size()
+    {
+        return responses.size();
+    }
+
+    public long getMisses()
+    {
+        return misses.get();
+    }
+}
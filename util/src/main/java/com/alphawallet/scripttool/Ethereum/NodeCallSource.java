@@ -0,0 +1,60 @@
+package com.alphawallet.scripttool.Ethereum;
+
+import com.alphawallet.ethereum.EthereumNetworkBase;
+
+import org.web3j.protocol.Web3j;
+import org.web3j.protocol.core.DefaultBlockParameterName;
+import org.web3j.protocol.core.methods.response.EthCall;
+import org.web3j.protocol.http.HttpService;
+
+import java.io.IOException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+
+import static org.web3j.protocol.core.methods.request.Transaction.createEthCallTransaction;
+
+/**
+ * Answers calls from the chain's node, as configured in EthereumNetworkBase. One client per chain, sharing a
+ * connection pool sized for the number of worker threads
+ */
+public class NodeCallSource implements EthCallSource
+{
+    private final OkHttpClient httpClient;
+    private final ConcurrentHashMap<Integer, Web3j> nodes = new ConcurrentHashMap<>();
+
+    public NodeCallSource(int maxConcurrent)
+    {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(maxConcurrent);
+        dispatcher.setMaxRequestsPerHost(maxConcurrent);
+        httpClient = new OkHttpClient.Builder()
+                .dispatcher(dispatcher)
+                .connectTimeout(20, TimeUnit.SECONDS)
+                .readTimeout(20, TimeUnit.SECONDS)
+                .build();
+    }
+
+    @Override
+    public String ethCall(int chainId, String from, String to, String data) throws IOException
+    {
+        EthCall response = getNode(chainId).ethCall(createEthCallTransaction(from, to, data), DefaultBlockParameterName.LATEST).send();
+        if (response.hasError()) throw new IOException("Node error: " + response.getError().getMessage());
+        return response.getValue();
+    }
+
+    private Web3j getNode(int chainId)
+    {
+        Web3j node = nodes.get(chainId);
+        if (node == null)
+        {
+            String nodeURL = EthereumNetworkBase.getNetworkByChain(chainId).rpcServerUrl;
+            node = Web3j.build(new HttpService(nodeURL, httpClient, false));
+            Web3j existing = nodes.putIfAbsent(chainId, node);
+            if (existing != null) node = existing;
+        }
+        return node;
+    }
+}
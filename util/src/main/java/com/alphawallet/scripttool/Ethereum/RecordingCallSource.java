@@ -0,0 +1,52 @@
+package com.alphawallet.scripttool.Ethereum;
+
+import com.google.gson.JsonObject;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Passes calls through to another source and writes each call and its answer to a fixture file which
+ * {@link FixtureCallSource} can replay
+ */
+public class RecordingCallSource implements EthCallSource
+{
+    private final EthCallSource source;
+    private final Writer fixture;
+
+    public RecordingCallSource(EthCallSource source, File fixtureFile) throws IOException
+    {
+        this.source = source;
+        this.fixture = new FileWriter(fixtureFile);
+    }
+
+    @Override
+    public String ethCall(int chainId, String from, String to, String data) throws IOException
+    {
+        String result = source.ethCall(chainId, from, to, data);
+
+        JsonObject entry = new JsonObject();
+        entry.addProperty("chainId", chainId);
+        entry.addProperty("from", from);
+        entry.addProperty("to", to);
+        entry.addProperty("data", data);
+        entry.addProperty("result", result);
+        synchronized (fixture)
+        {
+            fixture.write(entry.toString());
+            fixture.write("\n");
+        }
+
+        return result;
+    }
+
+    public void close() throws IOException
+    {
+        synchronized (fixture)
+        {
+            fixture.close();
+        }
+    }
+}
@@ -17,11 +17,11 @@ import org.web3j.protocol.core.methods.request.Transaction;
 import org.web3j.protocol.core.methods.response.Web3ClientVersion;
 import org.web3j.protocol.http.HttpService;
 
+import java.io.IOException;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
-import java.util.concurrent.ExecutionException;
 import java.util.concurrent.TimeUnit;
 
 import com.alphawallet.token.entity.BadContract;
@@ -42,7 +42,7 @@ public class TransactionHandler
         mWeb3 = Web3j.build(service);
         try
         {
-            Web3ClientVersion web3ClientVersion = mWeb3.web3ClientVersion().sendAsync().get();
+            Web3ClientVersion web3ClientVersion = mWeb3.web3ClientVersion().send();
             System.out.println(web3ClientVersion.getWeb3ClientVersion());
         }
         catch (Exception e)
@@ -135,11 +135,11 @@ public class TransactionHandler
                         .createEthCallTransaction(null, contractAddress, encodedFunction));
     }
 
-    private String makeEthCall(Transaction transaction) throws ExecutionException, InterruptedException
+    private String makeEthCall(Transaction transaction) throws IOException
     {
         org.web3j.protocol.core.methods.response.EthCall ethCall = mWeb3.ethCall(transaction,
                                                                                  DefaultBlockParameterName.LATEST)
-                .sendAsync().get();
+                .send();
         return ethCall.getValue();
     }
 
@@ -3,6 +3,10 @@ package com.alphawallet.scripttool;
 import com.alphawallet.scripttool.Entity.CachedResult;
 import com.alphawallet.scripttool.Entity.ParseState;
 import com.alphawallet.scripttool.Entity.TokenscriptFunction;
+import com.alphawallet.scripttool.Ethereum.EthCallSource;
+import com.alphawallet.scripttool.Ethereum.FixtureCallSource;
+import com.alphawallet.scripttool.Ethereum.NodeCallSource;
+import com.alphawallet.scripttool.Ethereum.RecordingCallSource;
 import com.alphawallet.scripttool.Ethereum.TransactionHandler;
 import com.alphawallet.token.entity.Attribute;
 import com.alphawallet.token.entity.AttributeInterface;
@@ -12,13 +16,20 @@ import com.alphawallet.token.entity.TSAction;
 import com.alphawallet.token.entity.TokenScriptResult;
 import com.alphawallet.token.entity.TransactionResult;
 import com.alphawallet.token.tools.TokenDefinition;
+import com.alphawallet.token.tools.WorkerPools;
 
 import org.web3j.abi.datatypes.Address;
 import org.xml.sax.SAXException;
 
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileInputStream;
+import java.io.FileReader;
+import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.math.BigInteger;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -28,6 +39,11 @@ import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
 import static com.alphawallet.scripttool.Entity.ParseState.ARG;
+import static com.alphawallet.scripttool.Entity.ParseState.BATCH_FILE;
+import static com.alphawallet.scripttool.Entity.ParseState.FIXTURE_FILE;
+import static com.alphawallet.scripttool.Entity.ParseState.OUTPUT_FILE;
+import static com.alphawallet.scripttool.Entity.ParseState.RECORD_FILE;
+import static com.alphawallet.scripttool.Entity.ParseState.THREADS;
 import static com.alphawallet.scripttool.Entity.ParseState.TS_FILE;
 import static com.alphawallet.scripttool.Entity.ParseState.USER_ADDR;
 
@@ -35,6 +51,11 @@ public class ScriptTool implements AttributeInterface
 {
     private File tokenScriptFile;
     private Address userAddress = Address.DEFAULT;
+    private File batchFile;
+    private File fixtureFile;
+    private File recordFile;
+    private File outputFile;
+    private int threads = 8;
 
     private Map<Integer, Map<String, Map<BigInteger, CachedResult>>> transactionResults = new ConcurrentHashMap<>();  //optimisation results
 
@@ -42,6 +63,7 @@ public class ScriptTool implements AttributeInterface
     private final TokenscriptFunction tokenscriptFunction = new TokenscriptFunction() { };
 
     public static void main(String[] args) {
+        WorkerPools.setExecutorFactory(WorkerPools.VIRTUAL_THREADS); //where the JVM has them
         new ScriptTool(args);
     }
     public ScriptTool(String[] args)
@@ -67,11 +89,63 @@ public class ScriptTool implements AttributeInterface
                         case "-address":
                             p = USER_ADDR;
                             break;
+                        case "-batch":
+                            p = BATCH_FILE;
+                            break;
+                        case "-fixture":
+                            p = FIXTURE_FILE;
+                            break;
+                        case "-record":
+                            p = RECORD_FILE;
+                            break;
+                        case "-out":
+                            p = OUTPUT_FILE;
+                            break;
+                        case "-threads":
+                            p = THREADS;
+                            break;
                         case "-help":
                             showUsage();
                             break;
                     }
                     break;
+                case BATCH_FILE:
+                    batchFile = new File(arg);
+                    if (!batchFile.exists())
+                    {
+                        System.out.println("ERROR: " + arg + " File not found.");
+                        batchFile = null;
+                    }
+                    p = ARG;
+                    break;
+                case FIXTURE_FILE:
+                    fixtureFile = new File(arg);
+                    if (!fixtureFile.exists())
+                    {
+                        System.out.println("ERROR: " + arg + " File not found.");
+                        fixtureFile = null;
+                    }
+                    p = ARG;
+                    break;
+                case RECORD_FILE:
+                    recordFile = new File(arg);
+                    p = ARG;
+                    break;
+                case OUTPUT_FILE:
+                    outputFile = new File(arg);
+                    p = ARG;
+                    break;
+                case THREADS:
+                    try
+                    {
+                        threads = Math.max(1, Integer.parseInt(arg));
+                    }
+                    catch (NumberFormatException e)
+                    {
+                        System.out.println("ERROR: " + arg + " is not a thread count");
+                    }
+                    p = ARG;
+                    break;
                 case USER_ADDR:
                     try
                     {
@@ -110,7 +184,11 @@ public class ScriptTool implements AttributeInterface
             }
         }
 
-        if (tokenScriptFile != null)
+        if (tokenScriptFile != null && batchFile != null)
+        {
+            evaluateBatch();
+        }
+        else if (tokenScriptFile != null)
         {
             dumpTokenInfo();
         }
@@ -120,6 +198,64 @@ public class ScriptTool implements AttributeInterface
     {
         System.out.println("Usage:");
         System.out.println("scripttool -tokenscript <TokenScript File> -address <Ethereum address>");
+        System.out.println("scripttool -tokenscript <TokenScript File> -batch <owner,tokenId file> [-fixture <call fixture> | -record <call fixture>] [-out <JSON Lines file>] [-threads <n>]");
+        System.out.println("  -batch evaluates all attributes for each 'owner,tokenId' line; results are JSON Lines, metrics go to stderr");
+        System.out.println("  -fixture answers contract calls from a recorded file instead of the node; -record writes one while using the node");
+    }
+
+    private void evaluateBatch()
+    {
+        RecordingCallSource recorder = null;
+        try
+        {
+            TokenDefinition definition = getTokenDefinition();
+            if (!checkValidity(definition)) return;
+
+            ContractInfo holdingContract = definition.contracts.get(definition.holdingToken);
+            int chainId = holdingContract.addresses.keySet().iterator().next();
+            ContractAddress cAddr = new ContractAddress(chainId, holdingContract.addresses.get(chainId).get(0));
+
+            EthCallSource source;
+            FixtureCallSource fixture = null;
+            if (fixtureFile != null)
+            {
+                fixture = new FixtureCallSource(fixtureFile);
+                source = fixture;
+                System.err.println("Using fixture " + fixtureFile.getName() + " with " + fixture.size() + " calls");
+            }
+            else
+            {
+                source = new NodeCallSource(threads);
+                if (recordFile != null) source = recorder = new RecordingCallSource(source, recordFile);
+            }
+
+            BatchEvaluator evaluator = new BatchEvaluator(tokenScriptFile, cAddr, source, threads);
+            try (BufferedReader pairs = new BufferedReader(new FileReader(batchFile));
+                 Writer output = new BufferedWriter(outputFile != null ? new FileWriter(outputFile) : new OutputStreamWriter(System.out)))
+            {
+                long elapsed = evaluator.run(pairs, output);
+                evaluator.printMetrics(elapsed);
+                if (fixture != null) System.err.println("Calls missing from fixture: " + fixture.getMisses());
+            }
+        }
+        catch (Exception e)
+        {
+            System.out.println("ERROR in batch evaluation:");
+            e.printStackTrace();
+        }
+        finally
+        {
+            try
+            {
+                if (recorder != null) recorder.close();
+            }
+            catch (IOException e)
+            {
+                e.printStackTrace();
+            }
+        }
+
+        Runtime.getRuntime().exit(0);
     }
 
     private void dumpTokenInfo()
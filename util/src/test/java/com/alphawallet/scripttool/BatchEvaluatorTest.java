@@ -0,0 +1,102 @@
+package com.alphawallet.scripttool;
+
+import com.alphawallet.scripttool.Ethereum.EthCallSource;
+import com.alphawallet.token.entity.ContractAddress;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+
+import org.junit.Test;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class BatchEvaluatorTest
+{
+    private static final File FIFA = new File("../lib/src/test/ts/fifa.tsml");
+    private static final ContractAddress HOLDING_CONTRACT = new ContractAddress(1, "0xA66A3F08068174e8F005112A8b2c7A507a822335");
+    private static final String OWNER_A = "0x0000000000000000000000000000000000000001";
+    private static final String OWNER_B = "0x0000000000000000000000000000000000000002";
+    private static final EthCallSource NO_CALLS = (chainId, from, to, data) -> null; //fifa attributes all come from the token ID
+
+    @Test
+    public void singleThreadKeepsInputOrder() throws Exception
+    {
+        BatchEvaluator evaluator = new BatchEvaluator(FIFA, HOLDING_CONTRACT, NO_CALLS, 1);
+        String input = OWNER_A + ",1\n"
+                + "# comment\n"
+                + "\n"
+                + OWNER_B + ",0x02\n"
+                + OWNER_A + ",3\n";
+
+        List<JsonObject> results = run(evaluator, input);
+
+        assertEquals(3, results.size());
+        assertEquals("1", results.get(0).get("tokenId").getAsString());
+        assertEquals("2", results.get(1).get("tokenId").getAsString());
+        assertEquals("3", results.get(2).get("tokenId").getAsString());
+        assertEquals(OWNER_B, results.get(1).get("owner").getAsString());
+        assertTrue(results.get(0).getAsJsonObject("attributes").has("match"));
+    }
+
+    @Test
+    public void failedPairDoesNotStopTheBatch() throws Exception
+    {
+        BatchEvaluator evaluator = new BatchEvaluator(FIFA, HOLDING_CONTRACT, NO_CALLS, 4);
+        StringBuilder input = new StringBuilder();
+        for (int i = 1; i <= 20; i++)
+        {
+            input.append(i == 7 ? "not-an-address" : OWNER_A).append(',').append(i).append('\n');
+        }
+        input.append(OWNER_B).append('\n'); //no token ID
+
+        List<JsonObject> results = run(evaluator, input.toString());
+
+        assertEquals(21, results.size());
+        List<String> tokenIds = new ArrayList<>();
+        List<String> failed = new ArrayList<>();
+        for (JsonObject result : results)
+        {
+            if (result.has("error"))
+            {
+                assertFalse(result.has("attributes"));
+                failed.add(result.get("input").getAsString());
+            }
+            else
+            {
+                assertTrue(result.has("attributes"));
+                tokenIds.add(result.get("tokenId").getAsString());
+            }
+        }
+
+        Collections.sort(failed);
+        assertEquals(2, failed.size());
+        assertEquals(OWNER_B, failed.get(0));
+        assertEquals("not-an-address,7", failed.get(1));
+        assertEquals(19, tokenIds.size());
+        assertFalse(tokenIds.contains("7"));
+    }
+
+    private static List<JsonObject> run(BatchEvaluator evaluator, String input) throws IOException, InterruptedException
+    {
+        StringWriter output = new StringWriter();
+        evaluator.run(new BufferedReader(new StringReader(input)), output);
+
+        List<JsonObject> results = new ArrayList<>();
+        JsonParser parser = new JsonParser();
+        for (String line : output.toString().split("\n"))
+        {
+            if (!line.isEmpty()) results.add(parser.parse(line).getAsJsonObject());
+        }
+        return results;
+    }
+}
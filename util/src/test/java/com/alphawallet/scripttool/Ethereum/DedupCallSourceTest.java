@@ -0,0 +1,123 @@
+package com.alphawallet.scripttool.Ethereum;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class DedupCallSourceTest
+{
+    private static final String FROM = "0x0000000000000000000000000000000000000001";
+    private static final String TO = "0x00000000000000000000000000000000000000AB";
+
+    @Test
+    public void concurrentCallsShareOneRequest() throws Exception
+    {
+        AtomicInteger made = new AtomicInteger();
+        DedupCallSource calls = new DedupCallSource((chainId, from, to, data) -> {
+            made.incrementAndGet();
+            sleep(50); //keep the call in flight while the others arrive
+            return "0x01";
+        });
+
+        int callers = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        try
+        {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < callers; i++)
+            {
+                results.add(executor.submit(() -> calls.ethCall(1, FROM, TO, "0x06fdde03")));
+            }
+            for (Future<String> result : results) assertEquals("0x01", result.get(10, TimeUnit.SECONDS));
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+
+        assertEquals(1, made.get());
+        assertEquals(callers, calls.getRequests());
+        assertEquals(callers - 1, calls.getHits());
+    }
+
+    @Test
+    public void callsDifferingOnlyInCaseAreShared() throws IOException
+    {
+        AtomicInteger made = new AtomicInteger();
+        DedupCallSource calls = new DedupCallSource((chainId, from, to, data) -> "0x" + made.incrementAndGet());
+
+        assertEquals("0x1", calls.ethCall(1, FROM, TO, "0xABCD"));
+        assertEquals("0x1", calls.ethCall(1, FROM, TO.toLowerCase(), "0xabcd"));
+        assertEquals("0x2", calls.ethCall(3, FROM, TO, "0xabcd"));
+        assertEquals(2, made.get());
+    }
+
+    @Test
+    public void failedCallIsMadeAgain() throws IOException
+    {
+        AtomicInteger made = new AtomicInteger();
+        DedupCallSource calls = new DedupCallSource((chainId, from, to, data) -> {
+            if (made.incrementAndGet() == 1) throw new IOException("node unavailable");
+            return "0x01";
+        });
+
+        try
+        {
+            calls.ethCall(1, FROM, TO, "0x06fdde03");
+            fail("Expected the first call to fail");
+        }
+        catch (IOException e)
+        {
+            assertEquals("node unavailable", e.getMessage());
+        }
+
+        assertEquals("0x01", calls.ethCall(1, FROM, TO, "0x06fdde03"));
+        assertEquals(2, made.get());
+    }
+
+    @Test
+    public void leastRecentlyUsedCallIsEvicted() throws IOException
+    {
+        int maxCalls = 4096;
+        List<String> made = new ArrayList<>();
+        DedupCallSource calls = new DedupCallSource((chainId, from, to, data) -> {
+            made.add(data);
+            return data;
+        });
+
+        calls.ethCall(1, FROM, TO, "0xaa");
+        for (int i = 1; i < maxCalls; i++) calls.ethCall(1, FROM, TO, "0x" + i); //fills the cache
+        calls.ethCall(1, FROM, TO, "0xaa");                                      //now the most recently used
+        calls.ethCall(1, FROM, TO, "0x" + maxCalls);                             //evicts "0x1"
+        assertEquals(maxCalls + 1, made.size());
+
+        calls.ethCall(1, FROM, TO, "0xaa");
+        assertEquals(maxCalls + 1, made.size());
+
+        calls.ethCall(1, FROM, TO, "0x1");
+        assertEquals(maxCalls + 2, made.size());
+        assertEquals("0x1", made.get(made.size() - 1));
+    }
+
+    private static void sleep(long millis)
+    {
+        try
+        {
+            Thread.sleep(millis);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.alphawallet.scripttool.Ethereum;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class RecordingCallSourceTest
+{
+    private static final String FROM = "0x0000000000000000000000000000000000000001";
+    private static final String TO = "0x00000000000000000000000000000000000000AB";
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void recordedCallsReplayFromFixture() throws IOException
+    {
+        File fixture = folder.newFile("calls.jsonl");
+        RecordingCallSource recorder = new RecordingCallSource((chainId, from, to, data) -> {
+            if (data.equals("0xdead")) return null; //no answer from the node
+            return "0x" + chainId + data.substring(2);
+        }, fixture);
+
+        assertEquals("0x106fdde03", recorder.ethCall(1, FROM, TO, "0x06fdde03"));
+        assertEquals("0x306fdde03", recorder.ethCall(3, FROM, TO, "0x06fdde03"));
+        assertNull(recorder.ethCall(1, FROM, TO, "0xdead"));
+        recorder.close();
+
+        FixtureCallSource replay = new FixtureCallSource(fixture);
+        assertEquals(3, replay.size());
+        assertEquals("0x106fdde03", replay.ethCall(1, FROM, TO, "0x06fdde03"));
+        assertEquals("0x306fdde03", replay.ethCall(3, FROM, TO.toLowerCase(), "0x06FDDE03"));
+        assertNull(replay.ethCall(1, FROM, TO, "0xdead"));
+        assertEquals(0, replay.getMisses());
+
+        assertNull(replay.ethCall(42, FROM, TO, "0x06fdde03"));
+        assertEquals(1, replay.getMisses());
+    }
+}